@@ -0,0 +1,19 @@
+package no.kantega.bigdata.linearalgebra;
+
+/**
+ * Represents an operation accepting a matrix element, given its position and value.
+ * The primitive parameters avoid allocating a position and boxing the value for every element.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+@FunctionalInterface
+public interface ElementConsumer {
+    /**
+     * Performs this operation on the element
+     *
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @param value the element value
+     */
+    void accept(int row, int col, double value);
+}
@@ -0,0 +1,20 @@
+package no.kantega.bigdata.linearalgebra;
+
+/**
+ * Represents a function computing a new value of a matrix element from its position and current value.
+ * The primitive parameters avoid allocating a position and boxing the value for every element.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+@FunctionalInterface
+public interface ElementFunction {
+    /**
+     * Computes the new element value
+     *
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @param value the current element value
+     * @return the new element value
+     */
+    double apply(int row, int col, double value);
+}
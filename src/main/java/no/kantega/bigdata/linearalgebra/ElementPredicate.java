@@ -0,0 +1,20 @@
+package no.kantega.bigdata.linearalgebra;
+
+/**
+ * Represents a predicate on a matrix element, given its position and value.
+ * The primitive parameters avoid allocating a position and boxing the value for every element.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+@FunctionalInterface
+public interface ElementPredicate {
+    /**
+     * Evaluates this predicate on the element
+     *
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @param value the element value
+     * @return true if the element matches the predicate; else false
+     */
+    boolean test(int row, int col, double value);
+}
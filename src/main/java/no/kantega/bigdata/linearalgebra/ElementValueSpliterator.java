@@ -0,0 +1,87 @@
+package no.kantega.bigdata.linearalgebra;
+
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implements a spliterator over the element values of a matrix buffer in row major order.
+ * Splits by halving its range of linear indices, and reports its exact size.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+class ElementValueSpliterator implements Spliterator.OfDouble {
+    private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL;
+
+    private final MatrixBuffer elements;
+    private final int cols;
+    private long index;
+    private final long end;
+
+    ElementValueSpliterator(MatrixBuffer elements) {
+        this(elements, 0, (long) elements.size().rows() * elements.size().cols());
+    }
+
+    private ElementValueSpliterator(MatrixBuffer elements, long index, long end) {
+        this.elements = elements;
+        this.cols = elements.size().cols();
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(DoubleConsumer action) {
+        requireNonNull(action, "action can't be null");
+        if (index >= end) {
+            return false;
+        }
+
+        action.accept(elements.get((int) (index / cols), (int) (index % cols)));
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(DoubleConsumer action) {
+        requireNonNull(action, "action can't be null");
+        if (index >= end) {
+            return;
+        }
+
+        int row = (int) (index / cols);
+        int col = (int) (index % cols);
+        for (; index < end; index++) {
+            action.accept(elements.get(row, col));
+            if (++col == cols) {
+                col = 0;
+                row++;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator.OfDouble trySplit() {
+        long remaining = end - index;
+        if (remaining < 2) {
+            return null;
+        }
+
+        long mid = index + remaining / 2;
+        ElementValueSpliterator prefix = new ElementValueSpliterator(elements, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+}
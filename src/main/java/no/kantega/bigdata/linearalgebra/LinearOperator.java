@@ -0,0 +1,253 @@
+package no.kantega.bigdata.linearalgebra;
+
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Represents a linear operator y = Ax, known by its action on vectors only.
+ *
+ * Iterative solvers, such as the Krylov eigensolvers, need nothing but the products with the operator, so they
+ * work on dense and sparse matrices as well as on operators that are never formed, such as user callbacks
+ * computing the products on the fly. {@link Matrix} is an operator itself, and matrix buffers, such as the compressed
+ * sparse buffers, are adapted by {@link #of(MatrixBuffer)}.
+ *
+ * Operators are combined into sums, products, transposes and scaled operators that apply their parts in turn,
+ * never forming the combined matrix. For instance, the Gram matrix A'A of an m x n matrix A is applied by two
+ * products with A, taking O(mn) operations rather than the O(mn^2) of forming it. Combinations needing
+ * intermediate results hold a work vector allocated once, so they must not be applied by several threads at once.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public interface LinearOperator {
+    /**
+     * Gets the size of the operator, being the dimension of y by the dimension of x
+     *
+     * @return the operator size
+     */
+    Size size();
+
+    /**
+     * Applies the operator to x, overwriting y by Ax. Implementations must not allocate vectors per call, as the
+     * operator is typically applied in the inner loop of an iterative solver.
+     *
+     * @param x the vector to apply the operator to
+     * @param y the vector receiving the result, being distinct from x
+     */
+    void apply(Vector x, Vector y);
+
+    /**
+     * Applies the transposed operator to x, overwriting y by A'x.
+     *
+     * @param x the vector to apply the transposed operator to, having dimension equal to the number of rows
+     * @param y the vector receiving the result, being distinct from x
+     */
+    void applyTranspose(Vector x, Vector y);
+
+    /**
+     * Gets the transpose of this operator as a view, swapping the products with the operator and its transpose.
+     * Unlike {@link Matrix#transpose()}, the operator itself is left as is.
+     *
+     * @return the operator A'
+     */
+    default LinearOperator asTransposedOperator() {
+        LinearOperator operator = this;
+        return new LinearOperator() {
+            private final Size size = Size.of(operator.size().cols(), operator.size().rows());
+
+            @Override
+            public Size size() {
+                return size;
+            }
+
+            @Override
+            public void apply(Vector x, Vector y) {
+                operator.applyTranspose(x, y);
+            }
+
+            @Override
+            public void applyTranspose(Vector x, Vector y) {
+                operator.apply(x, y);
+            }
+
+            @Override
+            public LinearOperator asTransposedOperator() {
+                return operator;
+            }
+        };
+    }
+
+    /**
+     * Gets this operator multiplied by a scalar
+     *
+     * @param factor the scalar to multiply with
+     * @return the operator factor * A
+     */
+    default LinearOperator scaled(double factor) {
+        LinearOperator operator = this;
+        return new LinearOperator() {
+            @Override
+            public Size size() {
+                return operator.size();
+            }
+
+            @Override
+            public void apply(Vector x, Vector y) {
+                operator.apply(x, y);
+                y.multiply(factor);
+            }
+
+            @Override
+            public void applyTranspose(Vector x, Vector y) {
+                operator.applyTranspose(x, y);
+                y.multiply(factor);
+            }
+        };
+    }
+
+    /**
+     * Gets the sum of this operator and the specified one, having the same size
+     *
+     * @param other the operator B to add
+     * @return the operator A + B
+     */
+    default LinearOperator sum(LinearOperator other) {
+        requireNonNull(other, "other can't be null");
+        require(() -> other.size().equals(size()), "can't add operators of different size");
+
+        LinearOperator operator = this;
+        Vector rows = Vector.zero(size().rows());
+        Vector cols = Vector.zero(size().cols());
+        return new LinearOperator() {
+            @Override
+            public Size size() {
+                return operator.size();
+            }
+
+            @Override
+            public void apply(Vector x, Vector y) {
+                operator.apply(x, y);
+                other.apply(x, rows);
+                y.add(rows);
+            }
+
+            @Override
+            public void applyTranspose(Vector x, Vector y) {
+                operator.applyTranspose(x, y);
+                other.applyTranspose(x, cols);
+                y.add(cols);
+            }
+        };
+    }
+
+    /**
+     * Gets the product of this operator and the specified one, applying the specified one first
+     *
+     * @param other the operator B to multiply with, having as many rows as this operator has columns
+     * @return the operator AB
+     */
+    default LinearOperator product(LinearOperator other) {
+        requireNonNull(other, "other can't be null");
+        require(() -> other.size().rows() == size().cols(), "number of rows of other must match number of columns of operator");
+
+        LinearOperator operator = this;
+        Size size = Size.of(size().rows(), other.size().cols());
+        Vector work = Vector.zero(other.size().rows());
+        return new LinearOperator() {
+            @Override
+            public Size size() {
+                return size;
+            }
+
+            @Override
+            public void apply(Vector x, Vector y) {
+                other.apply(x, work);
+                operator.apply(work, y);
+            }
+
+            @Override
+            public void applyTranspose(Vector x, Vector y) {
+                operator.applyTranspose(x, work);
+                other.applyTranspose(work, y);
+            }
+        };
+    }
+
+    /**
+     * Creates an operator computing the products with specified buffer, which is shared, not copied. Compressed
+     * sparse buffers are applied in O(nnz) operations, as are their transposes.
+     *
+     * @param buffer the matrix buffer
+     * @return the buffer as an operator
+     */
+    static LinearOperator of(MatrixBuffer buffer) {
+        requireNonNull(buffer, "buffer can't be null");
+        return Matrix.from(buffer);
+    }
+
+    /**
+     * Creates an operator computing the products with the operator and its transpose by specified callbacks. Both
+     * are required, as the combinations of operators and the solvers may apply the transpose.
+     *
+     * @param size the size of the operator
+     * @param action the callback overwriting its second argument by the product with its first one
+     * @param transposeAction the callback overwriting its second argument by the product of the transpose with its
+     *                        first one
+     * @return the callbacks as an operator
+     */
+    static LinearOperator of(Size size, BiConsumer<Vector, Vector> action, BiConsumer<Vector, Vector> transposeAction) {
+        requireNonNull(size, "size can't be null");
+        requireNonNull(action, "action can't be null");
+        requireNonNull(transposeAction, "transposeAction can't be null");
+        return new LinearOperator() {
+            @Override
+            public Size size() {
+                return size;
+            }
+
+            @Override
+            public void apply(Vector x, Vector y) {
+                require(() -> x.dimension() == size.cols(), "dimension of x must match number of columns of operator");
+                require(() -> y.dimension() == size.rows(), "dimension of y must match number of rows of operator");
+                action.accept(x, y);
+            }
+
+            @Override
+            public void applyTranspose(Vector x, Vector y) {
+                require(() -> x.dimension() == size.rows(), "dimension of x must match number of rows of operator");
+                require(() -> y.dimension() == size.cols(), "dimension of y must match number of columns of operator");
+                transposeAction.accept(x, y);
+            }
+        };
+    }
+
+    /**
+     * Creates a symmetric operator computing the products by specified callback, being its own transpose
+     *
+     * @param dimension the number of rows and columns of the operator
+     * @param action the callback overwriting its second argument by the product with its first one
+     * @return the callback as an operator
+     */
+    static LinearOperator symmetric(int dimension, BiConsumer<Vector, Vector> action) {
+        return of(Size.of(dimension, dimension), action, action);
+    }
+
+    /**
+     * Creates a diagonal operator, scaling each component by the corresponding diagonal element
+     *
+     * @param diagonal the diagonal elements
+     * @return the diagonal operator
+     */
+    static LinearOperator diagonal(Vector diagonal) {
+        requireNonNull(diagonal, "diagonal can't be null");
+        Vector d = diagonal.copy();
+        return symmetric(d.dimension(), (x, y) -> {
+            for (int i = 1; i <= d.dimension(); i++) {
+                y.setAt(i, d.at(i) * x.at(i));
+            }
+        });
+    }
+}
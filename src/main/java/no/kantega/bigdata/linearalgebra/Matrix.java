@@ -1,29 +1,67 @@
 package no.kantega.bigdata.linearalgebra;
 
+import no.kantega.bigdata.linearalgebra.algorithms.BandLUDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.BandLUDecompositionResult;
+import no.kantega.bigdata.linearalgebra.algorithms.BandOperations;
+import no.kantega.bigdata.linearalgebra.algorithms.BlockedCholeskyDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.BlockedLUDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.BlockedQRDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.CholeskyDecompositionResult;
+import no.kantega.bigdata.linearalgebra.algorithms.EigenDecompositionResult;
+import no.kantega.bigdata.linearalgebra.algorithms.JacobiSVD;
 import no.kantega.bigdata.linearalgebra.algorithms.LUDecompositionResult;
+import no.kantega.bigdata.linearalgebra.algorithms.MatrixMultiplication;
+import no.kantega.bigdata.linearalgebra.algorithms.OutOfCoreLUDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.OutOfCoreMultiplication;
+import no.kantega.bigdata.linearalgebra.algorithms.QRDecompositionResult;
+import no.kantega.bigdata.linearalgebra.algorithms.RandomizedSVD;
+import no.kantega.bigdata.linearalgebra.algorithms.RankRevealingQR;
+import no.kantega.bigdata.linearalgebra.algorithms.SVDResult;
+import no.kantega.bigdata.linearalgebra.algorithms.SparseOperations;
+import no.kantega.bigdata.linearalgebra.algorithms.StrassenMultiplication;
+import no.kantega.bigdata.linearalgebra.algorithms.SymmetricEigenDecomposition;
+import no.kantega.bigdata.linearalgebra.algorithms.SymmetricOperations;
+import no.kantega.bigdata.linearalgebra.algorithms.TriangularOperations;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixStructure;
+import no.kantega.bigdata.linearalgebra.buffer.SymmetricPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.TriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
 import no.kantega.bigdata.linearalgebra.utils.NumberFormatter;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.requireNonNull;
 import static no.kantega.bigdata.linearalgebra.utils.Assert.precondition;
 import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
-import static no.kantega.bigdata.linearalgebra.utils.StreamUtils.asStream;
 
 /**
  * Implements a matrix
  *
+ * A matrix is a {@link LinearOperator}, so it may be passed to the iterative algorithms directly, or combined with
+ * other operators.
+ *
  * @author Tore Eide Andersen (Kantega AS)
  */
-public class Matrix {
+public class Matrix implements LinearOperator {
     private static final double TINY = 1e-20;
 
     private Size size;
@@ -48,7 +86,7 @@ public class Matrix {
      */
     public static Matrix identity(int size) {
         require(() -> size > 0, "size must be greater than 0");
-        return new Matrix(size, size).transform((p, v) -> p.isOnDiagonal() ? 1.0d : 0.0d);
+        return new Matrix(size, size).transformElements((i, j, v) -> i == j ? 1.0d : 0.0d);
     }
 
     /**
@@ -74,7 +112,7 @@ public class Matrix {
         requireNonNull(values, "values can't be null");
         require(() -> rows * cols == values.length, "values array must contain exactly %d x %d elements", rows, cols);
 
-        return new Matrix(rows, cols).transform((p, v) -> values[p.row() * cols + p.col()]);
+        return new Matrix(rows, cols).transformElements((i, j, v) -> values[i * cols + j]);
     }
 
     /**
@@ -140,6 +178,7 @@ public class Matrix {
      *
      * @return the matrix size
      */
+    @Override
     public Size size() {
         return size;
     }
@@ -161,12 +200,51 @@ public class Matrix {
      * have 0-1 variables and a column consists of only 0 or only 1. In that case, the rank of the matrix A is less than
      * n and A^TxA has no inverse.
      *
+     * The rank is found by QR decomposition with column pivoting, see {@link RankRevealingQR}, considering the
+     * columns having a remaining norm of at most max(m, n) times the spacing of doubles at the largest column norm
+     * as dependent.
+     *
      * @return the matrix rank
      */
     public int rank() {
-        // TODO: Reduce matrix to row echelon form +
-        // Reduce matrix to reduced row echelon form
-        return 0;
+        return rank(Parallelism.sequential());
+    }
+
+    /**
+     * Gets the matrix rank, splitting the work into parallel tasks according to specified setting.
+     *
+     * @param parallelism the parallel setting
+     * @return the matrix rank
+     * @see #rank()
+     */
+    public int rank(Parallelism parallelism) {
+        return RankRevealingQR.rank(elements, parallelism);
+    }
+
+    /**
+     * Gets the matrix rank, considering the columns having a remaining norm of at most the specified tolerance as
+     * dependent. This is a lower bound on the number of singular values above the tolerance, and is typically
+     * equal to it.
+     *
+     * @param tolerance the tolerance
+     * @return the matrix rank
+     * @see #rank()
+     */
+    public int rank(double tolerance) {
+        return rank(tolerance, Parallelism.sequential());
+    }
+
+    /**
+     * Gets the matrix rank using the specified tolerance, splitting the work into parallel tasks according to
+     * specified setting.
+     *
+     * @param tolerance the tolerance
+     * @param parallelism the parallel setting
+     * @return the matrix rank
+     * @see #rank(double)
+     */
+    public int rank(double tolerance, Parallelism parallelism) {
+        return RankRevealingQR.rank(elements, tolerance, parallelism);
     }
 
     /**
@@ -174,11 +252,28 @@ public class Matrix {
      *
      * The trace of a matrix is the sum of its diagonal elements (a11 + a22 + .. + ann).
      *
+     * The diagonal is walked directly, stepping by the sum of the strides for array backed buffers.
+     *
      * @return the matrix trace
      */
     public double trace() {
-        // TODO
-        return 0.0d;
+        precondition(this::isSquare, "The trace can be computed on a square matrix only");
+
+        int n = size.rows();
+        double sum = 0.0d;
+        if (elements instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            double[] values = buffer.array();
+            int step = buffer.rowStride() + buffer.columnStride();
+            for (int i = 0, address = buffer.offset(); i < n; i++, address += step) {
+                sum += values[address];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                sum += elements.get(i, i);
+            }
+        }
+        return sum;
     }
 
     /**
@@ -197,7 +292,7 @@ public class Matrix {
      * @return true if this is an identity matrix; else false
      */
     public boolean isIdentity() {
-        return isSquare() && !anyMatch((p,v) -> p.isOnDiagonal() ? v != 1.0d : v != 0.0d);
+        return isSquare() && !anyElementMatch((i, j, v) -> i == j ? v != 1.0d : v != 0.0d);
     }
 
     /**
@@ -207,7 +302,7 @@ public class Matrix {
      * @return true if this is a zero matrix; else false
      */
     public boolean isZero() {
-        return !anyMatch((p,v) -> v != 0.0d);
+        return !anyValueMatch(v -> v != 0.0d);
     }
 
     /**
@@ -217,7 +312,7 @@ public class Matrix {
      * @return true if this is a diagonal matrix; else false
      */
     public boolean isDiagonal() {
-        return isSquare() && !anyMatch((p,v) -> p.isOnDiagonal() ? v == 0.0d : v != 0.0d);
+        return isSquare() && !anyElementMatch((i, j, v) -> i == j ? v == 0.0d : v != 0.0d);
     }
 
     /**
@@ -227,7 +322,10 @@ public class Matrix {
      * @return true if this matrix is a symmetrical matrix; else false
      */
     public boolean isSymmetrical() {
-        return isSquare() && !lowerTriangularPositions().anyMatch((p) -> elements.get(p.row(), p.col()) != elements.get(p.col(), p.row()));
+        if (elements.structure() == MatrixStructure.SYMMETRIC) {
+            return true;
+        }
+        return isSquare() && !anyElementMatch((i, j, v) -> i > j && v != elements.get(j, i));
     }
 
     /**
@@ -237,7 +335,21 @@ public class Matrix {
      * @return true if this matrix is triangular; else false
      */
     public boolean isTriangular() {
-        return isUpperTriangular() || isLowerTriangular();
+        if (elements.structure().isTriangular()) {
+            return true;
+        }
+        if (!isSquare()) {
+            return false;
+        }
+
+        // A single pass, stopping as soon as non-zero elements are seen on both sides of the diagonal
+        boolean[] nonZero = new boolean[2];
+        return !anyElementMatch((i, j, v) -> {
+            if (v != 0.0d && i != j) {
+                nonZero[i > j ? 0 : 1] = true;
+            }
+            return nonZero[0] && nonZero[1];
+        });
     }
 
     /**
@@ -247,7 +359,10 @@ public class Matrix {
      * @return true if this matrix is upper triangular; else false
      */
     public boolean isUpperTriangular() {
-        return isSquare() && !anyMatch((p,v) -> p.isBelowDiagonal() && v != 0.0d);
+        if (elements.structure() == MatrixStructure.UPPER_TRIANGULAR) {
+            return true;
+        }
+        return isSquare() && !anyElementMatch((i, j, v) -> i > j && v != 0.0d);
     }
 
     /**
@@ -257,7 +372,10 @@ public class Matrix {
      * @return true if this matrix is lower triangular; else false
      */
     public boolean isLowerTriangular() {
-        return isSquare() && !anyMatch((p,v) -> p.isAboveDiagonal() && v != 0.0d);
+        if (elements.structure() == MatrixStructure.LOWER_TRIANGULAR) {
+            return true;
+        }
+        return isSquare() && !anyElementMatch((i, j, v) -> i < j && v != 0.0d);
     }
 
     /**
@@ -493,7 +611,19 @@ public class Matrix {
      * @return the populated matrix
      */
     public Matrix populate(Supplier<Double> valueSupplier) {
-        return transform((p, v) -> valueSupplier.get());
+        requireNonNull(valueSupplier, "valueSupplier can't be null");
+        return populate((DoubleSupplier) valueSupplier::get);
+    }
+
+    /**
+     * Populates the matrix with element values from specified primitive supplier
+     *
+     * @param valueSupplier the element value supplier
+     * @return the populated matrix
+     */
+    public Matrix populate(DoubleSupplier valueSupplier) {
+        requireNonNull(valueSupplier, "valueSupplier can't be null");
+        return transformValues(v -> valueSupplier.getAsDouble());
     }
 
     /**
@@ -523,6 +653,33 @@ public class Matrix {
         return new Matrix(elements.copy());
     }
 
+    /**
+     * Gets a view of a rectangular block of this matrix, without copying any elements.
+     *
+     * The view shares the elements with this matrix, so changes to either are visible in both. Operations on the
+     * view work on the block only, e.g. to run blocked algorithms, or to hand partitions of a large matrix to
+     * parallel workers. Use {@link #copy()} on the view to get a block of its own.
+     *
+     * A view of a matrix of special structure, e.g. symmetric packed, passes writes on to the matrix, which mirrors
+     * them or rejects non-zero values outside its structure. Operations that may break the structure, such as
+     * {@link #transformElements(ElementFunction)} or {@link #add(Matrix)}, throw IllegalStateException on such a
+     * view, as the view can't be given a general buffer of its own.
+     *
+     * @param rowFrom the first row of the block (1-based, inclusive)
+     * @param rowTo the last row of the block (1-based, inclusive)
+     * @param colFrom the first column of the block (1-based, inclusive)
+     * @param colTo the last column of the block (1-based, inclusive)
+     * @return the view
+     */
+    public Matrix view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        requireValidRow(rowFrom);
+        requireValidRow(rowTo);
+        requireValidColumn(colFrom);
+        requireValidColumn(colTo);
+        require(() -> rowFrom <= rowTo && colFrom <= colTo, "block can't be empty");
+        return new Matrix(elements.view(rowFrom - 1, rowTo, colFrom - 1, colTo));
+    }
+
     /**
      * Calculates the matrix product of this and the specified matrix.
      *
@@ -532,38 +689,254 @@ public class Matrix {
      * and B is an m × p matrix, their matrix product AB is an n × p matrix, in which the m entries across the rows of
      * A are multiplied with the m entries down the columns of B.
      *
-     * This method performs matrix multiplication using the naïve O(n^3) algorithm. For square matrices whose sizes are powers of two,
-     * the Strassen algorithm is much faster (O(n^2.8)) than the naïve algorithm. For other cases, it is significantly
-     * slower.
+     * This method performs matrix multiplication using the naïve O(n^3) algorithm. For large square matrices,
+     * the Strassen algorithm is faster (O(n^2.8)) than the naïve algorithm, see {@link #multiplyStrassen(Matrix)}.
+     * For small matrices, it is significantly slower.
+     *
+     * The product is computed by the cache blocked kernel in {@link MatrixMultiplication}, working directly on the
+     * backing arrays when both matrices are backed by arrays. The work is done single-threaded in the calling thread.
      *
      * @param other the matrix to be multiplied with
      * @return the matrix product
      */
     public Matrix multiply(Matrix other) {
+        return multiply(other, Parallelism.sequential());
+    }
+
+    /**
+     * Calculates the matrix product of this and the specified matrix, splitting the work into parallel
+     * tasks according to specified setting.
+     *
+     * @param other the matrix to be multiplied with
+     * @param parallelism the parallel setting
+     * @return the matrix product
+     * @see #multiply(Matrix)
+     */
+    public Matrix multiply(Matrix other, Parallelism parallelism) {
         requireNonNull(other, "other can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
         require(() -> size().cols() == other.size().rows(), "number of columns in first matrix must match number of rows in second matrix");
 
+        if (elements instanceof CompressedMatrixBuffer && other.elements instanceof CompressedMatrixBuffer) {
+            return new Matrix(SparseOperations.multiply((CompressedMatrixBuffer) elements, (CompressedMatrixBuffer) other.elements));
+        }
+
         Matrix result = new Matrix(this.size().rows(), other.size().cols());
-        result.transform((p, v) -> {
-            Vector rowVectorA = this.rowVector(p.row()+1);
-            Vector colVectorB = other.columnVector(p.col()+1);
-            return rowVectorA.innerProduct(colVectorB);
-        });
+        if (elements instanceof SymmetricPackedMatrixBuffer) {
+            SymmetricOperations.multiply(1.0d, (SymmetricPackedMatrixBuffer) elements, other.elements, 0.0d, result.elements);
+        } else if (other.elements instanceof SymmetricPackedMatrixBuffer) {
+            // C = A * B is computed as C' = B * A', as the symmetric B is its own transpose
+            SymmetricOperations.multiply(1.0d, (SymmetricPackedMatrixBuffer) other.elements, elements.transpose(), 0.0d, result.elements.transpose());
+        } else if (elements instanceof TriangularPackedMatrixBuffer) {
+            TriangularOperations.multiply(1.0d, (TriangularPackedMatrixBuffer) elements, other.elements, 0.0d, result.elements);
+        } else if (other.elements instanceof TriangularPackedMatrixBuffer) {
+            // C = A * B is computed as C' = B' * A', where the transposed triangle shares the packed array
+            TriangularPackedMatrixBuffer otherTransposed = ((TriangularPackedMatrixBuffer) other.elements).transpose();
+            TriangularOperations.multiply(1.0d, otherTransposed, elements.transpose(), 0.0d, result.elements.transpose());
+        } else if (elements instanceof CompressedMatrixBuffer) {
+            SparseOperations.multiply(1.0d, (CompressedMatrixBuffer) elements, other.elements, 0.0d, result.elements);
+        } else if (other.elements instanceof CompressedMatrixBuffer) {
+            // C = A * B is computed as C' = B' * A', where the transposed sparse matrix is the sparse operand
+            CompressedMatrixBuffer otherTransposed = ((CompressedMatrixBuffer) other.elements).transpose();
+            SparseOperations.multiply(1.0d, otherTransposed, elements.transpose(), 0.0d, result.elements.transpose());
+        } else {
+            MatrixMultiplication.multiply(1.0d, elements, other.elements, 0.0d, result.elements, parallelism);
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the product of this matrix and the specified column vector, i.e. Ax.
+     *
+     * Sparse and banded matrices visit their stored elements only, and symmetric packed matrices read each stored
+     * element once.
+     *
+     * @param vector the vector to be multiplied with, having dimension equal to the number of columns
+     * @return the product vector, having dimension equal to the number of rows
+     */
+    public Vector multiply(Vector vector) {
+        requireNonNull(vector, "vector can't be null");
+
+        Vector result = Vector.zero(size.rows());
+        multiply(vector, result);
+        return result;
+    }
+
+    /**
+     * Calculates the product of this matrix and the specified column vector into the specified result vector,
+     * allocating nothing. This is the product used when the matrix is applied as a {@link LinearOperator}.
+     *
+     * @param vector the vector to be multiplied with, having dimension equal to the number of columns
+     * @param result the vector receiving the product, having dimension equal to the number of rows
+     * @see #multiply(Vector)
+     */
+    public void multiply(Vector vector, Vector result) {
+        requireNonNull(vector, "vector can't be null");
+        requireNonNull(result, "result can't be null");
+        require(() -> size().cols() == vector.dimension(), "number of columns in matrix must match dimension of vector");
+        require(() -> size().rows() == result.dimension(), "number of rows in matrix must match dimension of result");
+
+        multiply(elements, vector.buffer(), result.buffer());
+    }
+
+    /**
+     * Calculates the product of the transpose of this matrix and the specified column vector into the specified
+     * result vector, i.e. A'x, allocating nothing. The transpose is a view of the elements, so it is never formed.
+     *
+     * @param vector the vector to be multiplied with, having dimension equal to the number of rows
+     * @param result the vector receiving the product, having dimension equal to the number of columns
+     */
+    public void multiplyTranspose(Vector vector, Vector result) {
+        requireNonNull(vector, "vector can't be null");
+        requireNonNull(result, "result can't be null");
+        require(() -> size().rows() == vector.dimension(), "number of rows in matrix must match dimension of vector");
+        require(() -> size().cols() == result.dimension(), "number of columns in matrix must match dimension of result");
+
+        multiply(elements.transpose(), vector.buffer(), result.buffer());
+    }
+
+    @Override
+    public void apply(Vector x, Vector y) {
+        multiply(x, y);
+    }
+
+    @Override
+    public void applyTranspose(Vector x, Vector y) {
+        multiplyTranspose(x, y);
+    }
 
-        // The implementation below is 30% slower than the above
-        /*for (int i=0; i<size.rows(); ++i) {
-            for (int j=0; j<other.size().cols(); ++j) {
-                double innerProduct = 0.0d;
-                for (int k=0; k<size.cols(); ++k) {
-                    innerProduct += elements.get(i, k) * other.elements.get(k, j);
+    private static void multiply(MatrixBuffer a, VectorBuffer x, VectorBuffer y) {
+        if (a instanceof CompressedMatrixBuffer) {
+            SparseOperations.multiply((CompressedMatrixBuffer) a, x, y);
+        } else if (a instanceof SymmetricPackedMatrixBuffer) {
+            SymmetricOperations.multiply(1.0d, (SymmetricPackedMatrixBuffer) a, x, 0.0d, y);
+        } else if (a instanceof BandMatrixBuffer) {
+            BandOperations.multiply(1.0d, (BandMatrixBuffer) a, x, 0.0d, y);
+        } else {
+            int rows = a.size().rows();
+            int cols = a.size().cols();
+            for (int i = 0; i < rows; i++) {
+                double sum = 0.0d;
+                for (int j = 0; j < cols; j++) {
+                    sum += a.get(i, j) * x.get(j);
                 }
-                result.elements.set(i, j, innerProduct);
+                y.set(i, sum);
             }
-        }*/
+        }
+    }
+
+    /**
+     * Calculates the Gram matrix of the columns of this matrix, i.e. A'A.
+     *
+     * The Gram matrix is symmetric, so only its lower triangle is computed, and it is stored packed,
+     * see {@link SymmetricOperations#rankKUpdate}.
+     *
+     * @return the Gram matrix, having the number of columns of this matrix as order
+     */
+    public Matrix gramMatrix() {
+        SymmetricPackedMatrixBuffer gram = SymmetricPackedMatrixBuffer.allocate(size.cols());
+        SymmetricOperations.rankKUpdate(1.0d, elements, true, 0.0d, gram);
+        return new Matrix(gram);
+    }
 
+    /**
+     * Performs the general matrix multiplication C = alpha * op(A) * op(B) + beta * C, where op(X) is either X or the
+     * transpose of X, accumulating into the existing matrix C.
+     *
+     * This is the GEMM operation of BLAS. The product is added to C in the same pass as it is computed, so no
+     * temporary matrix is allocated. A gradient style update C += A * B is done with alpha = 1 and beta = 1.
+     * Transposes are taken as views of the matrix buffers, so neither A nor B is copied or modified.
+     *
+     * @param alpha the scalar to multiply the product op(A) * op(B) with
+     * @param a the matrix A, being m x k after the optional transpose
+     * @param transposeA whether to use the transpose of A
+     * @param b the matrix B, being k x n after the optional transpose
+     * @param transposeB whether to use the transpose of B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, which must be distinct from A and B
+     * @return the matrix C after the operation
+     */
+    public static Matrix gemm(double alpha, Matrix a, boolean transposeA, Matrix b, boolean transposeB, double beta, Matrix c) {
+        return gemm(alpha, a, transposeA, b, transposeB, beta, c, Parallelism.sequential());
+    }
+
+    /**
+     * Performs the general matrix multiplication C = alpha * op(A) * op(B) + beta * C, splitting the work into
+     * parallel tasks according to specified setting.
+     *
+     * @param alpha the scalar to multiply the product op(A) * op(B) with
+     * @param a the matrix A, being m x k after the optional transpose
+     * @param transposeA whether to use the transpose of A
+     * @param b the matrix B, being k x n after the optional transpose
+     * @param transposeB whether to use the transpose of B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, which must be distinct from A and B
+     * @param parallelism the parallel setting
+     * @return the matrix C after the operation
+     * @see #gemm(double, Matrix, boolean, Matrix, boolean, double, Matrix)
+     */
+    public static Matrix gemm(double alpha, Matrix a, boolean transposeA, Matrix b, boolean transposeB, double beta,
+                              Matrix c, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+
+        MatrixMultiplication.multiply(alpha, a.elements, transposeA, b.elements, transposeB, beta, c.elements, parallelism);
+        return c;
+    }
+
+    /**
+     * Calculates the matrix product of this and the specified matrix using the Strassen-Winograd algorithm.
+     *
+     * The Strassen algorithm saves 1/8 of the floating point operations per level of recursion, at the cost of extra
+     * memory for temporary blocks and slightly larger rounding errors. It pays off for large matrices only, and
+     * falls back to the conventional algorithm below {@link StrassenMultiplication#DEFAULT_CUTOFF}.
+     *
+     * @param other the matrix to be multiplied with
+     * @return the matrix product
+     */
+    public Matrix multiplyStrassen(Matrix other) {
+        return multiplyStrassen(other, StrassenMultiplication.DEFAULT_CUTOFF, Parallelism.sequential());
+    }
+
+    /**
+     * Calculates the matrix product of this and the specified matrix using the Strassen-Winograd algorithm,
+     * computing the block products of each recursion level in parallel according to specified setting.
+     *
+     * @param other the matrix to be multiplied with
+     * @param cutoff the dimension below which the conventional algorithm is used
+     * @param parallelism the parallel setting
+     * @return the matrix product
+     * @see #multiplyStrassen(Matrix)
+     */
+    public Matrix multiplyStrassen(Matrix other, int cutoff, Parallelism parallelism) {
+        requireNonNull(other, "other can't be null");
+        require(() -> size().cols() == other.size().rows(), "number of columns in first matrix must match number of rows in second matrix");
+
+        Matrix result = new Matrix(this.size().rows(), other.size().cols());
+        StrassenMultiplication.multiply(elements, other.elements, result.elements, cutoff, parallelism);
         return result;
     }
 
+    /**
+     * Multiplies with specified matrix from the right, for matrices too large to be held in memory.
+     *
+     * The product is written to the specified buffer, typically a memory mapped one, streaming square tiles
+     * of the matrices through memory within the given budget. See {@link OutOfCoreMultiplication} for details.
+     *
+     * @param other the matrix to multiply with
+     * @param result the buffer receiving the product, must not share storage with this or the other matrix
+     * @param memoryBudget the maximum number of bytes to hold in memory for tiles
+     * @return the resulting matrix, backed by the result buffer
+     */
+    public Matrix multiplyOutOfCore(Matrix other, MatrixBuffer result, long memoryBudget) {
+        requireNonNull(other, "other can't be null");
+        require(() -> size().cols() == other.size().rows(), "number of columns in first matrix must match number of rows in second matrix");
+
+        OutOfCoreMultiplication.multiply(elements, other.elements, result, memoryBudget);
+        return new Matrix(result);
+    }
+
     /**
      * Multiplies with specified scalar value
      *
@@ -571,8 +944,7 @@ public class Matrix {
      * @return this matrix after multiplication
      */
     public Matrix multiplyScalar(double scalar) {
-        transform((p,v) -> v * scalar);
-        return this;
+        return transformStored(v -> v * scalar);
     }
 
     /**
@@ -582,8 +954,7 @@ public class Matrix {
      * @return this matrix after division
      */
     public Matrix divideScalar(double scalar) {
-        transform((p,v) -> v / scalar);
-        return this;
+        return transformStored(v -> v / scalar);
     }
 
     /**
@@ -595,8 +966,11 @@ public class Matrix {
     public Matrix add(Matrix other) {
         requireNonNull(other, "other can't be null");
         require(() -> size().equals(other.size()), "can't add a matrix of different size");
-        transform((p,v) -> v + other.elements.get(p.row(), p.col()));
-        return this;
+        if (elements instanceof CompressedMatrixBuffer || other.elements instanceof CompressedMatrixBuffer) {
+            ensureGeneralStructure();
+            return addSparse(other, 1.0d);
+        }
+        return combine(other, (v, w) -> v + w);
     }
 
     /**
@@ -608,7 +982,28 @@ public class Matrix {
     public Matrix subtract(Matrix other) {
         requireNonNull(other, "other can't be null");
         require(() -> size().equals(other.size()), "can't subtract a matrix of different size");
-        transform((p,v) -> v - other.elements.get(p.row(), p.col()));
+        if (elements instanceof CompressedMatrixBuffer || other.elements instanceof CompressedMatrixBuffer) {
+            ensureGeneralStructure();
+            return addSparse(other, -1.0d);
+        }
+        return combine(other, (v, w) -> v - w);
+    }
+
+    /**
+     * Adds factor times specified matrix to this matrix, when either is sparse. Only the stored elements of the
+     * sparse operand are visited. When this matrix is sparse and the other is dense, the sum is dense, so this
+     * matrix gets a dense buffer holding it.
+     */
+    private Matrix addSparse(Matrix other, double factor) {
+        if (other.elements instanceof CompressedMatrixBuffer) {
+            SparseOperations.addTo(factor, (CompressedMatrixBuffer) other.elements, elements);
+        } else {
+            CompressedMatrixBuffer sparse = (CompressedMatrixBuffer) elements;
+            elements = FixedRowMajorMatrixBuffer.allocate(size.rows(), size.cols());
+            MatrixBuffer dense = other.elements;
+            transformElements((i, j, v) -> factor * dense.get(i, j));
+            SparseOperations.addTo(1.0d, sparse, elements);
+        }
         return this;
     }
 
@@ -617,9 +1012,11 @@ public class Matrix {
      *
      * @param func the function transforming element values
      * @return this matrix after transformation
+     * @see #transformElements(ElementFunction)
      */
     public Matrix transform(BiFunction<Position, Double, Double> func) {
         requireNonNull(func, "func can't be null");
+        ensureGeneralStructure();
         rowMajorPositions().forEach(pos -> elements.set(pos.row(), pos.col(), func.apply(pos, elements.get(pos.row(), pos.col()))));
         return this;
     }
@@ -628,6 +1025,7 @@ public class Matrix {
      * Iterates over the element values, invoking specified consumer
      *
      * @param consumer the consumer to invoke on each element value
+     * @see #forEachElement(ElementConsumer)
      */
     public void forEach(BiConsumer<Position, Double> consumer) {
         requireNonNull(consumer, "consumer can't be null");
@@ -639,54 +1037,470 @@ public class Matrix {
      *
      * @param predicate the predicate to test
      * @return true if predicate holds for at least one element value
+     * @see #anyElementMatch(ElementPredicate)
      */
     public boolean anyMatch(BiPredicate<Position, Double> predicate) {
         requireNonNull(predicate, "predicate can't be null");
         return rowMajorPositions().anyMatch(pos -> predicate.test(pos, elements.get(pos.row(), pos.col())));
     }
 
+    /**
+     * Modifies the element values using the specified primitive function.
+     *
+     * The elements are visited in the order they are stored, and no objects are allocated per element.
+     * A matrix of special structure, e.g. symmetric packed, gets a general buffer first, as the function may
+     * break the structure.
+     *
+     * @param func the function transforming element values
+     * @return this matrix after transformation
+     */
+    public Matrix transformElements(ElementFunction func) {
+        requireNonNull(func, "func can't be null");
+        ensureGeneralStructure();
+        int rows = size.rows();
+        int cols = size.cols();
+
+        if (elements instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            double[] values = buffer.array();
+            int rs = buffer.rowStride();
+            int cs = buffer.columnStride();
+
+            if (cs <= rs) {
+                for (int i = 0; i < rows; i++) {
+                    int address = buffer.offset() + i * rs;
+                    for (int j = 0; j < cols; j++, address += cs) {
+                        values[address] = func.apply(i, j, values[address]);
+                    }
+                }
+            } else {
+                for (int j = 0; j < cols; j++) {
+                    int address = buffer.offset() + j * cs;
+                    for (int i = 0; i < rows; i++, address += rs) {
+                        values[address] = func.apply(i, j, values[address]);
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    elements.set(i, j, func.apply(i, j, elements.get(i, j)));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Iterates over the element values, invoking specified primitive consumer.
+     *
+     * The elements are visited in the order they are stored, and no objects are allocated per element.
+     *
+     * @param consumer the consumer to invoke on each element value
+     */
+    public void forEachElement(ElementConsumer consumer) {
+        requireNonNull(consumer, "consumer can't be null");
+        anyElementMatch((i, j, v) -> {
+            consumer.accept(i, j, v);
+            return false;
+        });
+    }
+
+    /**
+     * Tests whether specified primitive predicate holds for any element value.
+     *
+     * The elements are visited in the order they are stored, stopping at the first match.
+     * No objects are allocated per element.
+     *
+     * @param predicate the predicate to test
+     * @return true if predicate holds for at least one element value
+     */
+    public boolean anyElementMatch(ElementPredicate predicate) {
+        requireNonNull(predicate, "predicate can't be null");
+        int rows = size.rows();
+        int cols = size.cols();
+
+        if (elements instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            double[] values = buffer.array();
+            int rs = buffer.rowStride();
+            int cs = buffer.columnStride();
+
+            if (cs <= rs) {
+                for (int i = 0; i < rows; i++) {
+                    int address = buffer.offset() + i * rs;
+                    for (int j = 0; j < cols; j++, address += cs) {
+                        if (predicate.test(i, j, values[address])) {
+                            return true;
+                        }
+                    }
+                }
+            } else {
+                for (int j = 0; j < cols; j++) {
+                    int address = buffer.offset() + j * cs;
+                    for (int i = 0; i < rows; i++, address += rs) {
+                        if (predicate.test(i, j, values[address])) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        } else {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    if (predicate.test(i, j, elements.get(i, j))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Modifies the element values using the specified operator, not depending on element positions.
+     *
+     * When the elements are stored contiguously in an array, the operator is applied in a single linear
+     * pass over the array. A symmetric packed matrix keeps its structure, and the operator is applied once
+     * per stored element.
+     *
+     * @param operator the operator transforming element values
+     * @return this matrix after transformation
+     */
+    public Matrix transformValues(DoubleUnaryOperator operator) {
+        requireNonNull(operator, "operator can't be null");
+
+        if (elements instanceof SymmetricPackedMatrixBuffer) {
+            double[] values = ((SymmetricPackedMatrixBuffer) elements).array();
+            for (int index = 0; index < values.length; index++) {
+                values[index] = operator.applyAsDouble(values[index]);
+            }
+            return this;
+        } else if (isContiguous(elements)) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            double[] values = buffer.array();
+            int end = buffer.offset() + size.count();
+            for (int address = buffer.offset(); address < end; address++) {
+                values[address] = operator.applyAsDouble(values[address]);
+            }
+            return this;
+        } else {
+            return transformElements((i, j, v) -> operator.applyAsDouble(v));
+        }
+    }
+
+    /**
+     * Tests whether specified predicate holds for any element value, not depending on element positions.
+     *
+     * When the elements are stored contiguously in an array, the predicate is tested in a single linear
+     * pass over the array, stopping at the first match.
+     *
+     * @param predicate the predicate to test
+     * @return true if predicate holds for at least one element value
+     */
+    public boolean anyValueMatch(DoublePredicate predicate) {
+        requireNonNull(predicate, "predicate can't be null");
+
+        if (isContiguous(elements)) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            double[] values = buffer.array();
+            int end = buffer.offset() + size.count();
+            for (int address = buffer.offset(); address < end; address++) {
+                if (predicate.test(values[address])) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return anyElementMatch((i, j, v) -> predicate.test(v));
+        }
+    }
+
+    /**
+     * Combines each element value of this matrix with the value at the same position in specified matrix,
+     * using specified operator. When both matrices are stored contiguously in arrays of the same layout, the
+     * operator is applied in a single linear pass over both arrays, as it is when both are packed with the same
+     * structure.
+     */
+    private Matrix combine(Matrix other, DoubleBinaryOperator operator) {
+        double[] packed = packedValues(elements);
+        double[] otherPacked = packedValues(other.elements);
+        if (packed != null && otherPacked != null && elements.structure() == other.elements.structure()) {
+            for (int index = 0; index < packed.length; index++) {
+                packed[index] = operator.applyAsDouble(packed[index], otherPacked[index]);
+            }
+            return this;
+        }
+        if (isContiguous(elements) && isContiguous(other.elements)) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            ArrayBackedMatrixBuffer otherBuffer = (ArrayBackedMatrixBuffer) other.elements;
+
+            if (buffer.rowStride() == otherBuffer.rowStride() && buffer.columnStride() == otherBuffer.columnStride()) {
+                double[] values = buffer.array();
+                double[] otherValues = otherBuffer.array();
+                int offset = buffer.offset();
+                int otherOffset = otherBuffer.offset();
+                for (int index = 0; index < size.count(); index++) {
+                    values[offset + index] = operator.applyAsDouble(values[offset + index], otherValues[otherOffset + index]);
+                }
+                return this;
+            }
+        }
+
+        MatrixBuffer otherElements = other.elements;
+        return transformElements((i, j, v) -> operator.applyAsDouble(v, otherElements.get(i, j)));
+    }
+
+    /**
+     * Modifies the element values using specified operator, which maps zero to zero. Matrices of special structure
+     * keep their structure, as the operator is applied to the stored values only.
+     */
+    private Matrix transformStored(DoubleUnaryOperator operator) {
+        if (elements.isStructuredView()) {
+            // Written through to the matrix viewed. All values are read first, as a symmetric matrix mirrors writes,
+            // so elements may be visited twice.
+            MatrixBuffer values = elements.copy();
+            for (int i = 0; i < size.rows(); i++) {
+                for (int j = 0; j < size.cols(); j++) {
+                    double value = values.get(i, j);
+                    if (value != 0.0d) {
+                        elements.set(i, j, operator.applyAsDouble(value));
+                    }
+                }
+            }
+            return this;
+        }
+        if (elements instanceof CompressedMatrixBuffer) {
+            CompressedMatrixBuffer compressed = (CompressedMatrixBuffer) elements;
+            double[] values = compressed.values();
+            for (int entry = 0; entry < compressed.nonZeros(); entry++) {
+                values[entry] = operator.applyAsDouble(values[entry]);
+            }
+            return this;
+        }
+        double[] stored = packedValues(elements);
+        if (stored == null && elements instanceof BandMatrixBuffer) {
+            stored = ((BandMatrixBuffer) elements).array();
+        }
+        if (stored == null) {
+            return transformValues(operator);
+        }
+        for (int index = 0; index < stored.length; index++) {
+            stored[index] = operator.applyAsDouble(stored[index]);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the packed array of specified buffer when packed symmetric or triangular; else null
+     */
+    private static double[] packedValues(MatrixBuffer buffer) {
+        if (buffer instanceof SymmetricPackedMatrixBuffer) {
+            return ((SymmetricPackedMatrixBuffer) buffer).array();
+        } else if (buffer instanceof TriangularPackedMatrixBuffer) {
+            return ((TriangularPackedMatrixBuffer) buffer).array();
+        }
+        return null;
+    }
+
+    /**
+     * Replaces a buffer of special structure with a general buffer holding the same elements, before
+     * modifications that may break the structure.
+     */
+    private void ensureGeneralStructure() {
+        precondition(() -> !elements.isStructuredView(), "can't modify a view of a matrix of special structure like this, copy it first");
+        if (elements.structure() != MatrixStructure.GENERAL) {
+            MatrixBuffer structured = elements;
+            elements = FixedRowMajorMatrixBuffer.allocate(size.rows(), size.cols());
+            for (int i = 0; i < size.rows(); i++) {
+                for (int j = 0; j < size.cols(); j++) {
+                    elements.set(i, j, structured.get(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether specified buffer stores its elements without gaps in a single range of its array
+     */
+    private static boolean isContiguous(MatrixBuffer buffer) {
+        if (buffer instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer ab = (ArrayBackedMatrixBuffer) buffer;
+            Size size = ab.size();
+            return (ab.columnStride() == 1 && ab.rowStride() == size.cols())
+                || (ab.rowStride() == 1 && ab.columnStride() == size.rows());
+        }
+        return false;
+    }
+
     private IntStream rowIndices() {
-        return IntStream.rangeClosed(0, size.rows()-1).parallel();
+        return IntStream.range(0, size.rows());
     }
 
     private IntStream columnIndices() {
-        return IntStream.rangeClosed(0, size.cols()-1).parallel();
+        return IntStream.range(0, size.cols());
     }
 
     /**
-     * Gets a stream of element positions in row major order
+     * Gets a sequential stream of element positions in row major order
      *
      * @return a stream of positions
      */
     public Stream<Position> rowMajorPositions() {
-        return asStream(rowMajorPositionIterator(), true);
+        return rowMajorPositions(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of element positions in row major order, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly. Run the terminal operation by {@link Parallelism#compute} to
+     * split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of positions
+     */
+    public Stream<Position> rowMajorPositions(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        return StreamSupport.stream(PositionSpliterator.rowMajor(size), !parallelism.isSequential());
     }
 
     /**
-     * Gets a stream of element positions in column major order
+     * Gets a sequential stream of element positions in column major order
      *
      * @return a stream of positions
      */
     public Stream<Position> columnMajorPositions() {
-        return asStream(columnMajorPositionIterator(), true);
+        return columnMajorPositions(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of element positions in column major order, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly. Run the terminal operation by {@link Parallelism#compute} to
+     * split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of positions
+     */
+    public Stream<Position> columnMajorPositions(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        return StreamSupport.stream(PositionSpliterator.columnMajor(size), !parallelism.isSequential());
     }
 
     /**
-     * Gets a stream of element positions along the diagonal
+     * Gets a sequential stream of element positions along the diagonal
      *
      * @return a stream of diagonal positions
      */
     public Stream<Position> diagonalPositions() {
-        return asStream(diagonalPositionIterator(), true);
+        return diagonalPositions(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of element positions along the diagonal, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly. Run the terminal operation by {@link Parallelism#compute} to
+     * split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of diagonal positions
+     */
+    public Stream<Position> diagonalPositions(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        return StreamSupport.stream(PositionSpliterator.diagonal(size), !parallelism.isSequential());
     }
 
     /**
-     * Gets a stream of lower triangular element positions
+     * Gets a sequential stream of lower triangular element positions, i.e. below the diagonal, row by row
      *
      * @return a stream of lower triangular positions
      */
     public Stream<Position> lowerTriangularPositions() {
-        return asStream(lowerTriangularPositionIterator(), true);
+        return lowerTriangularPositions(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of lower triangular element positions, i.e. below the diagonal, row by row, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly. Run the terminal operation by {@link Parallelism#compute} to
+     * split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of lower triangular positions
+     */
+    public Stream<Position> lowerTriangularPositions(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        return StreamSupport.stream(PositionSpliterator.lowerTriangle(size), !parallelism.isSequential());
+    }
+
+    /**
+     * Gets a sequential stream of upper triangular element positions, i.e. above the diagonal, column by column
+     *
+     * @return a stream of upper triangular positions
+     */
+    public Stream<Position> upperTriangularPositions() {
+        return upperTriangularPositions(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of upper triangular element positions, i.e. above the diagonal, column by column, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly. Run the terminal operation by {@link Parallelism#compute} to
+     * split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of upper triangular positions
+     */
+    public Stream<Position> upperTriangularPositions(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        return StreamSupport.stream(PositionSpliterator.upperTriangle(size), !parallelism.isSequential());
+    }
+
+    /**
+     * Gets a sequential stream of the element values in row major order
+     *
+     * @return a stream of element values
+     */
+    public DoubleStream elementValues() {
+        return elementValues(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of the element values in row major order, being parallel unless the setting is sequential.
+     * The stream has a known size and splits evenly, so parallel reductions scale with the number of threads.
+     * Run the terminal operation by {@link Parallelism#compute} to split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of element values
+     */
+    public DoubleStream elementValues(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        boolean parallel = !parallelism.isSequential();
+        if (isContiguous(elements) && ((ArrayBackedMatrixBuffer) elements).columnStride() == 1) {
+            ArrayBackedMatrixBuffer buffer = (ArrayBackedMatrixBuffer) elements;
+            return StreamSupport.doubleStream(Spliterators.spliterator(buffer.array(), buffer.offset(), buffer.offset() + size.count(),
+                    Spliterator.ORDERED | Spliterator.NONNULL), parallel);
+        }
+        return StreamSupport.doubleStream(new ElementValueSpliterator(elements), parallel);
+    }
+
+    /**
+     * Gets a sequential stream of the linear element indices in row major order, that is row * cols + col
+     * for zero-based row and column
+     *
+     * @return a stream of element indices
+     */
+    public IntStream elementIndices() {
+        return elementIndices(Parallelism.sequential());
+    }
+
+    /**
+     * Gets a stream of the linear element indices in row major order, being parallel unless the setting is
+     * sequential. The stream has a known size and splits evenly. Run the terminal operation by
+     * {@link Parallelism#compute} to split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of element indices
+     */
+    public IntStream elementIndices(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        IntStream indices = IntStream.range(0, size.count());
+        return parallelism.isSequential() ? indices : indices.parallel();
     }
 
     /**
@@ -760,6 +1574,7 @@ public class Matrix {
      */
     Matrix rowOp_multiplyConstant(int row, double constant) {
         require(() -> constant != 0.0d, "constant must be non-zero");
+        ensureGeneralStructure();
         columnIndices().forEach(j -> elements.set(row, j, constant * elements.get(row, j)));
         return this;
     }
@@ -776,6 +1591,7 @@ public class Matrix {
      * @return this matrix after row operation
      */
     Matrix rowOp_swapRows(int rowA, int rowB) {
+        ensureGeneralStructure();
         columnIndices().forEach(j -> {
             double tmp = elements.get(rowA, j);
             elements.set(rowA, j, elements.get(rowB, j));
@@ -798,6 +1614,7 @@ public class Matrix {
      */
     Matrix rowOp_addMultipleOfOtherRow(int row, double multiple, int otherRow) {
         require(() -> row != otherRow, "can't add multiple of the same row");
+        ensureGeneralStructure();
         columnIndices().forEach(j -> elements.set(row, j, elements.get(row, j) + multiple * elements.get(otherRow, j)));
         return this;
     }
@@ -814,6 +1631,7 @@ public class Matrix {
      * @throws SingularMatrixException when matrix is singular
      */
     public Matrix gaussianElimination() {
+        ensureGeneralStructure();
         int minDim = Math.min(size.rows(), size.cols());
         for (int k = 0; k < minDim; k++) {
 
@@ -926,8 +1744,26 @@ public class Matrix {
         return this;
     }
 
-    // TODO
+    /**
+     * Replaces the columns of this matrix by an orthonormal basis of the space they span, as the Gram-Schmidt
+     * process does.
+     *
+     * The basis is the thin Q of the Householder QR decomposition, which stays orthonormal to working precision
+     * even when the columns are nearly dependent, unlike the classical Gram-Schmidt process. The sign of each
+     * column is chosen such that the diagonal of R is non-negative, giving the same basis as the Gram-Schmidt
+     * process would in exact arithmetic.
+     *
+     * @return this matrix, having orthonormal columns
+     * @see #calcQrDecomposition()
+     */
     public Matrix gramSchmidtProcess() {
+        precondition(() -> size.rows() >= size.cols(), "Gram-Schmidt process requires at least as many rows as columns");
+
+        QRDecompositionResult qr = calcQrDecomposition();
+        Matrix q = qr.getQ();
+        Matrix r = qr.getR();
+        ensureGeneralStructure();
+        q.forEachElement((i, j, v) -> elements.set(i, j, r.at(j + 1, j + 1) < 0.0d ? -v : v));
         return this;
     }
 
@@ -941,65 +1777,208 @@ public class Matrix {
      * it is also a key step when inverting a matrix, or computing the determinant of a matrix. The LU decomposition was
      * introduced by mathematician Alan Turing in 1948.
      *
-     * Using the Doolittle algorithm with partial pivoting, producing unit diagonals for the lower triangle. The algorithm below,
-     * however does not store these 1's, since both the L and U matrices are stored within the same physical matrix. The diagonal
-     * of the physical matrix belongs to the U matrix.
+     * Using partial pivoting, producing unit diagonals for the lower triangle. These 1's are not stored, however, since both
+     * the L and U matrices are stored within the same physical matrix. The diagonal of the physical matrix belongs to the
+     * U matrix.
      *
-     * This LU decomposition algorithm requires 2n^3/3 operations for a n x n matrix.
+     * This LU decomposition algorithm requires 2n^3/3 operations for a n x n matrix. It works on panels of columns, such
+     * that most of the operations are done by the cache blocked matrix multiplication kernel, see
+     * {@link BlockedLUDecomposition}. The work is done single-threaded in the calling thread.
      *
      * @return the result of the LU decomposition
      * @throws SingularMatrixException when matrix is singular
      */
     public LUDecompositionResult calcLuDecomposition() {
+        return calcLuDecomposition(Parallelism.sequential());
+    }
+
+    /**
+     * Performs LU decomposition of the matrix, splitting the trailing matrix updates into parallel tasks according
+     * to specified setting.
+     *
+     * @param parallelism the parallel setting
+     * @return the result of the LU decomposition
+     * @throws SingularMatrixException when matrix is singular
+     * @see #calcLuDecomposition()
+     */
+    public LUDecompositionResult calcLuDecomposition(Parallelism parallelism) {
         precondition(this::isSquare, "LU decomposition can be performed on a square matrix only");
+        return BlockedLUDecomposition.decompose(elements, parallelism);
+    }
 
-        int d = size.rows();
+    /**
+     * Performs Cholesky decomposition of the matrix, which must be symmetric positive definite.
+     *
+     * The matrix is factored as A = LL', where L is lower triangular with a positive diagonal. This takes n^3/3
+     * operations, half of LU decomposition, and needs no pivoting. Only the lower triangle of the matrix is read,
+     * so symmetry is assumed rather than checked. Positive definiteness is checked as part of the decomposition,
+     * which stops at the first non-positive pivot, so callers can fall back to LU decomposition cheaply.
+     *
+     * @return the result of the Cholesky decomposition
+     * @throws NotPositiveDefiniteMatrixException when matrix is not positive definite
+     */
+    public CholeskyDecompositionResult calcCholeskyDecomposition() {
+        return calcCholeskyDecomposition(Parallelism.sequential());
+    }
 
-        Matrix LU = copy();
+    /**
+     * Performs Cholesky decomposition of the matrix, splitting the trailing matrix updates into parallel tasks
+     * according to specified setting.
+     *
+     * @param parallelism the parallel setting
+     * @return the result of the Cholesky decomposition
+     * @throws NotPositiveDefiniteMatrixException when matrix is not positive definite
+     * @see #calcCholeskyDecomposition()
+     */
+    public CholeskyDecompositionResult calcCholeskyDecomposition(Parallelism parallelism) {
+        precondition(this::isSquare, "Cholesky decomposition can be performed on a square matrix only");
+        return BlockedCholeskyDecomposition.decompose(elements, parallelism);
+    }
 
-        int[] pi = new int[d];
-        for (int i = 0; i < d; i++) {
-            pi[i] = i;
-        }
+    /**
+     * Performs QR decomposition of the matrix, which must have at least as many rows as columns.
+     *
+     * The matrix is factored as A = QR, where Q has orthonormal columns and R is upper triangular, using blocked
+     * Householder reflections, see {@link BlockedQRDecomposition}. This takes 2n^2(m - n/3) operations for a m x n
+     * matrix. Q is kept implicit in the result, and formed on demand only. The result solves linear least squares
+     * problems, such as regressions on tall matrices, without forming and inverting A'A.
+     *
+     * @return the result of the QR decomposition
+     */
+    public QRDecompositionResult calcQrDecomposition() {
+        return calcQrDecomposition(Parallelism.sequential());
+    }
 
-        int k0;
-        double signOfDeterminant = 1.0d;
+    /**
+     * Performs QR decomposition of the matrix, splitting the trailing matrix updates into parallel tasks according
+     * to specified setting.
+     *
+     * @param parallelism the parallel setting
+     * @return the result of the QR decomposition
+     * @see #calcQrDecomposition()
+     */
+    public QRDecompositionResult calcQrDecomposition(Parallelism parallelism) {
+        precondition(() -> size.rows() >= size.cols(), "QR decomposition requires at least as many rows as columns");
+        return BlockedQRDecomposition.decompose(elements, parallelism);
+    }
 
-        for (int k=0; k<d; ++k) {
+    /**
+     * Performs LU decomposition of this matrix when too large to be held in memory.
+     *
+     * Panels of whole columns are streamed through memory within the given budget, and the compact storage
+     * of L and U is written to the specified buffer, typically a memory mapped one. See
+     * {@link OutOfCoreLUDecomposition} for details.
+     *
+     * @param lu the buffer receiving the compact storage of L and U, may be the buffer of this matrix
+     * @param memoryBudget the maximum number of bytes to hold in memory for panels
+     * @return the result of the LU decomposition
+     * @throws SingularMatrixException when matrix is singular
+     */
+    public LUDecompositionResult calcLuDecompositionOutOfCore(MatrixBuffer lu, long memoryBudget) {
+        precondition(this::isSquare, "LU decomposition can be performed on a square matrix only");
+        return OutOfCoreLUDecomposition.decompose(elements, lu, memoryBudget);
+    }
 
-            // find the row with the biggest pivot
-            k0 = LU.partialPivotRow(k);
+    /**
+     * Performs LU decomposition of this banded matrix, visiting the band only.
+     *
+     * Takes O(n kl (kl + ku)) operations and O(n (2kl + ku)) memory for a matrix of order n having kl diagonals below
+     * and ku above the main diagonal. See {@link BandLUDecomposition} for details. A tridiagonal system that needs no
+     * pivoting is solved even faster by {@link BandOperations#solveTridiagonal}.
+     *
+     * @return the result of the LU decomposition
+     * @throws IllegalStateException if matrix isn't square, or isn't stored as a banded matrix
+     * @throws SingularMatrixException when matrix is singular
+     */
+    public BandLUDecompositionResult calcBandLuDecomposition() {
+        precondition(this::isSquare, "LU decomposition can be performed on a square matrix only");
+        precondition(() -> elements instanceof BandMatrixBuffer, "band LU decomposition can be performed on a banded matrix only");
+        return BandLUDecomposition.decompose((BandMatrixBuffer) elements);
+    }
 
-            if (k != k0) {
-                // switch two rows in permutation matrix
-                int p = pi[k];
-                pi[k] = pi[k0];
-                pi[k0] = p;
+    /**
+     * Performs eigendecomposition of the matrix, which must be symmetric, A = XDX', where D is diagonal holding the
+     * eigenvalues in ascending order, and X is orthogonal having the corresponding eigenvectors as columns.
+     *
+     * The matrix is reduced to tridiagonal form by Householder reflectors, and the tridiagonal matrix is solved by
+     * divide-and-conquer, see {@link SymmetricEigenDecomposition}. Only the lower triangle of the matrix is read, so
+     * symmetry is assumed rather than checked.
+     *
+     * @return the result of the eigendecomposition
+     */
+    public EigenDecompositionResult calcEigenDecomposition() {
+        return calcEigenDecomposition(true, Parallelism.sequential());
+    }
 
-                LU.rowOp_swapRows(k, k0);
+    /**
+     * Performs eigendecomposition of the symmetric matrix, splitting the work into parallel tasks according to
+     * specified setting.
+     *
+     * @param eigenvectors whether to compute the eigenvectors, or the eigenvalues only, which is far cheaper
+     * @param parallelism the parallel setting
+     * @return the result of the eigendecomposition
+     * @see #calcEigenDecomposition()
+     */
+    public EigenDecompositionResult calcEigenDecomposition(boolean eigenvectors, Parallelism parallelism) {
+        precondition(this::isSquare, "eigendecomposition can be performed on a square matrix only");
+        return SymmetricEigenDecomposition.decompose(elements, eigenvectors, parallelism);
+    }
 
-                // switching rows means the determinant changes sign
-                signOfDeterminant *= -1;
-            }
+    /**
+     * Performs thin singular value decomposition of the matrix, A = USV', where U is m x k and V is n x k for
+     * k = min(m, n), both having orthonormal columns, and S is diagonal holding the singular values in decreasing
+     * order.
+     *
+     * The decomposition is done by one-sided Jacobi rotations, after reducing a tall matrix to its R factor, see
+     * {@link JacobiSVD}. The result gives the pseudo-inverse, the minimum norm least squares solution, the
+     * numerical rank and the condition number, and the principal components of centered data as the columns of V.
+     *
+     * @return the result of the singular value decomposition
+     */
+    public SVDResult calcSvd() {
+        return calcSvd(true, Parallelism.sequential());
+    }
 
-            for (int j=k; j<d; ++j) {
-                double sum = 0.0d;
-                for (int p=0; p<k; ++p) {
-                    sum += LU.elements.get(k, p) * LU.elements.get(p, j);
-                }
-                LU.elements.set(k, j, LU.elements.get(k, j) - sum); // not dividing by diagonals
-            }
+    /**
+     * Performs singular value decomposition of the matrix, splitting the work into parallel tasks according to
+     * specified setting.
+     *
+     * @param thin whether to compute the thin decomposition, or the full one where U is m x m and V is n x n
+     * @param parallelism the parallel setting
+     * @return the result of the singular value decomposition
+     * @see #calcSvd()
+     */
+    public SVDResult calcSvd(boolean thin, Parallelism parallelism) {
+        return JacobiSVD.decompose(elements, thin, parallelism);
+    }
 
-            for (int i=k+1; i<d; ++i) {
-                double sum=0.0d;
-                for (int p=0; p<k; ++p) {
-                    sum += LU.elements.get(i, p) * LU.elements.get(p, k);
-                }
-                LU.elements.set(i, k, (LU.elements.get(i, k) - sum) / LU.elements.get(k, k));
-            }
-        }
+    /**
+     * Performs truncated singular value decomposition of the matrix, computing the specified number of largest
+     * singular values and the corresponding singular vectors only.
+     *
+     * The decomposition is randomized, see {@link RandomizedSVD}, and takes a few passes over the matrix, each being
+     * a product with a thin matrix. It is meant for large matrices, such as the leading principal components of a
+     * 1M x 1000 data matrix, where the full decomposition is too costly. The accuracy depends on the decay of the
+     * singular values beyond the requested ones.
+     *
+     * @param rank the number of singular values to compute
+     * @return the result of the truncated singular value decomposition
+     */
+    public SVDResult calcTruncatedSvd(int rank) {
+        return calcTruncatedSvd(rank, Parallelism.sequential());
+    }
 
-        return new LUDecompositionResult(LU, pi, signOfDeterminant);
+    /**
+     * Performs truncated singular value decomposition of the matrix, splitting the products with the matrix into
+     * parallel tasks according to specified setting.
+     *
+     * @param rank the number of singular values to compute
+     * @param parallelism the parallel setting
+     * @return the result of the truncated singular value decomposition
+     * @see #calcTruncatedSvd(int)
+     */
+    public SVDResult calcTruncatedSvd(int rank, Parallelism parallelism) {
+        return RandomizedSVD.decompose(elements, rank, parallelism);
     }
 
     /**
@@ -1036,7 +2015,7 @@ public class Matrix {
 
         Matrix other = (Matrix) o;
 
-        return size.equals(other.size()) && !anyMatch((p,v) -> v != other.elements.get(p.row(), p.col()));
+        return size.equals(other.size()) && !anyElementMatch((i, j, v) -> v != other.elements.get(i, j));
     }
 
     private int requireValidRow(int row) {
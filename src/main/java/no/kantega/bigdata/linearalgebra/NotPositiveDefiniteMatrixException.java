@@ -0,0 +1,30 @@
+package no.kantega.bigdata.linearalgebra;
+
+/**
+ * A runtime exception thrown when a matrix is not symmetric positive definite when expected,
+ * e.g. by the Cholesky decomposition
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class NotPositiveDefiniteMatrixException extends RuntimeException {
+    private final int column;
+
+    /**
+     * Creates the exception
+     *
+     * @param column the column (1-based) at which the decomposition found a non-positive pivot
+     */
+    public NotPositiveDefiniteMatrixException(int column) {
+        super(String.format("matrix is not positive definite, found non-positive pivot at column %d", column));
+        this.column = column;
+    }
+
+    /**
+     * Gets the column at which the decomposition found a non-positive pivot
+     *
+     * @return the column (1-based)
+     */
+    public int column() {
+        return column;
+    }
+}
@@ -0,0 +1,127 @@
+package no.kantega.bigdata.linearalgebra;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Controls whether, and where, an operation may run in parallel.
+ *
+ * Parallel work only ever runs on the fork/join pool supplied by the caller, never on the common pool. Work estimated to
+ * require fewer floating point operations than the threshold is run single-threaded in the calling thread, as the
+ * overhead of forking would outweigh the gain.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class Parallelism {
+    /**
+     * The default threshold, roughly the work of multiplying two 128 x 128 matrices
+     */
+    public static final long DEFAULT_FLOP_THRESHOLD = 1L << 22;
+
+    private static final Parallelism SEQUENTIAL = new Parallelism(null, Long.MAX_VALUE);
+
+    private final ForkJoinPool pool;
+    private final long flopThreshold;
+
+    /**
+     * Gets the setting running all work single-threaded in the calling thread
+     *
+     * @return the sequential setting
+     */
+    public static Parallelism sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Creates a setting running work on specified pool, using the default flop threshold
+     *
+     * @param pool the fork/join pool to run parallel work on
+     * @return a new setting
+     */
+    public static Parallelism of(ForkJoinPool pool) {
+        return of(pool, DEFAULT_FLOP_THRESHOLD);
+    }
+
+    /**
+     * Creates a setting running work on specified pool
+     *
+     * @param pool the fork/join pool to run parallel work on
+     * @param flopThreshold the number of floating point operations below which work is not split further
+     * @return a new setting
+     */
+    public static Parallelism of(ForkJoinPool pool, long flopThreshold) {
+        requireNonNull(pool, "pool can't be null");
+        require(() -> flopThreshold >= 1, "flopThreshold must be 1 or higher");
+        return new Parallelism(pool, flopThreshold);
+    }
+
+    private Parallelism(ForkJoinPool pool, long flopThreshold) {
+        this.pool = pool;
+        this.flopThreshold = flopThreshold;
+    }
+
+    /**
+     * Gets whether all work runs single-threaded
+     *
+     * @return true if sequential; else false
+     */
+    public boolean isSequential() {
+        return pool == null;
+    }
+
+    /**
+     * Gets the flop threshold
+     *
+     * @return the number of floating point operations below which work is not split further
+     */
+    public long flopThreshold() {
+        return flopThreshold;
+    }
+
+    /**
+     * Gets whether work of specified size is large enough to be split into parallel tasks
+     *
+     * @param flops the estimated number of floating point operations
+     * @return true if the work should be split; else false
+     */
+    public boolean shouldSplit(long flops) {
+        return pool != null && flops >= flopThreshold;
+    }
+
+    /**
+     * Runs specified task on the pool and waits for it to complete. A task invoked from within the pool is run
+     * directly, so that nested operations join the work of the enclosing one.
+     *
+     * @param task the task to run
+     */
+    public void invoke(ForkJoinTask<?> task) {
+        requireNonNull(task, "task can't be null");
+        if (pool == null || ForkJoinTask.getPool() == pool) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Runs specified computation on the pool and waits for its result. Parallel streams evaluated by the computation
+     * are split on the pool rather than on the common pool. A computation invoked from within the pool, or given to
+     * the sequential setting, is run directly.
+     *
+     * @param computation the computation to run
+     * @param <T> the type of the result
+     * @return the result of the computation
+     */
+    public <T> T compute(Supplier<T> computation) {
+        requireNonNull(computation, "computation can't be null");
+        if (pool == null || ForkJoinTask.getPool() == pool) {
+            return computation.get();
+        }
+        return pool.invoke(ForkJoinTask.adapt((Callable<T>) computation::get));
+    }
+}
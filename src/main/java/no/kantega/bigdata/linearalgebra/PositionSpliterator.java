@@ -0,0 +1,252 @@
+package no.kantega.bigdata.linearalgebra;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implements a spliterator over matrix element positions.
+ *
+ * Each traversal maps a linear index directly to a position, so the spliterator knows its exact size and splits
+ * by halving its index range. Thus, parallel streams of positions are split evenly across threads, and so are the
+ * halves. Triangular traversals cover the leading square part of the matrix.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class PositionSpliterator implements Spliterator<Position> {
+    private static final int CHARACTERISTICS = ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+    private final Size size;
+    private final Traversal traversal;
+    private long index;
+    private final long end;
+
+    public static PositionSpliterator rowMajor(Size size) {
+        return new PositionSpliterator(size, Traversal.ROW_MAJOR);
+    }
+
+    public static PositionSpliterator columnMajor(Size size) {
+        return new PositionSpliterator(size, Traversal.COLUMN_MAJOR);
+    }
+
+    public static PositionSpliterator diagonal(Size size) {
+        return new PositionSpliterator(size, Traversal.DIAGONAL);
+    }
+
+    public static PositionSpliterator lowerTriangle(Size size) {
+        return new PositionSpliterator(size, Traversal.LOWER_TRIANGLE);
+    }
+
+    public static PositionSpliterator upperTriangle(Size size) {
+        return new PositionSpliterator(size, Traversal.UPPER_TRIANGLE);
+    }
+
+    private PositionSpliterator(Size size, Traversal traversal) {
+        this(size, traversal, 0, traversal.count(size));
+    }
+
+    private PositionSpliterator(Size size, Traversal traversal, long index, long end) {
+        this.size = requireNonNull(size, "size can't be null");
+        this.traversal = traversal;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Position> action) {
+        requireNonNull(action, "action can't be null");
+        if (index >= end) {
+            return false;
+        }
+
+        Position pos = Position.of(size, 0, 0);
+        traversal.locate(size, index++, pos);
+        action.accept(pos);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Position> action) {
+        requireNonNull(action, "action can't be null");
+        if (index >= end) {
+            return;
+        }
+
+        // Locate the first position only, then step incrementally
+        Position current = Position.of(size, 0, 0);
+        traversal.locate(size, index, current);
+        for (; index < end; index++) {
+            action.accept(new Position(current));
+            traversal.advance(current);
+        }
+    }
+
+    @Override
+    public Spliterator<Position> trySplit() {
+        long remaining = end - index;
+        if (remaining < 2) {
+            return null;
+        }
+
+        long mid = index + remaining / 2;
+        PositionSpliterator prefix = new PositionSpliterator(size, traversal, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    /**
+     * The supported orders of traversing positions. Each maps a linear index to a position, and advances a
+     * position to the next one.
+     */
+    private enum Traversal {
+        ROW_MAJOR {
+            @Override
+            long count(Size size) {
+                return (long) size.rows() * size.cols();
+            }
+
+            @Override
+            void locate(Size size, long index, Position pos) {
+                pos.row = (int) (index / size.cols());
+                pos.col = (int) (index % size.cols());
+            }
+
+            @Override
+            void advance(Position pos) {
+                if (pos.isLastColumn()) {
+                    pos.row++;
+                    pos.col = 0;
+                } else {
+                    pos.col++;
+                }
+            }
+        },
+
+        COLUMN_MAJOR {
+            @Override
+            long count(Size size) {
+                return (long) size.rows() * size.cols();
+            }
+
+            @Override
+            void locate(Size size, long index, Position pos) {
+                pos.row = (int) (index % size.rows());
+                pos.col = (int) (index / size.rows());
+            }
+
+            @Override
+            void advance(Position pos) {
+                if (pos.isLastRow()) {
+                    pos.col++;
+                    pos.row = 0;
+                } else {
+                    pos.row++;
+                }
+            }
+        },
+
+        DIAGONAL {
+            @Override
+            long count(Size size) {
+                return Math.min(size.rows(), size.cols());
+            }
+
+            @Override
+            void locate(Size size, long index, Position pos) {
+                pos.row = (int) index;
+                pos.col = (int) index;
+            }
+
+            @Override
+            void advance(Position pos) {
+                pos.row++;
+                pos.col++;
+            }
+        },
+
+        /**
+         * Row by row through the elements below the diagonal, i.e. (1,0), (2,0), (2,1), (3,0), ...
+         */
+        LOWER_TRIANGLE {
+            @Override
+            long count(Size size) {
+                long n = Math.min(size.rows(), size.cols());
+                return n * (n - 1) / 2;
+            }
+
+            @Override
+            void locate(Size size, long index, Position pos) {
+                int outer = triangleRow(index);
+                pos.row = outer;
+                pos.col = (int) (index - (long) outer * (outer - 1) / 2);
+            }
+
+            @Override
+            void advance(Position pos) {
+                pos.col++;
+                if (pos.col == pos.row) {
+                    pos.col = 0;
+                    pos.row++;
+                }
+            }
+        },
+
+        /**
+         * Column by column through the elements above the diagonal, i.e. (0,1), (0,2), (1,2), (0,3), ...
+         */
+        UPPER_TRIANGLE {
+            @Override
+            long count(Size size) {
+                return LOWER_TRIANGLE.count(size);
+            }
+
+            @Override
+            void locate(Size size, long index, Position pos) {
+                int outer = triangleRow(index);
+                pos.col = outer;
+                pos.row = (int) (index - (long) outer * (outer - 1) / 2);
+            }
+
+            @Override
+            void advance(Position pos) {
+                pos.row++;
+                if (pos.row == pos.col) {
+                    pos.row = 0;
+                    pos.col++;
+                }
+            }
+        };
+
+        abstract long count(Size size);
+
+        abstract void locate(Size size, long index, Position pos);
+
+        abstract void advance(Position pos);
+
+        /**
+         * Gets the row r of the strictly lower triangle holding the specified linear index, that is the
+         * largest r having r(r-1)/2 <= index. The estimate from the square root is corrected for rounding.
+         */
+        static int triangleRow(long index) {
+            long r = (long) ((1.0d + Math.sqrt(1.0d + 8.0d * index)) / 2.0d);
+            while (r * (r - 1) / 2 > index) {
+                r--;
+            }
+            while ((r + 1) * r / 2 <= index) {
+                r++;
+            }
+            return (int) r;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package no.kantega.bigdata.linearalgebra;
 
+import no.kantega.bigdata.linearalgebra.algorithms.SparseOperations;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedVectorBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SparseVectorBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
 import no.kantega.bigdata.linearalgebra.utils.NumberFormatter;
 
@@ -64,6 +67,30 @@ public class Vector {
         return new Vector(dimension).populate(() -> value);
     }
 
+    /**
+     * Creates a sparse vector of specified dimension with all components zero. Only the components set to
+     * non-zero values are stored.
+     *
+     * @param dimension the vector dimension
+     * @return a new sparse vector
+     */
+    public static Vector sparse(int dimension) {
+        return new Vector(CompressedVectorBuffer.allocate(dimension));
+    }
+
+    /**
+     * Creates a sparse vector of specified dimension from the non-zero components, given as arrays of indices and
+     * values in any order. Values given for the same index more than once are summed.
+     *
+     * @param dimension the vector dimension
+     * @param indices the component indices (zero-based)
+     * @param values the component values
+     * @return a new sparse vector
+     */
+    public static Vector sparse(int dimension, int[] indices, double[] values) {
+        return new Vector(CompressedVectorBuffer.from(dimension, indices, values));
+    }
+
     /**
      * Creates a vector using specified buffer
      *
@@ -107,6 +134,15 @@ public class Vector {
         return dimension;
     }
 
+    /**
+     * Gets whether this vector stores its non-zero components only
+     *
+     * @return true if sparse, false if dense
+     */
+    public boolean isSparse() {
+        return components instanceof SparseVectorBuffer;
+    }
+
     /**
      * Gets the component at specified index
      *
@@ -142,7 +178,7 @@ public class Vector {
     }
 
     /**
-     * Gets a stream of the component values
+     * Gets a sequential stream of the component values
      *
      * @return a stream of component values
      */
@@ -150,6 +186,29 @@ public class Vector {
         return indices().mapToDouble(components::get);
     }
 
+    /**
+     * Gets a stream of the component values, being parallel unless the setting is sequential. Run the terminal
+     * operation by {@link Parallelism#compute} to split the stream on the pool of the setting.
+     *
+     * @param parallelism the parallel setting
+     * @return a stream of component values
+     */
+    public DoubleStream components(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        DoubleStream values = components();
+        return parallelism.isSequential() ? values : values.parallel();
+    }
+
+    /**
+     * Gets the buffer holding the components, for the kernels operating on buffers. The buffer is shared, not copied,
+     * and stays the same for the lifetime of the vector, so writes through either are seen by the other.
+     *
+     * @return the component buffer
+     */
+    public VectorBuffer buffer() {
+        return components;
+    }
+
     /**
      * Creates a copy of this vector
      *
@@ -166,9 +225,46 @@ public class Vector {
      * @return the length of this vector
      */
     public double length() {
-        return Math.sqrt(components()
-                .map(v -> v * v)
-                .reduce(0.0d, Double::sum));
+        return length(Parallelism.sequential());
+    }
+
+    /**
+     * Gets the length of this vector, summing the squares of the components in parallel when the vector is
+     * large enough for the setting
+     *
+     * @param parallelism the parallel setting
+     * @return the length of this vector
+     */
+    public double length(Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        if (isSparse()) {
+            SparseVectorBuffer sparse = (SparseVectorBuffer) components;
+            double sum = 0.0d;
+            for (int k = 0; k < sparse.nonZeros(); k++) {
+                sum += sparse.valueAt(k) * sparse.valueAt(k);
+            }
+            return Math.sqrt(sum);
+        }
+        return Math.sqrt(innerProduct(this, parallelism));
+    }
+
+    /**
+     * Gets the 1-norm of this vector, aka the Manhattan or taxicab norm, which is the sum of the absolute
+     * component values
+     *
+     * @return the 1-norm of this vector
+     */
+    public double norm1() {
+        return storedValues().map(Math::abs).sum();
+    }
+
+    /**
+     * Gets the maximum norm of this vector, aka the infinity norm, which is the largest absolute component value
+     *
+     * @return the maximum norm of this vector
+     */
+    public double normMax() {
+        return storedValues().map(Math::abs).max().orElse(0.0d);
     }
 
     /**
@@ -181,7 +277,7 @@ public class Vector {
         requireNonNull(other, "other can't be null");
         require(() -> other.dimension() == this.dimension(), "can't add vectors of different dimension");
 
-        return transform((i, v) -> v + other.components.get(i));
+        return addScaled(1.0d, other);
     }
 
     /**
@@ -194,7 +290,36 @@ public class Vector {
         requireNonNull(other, "other can't be null");
         require(() -> other.dimension() == this.dimension(), "can't subtract vectors of different dimension");
 
-        return transform((i, v) -> v - other.components.get(i));
+        return addScaled(-1.0d, other);
+    }
+
+    /**
+     * Adds specified vector multiplied by specified factor to this vector, i.e. this = this + factor * other,
+     * known as axpy. The vectors must have the same dimension.
+     *
+     * When either vector is sparse, only its stored components are visited. The sum is always written into the
+     * buffer of this vector, so a vector viewing a row or column of a matrix updates the matrix. When this vector is
+     * sparse and the other is dense, the sum is dense, so each component gets stored.
+     *
+     * @param factor the factor to multiply the other vector with
+     * @param other the vector to add
+     * @return this vector after addition
+     */
+    public Vector addScaled(double factor, Vector other) {
+        requireNonNull(other, "other can't be null");
+        require(() -> other.dimension() == this.dimension(), "can't add vectors of different dimension");
+
+        if (components instanceof CompressedVectorBuffer) {
+            ((CompressedVectorBuffer) components).addScaled(factor, other.components);
+        } else if (other.isSparse()) {
+            SparseOperations.addTo(factor, (SparseVectorBuffer) other.components, components);
+        } else {
+            VectorBuffer otherComponents = other.components;
+            for (int i = 0; i < dimension; i++) {
+                components.set(i, components.get(i) + factor * otherComponents.get(i));
+            }
+        }
+        return this;
     }
 
     /**
@@ -204,6 +329,9 @@ public class Vector {
      * @return this vector after multiplication
      */
     public Vector multiply(double scalar) {
+        if (isSparse()) {
+            return transformStored(v -> v * scalar);
+        }
         return transform((i, v) -> v * scalar);
     }
 
@@ -214,6 +342,9 @@ public class Vector {
      * @return this vector after division
      */
     public Vector divide(double scalar) {
+        if (isSparse()) {
+            return transformStored(v -> v / scalar);
+        }
         return transform((i, v) -> v / scalar);
     }
 
@@ -235,12 +366,38 @@ public class Vector {
      * @return the inner product
      */
     public double innerProduct(Vector other) {
+        return innerProduct(other, Parallelism.sequential());
+    }
+
+    /**
+     * Calculates the inner product of this and the specified vector, summing the products in parallel when the
+     * vectors are dense and large enough for the setting
+     *
+     * @param other the vector to calculate inner product with
+     * @param parallelism the parallel setting
+     * @return the inner product
+     */
+    public double innerProduct(Vector other, Parallelism parallelism) {
         requireNonNull(other, "other can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
         require(() -> other.dimension() == this.dimension(), "can't get inner product for vectors of different dimension");
 
-        return indices()
+        if (isSparse()) {
+            return SparseOperations.innerProduct((SparseVectorBuffer) components, other.components);
+        } else if (other.isSparse()) {
+            return SparseOperations.innerProduct((SparseVectorBuffer) other.components, components);
+        }
+
+        if (!parallelism.shouldSplit(dimension)) {
+            double sum = 0.0d;
+            for (int i = 0; i < dimension; i++) {
+                sum += components.get(i) * other.components.get(i);
+            }
+            return sum;
+        }
+        return parallelism.compute(() -> IntStream.range(0, dimension).parallel()
                 .mapToDouble(i -> components.get(i) * other.components.get(i))
-                .reduce(0.0d, Double::sum);
+                .reduce(0.0d, Double::sum));
     }
 
     /**
@@ -324,7 +481,7 @@ public class Vector {
      * @return true if this is a zero vector; else false
      */
     public boolean isZeroVector() {
-        return !anyMatch((i,v) -> v != 0.0d);
+        return storedValues().allMatch(v -> v == 0.0d);
     }
 
     /**
@@ -477,12 +634,36 @@ public class Vector {
         }
     }
 
+    /**
+     * Gets the values of the stored components, that is all components of a dense vector, and the non-zero
+     * ones of a sparse vector
+     */
+    private DoubleStream storedValues() {
+        if (isSparse()) {
+            SparseVectorBuffer sparse = (SparseVectorBuffer) components;
+            return IntStream.range(0, sparse.nonZeros()).mapToDouble(sparse::valueAt);
+        }
+        return components();
+    }
+
+    /**
+     * Transforms the stored components of a sparse vector, for operations mapping zero to zero
+     */
+    private Vector transformStored(DoubleUnaryOperator operator) {
+        SparseVectorBuffer sparse = (SparseVectorBuffer) components;
+        for (int k = 0; k < sparse.nonZeros(); k++) {
+            sparse.set(sparse.indexAt(k), operator.applyAsDouble(sparse.valueAt(k)));
+        }
+        return this;
+    }
+
     private int requireValidIndex(int index) {
         require(() -> index >= 1 && index <= dimension, "index must be between 1 and %d", dimension);
         return index;
     }
 
     private IntStream indices() {
-        return IntStream.rangeClosed(0, dimension-1).parallel();
+        return IntStream.range(0, dimension);
     }
+
 }
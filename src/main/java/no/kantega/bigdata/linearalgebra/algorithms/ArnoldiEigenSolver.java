@@ -0,0 +1,217 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Computes a few eigenvalues and eigenvectors of a large nonsymmetric operator by the restarted Arnoldi method.
+ *
+ * As for {@link LanczosEigenSolver}, the operator is known by its products with vectors only, and a fully
+ * reorthogonalized Krylov basis of ncv vectors is built, of which the storage is reused across restarts. The
+ * projected upper Hessenberg matrix is solved by the QR algorithm and inverse iteration. On restart, the basis is
+ * contracted to the real and imaginary parts of the wanted Ritz vectors, orthonormalized, never separating a complex
+ * conjugate pair.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class ArnoldiEigenSolver {
+
+    private static final double EPSILON_23 = Math.pow(Math.ulp(1.0d), 2.0d / 3.0d);
+
+    private ArnoldiEigenSolver() {
+    }
+
+    /**
+     * Computes some eigenvalues and eigenvectors of the specified operator.
+     *
+     * @param operator the n x n operator
+     * @param k the number of eigenvalues to compute, being from 1 to n - 3
+     * @param spectrum the part of the spectrum wanted
+     * @return the k eigenvalues, or k + 1 when the last one is one of a complex conjugate pair, ordered as wanted
+     * @throws IllegalStateException when the eigenvalues do not converge
+     */
+    public static NonsymmetricEigenDecompositionResult solve(LinearOperator operator, int k, Spectrum spectrum) {
+        requireNonNull(operator, "operator can't be null");
+        int n = operator.size().rows();
+        int ncv = Math.min(n - 1, Math.max(2 * k + 1, k + 20));
+        return solve(operator, k, spectrum, ncv, LanczosEigenSolver.DEFAULT_TOLERANCE, LanczosEigenSolver.DEFAULT_MAX_RESTARTS, new Random());
+    }
+
+    /**
+     * Computes some eigenvalues and eigenvectors of the specified operator.
+     *
+     * @param operator the n x n operator
+     * @param k the number of eigenvalues to compute, being from 1 to n - 3
+     * @param spectrum the part of the spectrum wanted
+     * @param ncv the number of basis vectors, being larger than k + 1 and less than n
+     * @param tolerance the relative accuracy of the eigenvalues
+     * @param maxRestarts the maximum number of restarts
+     * @param random the source of the starting vector
+     * @return the k eigenvalues, or k + 1 when the last one is one of a complex conjugate pair, ordered as wanted
+     * @throws IllegalStateException when the eigenvalues do not converge
+     */
+    public static NonsymmetricEigenDecompositionResult solve(LinearOperator operator, int k, Spectrum spectrum, int ncv,
+                                                             double tolerance, int maxRestarts, Random random) {
+        requireNonNull(operator, "operator can't be null");
+        requireNonNull(spectrum, "spectrum can't be null");
+        requireNonNull(random, "random can't be null");
+        int n = operator.size().rows();
+        require(() -> operator.size().cols() == n, "operator must be square");
+        require(() -> k >= 1 && k <= n - 3, "k must be from 1 to n - 3");
+        require(() -> ncv > k + 1 && ncv < n, "ncv must be larger than k + 1 and less than n");
+        require(() -> tolerance > 0.0d, "tolerance must be positive");
+        require(() -> maxRestarts >= 0, "maxRestarts can't be negative");
+
+        KrylovBasis basis = new KrylovBasis(operator, ncv, random);
+        double[] wr = new double[ncv];
+        double[] wi = new double[ncv];
+        for (int restart = 0; restart <= maxRestarts; restart++) {
+            basis.expand();
+            double[] h = ((ArrayBackedMatrixBuffer) basis.projection()).array();
+            HessenbergEigenSolver.eigenvalues(h, ncv, wr, wi);
+            int[] order = order(wr, wi, spectrum);
+
+            // The Ritz vectors of the wanted values and of the ones kept on restart
+            int wanted = extend(wi, order, k);
+            int limit = Math.min(ncv, k + (ncv - k) / 2 + 1);
+            double[][] xr = new double[limit][ncv];
+            double[][] xi = new double[limit][ncv];
+            for (int i = 0; i < limit; i++) {
+                int index = order[i];
+                if (wi[index] < 0.0d) {
+                    for (int j = 0; j < ncv; j++) {
+                        xr[i][j] = xr[i - 1][j];
+                        xi[i][j] = -xi[i - 1][j];
+                    }
+                } else {
+                    HessenbergEigenSolver.eigenvector(h, ncv, wr[index], wi[index], xr[i], xi[i]);
+                }
+            }
+
+            double beta = basis.residualNorm();
+            int converged = 0;
+            for (int i = 0; i < wanted; i++) {
+                double residual = beta * Math.hypot(xr[i][ncv - 1], xi[i][ncv - 1]);
+                if (residual <= tolerance * Math.max(Math.hypot(wr[order[i]], wi[order[i]]), EPSILON_23)) {
+                    converged++;
+                }
+            }
+
+            if (converged == wanted) {
+                double[] realParts = new double[wanted];
+                double[] imaginaryParts = new double[wanted];
+                for (int i = 0; i < wanted; i++) {
+                    realParts[i] = wr[order[i]];
+                    imaginaryParts[i] = wi[order[i]];
+                }
+                double[] y = columns(xr, xi, wi, order, wanted, ncv);
+                return new NonsymmetricEigenDecompositionResult(realParts, imaginaryParts, basis.combine(y, wanted));
+            }
+
+            // Keep the wanted Ritz vectors, and some more as converged ones are kept from drifting back in
+            int kept = k + Math.min(converged, (ncv - k) / 2);
+            if (wi[order[kept - 1]] > 0.0d) {
+                kept += kept + 1 < ncv ? 1 : -1;
+            }
+            double[] q = columns(xr, xi, wi, order, kept, ncv);
+            kept = orthonormalize(q, ncv, kept);
+            basis.restart(q, kept);
+        }
+        throw new IllegalStateException("Arnoldi iteration did not converge");
+    }
+
+    /**
+     * Orders the eigenvalues by preference, keeping each complex conjugate pair together, the one with positive
+     * imaginary part first
+     */
+    private static int[] order(double[] wr, double[] wi, Spectrum spectrum) {
+        Integer[] leading = IntStream.range(0, wr.length).filter(i -> wi[i] >= 0.0d).boxed().toArray(Integer[]::new);
+        Arrays.sort(leading, (i, j) -> spectrum.compare(wr[i], wi[i], wr[j], wi[j]));
+        int[] order = new int[wr.length];
+        int position = 0;
+        for (int index : leading) {
+            order[position++] = index;
+            if (wi[index] > 0.0d) {
+                order[position++] = index + 1;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Extends the count to include the conjugate of the last eigenvalue, if complex
+     */
+    private static int extend(double[] wi, int[] order, int count) {
+        return wi[order[count - 1]] > 0.0d ? count + 1 : count;
+    }
+
+    /**
+     * Gets the Ritz vectors of the ordered eigenvalues as real columns of a row-major array, by real and imaginary
+     * parts for complex conjugate pairs
+     */
+    private static double[] columns(double[][] xr, double[][] xi, double[] wi, int[] order, int count, int m) {
+        double[] q = new double[m * count];
+        for (int j = 0; j < count; j++) {
+            boolean imaginary = wi[order[j]] < 0.0d;
+            double[] source = imaginary ? xi[j - 1] : xr[j];
+            for (int i = 0; i < m; i++) {
+                q[i * count + j] = source[i];
+            }
+        }
+        return q;
+    }
+
+    /**
+     * Orthonormalizes the columns of the row-major m x count array by modified Gram-Schmidt, done twice, moving the
+     * independent ones to the front
+     *
+     * @return the number of independent columns
+     */
+    private static int orthonormalize(double[] q, int m, int count) {
+        int rank = 0;
+        for (int j = 0; j < count; j++) {
+            double original = 0.0d;
+            for (int i = 0; i < m; i++) {
+                original += q[i * count + j] * q[i * count + j];
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                for (int p = 0; p < rank; p++) {
+                    double dot = 0.0d;
+                    for (int i = 0; i < m; i++) {
+                        dot += q[i * count + p] * q[i * count + j];
+                    }
+                    for (int i = 0; i < m; i++) {
+                        q[i * count + j] -= dot * q[i * count + p];
+                    }
+                }
+            }
+            double norm = 0.0d;
+            for (int i = 0; i < m; i++) {
+                norm += q[i * count + j] * q[i * count + j];
+            }
+            if (norm > 1.0e-20d * original) {
+                double scale = 1.0d / Math.sqrt(norm);
+                for (int i = 0; i < m; i++) {
+                    q[i * count + rank] = q[i * count + j] * scale;
+                }
+                rank++;
+            }
+        }
+        if (rank == count) {
+            return rank;
+        }
+
+        // Compact the array to the independent columns
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(q, i * count, q, i * rank, rank);
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,92 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements LU decomposition with partial pivoting of banded matrices.
+ *
+ * The algorithm is that of LAPACK's dgbtf2. Row swaps can make U fill in up to kl diagonals beyond the upper
+ * bandwidth ku of A, so the factors are held in a band of kl lower and kl + ku upper diagonals. Each column
+ * eliminates at most kl rows across at most kl + ku + 1 columns, so a matrix of order n is decomposed in
+ * O(n kl (kl + ku)) operations and O(n (2kl + ku)) memory, rather than O(n^3) and O(n^2).
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class BandLUDecomposition {
+
+    private BandLUDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified banded matrix, which is not modified
+     *
+     * @param a the square banded matrix to decompose
+     * @return the result of the LU decomposition
+     * @throws SingularMatrixException when matrix is singular
+     */
+    public static BandLUDecompositionResult decompose(BandMatrixBuffer a) {
+        requireNonNull(a, "a can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "matrix must be square");
+
+        int n = a.size().rows();
+        int kl = a.lowerBandwidth();
+        int ku = a.upperBandwidth();
+        int width = kl + ku;
+        BandMatrixBuffer lu = BandMatrixBuffer.allocate(n, n, kl, width);
+        double[] band = lu.array();
+        for (int j = 0; j < n; j++) {
+            for (int i = Math.max(0, j - ku); i <= Math.min(n - 1, j + kl); i++) {
+                band[lu.indexOf(i, j)] = a.get(i, j);
+            }
+        }
+
+        int[] pivots = new int[n];
+        double signOfDeterminant = 1.0d;
+        for (int k = 0; k < n; k++) {
+            int last = Math.min(n - 1, k + kl);
+            int lastCol = Math.min(n - 1, k + width);
+
+            // Find the pivot among the rows within the band of column k
+            int p = k;
+            double maxAbs = Math.abs(band[lu.indexOf(k, k)]);
+            for (int i = k + 1; i <= last; i++) {
+                double absValue = Math.abs(band[lu.indexOf(i, k)]);
+                if (absValue > maxAbs) {
+                    maxAbs = absValue;
+                    p = i;
+                }
+            }
+            BandOperations.requireNonSingular(maxAbs);
+            pivots[k] = p;
+
+            if (p != k) {
+                for (int j = k; j <= lastCol; j++) {
+                    int kj = lu.indexOf(k, j);
+                    int pj = lu.indexOf(p, j);
+                    double tmp = band[kj];
+                    band[kj] = band[pj];
+                    band[pj] = tmp;
+                }
+                signOfDeterminant = -signOfDeterminant;
+            }
+
+            // Eliminate below the pivot, storing the multipliers in place of the eliminated elements
+            double pivot = band[lu.indexOf(k, k)];
+            for (int i = k + 1; i <= last; i++) {
+                int ik = lu.indexOf(i, k);
+                double multiplier = band[ik] / pivot;
+                band[ik] = multiplier;
+                if (multiplier != 0.0d) {
+                    for (int j = k + 1; j <= lastCol; j++) {
+                        band[lu.indexOf(i, j)] -= multiplier * band[lu.indexOf(k, j)];
+                    }
+                }
+            }
+        }
+        return new BandLUDecompositionResult(lu, pivots, signOfDeterminant);
+    }
+}
@@ -0,0 +1,101 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Holds the result of a band LU decomposition, see {@link BandLUDecomposition}.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BandLUDecompositionResult {
+    private final BandMatrixBuffer lu;
+    private final int[] pivots;
+    private final double signOfDeterminant;
+
+    /**
+     * Constructs a band LU decomposition result object.
+     *
+     * @param lu the compact storage of the L multipliers and the U matrix in one band
+     * @param pivots the row swapped with row k at step k of the elimination
+     * @param signOfDeterminant the sign of the determinant before multiplying the diagonal elements.
+     */
+    BandLUDecompositionResult(BandMatrixBuffer lu, int[] pivots, double signOfDeterminant) {
+        this.lu = lu;
+        this.pivots = pivots;
+        this.signOfDeterminant = signOfDeterminant;
+    }
+
+    public double determinant() {
+        double det = signOfDeterminant;
+        for (int i = 0; i < lu.size().rows(); i++) {
+            det *= lu.get(i, i);
+        }
+        return det;
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b, given that A is decomposed into L and U.
+     *
+     * @param b the right hand side values of the equations
+     * @return values of x1, x2, ..., i.e. the x vector containing the solution.
+     */
+    public Vector solve(Vector b) {
+        requireNonNull(b, "b can't be null");
+        int n = lu.size().rows();
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = b.at(i + 1);
+        }
+        VectorBuffer buffer = FixedVectorBuffer.from(n, x, 0, 1);
+        solve(buffer);
+        return Vector.from(buffer);
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b in place, overwriting b with x.
+     *
+     * Applies the row swaps and multipliers of L in a forward pass, followed by back substitution with U,
+     * each visiting the band only.
+     *
+     * @param b the right hand side values of the equations, receiving the solution
+     */
+    public void solve(VectorBuffer b) {
+        requireNonNull(b, "b can't be null");
+        int n = lu.size().rows();
+        require(() -> b.size() == n, "dimension of b must match order of matrix");
+
+        double[] band = lu.array();
+        int kl = lu.lowerBandwidth();
+        int width = lu.upperBandwidth();
+
+        // Solves Ly = Pb for y, with the row swaps interleaved as they were done
+        for (int k = 0; k < n; k++) {
+            int p = pivots[k];
+            double bk = b.get(p);
+            if (p != k) {
+                b.set(p, b.get(k));
+                b.set(k, bk);
+            }
+            if (bk != 0.0d) {
+                for (int i = k + 1; i <= Math.min(n - 1, k + kl); i++) {
+                    b.set(i, b.get(i) - band[lu.indexOf(i, k)] * bk);
+                }
+            }
+        }
+
+        // Solves Ux = y for x
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = b.get(i);
+            for (int j = i + 1; j <= Math.min(n - 1, i + width); j++) {
+                sum -= band[lu.indexOf(i, j)] * b.get(j);
+            }
+            b.set(i, sum / band[lu.indexOf(i, i)]);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements kernels for banded matrices, visiting the elements within the band only.
+ *
+ * For a matrix of order n having bandwidth k, the kernels take O(nk) operations rather than O(n^2).
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class BandOperations {
+    private static final double TINY = 1e-20;
+
+    private BandOperations() {
+    }
+
+    /**
+     * Computes the banded matrix-vector product y = alpha * A * x + beta * y (GBMV).
+     * When beta is zero, y is not read, so it need not be initialized. y must not be the same buffer as x.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the banded m x n matrix A
+     * @param x the vector x of dimension n
+     * @param beta the scalar to multiply y with before adding the product
+     * @param y the vector y of dimension m, receiving the result
+     */
+    public static void multiply(double alpha, BandMatrixBuffer a, VectorBuffer x, double beta, VectorBuffer y) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(x, "x can't be null");
+        requireNonNull(y, "y can't be null");
+        require(() -> a.size().cols() == x.size() && a.size().rows() == y.size(), "dimensions of x and y must match size of A");
+        require(() -> x != y, "x and y can't be the same vector");
+
+        int m = a.size().rows();
+        int n = a.size().cols();
+        double[] band = a.array();
+        for (int i = 0; i < m; i++) {
+            int from = Math.max(0, i - a.lowerBandwidth());
+            int to = Math.min(n - 1, i + a.upperBandwidth());
+            double sum = 0.0d;
+            for (int j = from; j <= to; j++) {
+                sum += band[a.indexOf(i, j)] * x.get(j);
+            }
+            y.set(i, alpha * sum + (beta == 0.0d ? 0.0d : beta * y.get(i)));
+        }
+    }
+
+    /**
+     * Solves A * x = b for x, where A is tridiagonal, overwriting b with x.
+     *
+     * Using the Thomas algorithm, i.e. Gaussian elimination without pivoting, taking O(n) operations. It is stable
+     * when A is diagonally dominant or symmetric positive definite, which is the common case for discretized
+     * differential equations and splines. Otherwise, use the band LU decomposition, see {@link BandLUDecomposition}.
+     * A is not modified.
+     *
+     * @param a the tridiagonal n x n matrix A
+     * @param b the vector b of dimension n, receiving the solution x
+     * @throws SingularMatrixException when a zero pivot is encountered
+     */
+    public static void solveTridiagonal(BandMatrixBuffer a, VectorBuffer b) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "A must be square");
+        require(() -> a.lowerBandwidth() <= 1 && a.upperBandwidth() <= 1, "A must be tridiagonal");
+        require(() -> a.size().cols() == b.size(), "dimension of b must match order of A");
+
+        int n = b.size();
+        double[] band = a.array();
+        double[] modifiedSup = new double[n];
+
+        // Forward sweep, eliminating the sub-diagonal
+        double pivot = requireNonSingular(band[a.indexOf(0, 0)]);
+        modifiedSup[0] = n > 1 ? a.get(0, 1) / pivot : 0.0d;
+        b.set(0, b.get(0) / pivot);
+        for (int i = 1; i < n; i++) {
+            double sub = a.get(i, i - 1);
+            pivot = requireNonSingular(band[a.indexOf(i, i)] - sub * modifiedSup[i - 1]);
+            modifiedSup[i] = i < n - 1 ? a.get(i, i + 1) / pivot : 0.0d;
+            b.set(i, (b.get(i) - sub * b.get(i - 1)) / pivot);
+        }
+
+        // Back substitution
+        for (int i = n - 2; i >= 0; i--) {
+            b.set(i, b.get(i) - modifiedSup[i] * b.get(i + 1));
+        }
+    }
+
+    static double requireNonSingular(double pivot) {
+        if (Math.abs(pivot) <= TINY) {
+            throw new SingularMatrixException();
+        }
+        return pivot;
+    }
+}
@@ -0,0 +1,127 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.NotPositiveDefiniteMatrixException;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the Cholesky decomposition A = LL' of symmetric positive definite matrices, using the right-looking
+ * blocked algorithm of LAPACK's dpotrf.
+ *
+ * Only the lower triangle of A is read, and copied into a row-major array. For each panel of
+ * {@link #BLOCK_SIZE} columns, the diagonal block is factored, the rows below it are solved with its transpose,
+ * giving L21, and the lower triangle of the trailing matrix is updated by A22 = A22 - L21 * L21'. The update is done
+ * one block row at a time by the blocked kernel of {@link MatrixMultiplication}, skipping the blocks above the
+ * diagonal, and each block row may be split into parallel tiles. The decomposition takes n^3/3 operations, half
+ * of LU decomposition, and needs no pivoting.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class BlockedCholeskyDecomposition {
+    /**
+     * The number of columns in a panel
+     */
+    static final int BLOCK_SIZE = 64;
+
+    private BlockedCholeskyDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified matrix, which is not modified.
+     *
+     * @param a the symmetric positive definite n x n matrix A to decompose, of which the lower triangle is read
+     * @param parallelism the parallel setting for the trailing matrix updates
+     * @return the result of the Cholesky decomposition
+     * @throws NotPositiveDefiniteMatrixException when matrix is not positive definite
+     */
+    public static CholeskyDecompositionResult decompose(MatrixBuffer a, Parallelism parallelism) {
+        return decompose(a, BLOCK_SIZE, parallelism);
+    }
+
+    static CholeskyDecompositionResult decompose(MatrixBuffer a, int blockSize, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "Cholesky decomposition can be performed on a square matrix only");
+        require(() -> a.size().rows() <= BlockedLUDecomposition.MAX_SIZE, "Cholesky decomposition can be performed on matrices of size up to " + BlockedLUDecomposition.MAX_SIZE + " only");
+        require(() -> blockSize > 0, "block size must be positive");
+
+        int n = a.size().rows();
+        MatrixBuffer l = FixedRowMajorMatrixBuffer.allocate(n, n);
+        double[] v = ((ArrayBackedMatrixBuffer) l).array();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                v[i * n + j] = a.get(i, j);
+            }
+        }
+
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int k1 = Math.min(k0 + blockSize, n);
+            factorDiagonalBlock(v, n, k0, k1);
+
+            if (k1 < n) {
+                solvePanel(v, n, k0, k1);
+
+                MatrixBuffer l21 = l.view(k1, n, k0, k1);
+                for (int r0 = k1; r0 < n; r0 += blockSize) {
+                    int r1 = Math.min(r0 + blockSize, n);
+                    MatrixBuffer rows = l21.view(r0 - k1, r1 - k1, 0, k1 - k0);
+                    MatrixBuffer cols = l21.view(0, r1 - k1, 0, k1 - k0).transpose();
+                    MatrixMultiplication.multiply(-1.0d, rows, cols, 1.0d, l.view(r0, r1, k1, r1), parallelism);
+                }
+            }
+        }
+
+        // Clear the upper triangle of the trailing updates, as L is lower triangular
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                v[i * n + j] = 0.0d;
+            }
+        }
+        return new CholeskyDecompositionResult(l);
+    }
+
+    /**
+     * Factors the diagonal block of columns k0 to k1 in place, row by row
+     */
+    private static void factorDiagonalBlock(double[] v, int n, int k0, int k1) {
+        for (int j = k0; j < k1; j++) {
+            double sum = v[j * n + j];
+            for (int p = k0; p < j; p++) {
+                sum -= v[j * n + p] * v[j * n + p];
+            }
+            if (!(sum > 0.0d)) {
+                throw new NotPositiveDefiniteMatrixException(j + 1);
+            }
+            double diagonal = Math.sqrt(sum);
+            v[j * n + j] = diagonal;
+
+            for (int i = j + 1; i < k1; i++) {
+                double s = v[i * n + j];
+                for (int p = k0; p < j; p++) {
+                    s -= v[i * n + p] * v[j * n + p];
+                }
+                v[i * n + j] = s / diagonal;
+            }
+        }
+    }
+
+    /**
+     * Solves L21 * L11' = A21 for L21, overwriting A21, i.e. the rows below the diagonal block
+     */
+    private static void solvePanel(double[] v, int n, int k0, int k1) {
+        for (int i = k1; i < n; i++) {
+            for (int j = k0; j < k1; j++) {
+                double s = v[i * n + j];
+                for (int p = k0; p < j; p++) {
+                    s -= v[i * n + p] * v[j * n + p];
+                }
+                v[i * n + j] = s / v[j * n + j];
+            }
+        }
+    }
+}
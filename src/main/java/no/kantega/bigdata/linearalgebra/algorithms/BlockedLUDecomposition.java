@@ -0,0 +1,153 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements LU decomposition with partial pivoting, using the right-looking blocked algorithm of LAPACK's dgetrf.
+ *
+ * The matrix is copied into a row-major array and processed as panels of {@link #BLOCK_SIZE} columns. For each
+ * panel, the columns are factored one by one with partial pivoting, swapping whole rows. Then the block row to the
+ * right of the panel is solved with the unit lower triangle of the panel, giving U12. Finally, the trailing matrix
+ * is updated by A22 = A22 - L21 * U12 in a single call to the blocked kernel of {@link MatrixMultiplication},
+ * which may be split into parallel tiles. Thus, about all of the 2n^3/3 operations are done by the matrix
+ * multiplication kernel, and the rest works along contiguous rows.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class BlockedLUDecomposition {
+    /**
+     * The number of columns in a panel
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * The largest size of which the n^2 elements can be held, and indexed by int, in a single array
+     */
+    static final int MAX_SIZE = 46340;
+
+    private static final double TINY = 1e-20;
+
+    private BlockedLUDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified matrix, which is not modified.
+     *
+     * @param a the n x n matrix A to decompose, where n is at most {@link #MAX_SIZE}
+     * @param parallelism the parallel setting for the trailing matrix updates
+     * @return the result of the LU decomposition
+     * @throws SingularMatrixException when matrix is singular
+     */
+    public static LUDecompositionResult decompose(MatrixBuffer a, Parallelism parallelism) {
+        return decompose(a, BLOCK_SIZE, parallelism);
+    }
+
+    static LUDecompositionResult decompose(MatrixBuffer a, int blockSize, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "LU decomposition can be performed on a square matrix only");
+        require(() -> a.size().rows() <= MAX_SIZE, "LU decomposition can be performed on matrices of size up to " + MAX_SIZE + " only");
+        require(() -> blockSize > 0, "block size must be positive");
+
+        int n = a.size().rows();
+        MatrixBuffer lu = FixedRowMajorMatrixBuffer.allocate(n, n);
+        double[] v = ((ArrayBackedMatrixBuffer) lu).array();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                v[i * n + j] = a.get(i, j);
+            }
+        }
+
+        int[] pi = new int[n];
+        for (int i = 0; i < n; i++) {
+            pi[i] = i;
+        }
+        double signOfDeterminant = 1.0d;
+
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int k1 = Math.min(k0 + blockSize, n);
+            signOfDeterminant *= factorPanel(v, n, pi, k0, k1);
+
+            if (k1 < n) {
+                solveBlockRow(v, n, k0, k1);
+
+                MatrixMultiplication.multiply(-1.0d, lu.view(k1, n, k0, k1), lu.view(k0, k1, k1, n), 1.0d, lu.view(k1, n, k1, n), parallelism);
+            }
+        }
+
+        return new LUDecompositionResult(lu, pi, signOfDeterminant);
+    }
+
+    /**
+     * Factors the columns k0 to k1 of the rows from k0 and down, swapping whole rows as pivots are chosen.
+     * Only the panel columns are updated; the columns to the right are left to the block row solve and the
+     * trailing update.
+     *
+     * @return the sign change of the determinant caused by the row swaps
+     */
+    private static double factorPanel(double[] v, int n, int[] pi, int k0, int k1) {
+        double sign = 1.0d;
+        for (int k = k0; k < k1; k++) {
+            int pivot = k;
+            double maxAbs = Math.abs(v[k * n + k]);
+            for (int r = k + 1; r < n; r++) {
+                double absValue = Math.abs(v[r * n + k]);
+                if (absValue > maxAbs) {
+                    maxAbs = absValue;
+                    pivot = r;
+                }
+            }
+            if (maxAbs <= TINY) {
+                throw new SingularMatrixException();
+            }
+
+            if (pivot != k) {
+                for (int c = 0; c < n; c++) {
+                    double tmp = v[k * n + c];
+                    v[k * n + c] = v[pivot * n + c];
+                    v[pivot * n + c] = tmp;
+                }
+                int tmp = pi[k];
+                pi[k] = pi[pivot];
+                pi[pivot] = tmp;
+                sign = -sign;
+            }
+
+            double diagonal = v[k * n + k];
+            for (int r = k + 1; r < n; r++) {
+                double multiplier = v[r * n + k] / diagonal;
+                v[r * n + k] = multiplier;
+                if (multiplier != 0.0d) {
+                    for (int c = k + 1; c < k1; c++) {
+                        v[r * n + c] -= multiplier * v[k * n + c];
+                    }
+                }
+            }
+        }
+        return sign;
+    }
+
+    /**
+     * Solves L11 * U12 = A12 for U12 by forward substitution with the unit lower triangle of the panel,
+     * overwriting A12, i.e. the rows k0 to k1 right of the panel.
+     */
+    private static void solveBlockRow(double[] v, int n, int k0, int k1) {
+        for (int i = k0 + 1; i < k1; i++) {
+            for (int t = k0; t < i; t++) {
+                double multiplier = v[i * n + t];
+                if (multiplier != 0.0d) {
+                    for (int c = k1; c < n; c++) {
+                        v[i * n + c] -= multiplier * v[t * n + c];
+                    }
+                }
+            }
+        }
+    }
+}
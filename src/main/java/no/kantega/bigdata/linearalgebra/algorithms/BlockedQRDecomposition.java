@@ -0,0 +1,231 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements QR decomposition by Householder reflections, using the blocked algorithm of LAPACK's dgeqrf.
+ *
+ * The m x n matrix, having m >= n, is copied into a row-major array and processed as panels of
+ * {@link #BLOCK_SIZE} columns. The columns of a panel are reduced one by one, each by a reflector
+ * H = I - tau * v * v', applied to the rest of the panel only. Then the reflectors of the panel are accumulated
+ * in the compact WY representation H1 * H2 * ... * Hb = I - V * T * V', where T is upper triangular (dlarft),
+ * and applied to the trailing columns at once by C = C - V * (T' * (V' * C)) (dlarfb). The two large products are
+ * done by the blocked kernel of {@link MatrixMultiplication}, which may split them into parallel tiles.
+ *
+ * On return, R is stored on and above the diagonal, and the reflectors v below it, their leading 1's not stored.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class BlockedQRDecomposition {
+    /**
+     * The number of columns in a panel
+     */
+    static final int BLOCK_SIZE = 32;
+
+    private BlockedQRDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified matrix, which is not modified.
+     *
+     * @param a the m x n matrix A to decompose, having m >= n
+     * @param parallelism the parallel setting for the trailing matrix updates
+     * @return the result of the QR decomposition
+     */
+    public static QRDecompositionResult decompose(MatrixBuffer a, Parallelism parallelism) {
+        return decompose(a, BLOCK_SIZE, parallelism);
+    }
+
+    static QRDecompositionResult decompose(MatrixBuffer a, int blockSize, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> a.size().rows() >= a.size().cols(), "QR decomposition requires at least as many rows as columns");
+        require(() -> blockSize > 0, "block size must be positive");
+
+        int m = a.size().rows();
+        int n = a.size().cols();
+        MatrixBuffer qr = FixedRowMajorMatrixBuffer.allocate(m, n);
+        double[] v = ((ArrayBackedMatrixBuffer) qr).array();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                v[i * n + j] = a.get(i, j);
+            }
+        }
+
+        double[] tau = new double[n];
+        for (int k0 = 0; k0 < n; k0 += blockSize) {
+            int k1 = Math.min(k0 + blockSize, n);
+            factorPanel(v, m, n, tau, k0, k1);
+
+            if (k1 < n) {
+                MatrixBuffer y = reflectors(v, m, n, k0, k1);
+                double[] t = triangularFactor(y, tau, k0, k1);
+
+                // W = V' * C, W = T' * W and C = C - V * W, where C is the trailing matrix
+                MatrixBuffer c = qr.view(k0, m, k1, n);
+                MatrixBuffer w = FixedRowMajorMatrixBuffer.allocate(k1 - k0, n - k1);
+                MatrixMultiplication.multiply(1.0d, y.transpose(), c, 0.0d, w, parallelism);
+                multiplyTransposedFactor(t, k1 - k0, w);
+                MatrixMultiplication.multiply(-1.0d, y, w, 1.0d, c, parallelism);
+            }
+        }
+
+        return new QRDecompositionResult(qr, tau);
+    }
+
+    /**
+     * Reduces the columns k0 to k1, applying each reflector to the remaining columns of the panel only
+     */
+    private static void factorPanel(double[] v, int m, int n, double[] tau, int k0, int k1) {
+        double[] w = new double[k1 - k0];
+        for (int j = k0; j < k1; j++) {
+            tau[j] = householder(v, m, n, j);
+            if (tau[j] == 0.0d || j + 1 == k1) {
+                continue;
+            }
+
+            // w = v' * A(j:m, j+1:k1), then A = A - tau * v * w, row by row
+            for (int c = j + 1; c < k1; c++) {
+                w[c - k0] = v[j * n + c];
+            }
+            for (int i = j + 1; i < m; i++) {
+                double vi = v[i * n + j];
+                if (vi != 0.0d) {
+                    for (int c = j + 1; c < k1; c++) {
+                        w[c - k0] += vi * v[i * n + c];
+                    }
+                }
+            }
+            for (int c = j + 1; c < k1; c++) {
+                v[j * n + c] -= tau[j] * w[c - k0];
+            }
+            for (int i = j + 1; i < m; i++) {
+                double factor = tau[j] * v[i * n + j];
+                if (factor != 0.0d) {
+                    for (int c = j + 1; c < k1; c++) {
+                        v[i * n + c] -= factor * w[c - k0];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the reflector annihilating column j below the diagonal, as dlarfg does. The diagonal element is
+     * replaced by beta = -sign(alpha) * norm, and the elements below by v, scaled to have a leading 1.
+     *
+     * @return the scalar factor tau of the reflector, being zero when there is nothing to annihilate
+     */
+    private static double householder(double[] v, int m, int n, int j) {
+        double scale = 0.0d;
+        for (int i = j + 1; i < m; i++) {
+            scale = Math.max(scale, Math.abs(v[i * n + j]));
+        }
+        if (scale == 0.0d) {
+            return 0.0d;
+        }
+
+        // Sums squares of the scaled elements, to avoid overflow and underflow
+        double sum = 0.0d;
+        for (int i = j + 1; i < m; i++) {
+            double scaled = v[i * n + j] / scale;
+            sum += scaled * scaled;
+        }
+        double alpha = v[j * n + j];
+        double beta = -Math.copySign(Math.hypot(alpha, scale * Math.sqrt(sum)), alpha);
+
+        double multiplier = 1.0d / (alpha - beta);
+        for (int i = j + 1; i < m; i++) {
+            v[i * n + j] *= multiplier;
+        }
+        v[j * n + j] = beta;
+        return (beta - alpha) / beta;
+    }
+
+    /**
+     * Copies the reflectors of the panel into the columns of V, being unit lower trapezoidal
+     */
+    private static MatrixBuffer reflectors(double[] v, int m, int n, int k0, int k1) {
+        int kb = k1 - k0;
+        MatrixBuffer y = FixedRowMajorMatrixBuffer.allocate(m - k0, kb);
+        double[] values = ((ArrayBackedMatrixBuffer) y).array();
+        for (int i = k0; i < m; i++) {
+            int columns = Math.min(i - k0, kb);
+            System.arraycopy(v, i * n + k0, values, (i - k0) * kb, columns);
+            if (columns < kb) {
+                values[(i - k0) * kb + columns] = 1.0d;
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Forms the upper triangular factor T of the block reflector column by column, by T(0:j, j) =
+     * -tau_j * T(0:j, 0:j) * V(:, 0:j)' * v_j, as dlarft does
+     *
+     * @return T as a row-major kb x kb array
+     */
+    private static double[] triangularFactor(MatrixBuffer y, double[] tau, int k0, int k1) {
+        int kb = k1 - k0;
+        int rows = y.size().rows();
+        double[] values = ((ArrayBackedMatrixBuffer) y).array();
+        double[] t = new double[kb * kb];
+        double[] z = new double[kb];
+        for (int j = 0; j < kb; j++) {
+            double tauJ = tau[k0 + j];
+            t[j * kb + j] = tauJ;
+            if (j == 0 || tauJ == 0.0d) {
+                continue;
+            }
+
+            // z = V(:, 0:j)' * v_j, where v_j is zero above row j
+            for (int p = 0; p < j; p++) {
+                z[p] = 0.0d;
+            }
+            for (int i = j; i < rows; i++) {
+                double vij = values[i * kb + j];
+                if (vij != 0.0d) {
+                    for (int p = 0; p < j; p++) {
+                        z[p] += values[i * kb + p] * vij;
+                    }
+                }
+            }
+            for (int p = 0; p < j; p++) {
+                double sum = 0.0d;
+                for (int q = p; q < j; q++) {
+                    sum += t[p * kb + q] * z[q];
+                }
+                t[p * kb + j] = -tauJ * sum;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Overwrites W by T' * W, going upwards as row i of the product only depends on the rows 0 to i of W
+     */
+    private static void multiplyTransposedFactor(double[] t, int kb, MatrixBuffer w) {
+        int cols = w.size().cols();
+        double[] values = ((ArrayBackedMatrixBuffer) w).array();
+        for (int i = kb - 1; i >= 0; i--) {
+            double diagonal = t[i * kb + i];
+            for (int c = 0; c < cols; c++) {
+                values[i * cols + c] *= diagonal;
+            }
+            for (int p = 0; p < i; p++) {
+                double factor = t[p * kb + i];
+                if (factor != 0.0d) {
+                    for (int c = 0; c < cols; c++) {
+                        values[i * cols + c] += factor * values[p * cols + c];
+                    }
+                }
+            }
+        }
+    }
+}
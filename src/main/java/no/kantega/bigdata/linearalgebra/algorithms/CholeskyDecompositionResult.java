@@ -0,0 +1,260 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.LowerTriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SymmetricPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Holds the result of a Cholesky decomposition A = LL', see {@link BlockedCholeskyDecomposition}.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CholeskyDecompositionResult {
+    private final double[] l;
+    private final int n;
+
+    /**
+     * Constructs a Cholesky decomposition result object.
+     *
+     * @param l the row-major n x n buffer holding L, with zeros above the diagonal
+     */
+    CholeskyDecompositionResult(MatrixBuffer l) {
+        this.l = ((ArrayBackedMatrixBuffer) l).array();
+        this.n = l.size().rows();
+    }
+
+    /**
+     * Gets the lower triangular matrix L, stored packed
+     *
+     * @return the lower triangular matrix
+     */
+    public Matrix lowerMatrix() {
+        LowerTriangularPackedMatrixBuffer lower = LowerTriangularPackedMatrixBuffer.allocate(n);
+        double[] values = lower.array();
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(l, i * n, values, k, i + 1);
+            k += i + 1;
+        }
+        return Matrix.from(lower);
+    }
+
+    /**
+     * Gets the determinant of the original matrix, being the square of the product of the diagonal of L
+     *
+     * @return the determinant
+     */
+    public double determinant() {
+        double det = 1.0d;
+        for (int i = 0; i < n; i++) {
+            det *= l[i * n + i];
+        }
+        return det * det;
+    }
+
+    /**
+     * Gets the natural logarithm of the determinant of the original matrix. Unlike the determinant, it does not
+     * overflow or underflow for large matrices, e.g. when evaluating the likelihood of a multivariate normal
+     * distribution.
+     *
+     * @return the logarithm of the determinant
+     */
+    public double logDeterminant() {
+        double sum = 0.0d;
+        for (int i = 0; i < n; i++) {
+            sum += Math.log(l[i * n + i]);
+        }
+        return 2.0d * sum;
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b, by solving Ly = b for y and L'x = y for x.
+     *
+     * @param b the right hand side values of the equations
+     * @return the solution vector x
+     */
+    public Vector solve(Vector b) {
+        requireNonNull(b, "b can't be null");
+        Vector x = Vector.zero(n);
+        solveInto(b, x);
+        return x;
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b into the specified vector, allocating nothing.
+     *
+     * @param b the right hand side values of the equations
+     * @param x the vector receiving the solution, which may be b itself
+     */
+    public void solveInto(Vector b, Vector x) {
+        requireNonNull(b, "b can't be null");
+        requireNonNull(x, "x can't be null");
+        require(() -> b.dimension() == n && x.dimension() == n, "dimensions of b and x must match order of matrix");
+
+        VectorBuffer bb = b.buffer();
+        VectorBuffer xb = x.buffer();
+
+        // Solves Ly = b for y, along the rows of L
+        for (int i = 0; i < n; i++) {
+            double sum = bb.get(i);
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * n + k] * xb.get(k);
+            }
+            xb.set(i, sum / l[i * n + i]);
+        }
+
+        // Solves L'x = y for x, along the columns of L
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = xb.get(i);
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k * n + i] * xb.get(k);
+            }
+            xb.set(i, sum / l[i * n + i]);
+        }
+    }
+
+    /**
+     * Solves the linear systems of equations AX = B for all columns of B at once.
+     *
+     * @param b the right hand sides of the equations, as columns
+     * @return the solutions, as columns
+     * @see #solve(Matrix, Parallelism)
+     */
+    public Matrix solve(Matrix b) {
+        return solve(b, Parallelism.sequential());
+    }
+
+    /**
+     * Solves the linear systems of equations AX = B for all columns of B at once, splitting the columns into
+     * parallel tasks according to specified setting.
+     *
+     * The solutions are held in a row-major matrix, starting out as B, and the substitutions subtract multiples
+     * of whole rows of it.
+     *
+     * @param b the right hand sides of the equations, as columns
+     * @param parallelism the parallel setting
+     * @return the solutions, as columns
+     */
+    public Matrix solve(Matrix b, Parallelism parallelism) {
+        requireNonNull(b, "b can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> b.size().rows() == n, "number of rows in B must match order of matrix");
+
+        int cols = b.size().cols();
+        MatrixBuffer x = FixedRowMajorMatrixBuffer.allocate(n, cols);
+        double[] values = ((ArrayBackedMatrixBuffer) x).array();
+        b.forEachElement((i, j, v) -> values[i * cols + j] = v);
+
+        SolveTask task = new SolveTask(values, cols, parallelism, 0, cols);
+        if (parallelism.shouldSplit(task.flops())) {
+            parallelism.invoke(task);
+        } else {
+            task.compute();
+        }
+        return Matrix.from(x);
+    }
+
+    /**
+     * Calculates the inverse of the original matrix, by solving AX = I. As the inverse is symmetric, it is
+     * stored packed.
+     *
+     * @return the inverse of the original matrix
+     */
+    public Matrix inverse() {
+        Matrix x = solve(Matrix.identity(n));
+        SymmetricPackedMatrixBuffer inverse = SymmetricPackedMatrixBuffer.allocate(n);
+        x.forEachElement((i, j, v) -> {
+            if (i >= j) {
+                inverse.set(i, j, v);
+            }
+        });
+        return Matrix.from(inverse);
+    }
+
+    /**
+     * Solves LL'X = B for the specified columns of X, which holds B on entry
+     */
+    private void substitute(double[] x, int cols, int colFrom, int colTo) {
+        // Forward substitution with L
+        for (int i = 0; i < n; i++) {
+            int row = i * cols;
+            for (int k = 0; k < i; k++) {
+                double multiplier = l[i * n + k];
+                if (multiplier != 0.0d) {
+                    int other = k * cols;
+                    for (int j = colFrom; j < colTo; j++) {
+                        x[row + j] -= multiplier * x[other + j];
+                    }
+                }
+            }
+            double divisor = l[i * n + i];
+            for (int j = colFrom; j < colTo; j++) {
+                x[row + j] /= divisor;
+            }
+        }
+
+        // Back substitution with L', whose row i is column i of L
+        for (int i = n - 1; i >= 0; i--) {
+            int row = i * cols;
+            for (int k = i + 1; k < n; k++) {
+                double multiplier = l[k * n + i];
+                if (multiplier != 0.0d) {
+                    int other = k * cols;
+                    for (int j = colFrom; j < colTo; j++) {
+                        x[row + j] -= multiplier * x[other + j];
+                    }
+                }
+            }
+            double divisor = l[i * n + i];
+            for (int j = colFrom; j < colTo; j++) {
+                x[row + j] /= divisor;
+            }
+        }
+    }
+
+    /**
+     * Solves for a block of columns, recursively splitting it in halves until the work falls below the
+     * flop threshold, or the block gets too narrow
+     */
+    private class SolveTask extends RecursiveAction {
+        private final double[] x;
+        private final int cols;
+        private final Parallelism parallelism;
+        private final int colFrom, colTo;
+
+        SolveTask(double[] x, int cols, Parallelism parallelism, int colFrom, int colTo) {
+            this.x = x;
+            this.cols = cols;
+            this.parallelism = parallelism;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        long flops() {
+            return 2L * n * n * (colTo - colFrom);
+        }
+
+        @Override
+        protected void compute() {
+            int width = colTo - colFrom;
+            if (!parallelism.shouldSplit(flops()) || width < 2 * LUDecompositionResult.MIN_COLUMNS) {
+                substitute(x, cols, colFrom, colTo);
+            } else {
+                int colMid = colFrom + width / 2;
+                invokeAll(new SolveTask(x, cols, parallelism, colFrom, colMid),
+                          new SolveTask(x, cols, parallelism, colMid, colTo));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Solves Ax = b for symmetric positive definite A by the preconditioned conjugate gradient method.
+ *
+ * A is known by its products with vectors only, see {@link LinearOperator}, so sparse systems are solved in O(nnz)
+ * operations and memory per iteration, rather than the O(n^3) operations and O(n^2) memory of a dense
+ * decomposition. Each iteration takes one product with A, one application of the preconditioner, see
+ * {@link Preconditioner}, two inner products and three vector updates. The residual, search direction and their
+ * products are held in four work vectors, allocated once per solve, besides the solution.
+ *
+ * The iteration stops when the relative residual norm |b - Ax| / |b| reaches the tolerance, after the maximum number
+ * of iterations, or when stopped by the listener. The solution may be warm started from an initial guess, such as
+ * the solution of a nearby system.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class ConjugateGradient {
+    static final double DEFAULT_TOLERANCE = 1.0e-10d;
+
+    private ConjugateGradient() {
+    }
+
+    /**
+     * Solves Ax = b, starting from x = 0, to the default tolerance within 10n iterations.
+     *
+     * @param a the symmetric positive definite n x n operator A
+     * @param b the right hand side vector b
+     * @param preconditioner the preconditioner of A
+     * @return the solution, and the state of the iteration
+     */
+    public static ConjugateGradientResult solve(LinearOperator a, Vector b, Preconditioner preconditioner) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        return solve(a, b, Vector.zero(b.dimension()), preconditioner, DEFAULT_TOLERANCE, defaultMaxIterations(b.dimension()), (iteration, residual) -> true);
+    }
+
+    /**
+     * Solves Ax = b, starting from the specified initial guess, to the default tolerance within 10n iterations.
+     *
+     * @param a the symmetric positive definite n x n operator A
+     * @param b the right hand side vector b
+     * @param x0 the initial guess, which is not modified
+     * @param preconditioner the preconditioner of A
+     * @return the solution, and the state of the iteration
+     */
+    public static ConjugateGradientResult solve(LinearOperator a, Vector b, Vector x0, Preconditioner preconditioner) {
+        requireNonNull(b, "b can't be null");
+        return solve(a, b, x0, preconditioner, DEFAULT_TOLERANCE, defaultMaxIterations(b.dimension()), (iteration, residual) -> true);
+    }
+
+    /**
+     * Solves Ax = b, starting from the specified initial guess.
+     *
+     * @param a the symmetric positive definite n x n operator A
+     * @param b the right hand side vector b
+     * @param x0 the initial guess, which is not modified
+     * @param preconditioner the preconditioner of A
+     * @param tolerance the relative residual norm to reach
+     * @param maxIterations the maximum number of iterations
+     * @param listener the listener notified after each iteration
+     * @return the solution, and the state of the iteration
+     * @throws IllegalArgumentException when A or the preconditioner is found not to be positive definite
+     */
+    public static ConjugateGradientResult solve(LinearOperator a, Vector b, Vector x0, Preconditioner preconditioner,
+                                                double tolerance, int maxIterations, ConvergenceListener listener) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(x0, "x0 can't be null");
+        requireNonNull(preconditioner, "preconditioner can't be null");
+        requireNonNull(listener, "listener can't be null");
+        int n = b.dimension();
+        require(() -> a.size().rows() == n && a.size().cols() == n, "size of A must match dimension of b");
+        require(() -> x0.dimension() == n, "dimension of x0 must match dimension of b");
+        require(() -> tolerance > 0.0d, "tolerance must be positive");
+        require(() -> maxIterations >= 0, "maxIterations can't be negative");
+
+        double[] x = new double[n];
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] q = new double[n];
+        Vector xVector = view(x);
+        Vector rVector = view(r);
+        Vector zVector = view(z);
+        Vector pVector = view(p);
+        Vector qVector = view(q);
+
+        // r = b - A x0
+        VectorBuffer bBuffer = b.buffer();
+        VectorBuffer x0Buffer = x0.buffer();
+        double bNorm = 0.0d;
+        for (int i = 0; i < n; i++) {
+            x[i] = x0Buffer.get(i);
+            double bi = bBuffer.get(i);
+            bNorm += bi * bi;
+        }
+        bNorm = Math.sqrt(bNorm);
+        if (bNorm == 0.0d) {
+            return new ConjugateGradientResult(Vector.zero(n), 0, 0.0d, true);
+        }
+        a.apply(xVector, qVector);
+        for (int i = 0; i < n; i++) {
+            r[i] = bBuffer.get(i) - q[i];
+        }
+
+        double residual = norm(r) / bNorm;
+        preconditioner.apply(rVector, zVector);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = dot(r, z);
+
+        int iteration = 0;
+        while (residual > tolerance && iteration < maxIterations) {
+            a.apply(pVector, qVector);
+            double pq = dot(p, q);
+            require(() -> pq > 0.0d, "A must be positive definite");
+
+            double alpha = rz / pq;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * q[i];
+            }
+            iteration++;
+            residual = norm(r) / bNorm;
+            if (!listener.iterated(iteration, residual)) {
+                break;
+            }
+
+            preconditioner.apply(rVector, zVector);
+            double rzNext = dot(r, z);
+            require(() -> rzNext >= 0.0d, "preconditioner must be positive definite");
+            double beta = rzNext / rz;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+            rz = rzNext;
+        }
+        return new ConjugateGradientResult(xVector, iteration, residual, residual <= tolerance);
+    }
+
+    private static int defaultMaxIterations(int n) {
+        return (int) Math.min(10L * n, Integer.MAX_VALUE);
+    }
+
+    private static Vector view(double[] values) {
+        return Vector.from(FixedVectorBuffer.from(values.length, values, 0, 1));
+    }
+
+    private static double dot(double[] x, double[] y) {
+        double sum = 0.0d;
+        for (int i = 0; i < x.length; i++) {
+            sum += x[i] * y[i];
+        }
+        return sum;
+    }
+
+    private static double norm(double[] x) {
+        return Math.sqrt(dot(x, x));
+    }
+}
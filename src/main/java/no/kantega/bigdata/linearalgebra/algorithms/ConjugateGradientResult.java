@@ -0,0 +1,69 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Vector;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds the result of solving Ax = b by the conjugate gradient method, see {@link ConjugateGradient}.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class ConjugateGradientResult {
+    private final Vector solution;
+    private final int iterations;
+    private final double residual;
+    private final boolean converged;
+
+    /**
+     * Constructs a conjugate gradient result object.
+     *
+     * @param solution the solution x
+     * @param iterations the number of iterations done
+     * @param residual the relative residual norm of the solution
+     * @param converged whether the residual reached the tolerance
+     */
+    ConjugateGradientResult(Vector solution, int iterations, double residual, boolean converged) {
+        this.solution = requireNonNull(solution, "solution can't be null");
+        this.iterations = iterations;
+        this.residual = residual;
+        this.converged = converged;
+    }
+
+    /**
+     * Gets the solution, being the last iterate when not converged
+     *
+     * @return the solution vector x
+     */
+    public Vector solution() {
+        return solution.copy();
+    }
+
+    /**
+     * Gets the number of iterations done, each taking one product with A and one application of the preconditioner
+     *
+     * @return the number of iterations
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the relative residual norm |b - Ax| / |b| of the solution, as updated by the iteration
+     *
+     * @return the relative residual norm
+     */
+    public double residual() {
+        return residual;
+    }
+
+    /**
+     * Gets whether the residual reached the tolerance, rather than the iteration stopping at the maximum number of
+     * iterations or by the listener
+     *
+     * @return true if converged; else false
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,19 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+/**
+ * Represents a callback notified after each iteration of an iterative solver, see {@link ConjugateGradient}, e.g.
+ * for logging the convergence history or stopping early.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+@FunctionalInterface
+public interface ConvergenceListener {
+    /**
+     * Notifies the listener of a completed iteration
+     *
+     * @param iteration the number of iterations done, starting at 1
+     * @param residual the relative residual norm |b - Ax| / |b| after the iteration
+     * @return true to continue iterating; false to stop at the current solution
+     */
+    boolean iterated(int iteration, double residual);
+}
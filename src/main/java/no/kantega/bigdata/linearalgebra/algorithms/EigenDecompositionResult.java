@@ -0,0 +1,74 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.precondition;
+
+/**
+ * Holds the result of an eigendecomposition A = XDX' of a symmetric matrix, see
+ * {@link SymmetricEigenDecomposition}. The eigenvalues are held in ascending order, and the columns of X are the
+ * corresponding orthonormal eigenvectors, unless the eigenvalues only were computed.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class EigenDecompositionResult {
+    private final double[] values;
+    private final Matrix vectors;
+
+    /**
+     * Constructs an eigendecomposition result object.
+     *
+     * @param values the eigenvalues, in ascending order
+     * @param vectors the eigenvectors, as columns, or null if not computed
+     */
+    EigenDecompositionResult(double[] values, Matrix vectors) {
+        this.values = requireNonNull(values, "values can't be null");
+        this.vectors = vectors;
+    }
+
+    /**
+     * Gets the eigenvalues, in ascending order
+     *
+     * @return the eigenvalues
+     */
+    public Vector eigenvalues() {
+        return Vector.of(Arrays.copyOf(values, values.length));
+    }
+
+    /**
+     * Gets whether the eigenvectors were computed
+     *
+     * @return true if the eigenvectors are available; else false
+     */
+    public boolean hasEigenvectors() {
+        return vectors != null;
+    }
+
+    /**
+     * Gets the eigenvectors, as the columns of an orthogonal matrix
+     *
+     * @return the matrix of eigenvectors
+     * @throws IllegalStateException when the eigenvalues only were computed
+     */
+    public Matrix eigenvectors() {
+        precondition(this::hasEigenvectors, "eigenvectors were not computed");
+        return vectors.copy();
+    }
+
+    /**
+     * Gets the diagonal matrix of eigenvalues
+     *
+     * @return the matrix D
+     */
+    public Matrix getD() {
+        Matrix d = Matrix.zero(values.length, values.length);
+        for (int i = 0; i < values.length; i++) {
+            d.setAt(i + 1, i + 1, values[i]);
+        }
+        return d;
+    }
+}
@@ -0,0 +1,382 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+/**
+ * Computes eigenvalues and eigenvectors of small nonsymmetric matrices, being the projections of the operator in
+ * {@link ArnoldiEigenSolver}.
+ *
+ * The matrix is reduced to upper Hessenberg form by Householder reflectors, and the eigenvalues are found by the
+ * Francis double shift QR algorithm (EISPACK's hqr). Complex conjugate pairs are stored consecutively, the one with
+ * positive imaginary part first. Eigenvectors are found one at a time by inverse iteration in complex arithmetic.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class HessenbergEigenSolver {
+    private static final double EPSILON = Math.ulp(1.0d);
+    private static final int MAX_ITERATIONS = 30;
+    private static final int INVERSE_ITERATIONS = 3;
+
+    private HessenbergEigenSolver() {
+    }
+
+    /**
+     * Computes the eigenvalues of the row-major n x n array a, which is not modified
+     *
+     * @param wr receives the real parts of the eigenvalues
+     * @param wi receives the imaginary parts of the eigenvalues
+     * @throws IllegalStateException when the QR iteration does not converge
+     */
+    static void eigenvalues(double[] a, int n, double[] wr, double[] wi) {
+        // A 1-based copy, as the QR iteration is formulated
+        double[][] h = new double[n + 1][n + 1];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(a, i * n, h[i + 1], 1, n);
+        }
+        reduce(h, n);
+        hqr(h, n, wr, wi);
+
+        for (int i = 0; i < n - 1; i++) {
+            if (wi[i] != 0.0d) {
+                if (wi[i] < 0.0d) {
+                    wi[i] = -wi[i];
+                    wi[i + 1] = -wi[i + 1];
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Computes the eigenvector of the row-major n x n array a, which is not modified, for the eigenvalue re + i im.
+     * The vector has unit length, and its component of largest magnitude is real.
+     *
+     * @param xr receives the real part of the eigenvector
+     * @param xi receives the imaginary part of the eigenvector
+     */
+    static void eigenvector(double[] a, int n, double re, double im, double[] xr, double[] xi) {
+        double norm = 0.0d;
+        for (double value : a) {
+            norm = Math.max(norm, Math.abs(value));
+        }
+        double tiny = Math.max(norm, 1.0d) * EPSILON;
+
+        // LU decomposition of A - lambda I with partial pivoting, the eigenvalue perturbed to keep it nonsingular
+        double[] lr = new double[n * n];
+        double[] li = new double[n * n];
+        for (int i = 0; i < n * n; i++) {
+            lr[i] = a[i];
+        }
+        for (int i = 0; i < n; i++) {
+            lr[i * n + i] -= re + tiny;
+            li[i * n + i] = -im;
+        }
+        int[] pivots = new int[n];
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.hypot(lr[i * n + k], li[i * n + k]) > Math.hypot(lr[p * n + k], li[p * n + k])) {
+                    p = i;
+                }
+            }
+            pivots[k] = p;
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    swap(lr, k * n + j, p * n + j);
+                    swap(li, k * n + j, p * n + j);
+                }
+            }
+            if (lr[k * n + k] == 0.0d && li[k * n + k] == 0.0d) {
+                lr[k * n + k] = tiny;
+            }
+            double pr = lr[k * n + k];
+            double pi = li[k * n + k];
+            double denominator = pr * pr + pi * pi;
+            for (int i = k + 1; i < n; i++) {
+                double sr = lr[i * n + k];
+                double si = li[i * n + k];
+                double fr = (sr * pr + si * pi) / denominator;
+                double fi = (si * pr - sr * pi) / denominator;
+                lr[i * n + k] = fr;
+                li[i * n + k] = fi;
+                for (int j = k + 1; j < n; j++) {
+                    lr[i * n + j] -= fr * lr[k * n + j] - fi * li[k * n + j];
+                    li[i * n + j] -= fr * li[k * n + j] + fi * lr[k * n + j];
+                }
+            }
+        }
+
+        // Each solve amplifies the wanted eigenvector by the inverse of the perturbation
+        for (int i = 0; i < n; i++) {
+            xr[i] = 1.0d;
+            xi[i] = 0.0d;
+        }
+        for (int iteration = 0; iteration < INVERSE_ITERATIONS; iteration++) {
+            for (int k = 0; k < n; k++) {
+                swap(xr, k, pivots[k]);
+                swap(xi, k, pivots[k]);
+            }
+            for (int k = 0; k < n; k++) {
+                for (int i = k + 1; i < n; i++) {
+                    double fr = lr[i * n + k];
+                    double fi = li[i * n + k];
+                    xr[i] -= fr * xr[k] - fi * xi[k];
+                    xi[i] -= fr * xi[k] + fi * xr[k];
+                }
+            }
+            for (int k = n - 1; k >= 0; k--) {
+                double sr = xr[k];
+                double si = xi[k];
+                for (int j = k + 1; j < n; j++) {
+                    sr -= lr[k * n + j] * xr[j] - li[k * n + j] * xi[j];
+                    si -= lr[k * n + j] * xi[j] + li[k * n + j] * xr[j];
+                }
+                double pr = lr[k * n + k];
+                double pi = li[k * n + k];
+                double denominator = pr * pr + pi * pi;
+                xr[k] = (sr * pr + si * pi) / denominator;
+                xi[k] = (si * pr - sr * pi) / denominator;
+            }
+            normalize(xr, xi, n);
+        }
+    }
+
+    /**
+     * Scales the complex vector to unit length, making its component of largest magnitude real and positive
+     */
+    private static void normalize(double[] xr, double[] xi, int n) {
+        int largest = 0;
+        double sum = 0.0d;
+        for (int i = 0; i < n; i++) {
+            double magnitude = Math.hypot(xr[i], xi[i]);
+            sum += magnitude * magnitude;
+            if (magnitude > Math.hypot(xr[largest], xi[largest])) {
+                largest = i;
+            }
+        }
+        double magnitude = Math.hypot(xr[largest], xi[largest]);
+        double length = Math.sqrt(sum);
+        double cr = xr[largest] / (magnitude * length);
+        double ci = -xi[largest] / (magnitude * length);
+        for (int i = 0; i < n; i++) {
+            double r = xr[i];
+            xr[i] = r * cr - xi[i] * ci;
+            xi[i] = r * ci + xi[i] * cr;
+        }
+        xi[largest] = 0.0d;
+    }
+
+    /**
+     * Reduces the 1-based matrix to upper Hessenberg form by similarity transforms with Householder reflectors
+     */
+    private static void reduce(double[][] a, int n) {
+        double[] u = new double[n + 1];
+        for (int k = 1; k <= n - 2; k++) {
+            double scale = 0.0d;
+            for (int i = k + 1; i <= n; i++) {
+                scale += Math.abs(a[i][k]);
+            }
+            if (scale == 0.0d) {
+                continue;
+            }
+
+            double h = 0.0d;
+            for (int i = k + 1; i <= n; i++) {
+                u[i] = a[i][k] / scale;
+                h += u[i] * u[i];
+            }
+            double g = u[k + 1] > 0.0d ? -Math.sqrt(h) : Math.sqrt(h);
+            h -= u[k + 1] * g;
+            u[k + 1] -= g;
+
+            // A = (I - uu'/h) A (I - uu'/h)
+            for (int j = k + 1; j <= n; j++) {
+                double f = 0.0d;
+                for (int i = k + 1; i <= n; i++) {
+                    f += u[i] * a[i][j];
+                }
+                f /= h;
+                for (int i = k + 1; i <= n; i++) {
+                    a[i][j] -= f * u[i];
+                }
+            }
+            for (int i = 1; i <= n; i++) {
+                double f = 0.0d;
+                for (int j = k + 1; j <= n; j++) {
+                    f += a[i][j] * u[j];
+                }
+                f /= h;
+                for (int j = k + 1; j <= n; j++) {
+                    a[i][j] -= f * u[j];
+                }
+            }
+            a[k + 1][k] = scale * g;
+            for (int i = k + 2; i <= n; i++) {
+                a[i][k] = 0.0d;
+            }
+        }
+    }
+
+    /**
+     * Finds the eigenvalues of the 1-based upper Hessenberg matrix, which is destroyed, by the Francis double shift
+     * QR algorithm with exceptional shifts after 10 and 20 iterations
+     */
+    private static void hqr(double[][] a, int n, double[] wr, double[] wi) {
+        double norm = 0.0d;
+        for (int i = 1; i <= n; i++) {
+            for (int j = Math.max(i - 1, 1); j <= n; j++) {
+                norm += Math.abs(a[i][j]);
+            }
+        }
+
+        int nn = n;
+        double t = 0.0d;
+        double p = 0.0d, q = 0.0d, r = 0.0d, x, y, z, w;
+        while (nn >= 1) {
+            int iterations = 0;
+            int l;
+            do {
+                // Look for a single small subdiagonal element
+                for (l = nn; l >= 2; l--) {
+                    double s = Math.abs(a[l - 1][l - 1]) + Math.abs(a[l][l]);
+                    if (s == 0.0d) {
+                        s = norm;
+                    }
+                    if (Math.abs(a[l][l - 1]) + s == s) {
+                        a[l][l - 1] = 0.0d;
+                        break;
+                    }
+                }
+                x = a[nn][nn];
+                if (l == nn) {
+                    // One root found
+                    wr[nn - 1] = x + t;
+                    wi[nn - 1] = 0.0d;
+                    nn--;
+                } else {
+                    y = a[nn - 1][nn - 1];
+                    w = a[nn][nn - 1] * a[nn - 1][nn];
+                    if (l == nn - 1) {
+                        // Two roots found
+                        p = 0.5d * (y - x);
+                        q = p * p + w;
+                        z = Math.sqrt(Math.abs(q));
+                        x += t;
+                        if (q >= 0.0d) {
+                            z = p + Math.copySign(z, p);
+                            wr[nn - 2] = x + z;
+                            wr[nn - 1] = z != 0.0d ? x - w / z : x + z;
+                            wi[nn - 2] = 0.0d;
+                            wi[nn - 1] = 0.0d;
+                        } else {
+                            wr[nn - 2] = x + p;
+                            wr[nn - 1] = x + p;
+                            wi[nn - 2] = -z;
+                            wi[nn - 1] = z;
+                        }
+                        nn -= 2;
+                    } else {
+                        if (iterations == MAX_ITERATIONS) {
+                            throw new IllegalStateException("QR iteration did not converge");
+                        }
+                        if (iterations == 10 || iterations == 20) {
+                            // Exceptional shift
+                            t += x;
+                            for (int i = 1; i <= nn; i++) {
+                                a[i][i] -= x;
+                            }
+                            double s = Math.abs(a[nn][nn - 1]) + Math.abs(a[nn - 1][nn - 2]);
+                            x = 0.75d * s;
+                            y = x;
+                            w = -0.4375d * s * s;
+                        }
+                        iterations++;
+
+                        // Look for two consecutive small subdiagonal elements
+                        int m;
+                        for (m = nn - 2; m >= l; m--) {
+                            z = a[m][m];
+                            r = x - z;
+                            double s = y - z;
+                            p = (r * s - w) / a[m + 1][m] + a[m][m + 1];
+                            q = a[m + 1][m + 1] - z - r - s;
+                            r = a[m + 2][m + 1];
+                            s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                            p /= s;
+                            q /= s;
+                            r /= s;
+                            if (m == l) {
+                                break;
+                            }
+                            double u = Math.abs(a[m][m - 1]) * (Math.abs(q) + Math.abs(r));
+                            double v = Math.abs(p) * (Math.abs(a[m - 1][m - 1]) + Math.abs(z) + Math.abs(a[m + 1][m + 1]));
+                            if (u + v == v) {
+                                break;
+                            }
+                        }
+                        for (int i = m + 2; i <= nn; i++) {
+                            a[i][i - 2] = 0.0d;
+                            if (i != m + 2) {
+                                a[i][i - 3] = 0.0d;
+                            }
+                        }
+
+                        // Double QR step on rows l to nn and columns m to nn
+                        for (int k = m; k <= nn - 1; k++) {
+                            if (k != m) {
+                                p = a[k][k - 1];
+                                q = a[k + 1][k - 1];
+                                r = k != nn - 1 ? a[k + 2][k - 1] : 0.0d;
+                                x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                                if (x != 0.0d) {
+                                    p /= x;
+                                    q /= x;
+                                    r /= x;
+                                }
+                            }
+                            double s = Math.copySign(Math.sqrt(p * p + q * q + r * r), p);
+                            if (s != 0.0d) {
+                                if (k == m) {
+                                    if (l != m) {
+                                        a[k][k - 1] = -a[k][k - 1];
+                                    }
+                                } else {
+                                    a[k][k - 1] = -s * x;
+                                }
+                                p += s;
+                                x = p / s;
+                                y = q / s;
+                                z = r / s;
+                                q /= p;
+                                r /= p;
+                                for (int j = k; j <= nn; j++) {
+                                    p = a[k][j] + q * a[k + 1][j];
+                                    if (k != nn - 1) {
+                                        p += r * a[k + 2][j];
+                                        a[k + 2][j] -= p * z;
+                                    }
+                                    a[k + 1][j] -= p * y;
+                                    a[k][j] -= p * x;
+                                }
+                                int last = Math.min(nn, k + 3);
+                                for (int i = l; i <= last; i++) {
+                                    p = x * a[i][k] + y * a[i][k + 1];
+                                    if (k != nn - 1) {
+                                        p += z * a[i][k + 2];
+                                        a[i][k + 2] -= p * r;
+                                    }
+                                    a[i][k + 1] -= p * q;
+                                    a[i][k] -= p;
+                                }
+                            }
+                        }
+                    }
+                }
+            } while (l < nn - 1);
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double temp = values[i];
+        values[i] = values[j];
+        values[j] = temp;
+    }
+}
@@ -0,0 +1,150 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.NotPositiveDefiniteMatrixException;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the incomplete Cholesky preconditioner with zero fill-in, IC(0), see
+ * {@link Preconditioner#incompleteCholesky}.
+ *
+ * The lower triangle of A is copied into CSR arrays holding L, and factored row by row: element l(i,k) is
+ * (a(i,k) - sum l(i,j) l(k,j)) / l(k,k) over the columns j < k stored in both rows i and k, found by merging the
+ * sorted rows, and fill-in outside the pattern is dropped. As A is symmetric, its CSR and CSC formats hold the same
+ * arrays, so either is read as CSR.
+ *
+ * The factorization exists for M-matrices, but may break down on other positive definite matrices by a
+ * non-positive pivot. Then it is restarted on A + sD for a growing shift s of the diagonal D (Manteuffel), which
+ * gives a somewhat weaker, but positive definite preconditioner.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class IncompleteCholeskyPreconditioner implements Preconditioner {
+    private static final double INITIAL_SHIFT = 1.0e-3d;
+    private static final int MAX_SHIFTS = 12;
+
+    private final int n;
+    private final int[] pointers;
+    private final int[] indices;
+    private final double[] values;
+
+    private IncompleteCholeskyPreconditioner(int n, int[] pointers, int[] indices, double[] values) {
+        this.n = n;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    static IncompleteCholeskyPreconditioner from(CompressedMatrixBuffer a) {
+        requireNonNull(a, "a can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "preconditioner can be created for a square matrix only");
+
+        // The lower triangle, with the diagonal last in each row
+        int n = a.size().rows();
+        int[] sourcePointers = a.pointers();
+        int[] sourceIndices = a.indices();
+        double[] sourceValues = a.values();
+        int[] pointers = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int entry = sourcePointers[i]; entry < sourcePointers[i + 1] && sourceIndices[entry] <= i; entry++) {
+                count++;
+            }
+            pointers[i + 1] = pointers[i] + count;
+        }
+        int[] indices = new int[pointers[n]];
+        double[] lower = new double[pointers[n]];
+        for (int i = 0; i < n; i++) {
+            int length = pointers[i + 1] - pointers[i];
+            System.arraycopy(sourceIndices, sourcePointers[i], indices, pointers[i], length);
+            System.arraycopy(sourceValues, sourcePointers[i], lower, pointers[i], length);
+            int last = pointers[i + 1] - 1;
+            int row = i;
+            require(() -> length > 0 && indices[last] == row && lower[last] > 0.0d, "diagonal elements must be positive");
+        }
+
+        double[] values = new double[lower.length];
+        int breakdown = factor(n, pointers, indices, lower, 0.0d, values);
+        for (double shift = INITIAL_SHIFT; breakdown > 0; shift *= 2.0d) {
+            if (shift > INITIAL_SHIFT * (1 << MAX_SHIFTS)) {
+                throw new NotPositiveDefiniteMatrixException(factor(n, pointers, indices, lower, 0.0d, values));
+            }
+            breakdown = factor(n, pointers, indices, lower, shift, values);
+        }
+        return new IncompleteCholeskyPreconditioner(n, pointers, indices, values);
+    }
+
+    /**
+     * Factors the lower triangle, with the diagonal scaled by 1 + shift, into values
+     *
+     * @return zero if all pivots were positive; else the row (1-based) of the first non-positive pivot
+     */
+    private static int factor(int n, int[] pointers, int[] indices, double[] lower, double shift, double[] values) {
+        for (int i = 0; i < n; i++) {
+            int diagonal = pointers[i + 1] - 1;
+            for (int entry = pointers[i]; entry < diagonal; entry++) {
+                int k = indices[entry];
+                double sum = lower[entry] - dot(indices, values, pointers[i], entry, pointers[k], pointers[k + 1] - 1);
+                values[entry] = sum / values[pointers[k + 1] - 1];
+            }
+            double pivot = lower[diagonal] * (1.0d + shift) - dot(indices, values, pointers[i], diagonal, pointers[i], diagonal);
+            if (pivot <= 0.0d) {
+                return i + 1;
+            }
+            values[diagonal] = Math.sqrt(pivot);
+        }
+        return 0;
+    }
+
+    /**
+     * Computes the inner product of two sorted sparse row segments, over their common column indices
+     */
+    private static double dot(int[] indices, double[] values, int from1, int to1, int from2, int to2) {
+        double sum = 0.0d;
+        int p = from1;
+        int q = from2;
+        while (p < to1 && q < to2) {
+            if (indices[p] < indices[q]) {
+                p++;
+            } else if (indices[p] > indices[q]) {
+                q++;
+            } else {
+                sum += values[p++] * values[q++];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void apply(Vector r, Vector z) {
+        require(() -> r.dimension() == n && z.dimension() == n, "dimensions of r and z must match size of preconditioner");
+
+        VectorBuffer source = r.buffer();
+        VectorBuffer target = z.buffer();
+
+        // Forward substitution L y = r, row by row
+        for (int i = 0; i < n; i++) {
+            int diagonal = pointers[i + 1] - 1;
+            double sum = source.get(i);
+            for (int entry = pointers[i]; entry < diagonal; entry++) {
+                sum -= values[entry] * target.get(indices[entry]);
+            }
+            target.set(i, sum / values[diagonal]);
+        }
+
+        // Backward substitution L' z = y, by the rows of L as columns of L'
+        for (int i = n - 1; i >= 0; i--) {
+            int diagonal = pointers[i + 1] - 1;
+            double zi = target.get(i) / values[diagonal];
+            target.set(i, zi);
+            for (int entry = pointers[i]; entry < diagonal; entry++) {
+                int k = indices[entry];
+                target.set(k, target.get(k) - values[entry] * zi);
+            }
+        }
+    }
+}
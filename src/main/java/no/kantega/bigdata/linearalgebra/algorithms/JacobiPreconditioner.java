@@ -0,0 +1,48 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the Jacobi (diagonal) preconditioner, see {@link Preconditioner#jacobi}. The reciprocals of the
+ * diagonal are computed once, so each application takes n multiplications.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class JacobiPreconditioner implements Preconditioner {
+    private final double[] inverseDiagonal;
+
+    private JacobiPreconditioner(double[] inverseDiagonal) {
+        this.inverseDiagonal = inverseDiagonal;
+    }
+
+    static JacobiPreconditioner from(MatrixBuffer a) {
+        requireNonNull(a, "a can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "preconditioner can be created for a square matrix only");
+
+        int n = a.size().rows();
+        double[] inverseDiagonal = new double[n];
+        for (int i = 0; i < n; i++) {
+            double d = a.get(i, i);
+            require(() -> d > 0.0d, "diagonal elements must be positive");
+            inverseDiagonal[i] = 1.0d / d;
+        }
+        return new JacobiPreconditioner(inverseDiagonal);
+    }
+
+    @Override
+    public void apply(Vector r, Vector z) {
+        require(() -> r.dimension() == inverseDiagonal.length && z.dimension() == inverseDiagonal.length,
+            "dimensions of r and z must match size of preconditioner");
+
+        VectorBuffer source = r.buffer();
+        VectorBuffer target = z.buffer();
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            target.set(i, inverseDiagonal[i] * source.get(i));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedColumnMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implements the singular value decomposition A = USV' by one-sided Jacobi rotations (Hestenes' method).
+ *
+ * Pairs of columns of a working copy W of the matrix are rotated until all columns are mutually orthogonal,
+ * accumulating the rotations in V. Then the singular values are the column norms of W, and the columns of U are
+ * the normalized columns of W. The pairs are visited in round-robin order, such that each round consists of n/2
+ * disjoint pairs, which may be rotated by parallel tasks. Singular values are computed to high relative accuracy.
+ *
+ * A tall m x n matrix is first reduced to its n x n R factor by {@link BlockedQRDecomposition}, as the sweeps are
+ * then done on n rows rather than m, and U is recovered by applying the implicit Q. A wide matrix is decomposed
+ * as its transpose, swapping U and V.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class JacobiSVD {
+    /**
+     * The maximum number of sweeps over all pairs of columns. Convergence is quadratic, and typically reached
+     * within 10 sweeps.
+     */
+    static final int MAX_SWEEPS = 60;
+
+    private JacobiSVD() {
+    }
+
+    /**
+     * Decomposes the specified matrix, which is not modified.
+     *
+     * @param a the m x n matrix to decompose
+     * @param thin whether to compute the thin decomposition, where U is m x k and V is n x k for k = min(m, n),
+     *             rather than the full one, where U is m x m and V is n x n
+     * @param parallelism the parallel setting
+     * @return the singular value decomposition
+     */
+    public static SVDResult decompose(MatrixBuffer a, boolean thin, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+
+        boolean wide = a.size().rows() < a.size().cols();
+        MatrixBuffer source = wide ? a.transpose() : a;
+        int m = source.size().rows();
+        int n = source.size().cols();
+
+        QRDecompositionResult qr = null;
+        MatrixBuffer core = source;
+        if (m > n) {
+            qr = BlockedQRDecomposition.decompose(source, parallelism);
+            core = qr.upperTriangle();
+        }
+
+        // Rotates W, being n x n from here, and V, both column-major
+        double[] w = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                w[j * n + i] = core.get(i, j);
+            }
+        }
+        MatrixBuffer v = FixedColumnMajorMatrixBuffer.allocate(n, n);
+        double[] vValues = ((ArrayBackedMatrixBuffer) v).array();
+        for (int i = 0; i < n; i++) {
+            vValues[i * n + i] = 1.0d;
+        }
+        orthogonalize(w, vValues, n, parallelism);
+
+        // Normalizes the columns of W, ordered by decreasing norm
+        double[] norms = new double[n];
+        for (int j = 0; j < n; j++) {
+            norms[j] = norm(w, j * n, n);
+        }
+        int[] order = IntStream.range(0, n).boxed()
+                .sorted((j1, j2) -> Double.compare(norms[j2], norms[j1]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        double[] values = new double[n];
+        MatrixBuffer uCore = FixedColumnMajorMatrixBuffer.allocate(n, n);
+        MatrixBuffer vSorted = FixedColumnMajorMatrixBuffer.allocate(n, n);
+        double[] u = ((ArrayBackedMatrixBuffer) uCore).array();
+        double[] vs = ((ArrayBackedMatrixBuffer) vSorted).array();
+        for (int k = 0; k < n; k++) {
+            int j = order[k];
+            values[k] = norms[j];
+            System.arraycopy(vValues, j * n, vs, k * n, n);
+            if (norms[j] > 0.0d) {
+                for (int i = 0; i < n; i++) {
+                    u[k * n + i] = w[j * n + i] / norms[j];
+                }
+            }
+        }
+        completeBasis(u, n, values);
+
+        Matrix left = Matrix.from(uCore);
+        Matrix right = Matrix.from(vSorted);
+        if (qr != null) {
+            // U = Q * [Ur 0; 0 I], of which the thin U is the first n columns
+            int cols = thin ? n : m;
+            MatrixBuffer padded = FixedColumnMajorMatrixBuffer.allocate(m, cols);
+            double[] p = ((ArrayBackedMatrixBuffer) padded).array();
+            for (int k = 0; k < n; k++) {
+                System.arraycopy(u, k * n, p, k * m, n);
+            }
+            for (int k = n; k < cols; k++) {
+                p[k * m + k] = 1.0d;
+            }
+            left = qr.multiplyQ(Matrix.from(padded));
+        }
+
+        return wide ? new SVDResult(right, values, left) : new SVDResult(left, values, right);
+    }
+
+    /**
+     * Rotates pairs of columns of W in round-robin order until they are all orthogonal to working precision,
+     * applying the same rotations to V
+     */
+    private static void orthogonalize(double[] w, double[] v, int n, Parallelism parallelism) {
+        // Round-robin pairing, padded with a dummy column (index n) when n is odd
+        int players = n + (n % 2);
+        int[] ring = IntStream.range(0, players).toArray();
+        boolean[] rotated = new boolean[players / 2];
+        double tolerance = n * Math.ulp(1.0d);
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean changed = false;
+            for (int round = 0; round < players - 1; round++) {
+                RoundTask task = new RoundTask(w, v, n, ring, rotated, tolerance, parallelism, 0, players / 2);
+                if (parallelism.shouldSplit(task.flops())) {
+                    parallelism.invoke(task);
+                } else {
+                    task.compute();
+                }
+                for (int p = 0; p < rotated.length; p++) {
+                    changed |= rotated[p];
+                }
+
+                // Keeps the first player fixed, and rotates the others one position
+                int last = ring[players - 1];
+                System.arraycopy(ring, 1, ring, 2, players - 2);
+                ring[1] = last;
+            }
+            if (!changed) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rotates the column pair (p, q), if not already orthogonal
+     *
+     * @return true if rotated; else false
+     */
+    private static boolean rotate(double[] w, double[] v, int n, int p, int q, double tolerance) {
+        int cp = p * n;
+        int cq = q * n;
+        double alpha = 0.0d, beta = 0.0d, gamma = 0.0d;
+        for (int i = 0; i < n; i++) {
+            double wp = w[cp + i];
+            double wq = w[cq + i];
+            alpha += wp * wp;
+            beta += wq * wq;
+            gamma += wp * wq;
+        }
+        if (alpha == 0.0d || beta == 0.0d || Math.abs(gamma) <= tolerance * Math.sqrt(alpha) * Math.sqrt(beta)) {
+            return false;
+        }
+
+        double zeta = (beta - alpha) / (2.0d * gamma);
+        double t = Math.copySign(1.0d, zeta) / (Math.abs(zeta) + Math.hypot(1.0d, zeta));
+        double c = 1.0d / Math.sqrt(1.0d + t * t);
+        double s = c * t;
+        for (int i = 0; i < n; i++) {
+            double wp = w[cp + i];
+            double wq = w[cq + i];
+            w[cp + i] = c * wp - s * wq;
+            w[cq + i] = s * wp + c * wq;
+        }
+        for (int i = 0; i < n; i++) {
+            double vp = v[cp + i];
+            double vq = v[cq + i];
+            v[cp + i] = c * vp - s * vq;
+            v[cq + i] = s * vp + c * vq;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the zero columns of the column-major n x n array U, belonging to zero singular values, by unit
+     * vectors orthogonalized against the other columns, such that U stays orthogonal
+     */
+    private static void completeBasis(double[] u, int n, double[] values) {
+        int candidate = 0;
+        for (int k = 0; k < n; k++) {
+            if (values[k] > 0.0d) {
+                continue;
+            }
+            while (candidate < n) {
+                Arrays.fill(u, k * n, (k + 1) * n, 0.0d);
+                u[k * n + candidate++] = 1.0d;
+
+                // Orthogonalizes twice, which is enough to be orthogonal to working precision
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int j = 0; j < n; j++) {
+                        if (j != k && (values[j] > 0.0d || j < k)) {
+                            double dot = 0.0d;
+                            for (int i = 0; i < n; i++) {
+                                dot += u[j * n + i] * u[k * n + i];
+                            }
+                            for (int i = 0; i < n; i++) {
+                                u[k * n + i] -= dot * u[j * n + i];
+                            }
+                        }
+                    }
+                }
+                double norm = norm(u, k * n, n);
+                if (norm > 0.5d) {
+                    for (int i = 0; i < n; i++) {
+                        u[k * n + i] /= norm;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    private static double norm(double[] v, int from, int length) {
+        double sum = 0.0d;
+        for (int i = from; i < from + length; i++) {
+            sum += v[i] * v[i];
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * Rotates a range of the disjoint pairs of a round, recursively splitting it in halves until the work falls
+     * below the flop threshold
+     */
+    private static class RoundTask extends RecursiveAction {
+        private final double[] w, v;
+        private final int n;
+        private final int[] ring;
+        private final boolean[] rotated;
+        private final double tolerance;
+        private final Parallelism parallelism;
+        private final int pairFrom, pairTo;
+
+        RoundTask(double[] w, double[] v, int n, int[] ring, boolean[] rotated, double tolerance,
+                  Parallelism parallelism, int pairFrom, int pairTo) {
+            this.w = w;
+            this.v = v;
+            this.n = n;
+            this.ring = ring;
+            this.rotated = rotated;
+            this.tolerance = tolerance;
+            this.parallelism = parallelism;
+            this.pairFrom = pairFrom;
+            this.pairTo = pairTo;
+        }
+
+        long flops() {
+            return 12L * n * (pairTo - pairFrom);
+        }
+
+        @Override
+        protected void compute() {
+            if (pairTo - pairFrom < 2 || !parallelism.shouldSplit(flops())) {
+                for (int pair = pairFrom; pair < pairTo; pair++) {
+                    int p = Math.min(ring[pair], ring[ring.length - 1 - pair]);
+                    int q = Math.max(ring[pair], ring[ring.length - 1 - pair]);
+                    rotated[pair] = q < n && rotate(w, v, n, p, q, tolerance);
+                }
+            } else {
+                int pairMid = (pairFrom + pairTo) >>> 1;
+                invokeAll(new RoundTask(w, v, n, ring, rotated, tolerance, parallelism, pairFrom, pairMid),
+                          new RoundTask(w, v, n, ring, rotated, tolerance, parallelism, pairMid, pairTo));
+            }
+        }
+    }
+}
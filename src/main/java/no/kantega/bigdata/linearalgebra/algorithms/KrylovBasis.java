@@ -0,0 +1,216 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Holds a Krylov basis V and the projection H of an operator, such that AV = VH + f * e_m', as used by the
+ * restarted Krylov eigensolvers.
+ *
+ * The m + 1 basis vectors are stored in a single array allocated once, and applied to the operator through
+ * vectors viewing slices of it. Each new vector is orthogonalized against all previous ones by classical
+ * Gram-Schmidt, done twice, which keeps the basis orthonormal to working precision. On restart, the basis is
+ * contracted in place to the wanted invariant subspace of H, given by orthonormal columns Q, and H to Q'HQ, such
+ * that the expansion continues from there (Krylov-Schur restart).
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class KrylovBasis {
+    private static final double EPSILON = Math.ulp(1.0d);
+
+    private final LinearOperator operator;
+    private final Random random;
+    private final int n, m;
+    private final double[] basis;
+    private final Vector[] slots;
+    private final double[] h;
+    private int start;
+
+    KrylovBasis(LinearOperator operator, int m, Random random) {
+        this.operator = operator;
+        this.random = random;
+        this.n = operator.size().rows();
+        this.m = m;
+        this.basis = new double[(m + 1) * n];
+        this.slots = new Vector[m + 1];
+        for (int j = 0; j <= m; j++) {
+            slots[j] = Vector.from(FixedVectorBuffer.from(n, basis, j * n, 1));
+        }
+        this.h = new double[(m + 1) * m];
+
+        randomVector(0);
+        this.start = 0;
+    }
+
+    /**
+     * Expands the basis to m + 1 vectors, filling the columns of H from the current start
+     */
+    void expand() {
+        double[] coefficients = new double[m];
+        for (int j = start; j < m; j++) {
+            operator.apply(slots[j], slots[j + 1]);
+            double norm = norm(j + 1);
+            orthogonalize(j + 1, coefficients);
+            for (int i = 0; i <= j; i++) {
+                h[i * m + j] = coefficients[i];
+            }
+
+            double beta = norm(j + 1);
+            if (beta <= EPSILON * norm) {
+                // The basis spans an invariant subspace, so continue with any vector orthogonal to it
+                randomVector(j + 1);
+                h[(j + 1) * m + j] = 0.0d;
+            } else {
+                scale(j + 1, 1.0d / beta);
+                h[(j + 1) * m + j] = beta;
+            }
+        }
+        start = m;
+    }
+
+    /**
+     * Gets the norm of the residual f, being the coupling of the last basis vector to the next
+     */
+    double residualNorm() {
+        return h[m * m + m - 1];
+    }
+
+    /**
+     * Copies the projection H of the operator onto the basis
+     *
+     * @return the row-major m x m matrix H
+     */
+    MatrixBuffer projection() {
+        MatrixBuffer projection = FixedRowMajorMatrixBuffer.allocate(m, m);
+        System.arraycopy(h, 0, ((ArrayBackedMatrixBuffer) projection).array(), 0, m * m);
+        return projection;
+    }
+
+    /**
+     * Contracts the basis to VQ, for the row-major m x k array Q having orthonormal columns spanning an invariant
+     * subspace of H, and H to Q'HQ, continuing with the residual as basis vector k
+     */
+    void restart(double[] q, int k) {
+        // Q'HQ, and the coupling of the residual, being beta times the last row of Q
+        double[] hq = new double[m * k];
+        for (int i = 0; i < m; i++) {
+            for (int p = 0; p < m; p++) {
+                double value = h[i * m + p];
+                if (value != 0.0d) {
+                    for (int j = 0; j < k; j++) {
+                        hq[i * k + j] += value * q[p * k + j];
+                    }
+                }
+            }
+        }
+        double beta = residualNorm();
+        Arrays.fill(h, 0.0d);
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) {
+                double sum = 0.0d;
+                for (int p = 0; p < m; p++) {
+                    sum += q[p * k + i] * hq[p * k + j];
+                }
+                h[i * m + j] = sum;
+            }
+            h[k * m + i] = beta * q[(m - 1) * k + i];
+        }
+
+        // VQ, one component at a time in place, as each component of VQ depends on the same component of V only
+        double[] row = new double[k];
+        for (int r = 0; r < n; r++) {
+            Arrays.fill(row, 0.0d);
+            for (int p = 0; p < m; p++) {
+                double value = basis[p * n + r];
+                for (int j = 0; j < k; j++) {
+                    row[j] += value * q[p * k + j];
+                }
+            }
+            for (int j = 0; j < k; j++) {
+                basis[j * n + r] = row[j];
+            }
+        }
+        System.arraycopy(basis, m * n, basis, k * n, n);
+        start = k;
+    }
+
+    /**
+     * Combines the basis vectors by the columns of the row-major m x k array y, giving the Ritz vectors
+     *
+     * @return the n x k matrix VY
+     */
+    Matrix combine(double[] y, int k) {
+        MatrixBuffer result = FixedRowMajorMatrixBuffer.allocate(n, k);
+        double[] values = ((ArrayBackedMatrixBuffer) result).array();
+        for (int p = 0; p < m; p++) {
+            for (int r = 0; r < n; r++) {
+                double value = basis[p * n + r];
+                if (value != 0.0d) {
+                    for (int j = 0; j < k; j++) {
+                        values[r * k + j] += value * y[p * k + j];
+                    }
+                }
+            }
+        }
+        return Matrix.from(result);
+    }
+
+    /**
+     * Orthogonalizes basis vector j against the previous ones, twice, accumulating the coefficients
+     */
+    private void orthogonalize(int j, double[] coefficients) {
+        Arrays.fill(coefficients, 0, j, 0.0d);
+        int target = j * n;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < j; i++) {
+                int source = i * n;
+                double dot = 0.0d;
+                for (int r = 0; r < n; r++) {
+                    dot += basis[source + r] * basis[target + r];
+                }
+                coefficients[i] += dot;
+                for (int r = 0; r < n; r++) {
+                    basis[target + r] -= dot * basis[source + r];
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills basis vector j with random values, orthogonalized against the previous ones and normalized
+     */
+    private void randomVector(int j) {
+        double original, norm;
+        do {
+            for (int r = 0; r < n; r++) {
+                basis[j * n + r] = random.nextDouble() - 0.5d;
+            }
+            original = norm(j);
+            orthogonalize(j, new double[Math.max(j, 1)]);
+            norm = norm(j);
+        } while (norm <= EPSILON * original);
+        scale(j, 1.0d / norm);
+    }
+
+    private double norm(int j) {
+        double sum = 0.0d;
+        for (int r = j * n; r < (j + 1) * n; r++) {
+            sum += basis[r] * basis[r];
+        }
+        return Math.sqrt(sum);
+    }
+
+    private void scale(int j, double factor) {
+        for (int r = j * n; r < (j + 1) * n; r++) {
+            basis[r] *= factor;
+        }
+    }
+}
@@ -1,10 +1,31 @@
 package no.kantega.bigdata.linearalgebra.algorithms;
 
 import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
 import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.LowerTriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.UpperTriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
 
 public class LUDecompositionResult {
+    /**
+     * The minimum number of right hand sides in a parallel task
+     */
+    static final int MIN_COLUMNS = 16;
+
     private final Matrix lu;
+    private final MatrixBuffer luBuffer;
+    private final double[] luArray;
+    private final int luOffset;
+    private final int luStride;
     private final int[] pi;
     private final double signOfDeterminant;
 
@@ -16,15 +37,46 @@ public class LUDecompositionResult {
      * @param signOfDeterminant the sign of the determinant before multiplying the diagonal elements.
      */
     public LUDecompositionResult(Matrix lu, int[] pi, double signOfDeterminant) {
-        this.lu = lu;
+        this(copyOf(lu), pi, signOfDeterminant);
+    }
+
+    /**
+     * Constructs a LU decomposition result object backed by specified buffer.
+     *
+     * @param lu the buffer holding the compact storage of the L and U matrices
+     * @param pi the permuation indices.
+     * @param signOfDeterminant the sign of the determinant before multiplying the diagonal elements.
+     */
+    LUDecompositionResult(MatrixBuffer lu, int[] pi, double signOfDeterminant) {
+        this.lu = Matrix.from(lu);
+        this.luBuffer = lu;
         this.pi = pi;
         this.signOfDeterminant = signOfDeterminant;
+
+        // Rows stored contiguously in an array are read directly, as the substitutions run along rows
+        if (lu instanceof ArrayBackedMatrixBuffer && ((ArrayBackedMatrixBuffer) lu).columnStride() == 1) {
+            ArrayBackedMatrixBuffer ab = (ArrayBackedMatrixBuffer) lu;
+            this.luArray = ab.array();
+            this.luOffset = ab.offset();
+            this.luStride = ab.rowStride();
+        } else {
+            this.luArray = null;
+            this.luOffset = 0;
+            this.luStride = 0;
+        }
+    }
+
+    private static MatrixBuffer copyOf(Matrix matrix) {
+        requireNonNull(matrix, "lu can't be null");
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
     }
 
     public double determinant() {
         double det = signOfDeterminant;
-        for (int i = 0; i < lu.size().rows(); i++) {
-            det *= lu.at(i + 1, i + 1);
+        for (int i = 0; i < pi.length; i++) {
+            det *= element(i, i);
         }
         return det;
     }
@@ -47,34 +99,41 @@ public class LUDecompositionResult {
 
     /**
      * Gets the lower triangular matrix. Has a unit diagonal.
+     * Only the triangle is read from the compact storage, and the matrix is stored packed.
      *
      * @return the lower triangular matrix.
      */
     public Matrix lowerMatrix() {
-        return lu.copy().transform((p,v) -> {
-            if (p.isAboveDiagonal()) {
-                return 0.0d;
-            } else if (p.isOnDiagonal()) {
-                return 1.0d;
-            } else {
-                return v;
+        int d = pi.length;
+        LowerTriangularPackedMatrixBuffer lower = LowerTriangularPackedMatrixBuffer.allocate(d);
+        double[] values = lower.array();
+        int k = 0;
+        for (int i = 0; i < d; i++) {
+            for (int j = 0; j < i; j++) {
+                values[k++] = element(i, j);
             }
-        });
+            values[k++] = 1.0d;
+        }
+        return Matrix.from(lower);
     }
 
     /**
      * Gets the upper triangular matrix.
+     * Only the triangle is read from the compact storage, and the matrix is stored packed.
      *
      * @return the upper triangular matrix.
      */
     public Matrix getU() {
-        return lu.copy().transform((p,v) -> {
-            if (p.isBelowDiagonal()) {
-                return 0.0d;
-            } else {
-                return v;
+        int d = pi.length;
+        UpperTriangularPackedMatrixBuffer upper = UpperTriangularPackedMatrixBuffer.allocate(d);
+        double[] values = upper.array();
+        int k = 0;
+        for (int j = 0; j < d; j++) {
+            for (int i = 0; i <= j; i++) {
+                values[k++] = element(i, j);
             }
-        });
+        }
+        return Matrix.from(upper);
     }
 
     /**
@@ -90,76 +149,187 @@ public class LUDecompositionResult {
      * @param b the right hand side values of the equations
      * @return values of x1, x2, ..., i.e. the x vector containing the solution.
      */
-    public Vector solve(Vector b){
-        int d = lu.size().rows();
+    public Vector solve(Vector b) {
+        requireNonNull(b, "b can't be null");
+        Vector x = Vector.zero(pi.length);
+        solveInto(b, x);
+        return x;
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b into the specified vector, allocating nothing.
+     *
+     * The solution vector holds y of Ly = Pb during the forward substitution, and is overwritten by x during
+     * the back substitution.
+     *
+     * @param b the right hand side values of the equations
+     * @param x the vector receiving the solution, which must be distinct from b
+     */
+    public void solveInto(Vector b, Vector x) {
+        requireNonNull(b, "b can't be null");
+        requireNonNull(x, "x can't be null");
+        require(() -> b.dimension() == pi.length && x.dimension() == pi.length, "dimensions of b and x must match order of matrix");
+        require(() -> b != x, "b and x can't be the same vector");
 
-        Vector x = Vector.zero(d);
-        Vector y = Vector.zero(d);
+        VectorBuffer bb = b.buffer();
+        VectorBuffer xb = x.buffer();
+        int d = pi.length;
 
         // Solves the linear equation Ly = Pb for y
-        for (int i=0; i<d; ++i) {
-            double sum = 0.0d;
-            for (int k=0; k<i; ++k) {
-                sum += lu.at(i+1, k+1) * y.at(k+1);
+        for (int i = 0; i < d; ++i) {
+            double sum = bb.get(pi[i]);
+            for (int k = 0; k < i; ++k) {
+                sum -= element(i, k) * xb.get(k);
             }
-            // Uses pivot index vector to pick correct b value
-            y.setAt(i+1, b.at(pi[i]+1) - sum); // not dividing by diagonals
+            xb.set(i, sum); // not dividing by diagonals
         }
 
         // Solves the linear equation Ux = y for x
-        for (int i=d-1; i>=0; --i) {
-            double sum = 0.0d;
-            for (int k=i+1; k<d; ++k) {
-                sum += lu.at(i+1, k+1) * x.at(k+1);
+        for (int i = d - 1; i >= 0; --i) {
+            double sum = xb.get(i);
+            for (int k = i + 1; k < d; ++k) {
+                sum -= element(i, k) * xb.get(k);
             }
+            xb.set(i, sum / element(i, i));
+        }
+    }
 
-            x.setAt(i+1, (y.at(i+1) - sum) / lu.at(i+1, i+1));
+    /**
+     * Solves the linear systems of equations AX = B for all columns of B at once.
+     *
+     * @param b the right hand sides of the equations, as columns
+     * @return the solutions, as columns
+     * @see #solve(Matrix, Parallelism)
+     */
+    public Matrix solve(Matrix b) {
+        return solve(b, Parallelism.sequential());
+    }
+
+    /**
+     * Solves the linear systems of equations AX = B for all columns of B at once, splitting the columns into
+     * parallel tasks according to specified setting.
+     *
+     * The solutions are held in a row-major matrix, starting out as PB. The substitutions subtract multiples of
+     * whole rows of it, so each element of L and U is read once per block of columns rather than once per column,
+     * and the innermost loop runs along contiguous memory.
+     *
+     * @param b the right hand sides of the equations, as columns
+     * @param parallelism the parallel setting
+     * @return the solutions, as columns
+     */
+    public Matrix solve(Matrix b, Parallelism parallelism) {
+        requireNonNull(b, "b can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> b.size().rows() == pi.length, "number of rows in B must match order of matrix");
+
+        int d = pi.length;
+        int cols = b.size().cols();
+        int[] inverse = new int[d];
+        for (int i = 0; i < d; i++) {
+            inverse[pi[i]] = i;
         }
 
-        return x;
+        MatrixBuffer x = FixedRowMajorMatrixBuffer.allocate(d, cols);
+        double[] values = ((ArrayBackedMatrixBuffer) x).array();
+        b.forEachElement((i, j, v) -> values[inverse[i] * cols + j] = v);
+
+        SolveTask task = new SolveTask(values, cols, parallelism, 0, cols);
+        if (parallelism.shouldSplit(task.flops())) {
+            parallelism.invoke(task);
+        } else {
+            task.compute();
+        }
+        return Matrix.from(x);
     }
 
     /**
      * Calculates the inverse of the original matrix (A) having been decomposed into L and U.
-     * The inverse is found by solving Ax = b, where b is columns in the identity matrix. Each solution vector x
-     * is inserted into the corresponding column of the resulting inverse matrix.
+     * The inverse is found by solving AX = I, where the columns of the identity matrix are solved for at once.
      *
      * @return the inverse of the original matrix (A) having been decomposed into L and U
      */
     public Matrix inverse() {
-        int d = lu.size().rows();
-
-        Matrix x = Matrix.zero(d,d);
-        Vector y = Vector.zero(d);
+        return solve(Matrix.identity(pi.length));
+    }
 
-        // Solve for each column b of the identity matrix
-        for (int e=0; e<d; ++e) {
-            Vector b = Vector.zero(d);
-            b.setAt(e + 1, 1);
+    /**
+     * Solves LUX = PB for the specified columns of X, which holds PB on entry
+     */
+    private void substitute(double[] x, int cols, int colFrom, int colTo) {
+        int d = pi.length;
 
-            // Solves the linear equation Ly = Pb for y
-            for (int i = 0; i < d; ++i) {
-                double sum = 0.0d;
-                for (int k = 0; k < i; ++k) {
-                    sum += lu.at(i + 1, k + 1) * y.at(k + 1);
+        // Forward substitution with the unit lower triangle
+        for (int i = 1; i < d; i++) {
+            int row = i * cols;
+            for (int k = 0; k < i; k++) {
+                double multiplier = element(i, k);
+                if (multiplier != 0.0d) {
+                    int other = k * cols;
+                    for (int j = colFrom; j < colTo; j++) {
+                        x[row + j] -= multiplier * x[other + j];
+                    }
                 }
-
-                // Uses pivot index vector to pick correct b value
-                y.setAt(i + 1, b.at(pi[i] + 1) - sum); // not dividing by diagonals
             }
+        }
 
-            // Solves the linear equation Ux = y for x
-            for (int i = d - 1; i >= 0; --i) {
-                double sum = 0.0d;
-                for (int k = i + 1; k < d; ++k) {
-                    sum += lu.at(i + 1, k + 1) * x.at(k + 1, e + 1);
+        // Back substitution with the upper triangle
+        for (int i = d - 1; i >= 0; i--) {
+            int row = i * cols;
+            for (int k = i + 1; k < d; k++) {
+                double multiplier = element(i, k);
+                if (multiplier != 0.0d) {
+                    int other = k * cols;
+                    for (int j = colFrom; j < colTo; j++) {
+                        x[row + j] -= multiplier * x[other + j];
+                    }
                 }
-
-                // Insert solution vector as a column in the inverse matrix
-                x.setAt(i + 1, e + 1, (y.at(i + 1) - sum) / lu.at(i + 1, i + 1));
+            }
+            double divisor = element(i, i);
+            for (int j = colFrom; j < colTo; j++) {
+                x[row + j] /= divisor;
             }
         }
+    }
 
-        return x;
+    /**
+     * Gets the element at specified zero-based position of the compact storage
+     */
+    private double element(int row, int col) {
+        return luArray != null ? luArray[luOffset + row * luStride + col] : luBuffer.get(row, col);
+    }
+
+    /**
+     * Solves for a block of columns, recursively splitting it in halves until the work falls below the
+     * flop threshold, or the block gets too narrow
+     */
+    private class SolveTask extends RecursiveAction {
+        private final double[] x;
+        private final int cols;
+        private final Parallelism parallelism;
+        private final int colFrom, colTo;
+
+        SolveTask(double[] x, int cols, Parallelism parallelism, int colFrom, int colTo) {
+            this.x = x;
+            this.cols = cols;
+            this.parallelism = parallelism;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        long flops() {
+            return 2L * pi.length * pi.length * (colTo - colFrom);
+        }
+
+        @Override
+        protected void compute() {
+            int width = colTo - colFrom;
+            if (!parallelism.shouldSplit(flops()) || width < 2 * MIN_COLUMNS) {
+                substitute(x, cols, colFrom, colTo);
+            } else {
+                int colMid = colFrom + width / 2;
+                invokeAll(new SolveTask(x, cols, parallelism, colFrom, colMid),
+                          new SolveTask(x, cols, parallelism, colMid, colTo));
+            }
+        }
     }
 }
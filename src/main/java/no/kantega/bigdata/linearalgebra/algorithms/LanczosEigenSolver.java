@@ -0,0 +1,127 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Computes a few eigenvalues and eigenvectors of a large symmetric operator by the restarted Lanczos method.
+ *
+ * The operator is known by its products with vectors only, see {@link LinearOperator}, and is applied once per
+ * basis vector. A Krylov basis of ncv vectors is built, fully reorthogonalized, and the projected ncv x ncv matrix
+ * is solved by {@link SymmetricEigenDecomposition}. Ritz pairs are accepted when their residual norm, being the
+ * residual coupling times the last component of the Ritz vector, is below the tolerance. Until then, the basis is
+ * contracted to the wanted Ritz vectors, plus some of the converged ones to speed up the rest, and expanded again
+ * (thick restart, being equivalent to ARPACK's implicit restart with exact shifts). The storage of the basis is
+ * allocated once, and reused across restarts.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class LanczosEigenSolver {
+    static final double DEFAULT_TOLERANCE = 1.0e-10d;
+    static final int DEFAULT_MAX_RESTARTS = 300;
+
+    private static final double EPSILON_23 = Math.pow(Math.ulp(1.0d), 2.0d / 3.0d);
+
+    private LanczosEigenSolver() {
+    }
+
+    /**
+     * Computes some eigenvalues and eigenvectors of the specified symmetric operator.
+     *
+     * @param operator the symmetric n x n operator
+     * @param k the number of eigenvalues to compute, being from 1 to n - 2
+     * @param spectrum the part of the spectrum wanted
+     * @return the k eigenvalues, in ascending order, and their eigenvectors as the columns of an n x k matrix
+     * @throws IllegalStateException when the eigenvalues do not converge
+     */
+    public static EigenDecompositionResult solve(LinearOperator operator, int k, Spectrum spectrum) {
+        requireNonNull(operator, "operator can't be null");
+        int n = operator.size().rows();
+        int ncv = Math.min(n - 1, Math.max(2 * k + 1, k + 20));
+        return solve(operator, k, spectrum, ncv, DEFAULT_TOLERANCE, DEFAULT_MAX_RESTARTS, new Random());
+    }
+
+    /**
+     * Computes some eigenvalues and eigenvectors of the specified symmetric operator.
+     *
+     * @param operator the symmetric n x n operator
+     * @param k the number of eigenvalues to compute, being from 1 to n - 2
+     * @param spectrum the part of the spectrum wanted
+     * @param ncv the number of basis vectors, being larger than k and less than n
+     * @param tolerance the relative accuracy of the eigenvalues
+     * @param maxRestarts the maximum number of restarts
+     * @param random the source of the starting vector
+     * @return the k eigenvalues, in ascending order, and their eigenvectors as the columns of an n x k matrix
+     * @throws IllegalStateException when the eigenvalues do not converge
+     */
+    public static EigenDecompositionResult solve(LinearOperator operator, int k, Spectrum spectrum, int ncv,
+                                                 double tolerance, int maxRestarts, Random random) {
+        requireNonNull(operator, "operator can't be null");
+        requireNonNull(spectrum, "spectrum can't be null");
+        requireNonNull(random, "random can't be null");
+        int n = operator.size().rows();
+        require(() -> operator.size().cols() == n, "operator must be square");
+        require(() -> k >= 1 && k <= n - 2, "k must be from 1 to n - 2");
+        require(() -> ncv > k && ncv < n, "ncv must be larger than k and less than n");
+        require(() -> tolerance > 0.0d, "tolerance must be positive");
+        require(() -> maxRestarts >= 0, "maxRestarts can't be negative");
+
+        KrylovBasis basis = new KrylovBasis(operator, ncv, random);
+        for (int restart = 0; restart <= maxRestarts; restart++) {
+            basis.expand();
+            EigenDecompositionResult projected = SymmetricEigenDecomposition.decompose(basis.projection(), true, Parallelism.sequential());
+            double[] values = projected.eigenvalues().components().toArray();
+            Matrix vectors = projected.eigenvectors();
+
+            // Order the Ritz values by preference, and count the converged ones among the wanted
+            Integer[] order = IntStream.range(0, ncv).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, (i, j) -> spectrum.compare(values[i], 0.0d, values[j], 0.0d));
+            double beta = basis.residualNorm();
+            int converged = 0;
+            for (int i = 0; i < k; i++) {
+                double residual = Math.abs(beta * vectors.at(ncv, order[i] + 1));
+                if (residual <= tolerance * Math.max(Math.abs(values[order[i]]), EPSILON_23)) {
+                    converged++;
+                }
+            }
+
+            if (converged == k) {
+                Arrays.sort(order, 0, k, Comparator.comparingDouble((Integer i) -> values[i]));
+                double[] result = new double[k];
+                for (int i = 0; i < k; i++) {
+                    result[i] = values[order[i]];
+                }
+                return new EigenDecompositionResult(result, basis.combine(columns(vectors, order, k), k));
+            }
+
+            // Keep the wanted Ritz vectors, and some more as converged ones are kept from drifting back in
+            int kept = k + Math.min(converged, (ncv - k) / 2);
+            basis.restart(columns(vectors, order, kept), kept);
+        }
+        throw new IllegalStateException("Lanczos iteration did not converge");
+    }
+
+    /**
+     * Gets the specified columns of the eigenvectors, as a row-major array
+     */
+    private static double[] columns(Matrix vectors, Integer[] order, int count) {
+        int m = vectors.size().rows();
+        double[] q = new double[m * count];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < count; j++) {
+                q[i * count + j] = vectors.at(i + 1, order[j] + 1);
+            }
+        }
+        return q;
+    }
+}
@@ -0,0 +1,457 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements general matrix multiplication (GEMM), computing C = alpha * A * B + beta * C.
+ *
+ * The algorithm follows the layered approach of Goto and van de Geijn. The columns of C are split into panels of
+ * NC columns, and the inner dimension into slices of KC. For each such slice, a KC x NC panel of B is packed into a
+ * contiguous array, sized to stay in the last level cache. The rows of A are then split into blocks of MC rows,
+ * each packed into a contiguous MC x KC array sized to stay in the L2 cache. Finally, the micro-kernel computes a
+ * MR x NR block of C from a sliver of packed A and a sliver of packed B, keeping all MR x NR partial sums in
+ * registers while streaming through the KC dimension, with the B sliver residing in the L1 cache.
+ *
+ * Packing makes the kernel independent of how the operands are stored. Array backed buffers, both row and column
+ * major, are packed directly from their backing array. Any other buffer is packed through get(). This way the
+ * transposed view of a buffer may be passed without copying.
+ *
+ * Given a parallel setting, C is recursively split into two-dimensional tiles, computed as fork/join tasks on the
+ * pool of the setting, until the work of a tile falls below the flop threshold or its sides get shorter than MIN_TILE.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class MatrixMultiplication {
+    static final int MR = 4;
+    static final int NR = 4;
+    static final int MC = 128;
+    static final int KC = 256;
+    static final int NC = 2048;
+
+    /**
+     * The smallest number of rows or columns in a tile computed by a parallel task. Smaller tiles spend too much
+     * time on packing relative to computing.
+     */
+    static final int MIN_TILE = 64;
+
+    private MatrixMultiplication() {
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C.
+     *
+     * When beta is zero, C is not read, so it need not be initialized. C must not overlap A or B, though it may be a
+     * disjoint view of the same array.
+     *
+     * @param alpha the scalar to multiply the product A * B with
+     * @param a the m x k matrix A
+     * @param b the k x n matrix B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result
+     */
+    public static void multiply(double alpha, MatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c) {
+        multiply(alpha, a, b, beta, c, Parallelism.sequential());
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C, splitting the work into parallel tasks according to specified setting.
+     *
+     * When beta is zero, C is not read, so it need not be initialized. C must not overlap A or B, though it may be a
+     * disjoint view of the same array.
+     *
+     * @param alpha the scalar to multiply the product A * B with
+     * @param a the m x k matrix A
+     * @param b the k x n matrix B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result
+     * @param parallelism the parallel setting
+     */
+    public static void multiply(double alpha, MatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c, Parallelism parallelism) {
+        requireNonNull(parallelism, "parallelism can't be null");
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+        require(() -> !overlaps(a, c) && !overlaps(b, c), "C can't overlap A or B");
+
+        MultiplyTask task = new MultiplyTask(alpha, a, b, beta, c, parallelism, 0, c.size().rows(), 0, c.size().cols());
+        if (parallelism.shouldSplit(task.flops())) {
+            parallelism.invoke(task);
+        } else {
+            task.compute();
+        }
+    }
+
+    /**
+     * Computes C = alpha * op(A) * op(B) + beta * C, where op(X) is either X or the transpose of X.
+     *
+     * Transposes are taken as views of the buffers, so the operands are never copied. When beta is zero, C is not
+     * read, so it need not be initialized. C must not overlap A or B, though it may be a
+     * disjoint view of the same array.
+     *
+     * @param alpha the scalar to multiply the product op(A) * op(B) with
+     * @param a the matrix A, being m x k after the optional transpose
+     * @param transposeA whether to use the transpose of A
+     * @param b the matrix B, being k x n after the optional transpose
+     * @param transposeB whether to use the transpose of B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result
+     * @param parallelism the parallel setting
+     */
+    public static void multiply(double alpha, MatrixBuffer a, boolean transposeA, MatrixBuffer b, boolean transposeB,
+                                double beta, MatrixBuffer c, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        multiply(alpha, transposeA ? a.transpose() : a, transposeB ? b.transpose() : b, beta, c, parallelism);
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C for the block of C given by the specified row and column range only.
+     * Blocks not overlapping may be computed concurrently.
+     *
+     * @param rowFrom the first row of the block (zero-based, inclusive)
+     * @param rowTo the last row of the block (zero-based, exclusive)
+     * @param colFrom the first column of the block (zero-based, inclusive)
+     * @param colTo the last column of the block (zero-based, exclusive)
+     */
+    static void multiplyBlock(double alpha, MatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c,
+                              int rowFrom, int rowTo, int colFrom, int colTo) {
+        if (rowFrom >= rowTo || colFrom >= colTo) {
+            return;
+        }
+
+        int k = a.size().cols();
+        if (alpha == 0.0d) {
+            scaleBlock(beta, c, rowFrom, rowTo, colFrom, colTo);
+            return;
+        }
+
+        int kcMax = Math.min(KC, k);
+        int mcMax = roundUp(Math.min(MC, rowTo - rowFrom), MR);
+        int ncMax = roundUp(Math.min(NC, colTo - colFrom), NR);
+        double[] packedA = new double[mcMax * kcMax];
+        double[] packedB = new double[kcMax * ncMax];
+
+        for (int jc = colFrom; jc < colTo; jc += NC) {
+            int nc = Math.min(NC, colTo - jc);
+
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                packB(b, pc, kc, jc, nc, packedB);
+
+                for (int ic = rowFrom; ic < rowTo; ic += MC) {
+                    int mc = Math.min(MC, rowTo - ic);
+                    packA(a, ic, mc, pc, kc, packedA);
+
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            int mr = Math.min(MR, mc - ir);
+                            microKernel(kc, alpha, packedA, ir * kc, packedB, jr * kc, pc == 0 ? beta : 1.0d, c, ic + ir, jc + jr, mr, nr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies the block of C with beta, for when there is no product to add. A beta of zero clears the block
+     * without reading it, so that any NaN values present are not propagated.
+     */
+    private static void scaleBlock(double beta, MatrixBuffer c, int rowFrom, int rowTo, int colFrom, int colTo) {
+        if (beta == 1.0d) {
+            return;
+        }
+
+        if (c instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer ac = (ArrayBackedMatrixBuffer) c;
+            double[] values = ac.array();
+            int rs = ac.rowStride();
+            int cs = ac.columnStride();
+            for (int i = rowFrom; i < rowTo; i++) {
+                int address = ac.offset() + i * rs + colFrom * cs;
+                for (int j = colFrom; j < colTo; j++, address += cs) {
+                    values[address] = beta == 0.0d ? 0.0d : beta * values[address];
+                }
+            }
+        } else {
+            for (int i = rowFrom; i < rowTo; i++) {
+                for (int j = colFrom; j < colTo; j++) {
+                    c.set(i, j, beta == 0.0d ? 0.0d : beta * c.get(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the mc x kc block of A starting at (ic, pc) into slivers of MR rows. Within a sliver the MR elements
+     * of each column are stored consecutively, in the order the micro-kernel reads them. The last sliver is
+     * padded with zeros.
+     */
+    private static void packA(MatrixBuffer a, int ic, int mc, int pc, int kc, double[] packed) {
+        if (a instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer aa = (ArrayBackedMatrixBuffer) a;
+            double[] values = aa.array();
+            int rs = aa.rowStride();
+            int cs = aa.columnStride();
+            int base = aa.offset() + ic * rs + pc * cs;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int dest = ir * kc;
+                for (int p = 0; p < kc; p++) {
+                    int address = base + ir * rs + p * cs;
+                    for (int i = 0; i < mr; i++, address += rs) {
+                        packed[dest++] = values[address];
+                    }
+                    for (int i = mr; i < MR; i++) {
+                        packed[dest++] = 0.0d;
+                    }
+                }
+            }
+        } else {
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int dest = ir * kc;
+                for (int p = 0; p < kc; p++) {
+                    for (int i = 0; i < mr; i++) {
+                        packed[dest++] = a.get(ic + ir + i, pc + p);
+                    }
+                    for (int i = mr; i < MR; i++) {
+                        packed[dest++] = 0.0d;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the kc x nc panel of B starting at (pc, jc) into slivers of NR columns. Within a sliver the NR elements
+     * of each row are stored consecutively, in the order the micro-kernel reads them. The last sliver is padded
+     * with zeros.
+     */
+    private static void packB(MatrixBuffer b, int pc, int kc, int jc, int nc, double[] packed) {
+        if (b instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer ab = (ArrayBackedMatrixBuffer) b;
+            double[] values = ab.array();
+            int rs = ab.rowStride();
+            int cs = ab.columnStride();
+            int base = ab.offset() + pc * rs + jc * cs;
+            for (int jr = 0; jr < nc; jr += NR) {
+                int nr = Math.min(NR, nc - jr);
+                int dest = jr * kc;
+                for (int p = 0; p < kc; p++) {
+                    int address = base + p * rs + jr * cs;
+                    for (int j = 0; j < nr; j++, address += cs) {
+                        packed[dest++] = values[address];
+                    }
+                    for (int j = nr; j < NR; j++) {
+                        packed[dest++] = 0.0d;
+                    }
+                }
+            }
+        } else {
+            for (int jr = 0; jr < nc; jr += NR) {
+                int nr = Math.min(NR, nc - jr);
+                int dest = jr * kc;
+                for (int p = 0; p < kc; p++) {
+                    for (int j = 0; j < nr; j++) {
+                        packed[dest++] = b.get(pc + p, jc + jr + j);
+                    }
+                    for (int j = nr; j < NR; j++) {
+                        packed[dest++] = 0.0d;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the MR x NR block of C at (row, col) by accumulating the product of a packed A sliver and a packed B
+     * sliver in local variables, then storing alpha times the result plus beta times C in C. Beta is applied while
+     * storing the first slice of the inner dimension only, so C is read and written once per slice. Only the mr x nr
+     * part of the block that is inside C is stored.
+     */
+    private static void microKernel(int kc, double alpha, double[] pa, int ia, double[] pb, int ib, double beta,
+                                    MatrixBuffer c, int row, int col, int mr, int nr) {
+        double c00 = 0.0d, c01 = 0.0d, c02 = 0.0d, c03 = 0.0d;
+        double c10 = 0.0d, c11 = 0.0d, c12 = 0.0d, c13 = 0.0d;
+        double c20 = 0.0d, c21 = 0.0d, c22 = 0.0d, c23 = 0.0d;
+        double c30 = 0.0d, c31 = 0.0d, c32 = 0.0d, c33 = 0.0d;
+
+        for (int p = 0; p < kc; p++, ia += MR, ib += NR) {
+            double a0 = pa[ia];
+            double a1 = pa[ia + 1];
+            double a2 = pa[ia + 2];
+            double a3 = pa[ia + 3];
+            double b0 = pb[ib];
+            double b1 = pb[ib + 1];
+            double b2 = pb[ib + 2];
+            double b3 = pb[ib + 3];
+
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+        }
+
+        if (mr == MR && nr == NR && c instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer ac = (ArrayBackedMatrixBuffer) c;
+            double[] values = ac.array();
+            int rs = ac.rowStride();
+            int cs = ac.columnStride();
+            int r0 = ac.offset() + row * rs + col * cs;
+            int r1 = r0 + rs;
+            int r2 = r1 + rs;
+            int r3 = r2 + rs;
+
+            if (beta == 0.0d) {
+                values[r0] = alpha * c00; values[r0 + cs] = alpha * c01; values[r0 + 2 * cs] = alpha * c02; values[r0 + 3 * cs] = alpha * c03;
+                values[r1] = alpha * c10; values[r1 + cs] = alpha * c11; values[r1 + 2 * cs] = alpha * c12; values[r1 + 3 * cs] = alpha * c13;
+                values[r2] = alpha * c20; values[r2 + cs] = alpha * c21; values[r2 + 2 * cs] = alpha * c22; values[r2 + 3 * cs] = alpha * c23;
+                values[r3] = alpha * c30; values[r3 + cs] = alpha * c31; values[r3 + 2 * cs] = alpha * c32; values[r3 + 3 * cs] = alpha * c33;
+            } else {
+                values[r0] = beta * values[r0] + alpha * c00; values[r0 + cs] = beta * values[r0 + cs] + alpha * c01;
+                values[r0 + 2 * cs] = beta * values[r0 + 2 * cs] + alpha * c02; values[r0 + 3 * cs] = beta * values[r0 + 3 * cs] + alpha * c03;
+                values[r1] = beta * values[r1] + alpha * c10; values[r1 + cs] = beta * values[r1 + cs] + alpha * c11;
+                values[r1 + 2 * cs] = beta * values[r1 + 2 * cs] + alpha * c12; values[r1 + 3 * cs] = beta * values[r1 + 3 * cs] + alpha * c13;
+                values[r2] = beta * values[r2] + alpha * c20; values[r2 + cs] = beta * values[r2 + cs] + alpha * c21;
+                values[r2 + 2 * cs] = beta * values[r2 + 2 * cs] + alpha * c22; values[r2 + 3 * cs] = beta * values[r2 + 3 * cs] + alpha * c23;
+                values[r3] = beta * values[r3] + alpha * c30; values[r3 + cs] = beta * values[r3 + cs] + alpha * c31;
+                values[r3 + 2 * cs] = beta * values[r3 + 2 * cs] + alpha * c32; values[r3 + 3 * cs] = beta * values[r3 + 3 * cs] + alpha * c33;
+            }
+        } else {
+            double[] block = {
+                    c00, c01, c02, c03,
+                    c10, c11, c12, c13,
+                    c20, c21, c22, c23,
+                    c30, c31, c32, c33
+            };
+            for (int i = 0; i < mr; i++) {
+                for (int j = 0; j < nr; j++) {
+                    double value = alpha * block[i * NR + j];
+                    c.set(row + i, col + j, beta == 0.0d ? value : beta * c.get(row + i, col + j) + value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes a tile of C, recursively splitting it in halves along its largest dimension
+     * until the work of a tile falls below the flop threshold, or the tile gets too small
+     */
+    private static class MultiplyTask extends RecursiveAction {
+        private final double alpha, beta;
+        private final MatrixBuffer a, b, c;
+        private final Parallelism parallelism;
+        private final int rowFrom, rowTo, colFrom, colTo;
+
+        MultiplyTask(double alpha, MatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c, Parallelism parallelism,
+                     int rowFrom, int rowTo, int colFrom, int colTo) {
+            this.alpha = alpha;
+            this.a = a;
+            this.b = b;
+            this.beta = beta;
+            this.c = c;
+            this.parallelism = parallelism;
+            this.rowFrom = rowFrom;
+            this.rowTo = rowTo;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        long flops() {
+            return 2L * (rowTo - rowFrom) * (colTo - colFrom) * a.size().cols();
+        }
+
+        @Override
+        protected void compute() {
+            int rows = rowTo - rowFrom;
+            int cols = colTo - colFrom;
+
+            boolean splitRows = rows >= 2 * MIN_TILE;
+            boolean splitCols = cols >= 2 * MIN_TILE;
+
+            if (!parallelism.shouldSplit(flops()) || (!splitRows && !splitCols)) {
+                multiplyBlock(alpha, a, b, beta, c, rowFrom, rowTo, colFrom, colTo);
+            } else if (splitRows && (!splitCols || rows >= cols)) {
+                int rowMid = rowFrom + roundUp(rows / 2, MR);
+                invokeAll(new MultiplyTask(alpha, a, b, beta, c, parallelism, rowFrom, rowMid, colFrom, colTo),
+                          new MultiplyTask(alpha, a, b, beta, c, parallelism, rowMid, rowTo, colFrom, colTo));
+            } else {
+                int colMid = colFrom + roundUp(cols / 2, NR);
+                invokeAll(new MultiplyTask(alpha, a, b, beta, c, parallelism, rowFrom, rowTo, colFrom, colMid),
+                          new MultiplyTask(alpha, a, b, beta, c, parallelism, rowFrom, rowTo, colMid, colTo));
+            }
+        }
+    }
+
+    /**
+     * Checks whether two buffers have elements in common. Views of the same array are compared as rectangles in the
+     * grid of the array, so disjoint blocks of a matrix don't overlap even though their address ranges interleave.
+     * Views not laid out as rectangles in a common grid are compared by address range.
+     */
+    static boolean overlaps(MatrixBuffer x, MatrixBuffer y) {
+        if (!(x instanceof ArrayBackedMatrixBuffer) || !(y instanceof ArrayBackedMatrixBuffer)) {
+            return false;
+        }
+        ArrayBackedMatrixBuffer ax = (ArrayBackedMatrixBuffer) x;
+        ArrayBackedMatrixBuffer ay = (ArrayBackedMatrixBuffer) y;
+        if (ax.array() != ay.array() || isEmpty(ax) || isEmpty(ay)) {
+            return false;
+        }
+
+        long[] rx = rectangle(ax);
+        long[] ry = rectangle(ay);
+        if (rx != null && ry != null && rx[0] == ry[0]) {
+            return rx[1] < ry[2] && ry[1] < rx[2] && rx[3] < ry[4] && ry[3] < rx[4];
+        }
+        return firstAddress(ax) <= lastAddress(ay) && firstAddress(ay) <= lastAddress(ax);
+    }
+
+    /**
+     * Gets the elements of the buffer as a rectangle in the grid of its array, being the major stride followed by the
+     * major and minor ranges, or null when the buffer isn't laid out as a rectangle.
+     */
+    private static long[] rectangle(ArrayBackedMatrixBuffer x) {
+        long major = Math.max(x.rowStride(), x.columnStride());
+        if (Math.min(x.rowStride(), x.columnStride()) != 1 || major <= 1) {
+            return null;
+        }
+        boolean rowMajor = x.rowStride() == major;
+        long majorCount = rowMajor ? x.size().rows() : x.size().cols();
+        long minorCount = rowMajor ? x.size().cols() : x.size().rows();
+        long majorFrom = x.offset() / major;
+        long minorFrom = x.offset() % major;
+        if (minorFrom + minorCount > major) {
+            return null;
+        }
+        return new long[] {major, majorFrom, majorFrom + majorCount, minorFrom, minorFrom + minorCount};
+    }
+
+    private static boolean isEmpty(MatrixBuffer x) {
+        return x.size().rows() == 0 || x.size().cols() == 0;
+    }
+
+    private static long firstAddress(ArrayBackedMatrixBuffer x) {
+        return x.offset() + Math.min(0L, (long) (x.size().rows() - 1) * x.rowStride())
+                + Math.min(0L, (long) (x.size().cols() - 1) * x.columnStride());
+    }
+
+    private static long lastAddress(ArrayBackedMatrixBuffer x) {
+        return x.offset() + Math.max(0L, (long) (x.size().rows() - 1) * x.rowStride())
+                + Math.max(0L, (long) (x.size().cols() - 1) * x.columnStride());
+    }
+
+    static int roundUp(int value, int multiple) {
+        return ((value + multiple - 1) / multiple) * multiple;
+    }
+}
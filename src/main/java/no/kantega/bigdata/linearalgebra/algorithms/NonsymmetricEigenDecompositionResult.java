@@ -0,0 +1,64 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds some eigenvalues and eigenvectors of a nonsymmetric operator, see {@link ArnoldiEigenSolver}.
+ *
+ * The eigenvalues may be complex, and complex conjugate pairs are held consecutively, the one with positive imaginary
+ * part first. The eigenvectors are held as real columns, as LAPACK's dgeev does: a real eigenvalue has its
+ * eigenvector in the corresponding column, while a pair at positions j and j + 1 has the eigenvector x + iy of the
+ * first one in columns j and j + 1 as x and y, the second one having the conjugate x - iy.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class NonsymmetricEigenDecompositionResult {
+    private final double[] realParts;
+    private final double[] imaginaryParts;
+    private final Matrix vectors;
+
+    /**
+     * Constructs an eigendecomposition result object.
+     *
+     * @param realParts the real parts of the eigenvalues
+     * @param imaginaryParts the imaginary parts of the eigenvalues
+     * @param vectors the eigenvectors, as columns
+     */
+    NonsymmetricEigenDecompositionResult(double[] realParts, double[] imaginaryParts, Matrix vectors) {
+        this.realParts = requireNonNull(realParts, "realParts can't be null");
+        this.imaginaryParts = requireNonNull(imaginaryParts, "imaginaryParts can't be null");
+        this.vectors = requireNonNull(vectors, "vectors can't be null");
+    }
+
+    /**
+     * Gets the real parts of the eigenvalues
+     *
+     * @return the real parts
+     */
+    public Vector realParts() {
+        return Vector.of(Arrays.copyOf(realParts, realParts.length));
+    }
+
+    /**
+     * Gets the imaginary parts of the eigenvalues
+     *
+     * @return the imaginary parts, being zero for real eigenvalues
+     */
+    public Vector imaginaryParts() {
+        return Vector.of(Arrays.copyOf(imaginaryParts, imaginaryParts.length));
+    }
+
+    /**
+     * Gets the eigenvectors, as real columns
+     *
+     * @return the matrix of eigenvectors, holding complex ones as real and imaginary parts in consecutive columns
+     */
+    public Matrix eigenvectors() {
+        return vectors.copy();
+    }
+}
@@ -0,0 +1,246 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements LU decomposition with partial pivoting for matrices too large to be held in memory, e.g. memory
+ * mapped matrix buffers.
+ *
+ * Uses the left-looking variant of blocked LU decomposition, processing the matrix as panels of whole columns.
+ * The panel width is chosen such that three panels fit within the memory budget: the panel being updated, the
+ * factored panel applied to it, and the factored panel being read ahead. Each panel is read once, updated by each
+ * of the already factored panels to the left of it, factored in memory, and written back once.
+ * The panels to the left are streamed through memory, while the next one is read ahead by a background thread.
+ * The updates use the blocked kernel of {@link MatrixMultiplication}.
+ *
+ * Thus, the I/O volume is predictable: for a n x n matrix and panels of width w, the matrix is read and written
+ * once, and the factored panels are read about n/(2w) times in total, i.e. n^3/(2w) elements. A final pass puts
+ * the rows of the result in pivoted order.
+ *
+ * Rows are written in the order of the original matrix until the final pass, so row swaps never move elements
+ * already written. This also allows decomposing a matrix in place, by passing the same buffer for A and LU.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class OutOfCoreLUDecomposition {
+    /**
+     * The number of panels held in memory at once
+     */
+    static final int PANELS_IN_MEMORY = 3;
+
+    private static final double TINY = 1e-20;
+
+    private OutOfCoreLUDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified matrix into L and U within the specified memory budget.
+     *
+     * @param a the n x n matrix A to decompose
+     * @param lu the n x n matrix receiving the compact storage of L and U, may be the same as A
+     * @param memoryBudget the maximum number of bytes to hold in memory for panels
+     * @return the result of the LU decomposition, backed by the LU buffer
+     * @throws SingularMatrixException when matrix is singular
+     */
+    public static LUDecompositionResult decompose(MatrixBuffer a, MatrixBuffer lu, long memoryBudget) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(lu, "lu can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "LU decomposition can be performed on a square matrix only");
+        require(() -> lu.size().equals(a.size()), "size of LU must match size of A");
+
+        int n = a.size().rows();
+        int width = panelWidth(memoryBudget, n);
+
+        int[] pi = new int[n];
+        for (int i = 0; i < n; i++) {
+            pi[i] = i;
+        }
+        double signOfDeterminant = 1.0d;
+
+        ExecutorService prefetcher = Tiles.newPrefetcher();
+        try {
+            for (int j0 = 0; j0 < n; j0 += width) {
+                int end = j0;
+                int cols = Math.min(width, n - j0);
+                MatrixBuffer panel = loadPanel(a, pi, 0, j0, cols);
+
+                // Apply the updates of the factored panels to the left, reading each one ahead of its use
+                Future<MatrixBuffer> next = j0 > 0 ? prefetcher.submit(() -> loadPanel(lu, pi, 0, 0, Math.min(width, end))) : null;
+                for (int k0 = 0; k0 < j0; k0 += width) {
+                    MatrixBuffer factored = Tiles.await(next);
+                    int k1 = k0 + width;
+                    if (k1 < j0) {
+                        next = prefetcher.submit(() -> loadPanel(lu, pi, k1, k1, Math.min(width, end - k1)));
+                    }
+                    update(panel, factored, k0);
+                }
+
+                signOfDeterminant *= factor(panel, pi, j0);
+
+                for (int r = 0; r < n; r++) {
+                    for (int c = 0; c < cols; c++) {
+                        lu.set(pi[r], j0 + c, panel.get(r, c));
+                    }
+                }
+            }
+        } finally {
+            prefetcher.shutdownNow();
+        }
+
+        permuteRows(lu, pi);
+        return new LUDecompositionResult(lu, pi, signOfDeterminant);
+    }
+
+    /**
+     * Gets the largest panel width such that the panels held in memory at once fit within the specified budget
+     */
+    static int panelWidth(long memoryBudget, int n) {
+        long minBudget = (long) PANELS_IN_MEMORY * n * Double.BYTES;
+        require(() -> memoryBudget >= minBudget, "memory budget must be at least %d bytes", minBudget);
+        return (int) Math.min(n, memoryBudget / minBudget);
+    }
+
+    /**
+     * Reads the specified columns of all rows, in pivoted order, into a n-row panel. Rows above the first row
+     * are left as zeros, as they are not needed.
+     */
+    private static MatrixBuffer loadPanel(MatrixBuffer source, int[] pi, int firstRow, int col, int cols) {
+        MatrixBuffer panel = FixedRowMajorMatrixBuffer.allocate(pi.length, cols);
+        for (int r = firstRow; r < pi.length; r++) {
+            for (int c = 0; c < cols; c++) {
+                panel.set(r, c, source.get(pi[r], col + c));
+            }
+        }
+        return panel;
+    }
+
+    /**
+     * Updates the panel with the factored panel starting at column k0: solves L11 * U12 = A12 for the rows
+     * of the factored panel, and subtracts L21 * U12 from the rows below.
+     */
+    private static void update(MatrixBuffer panel, MatrixBuffer factored, int k0) {
+        int n = panel.size().rows();
+        int cols = panel.size().cols();
+        int width = factored.size().cols();
+        int k1 = k0 + width;
+
+        double[] p = ((ArrayBackedMatrixBuffer) panel).array();
+        double[] l = ((ArrayBackedMatrixBuffer) factored).array();
+
+        // Forward substitution with the unit lower triangular L11
+        for (int i = 1; i < width; i++) {
+            for (int t = 0; t < i; t++) {
+                double multiplier = l[(k0 + i) * width + t];
+                if (multiplier != 0.0d) {
+                    for (int c = 0; c < cols; c++) {
+                        p[(k0 + i) * cols + c] -= multiplier * p[(k0 + t) * cols + c];
+                    }
+                }
+            }
+        }
+
+        // U12 is read in place, as its rows are disjoint from the rows below being updated
+        MatrixMultiplication.multiplyBlock(-1.0d, factored, panel.view(k0, k1, 0, cols), 1.0d, panel, k1, n, 0, cols);
+    }
+
+    /**
+     * Factors the rows from j0 and down of the updated panel in memory, swapping rows of the panel and of the
+     * permutation as pivots are chosen.
+     *
+     * @return the sign change of the determinant caused by the row swaps
+     */
+    private static double factor(MatrixBuffer panel, int[] pi, int j0) {
+        int n = panel.size().rows();
+        int cols = panel.size().cols();
+        double[] p = ((ArrayBackedMatrixBuffer) panel).array();
+        double sign = 1.0d;
+
+        for (int c = 0; c < cols; c++) {
+            int k = j0 + c;
+
+            int pivot = k;
+            double maxAbs = Math.abs(p[k * cols + c]);
+            for (int r = k + 1; r < n; r++) {
+                double absValue = Math.abs(p[r * cols + c]);
+                if (absValue > maxAbs) {
+                    maxAbs = absValue;
+                    pivot = r;
+                }
+            }
+            if (maxAbs <= TINY) {
+                throw new SingularMatrixException();
+            }
+
+            if (pivot != k) {
+                for (int cc = 0; cc < cols; cc++) {
+                    double tmp = p[k * cols + cc];
+                    p[k * cols + cc] = p[pivot * cols + cc];
+                    p[pivot * cols + cc] = tmp;
+                }
+                int tmp = pi[k];
+                pi[k] = pi[pivot];
+                pi[pivot] = tmp;
+                sign = -sign;
+            }
+
+            double diagonal = p[k * cols + c];
+            for (int r = k + 1; r < n; r++) {
+                double multiplier = p[r * cols + c] / diagonal;
+                p[r * cols + c] = multiplier;
+                for (int cc = c + 1; cc < cols; cc++) {
+                    p[r * cols + cc] -= multiplier * p[k * cols + cc];
+                }
+            }
+        }
+        return sign;
+    }
+
+    /**
+     * Moves the rows written in original order into pivoted order, such that row i holds original row pi[i].
+     * Follows the cycles of the permutation, so each row is read and written once.
+     */
+    private static void permuteRows(MatrixBuffer lu, int[] pi) {
+        int n = pi.length;
+        boolean[] placed = new boolean[n];
+        double[] first = new double[n];
+        double[] row = new double[n];
+
+        for (int start = 0; start < n; start++) {
+            if (placed[start] || pi[start] == start) {
+                continue;
+            }
+
+            readRow(lu, start, first);
+            int i = start;
+            while (pi[i] != start) {
+                readRow(lu, pi[i], row);
+                writeRow(lu, i, row);
+                placed[i] = true;
+                i = pi[i];
+            }
+            writeRow(lu, i, first);
+            placed[i] = true;
+        }
+    }
+
+    private static void readRow(MatrixBuffer buffer, int row, double[] values) {
+        for (int j = 0; j < values.length; j++) {
+            values[j] = buffer.get(row, j);
+        }
+    }
+
+    private static void writeRow(MatrixBuffer buffer, int row, double[] values) {
+        for (int j = 0; j < values.length; j++) {
+            buffer.set(row, j, values[j]);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements matrix multiplication C = A * B for matrices too large to be held in memory, e.g. memory mapped
+ * matrix buffers.
+ *
+ * The matrices are split into square tiles of size T x T, where T is chosen such that five tiles fit within the
+ * memory budget: one tile of C, the current tiles of A and B, and the next tiles of A and B. The tiles of C are
+ * computed one at a time in row major order. For each, the matching tiles of A and B are streamed through memory
+ * and multiplied using the blocked kernel of {@link MatrixMultiplication}, while the next pair is read ahead by a
+ * background thread. Each finished tile of C is written back once, before the next is started.
+ *
+ * Thus, the I/O volume is predictable: for an m x k matrix A and a k x n matrix B, A is read ceil(n/T) times, B is
+ * read ceil(m/T) times, and C is written once. As the tiles are small compared to the matrices, the page cache
+ * can't hold on to them, and larger budgets mean less I/O.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class OutOfCoreMultiplication {
+    /**
+     * The number of tiles held in memory at once
+     */
+    static final int TILES_IN_MEMORY = 5;
+
+    private OutOfCoreMultiplication() {
+    }
+
+    /**
+     * Computes C = A * B within the specified memory budget.
+     *
+     * C is not read, so it need not be initialized. C must not share storage with A or B.
+     *
+     * @param a the m x k matrix A
+     * @param b the k x n matrix B
+     * @param c the m x n matrix C, receiving the result
+     * @param memoryBudget the maximum number of bytes to hold in memory for tiles
+     */
+    public static void multiply(MatrixBuffer a, MatrixBuffer b, MatrixBuffer c, long memoryBudget) {
+        multiply(a, b, c, memoryBudget, Parallelism.sequential());
+    }
+
+    /**
+     * Computes C = A * B within the specified memory budget, multiplying the tiles in memory
+     * with the specified parallel setting.
+     *
+     * C is not read, so it need not be initialized. C must not share storage with A or B.
+     *
+     * @param a the m x k matrix A
+     * @param b the k x n matrix B
+     * @param c the m x n matrix C, receiving the result
+     * @param memoryBudget the maximum number of bytes to hold in memory for tiles
+     * @param parallelism the parallel setting for multiplying tiles
+     */
+    public static void multiply(MatrixBuffer a, MatrixBuffer b, MatrixBuffer c, long memoryBudget, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+
+        int m = a.size().rows();
+        int k = a.size().cols();
+        int n = b.size().cols();
+        int tile = tileSize(memoryBudget, Math.max(m, Math.max(k, n)));
+
+        int rowTiles = (m + tile - 1) / tile;
+        int colTiles = (n + tile - 1) / tile;
+        int innerTiles = (k + tile - 1) / tile;
+        long steps = (long) rowTiles * colTiles * innerTiles;
+
+        ExecutorService prefetcher = Tiles.newPrefetcher();
+        try {
+            Future<MatrixBuffer[]> next = prefetch(prefetcher, a, b, 0, tile, colTiles, innerTiles);
+            MatrixBuffer ct = null;
+
+            for (long step = 0; step < steps; step++) {
+                MatrixBuffer[] operands = Tiles.await(next);
+                if (step + 1 < steps) {
+                    next = prefetch(prefetcher, a, b, step + 1, tile, colTiles, innerTiles);
+                }
+
+                int p = (int) (step % innerTiles);
+                long ij = step / innerTiles;
+                int row = (int) (ij / colTiles) * tile;
+                int col = (int) (ij % colTiles) * tile;
+
+                if (p == 0) {
+                    ct = FixedRowMajorMatrixBuffer.allocate(Math.min(tile, m - row), Math.min(tile, n - col));
+                }
+                MatrixMultiplication.multiply(1.0d, operands[0], operands[1], p == 0 ? 0.0d : 1.0d, ct, parallelism);
+                if (p == innerTiles - 1) {
+                    Tiles.store(ct, c, row, col);
+                }
+            }
+        } finally {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the largest tile size, as a multiple of the micro-kernel size, such that the tiles held in memory
+     * at once fit within the specified budget
+     */
+    static int tileSize(long memoryBudget, int maxDimension) {
+        long minBudget = (long) TILES_IN_MEMORY * MatrixMultiplication.MR * MatrixMultiplication.MR * Double.BYTES;
+        require(() -> memoryBudget >= minBudget, "memory budget must be at least %d bytes", minBudget);
+
+        long tile = (long) Math.sqrt((double) memoryBudget / (TILES_IN_MEMORY * Double.BYTES));
+        tile -= tile % MatrixMultiplication.MR;
+        return (int) Math.min(tile, MatrixMultiplication.roundUp(maxDimension, MatrixMultiplication.MR));
+    }
+
+    /**
+     * Starts reading the tiles of A and B for the specified step, counting steps through the tiles of C in
+     * row major order and through the inner dimension for each
+     */
+    private static Future<MatrixBuffer[]> prefetch(ExecutorService prefetcher, MatrixBuffer a, MatrixBuffer b,
+                                                  long step, int tile, int colTiles, int innerTiles) {
+        int p = (int) (step % innerTiles) * tile;
+        long ij = step / innerTiles;
+        int row = (int) (ij / colTiles) * tile;
+        int col = (int) (ij % colTiles) * tile;
+
+        int rows = Math.min(tile, a.size().rows() - row);
+        int inner = Math.min(tile, a.size().cols() - p);
+        int cols = Math.min(tile, b.size().cols() - col);
+
+        return prefetcher.submit(() -> new MatrixBuffer[] {
+                Tiles.load(a, row, p, rows, inner),
+                Tiles.load(b, p, col, inner, cols)
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+/**
+ * Represents a preconditioner M of a symmetric positive definite matrix A, for {@link ConjugateGradient}.
+ *
+ * M approximates A, while solving Mz = r is cheap, such that the preconditioned system has a smaller condition
+ * number, and the iteration converges in fewer steps. The preconditioners are set up once per matrix, and may be
+ * reused across solves.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+@FunctionalInterface
+public interface Preconditioner {
+    /**
+     * Solves Mz = r, overwriting z. Implementations must not allocate vectors per call, as the preconditioner is
+     * applied once per iteration.
+     *
+     * @param r the residual vector r
+     * @param z the vector receiving the preconditioned residual z, being distinct from r
+     */
+    void apply(Vector r, Vector z);
+
+    /**
+     * Gets the identity preconditioner M = I, making the iteration the plain conjugate gradient method
+     *
+     * @return the identity preconditioner
+     */
+    static Preconditioner identity() {
+        return (r, z) -> {
+            VectorBuffer source = r.buffer();
+            VectorBuffer target = z.buffer();
+            for (int i = 0; i < source.size(); i++) {
+                target.set(i, source.get(i));
+            }
+        };
+    }
+
+    /**
+     * Creates the Jacobi preconditioner M = D, being the diagonal of A. It takes O(n) operations per application,
+     * and is effective when A is strongly diagonally dominant or badly scaled.
+     *
+     * @param a the symmetric positive definite n x n matrix A, dense or sparse
+     * @return the Jacobi preconditioner
+     * @throws IllegalArgumentException when a diagonal element is not positive
+     */
+    static Preconditioner jacobi(MatrixBuffer a) {
+        return JacobiPreconditioner.from(a);
+    }
+
+    /**
+     * Creates the symmetric successive over-relaxation (SSOR) preconditioner
+     * M = (D/w + L) (D/w)^-1 (D/w + L)' * w/(2 - w), where D is the diagonal and L the strictly lower triangle of A.
+     * It takes a forward and a backward sweep over the stored elements per application, and no set-up beyond
+     * locating the diagonal.
+     *
+     * @param a the symmetric positive definite sparse n x n matrix A, having both triangles stored
+     * @param omega the relaxation factor w, being between 0 and 2, where 1 gives symmetric Gauss-Seidel
+     * @return the SSOR preconditioner
+     * @throws IllegalArgumentException when a diagonal element is not positive
+     */
+    static Preconditioner ssor(CompressedMatrixBuffer a, double omega) {
+        return SSORPreconditioner.from(a, omega);
+    }
+
+    /**
+     * Creates the incomplete Cholesky preconditioner M = LL' with zero fill-in, IC(0), where L has the sparsity
+     * pattern of the lower triangle of A. It takes a forward and a backward substitution per application, and is
+     * typically the most effective of the preconditioners for discretized elliptic problems.
+     *
+     * @param a the symmetric positive definite sparse n x n matrix A, having both triangles stored
+     * @return the incomplete Cholesky preconditioner
+     * @throws no.kantega.bigdata.linearalgebra.NotPositiveDefiniteMatrixException when the factorization breaks
+     * down even with a shifted diagonal
+     */
+    static Preconditioner incompleteCholesky(CompressedMatrixBuffer a) {
+        return IncompleteCholeskyPreconditioner.from(a);
+    }
+}
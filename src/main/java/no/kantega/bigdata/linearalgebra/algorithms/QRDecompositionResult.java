@@ -0,0 +1,267 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.UpperTriangularPackedMatrixBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Holds the result of a QR decomposition A = QR, see {@link BlockedQRDecomposition}.
+ *
+ * Q is kept implicit, as the product of the Householder reflectors H1 * H2 * ... * Hn, and applied to vectors and
+ * matrices by {@link #multiplyQ(Matrix)} and {@link #multiplyQTranspose(Matrix)} without being formed. The thin
+ * m x n Q and the n x n R are formed on demand only.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class QRDecompositionResult {
+    private final double[] qr;
+    private final double[] tau;
+    private final int m, n;
+
+    /**
+     * Constructs a QR decomposition result object.
+     *
+     * @param qr the row-major m x n buffer holding R on and above the diagonal, and the reflectors below it
+     * @param tau the scalar factors of the reflectors
+     */
+    QRDecompositionResult(MatrixBuffer qr, double[] tau) {
+        this.qr = ((ArrayBackedMatrixBuffer) qr).array();
+        this.tau = tau;
+        this.m = qr.size().rows();
+        this.n = qr.size().cols();
+    }
+
+    /**
+     * Gets the upper triangular n x n matrix R, stored packed
+     *
+     * @return the upper triangular matrix
+     */
+    public Matrix getR() {
+        return Matrix.from(upperTriangle());
+    }
+
+    /**
+     * Copies R into a packed buffer
+     */
+    UpperTriangularPackedMatrixBuffer upperTriangle() {
+        UpperTriangularPackedMatrixBuffer r = UpperTriangularPackedMatrixBuffer.allocate(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                r.set(i, j, qr[i * n + j]);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Forms the m x n matrix Q having orthonormal columns, such that A = QR
+     *
+     * @return the thin Q matrix
+     */
+    public Matrix getQ() {
+        return Matrix.from(orthonormalColumns());
+    }
+
+    /**
+     * Forms the thin Q into a row-major buffer
+     */
+    MatrixBuffer orthonormalColumns() {
+        MatrixBuffer q = FixedRowMajorMatrixBuffer.allocate(m, n);
+        double[] values = ((ArrayBackedMatrixBuffer) q).array();
+        for (int i = 0; i < n; i++) {
+            values[i * n + i] = 1.0d;
+        }
+        applyQ(values, n);
+        return q;
+    }
+
+    /**
+     * Multiplies the implicit Q by the specified matrix
+     *
+     * @param b the m x k matrix to multiply
+     * @return the m x k product QB
+     */
+    public Matrix multiplyQ(Matrix b) {
+        requireNonNull(b, "b can't be null");
+        require(() -> b.size().rows() == m, "number of rows in B must match number of rows in decomposed matrix");
+
+        int cols = b.size().cols();
+        MatrixBuffer x = toRowMajor(b);
+        applyQ(((ArrayBackedMatrixBuffer) x).array(), cols);
+        return Matrix.from(x);
+    }
+
+    /**
+     * Multiplies the transpose of the implicit Q by the specified matrix
+     *
+     * @param b the m x k matrix to multiply
+     * @return the m x k product Q'B
+     */
+    public Matrix multiplyQTranspose(Matrix b) {
+        requireNonNull(b, "b can't be null");
+        require(() -> b.size().rows() == m, "number of rows in B must match number of rows in decomposed matrix");
+
+        int cols = b.size().cols();
+        MatrixBuffer x = toRowMajor(b);
+        applyQTranspose(((ArrayBackedMatrixBuffer) x).array(), cols);
+        return Matrix.from(x);
+    }
+
+    /**
+     * Gets whether the decomposed matrix has full column rank, that is none of the diagonal elements of R is
+     * negligible compared to the largest one. The tolerance is max(m, n) times the spacing of doubles at the
+     * largest one.
+     *
+     * @return true if the matrix has full column rank; else false
+     */
+    public boolean isFullRank() {
+        double maxAbs = 0.0d;
+        for (int i = 0; i < n; i++) {
+            maxAbs = Math.max(maxAbs, Math.abs(qr[i * n + i]));
+        }
+        double tolerance = Math.max(m, n) * Math.ulp(maxAbs);
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(qr[i * n + i]) <= tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves the linear system of equations Ax = b in the least squares sense, i.e. finds the x minimizing
+     * ||Ax - b||. This is done by solving Rx = Q'b, which is numerically far better than solving the normal
+     * equations A'Ax = A'b, as the condition number is not squared.
+     *
+     * @param b the right hand side values of the equations
+     * @return the least squares solution vector x
+     * @throws SingularMatrixException when the matrix does not have full column rank
+     */
+    public Vector solve(Vector b) {
+        requireNonNull(b, "b can't be null");
+        require(() -> b.dimension() == m, "dimension of b must match number of rows in decomposed matrix");
+
+        double[] y = new double[m];
+        for (int i = 0; i < m; i++) {
+            y[i] = b.at(i + 1);
+        }
+        applyQTranspose(y, 1);
+        backSubstitute(y, 1);
+
+        Vector x = Vector.zero(n);
+        for (int i = 0; i < n; i++) {
+            x.setAt(i + 1, y[i]);
+        }
+        return x;
+    }
+
+    /**
+     * Solves the linear systems of equations AX = B in the least squares sense for all columns of B at once.
+     *
+     * @param b the right hand sides of the equations, as columns
+     * @return the least squares solutions, as columns
+     * @throws SingularMatrixException when the matrix does not have full column rank
+     */
+    public Matrix solve(Matrix b) {
+        requireNonNull(b, "b can't be null");
+        require(() -> b.size().rows() == m, "number of rows in B must match number of rows in decomposed matrix");
+
+        int cols = b.size().cols();
+        MatrixBuffer y = toRowMajor(b);
+        double[] values = ((ArrayBackedMatrixBuffer) y).array();
+        applyQTranspose(values, cols);
+        backSubstitute(values, cols);
+        return Matrix.from(y.view(0, n, 0, cols).copy());
+    }
+
+    /**
+     * Overwrites the row-major m x k array by Q' times it, applying H1, H2, ..., Hn in turn
+     */
+    private void applyQTranspose(double[] x, int cols) {
+        double[] w = new double[cols];
+        for (int j = 0; j < n; j++) {
+            applyReflector(j, x, cols, w);
+        }
+    }
+
+    /**
+     * Overwrites the row-major m x k array by Q times it, applying Hn, ..., H2, H1 in turn
+     */
+    private void applyQ(double[] x, int cols) {
+        double[] w = new double[cols];
+        for (int j = n - 1; j >= 0; j--) {
+            applyReflector(j, x, cols, w);
+        }
+    }
+
+    /**
+     * Applies the reflector Hj = I - tau_j * v_j * v_j' to the rows j to m of the row-major m x k array, using
+     * the work array w of k elements, which is overwritten
+     */
+    private void applyReflector(int j, double[] x, int cols, double[] w) {
+        double tauJ = tau[j];
+        if (tauJ == 0.0d) {
+            return;
+        }
+
+        System.arraycopy(x, j * cols, w, 0, cols);
+        for (int i = j + 1; i < m; i++) {
+            double vi = qr[i * n + j];
+            if (vi != 0.0d) {
+                for (int c = 0; c < cols; c++) {
+                    w[c] += vi * x[i * cols + c];
+                }
+            }
+        }
+        for (int c = 0; c < cols; c++) {
+            x[j * cols + c] -= tauJ * w[c];
+        }
+        for (int i = j + 1; i < m; i++) {
+            double factor = tauJ * qr[i * n + j];
+            if (factor != 0.0d) {
+                for (int c = 0; c < cols; c++) {
+                    x[i * cols + c] -= factor * w[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves RX = Y for the leading n rows of the row-major m x k array, overwriting them by X
+     */
+    private void backSubstitute(double[] y, int cols) {
+        if (!isFullRank()) {
+            throw new SingularMatrixException();
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            for (int k = i + 1; k < n; k++) {
+                double multiplier = qr[i * n + k];
+                if (multiplier != 0.0d) {
+                    for (int c = 0; c < cols; c++) {
+                        y[i * cols + c] -= multiplier * y[k * cols + c];
+                    }
+                }
+            }
+            double divisor = qr[i * n + i];
+            for (int c = 0; c < cols; c++) {
+                y[i * cols + c] /= divisor;
+            }
+        }
+    }
+
+    private static MatrixBuffer toRowMajor(Matrix b) {
+        int cols = b.size().cols();
+        MatrixBuffer x = FixedRowMajorMatrixBuffer.allocate(b.size().rows(), cols);
+        double[] values = ((ArrayBackedMatrixBuffer) x).array();
+        b.forEachElement((i, j, v) -> values[i * cols + j] = v);
+        return x;
+    }
+}
@@ -0,0 +1,105 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Random;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the truncated singular value decomposition by randomized range finding (Halko, Martinsson and Tropp).
+ *
+ * The range of A is sampled by Y = A * G for a Gaussian n x l matrix G, where l is the requested rank plus some
+ * oversampling, and an orthonormal basis Q of Y is found by QR decomposition. A few power iterations, alternating
+ * between A' and A with re-orthonormalization in between, sharpen the decay of the spectrum. Then the small l x n
+ * matrix B = Q'A is decomposed exactly by {@link JacobiSVD}, and U is recovered as Q times the left singular
+ * vectors of B.
+ *
+ * A is only touched by the products with l columns, which are done by the blocked kernel of
+ * {@link MatrixMultiplication}, being one pass over the data each. Thus, the decomposition takes 2q + 2 passes
+ * for q power iterations, and memory proportional to (m + n) * l besides A.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class RandomizedSVD {
+    /**
+     * The number of extra samples of the range, making the basis capture the leading subspace with high probability
+     */
+    static final int OVERSAMPLING = 10;
+
+    /**
+     * The number of power iterations
+     */
+    static final int POWER_ITERATIONS = 1;
+
+    private RandomizedSVD() {
+    }
+
+    /**
+     * Computes the leading singular values and vectors of the specified matrix, which is not modified.
+     *
+     * @param a the m x n matrix to decompose
+     * @param rank the number of singular values and vectors to compute
+     * @param parallelism the parallel setting for the products with the matrix
+     * @return the truncated singular value decomposition
+     */
+    public static SVDResult decompose(MatrixBuffer a, int rank, Parallelism parallelism) {
+        return decompose(a, rank, OVERSAMPLING, POWER_ITERATIONS, new Random(), parallelism);
+    }
+
+    /**
+     * Computes the leading singular values and vectors of the specified matrix, which is not modified.
+     *
+     * @param a the m x n matrix to decompose
+     * @param rank the number of singular values and vectors to compute
+     * @param oversampling the number of extra samples of the range
+     * @param powerIterations the number of power iterations, each being two passes over the matrix
+     * @param random the source of the Gaussian samples
+     * @param parallelism the parallel setting for the products with the matrix
+     * @return the truncated singular value decomposition
+     */
+    public static SVDResult decompose(MatrixBuffer a, int rank, int oversampling, int powerIterations, Random random,
+                                      Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(random, "random can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        int m = a.size().rows();
+        int n = a.size().cols();
+        require(() -> rank > 0 && rank <= Math.min(m, n), "rank must be positive, and at most the smallest dimension");
+        require(() -> oversampling >= 0, "oversampling can't be negative");
+        require(() -> powerIterations >= 0, "number of power iterations can't be negative");
+
+        int samples = Math.min(rank + oversampling, Math.min(m, n));
+        MatrixBuffer g = FixedRowMajorMatrixBuffer.allocate(n, samples);
+        double[] values = ((ArrayBackedMatrixBuffer) g).array();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+        }
+
+        MatrixBuffer q = orthonormalColumns(product(a, g, m, samples, parallelism), parallelism);
+        for (int iteration = 0; iteration < powerIterations; iteration++) {
+            MatrixBuffer z = orthonormalColumns(product(a.transpose(), q, n, samples, parallelism), parallelism);
+            q = orthonormalColumns(product(a, z, m, samples, parallelism), parallelism);
+        }
+
+        // B' = A'Q = Vb * S * Ub', thus A ~ QB = (Q * Ub) * S * Vb'
+        SVDResult small = JacobiSVD.decompose(product(a.transpose(), q, n, samples, parallelism), true, parallelism);
+        Matrix u = Matrix.from(q).multiply(small.getV());
+        return new SVDResult(u, small.singularValues().components().toArray(), small.getU()).truncate(rank);
+    }
+
+    private static MatrixBuffer product(MatrixBuffer a, MatrixBuffer b, int rows, int cols, Parallelism parallelism) {
+        MatrixBuffer c = FixedRowMajorMatrixBuffer.allocate(rows, cols);
+        MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c, parallelism);
+        return c;
+    }
+
+    private static MatrixBuffer orthonormalColumns(MatrixBuffer y, Parallelism parallelism) {
+        return BlockedQRDecomposition.decompose(y, parallelism).orthonormalColumns();
+    }
+}
@@ -0,0 +1,191 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements rank determination by QR decomposition with column pivoting, as LAPACK's dlaqp2 does.
+ *
+ * At each step, the remaining column of largest norm is swapped in and reduced by a Householder reflector, such
+ * that the diagonal elements of R decrease in magnitude. The rank is the number of steps taken before the
+ * largest remaining column norm falls below the tolerance. The column norms are downdated after each step rather
+ * than recomputed, except when cancellation makes the downdated norm unreliable.
+ *
+ * The matrix is copied once into a column-major array, so that columns are contiguous when reduced and swapped.
+ * A wide matrix is processed as its transpose, having the same rank. A tall matrix, having at least twice as
+ * many rows as columns, is first reduced to its n x n R factor by {@link BlockedQRDecomposition}, being mostly
+ * matrix multiplications, as R has the same rank. The pivoted reduction is then done on R only, whose copy is
+ * small.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class RankRevealingQR {
+
+    private RankRevealingQR() {
+    }
+
+    /**
+     * Calculates the rank of the specified matrix, which is not modified. The columns having a remaining norm of
+     * at most max(m, n) times the spacing of doubles at the largest column norm are considered dependent.
+     *
+     * @param a the matrix
+     * @param parallelism the parallel setting for reducing tall matrices
+     * @return the rank of the matrix
+     */
+    public static int rank(MatrixBuffer a, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        int maxDim = Math.max(a.size().rows(), a.size().cols());
+        return rank(a, largest -> maxDim * Math.ulp(largest), parallelism);
+    }
+
+    /**
+     * Calculates the rank of the specified matrix, which is not modified, using the specified tolerance.
+     *
+     * @param a the matrix
+     * @param tolerance the remaining column norm at or below which columns are considered dependent
+     * @param parallelism the parallel setting for reducing tall matrices
+     * @return the rank of the matrix
+     */
+    public static int rank(MatrixBuffer a, double tolerance, Parallelism parallelism) {
+        require(() -> tolerance >= 0.0d, "tolerance can't be negative");
+        return rank(a, largest -> tolerance, parallelism);
+    }
+
+    /**
+     * Calculates the rank, getting the tolerance from the largest column norm
+     */
+    private static int rank(MatrixBuffer a, DoubleUnaryOperator tolerance, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+
+        MatrixBuffer source = a.size().rows() >= a.size().cols() ? a : a.transpose();
+        int m = source.size().rows();
+        int n = source.size().cols();
+        if (n == 0) {
+            return 0;
+        }
+        if (m >= 2 * n) {
+            source = BlockedQRDecomposition.decompose(source, parallelism).upperTriangle();
+            m = n;
+        }
+
+        double[] v = new double[m * n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < m; i++) {
+                v[j * m + i] = source.get(i, j);
+            }
+        }
+        return reduce(v, m, n, tolerance);
+    }
+
+    /**
+     * Reduces the column-major m x n array by pivoted Householder reflections, until the largest remaining
+     * column norm is within tolerance
+     *
+     * @return the number of reflections done
+     */
+    private static int reduce(double[] v, int m, int n, DoubleUnaryOperator tolerance) {
+        double[] norms = new double[n];
+        double[] reliableNorms = new double[n];
+        double largest = 0.0d;
+        for (int j = 0; j < n; j++) {
+            norms[j] = norm(v, j * m, m);
+            reliableNorms[j] = norms[j];
+            largest = Math.max(largest, norms[j]);
+        }
+        double tol = tolerance.applyAsDouble(largest);
+        double threshold = Math.sqrt(Math.ulp(1.0d));
+
+        int steps = Math.min(m, n);
+        for (int k = 0; k < steps; k++) {
+            int pivot = k;
+            for (int j = k + 1; j < n; j++) {
+                if (norms[j] > norms[pivot]) {
+                    pivot = j;
+                }
+            }
+            if (pivot != k) {
+                swapColumns(v, m, k, pivot);
+                norms[pivot] = norms[k];
+                reliableNorms[pivot] = reliableNorms[k];
+            }
+
+            // The downdated norm is an estimate, so the rank decision is made on the exact one
+            int column = k * m;
+            double alpha = v[column + k];
+            double remaining = norm(v, column + k, m - k);
+            if (remaining <= tol) {
+                return k;
+            }
+
+            // Generates the reflector I - tau * u * u', having u(k) = 1, mapping the column onto beta * e_k
+            double beta = -Math.copySign(remaining, alpha);
+            double tau = (beta - alpha) / beta;
+            double multiplier = 1.0d / (alpha - beta);
+            for (int i = k + 1; i < m; i++) {
+                v[column + i] *= multiplier;
+            }
+            v[column + k] = beta;
+
+            for (int j = k + 1; j < n; j++) {
+                int other = j * m;
+                double w = v[other + k];
+                for (int i = k + 1; i < m; i++) {
+                    w += v[column + i] * v[other + i];
+                }
+                w *= tau;
+                v[other + k] -= w;
+                for (int i = k + 1; i < m; i++) {
+                    v[other + i] -= w * v[column + i];
+                }
+
+                // Downdates the norm by the element moved into row k, recomputing it on cancellation
+                if (norms[j] != 0.0d) {
+                    double ratio = Math.abs(v[other + k]) / norms[j];
+                    double factor = Math.max(0.0d, (1.0d + ratio) * (1.0d - ratio));
+                    double estimate = norms[j] / reliableNorms[j];
+                    if (factor * estimate * estimate <= threshold) {
+                        norms[j] = norm(v, other + k + 1, m - k - 1);
+                        reliableNorms[j] = norms[j];
+                    } else {
+                        norms[j] *= Math.sqrt(factor);
+                    }
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Calculates the Euclidean norm of the specified contiguous elements, scaling to avoid overflow and underflow
+     */
+    private static double norm(double[] v, int from, int length) {
+        double scale = 0.0d;
+        for (int i = from; i < from + length; i++) {
+            scale = Math.max(scale, Math.abs(v[i]));
+        }
+        if (scale == 0.0d) {
+            return 0.0d;
+        }
+
+        double sum = 0.0d;
+        for (int i = from; i < from + length; i++) {
+            double scaled = v[i] / scale;
+            sum += scaled * scaled;
+        }
+        return scale * Math.sqrt(sum);
+    }
+
+    private static void swapColumns(double[] v, int m, int j1, int j2) {
+        for (int i = 0; i < m; i++) {
+            double tmp = v[j1 * m + i];
+            v[j1 * m + i] = v[j2 * m + i];
+            v[j2 * m + i] = tmp;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the symmetric successive over-relaxation (SSOR) preconditioner, see {@link Preconditioner#ssor}.
+ *
+ * The sweeps read the stored lines of A in place, as lines of the strictly lower triangle before the diagonal, and
+ * of the strictly upper triangle after it. As A is symmetric, its CSR and CSC formats hold the same arrays, so
+ * either is read as CSR. The positions of the diagonal elements are located once.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class SSORPreconditioner implements Preconditioner {
+    private final int n;
+    private final int[] pointers;
+    private final int[] indices;
+    private final double[] values;
+    private final int[] diagonal;
+    private final double omega;
+
+    private SSORPreconditioner(CompressedMatrixBuffer a, int[] diagonal, double omega) {
+        this.n = a.size().rows();
+        this.pointers = a.pointers();
+        this.indices = a.indices();
+        this.values = a.values();
+        this.diagonal = diagonal;
+        this.omega = omega;
+    }
+
+    static SSORPreconditioner from(CompressedMatrixBuffer a, double omega) {
+        requireNonNull(a, "a can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "preconditioner can be created for a square matrix only");
+        require(() -> omega > 0.0d && omega < 2.0d, "omega must be between 0 and 2");
+
+        int n = a.size().rows();
+        int[] pointers = a.pointers();
+        int[] indices = a.indices();
+        double[] values = a.values();
+        int[] diagonal = new int[n];
+        for (int i = 0; i < n; i++) {
+            int entry = pointers[i];
+            while (entry < pointers[i + 1] && indices[entry] < i) {
+                entry++;
+            }
+            int position = entry;
+            int row = i;
+            require(() -> position < pointers[row + 1] && indices[position] == row && values[position] > 0.0d,
+                "diagonal elements must be positive");
+            diagonal[i] = position;
+        }
+        return new SSORPreconditioner(a, diagonal, omega);
+    }
+
+    @Override
+    public void apply(Vector r, Vector z) {
+        require(() -> r.dimension() == n && z.dimension() == n, "dimensions of r and z must match size of preconditioner");
+
+        VectorBuffer source = r.buffer();
+        VectorBuffer target = z.buffer();
+
+        // Forward sweep (D/w + L) y = r
+        for (int i = 0; i < n; i++) {
+            double sum = source.get(i);
+            for (int entry = pointers[i]; entry < diagonal[i]; entry++) {
+                sum -= values[entry] * target.get(indices[entry]);
+            }
+            target.set(i, sum * omega / values[diagonal[i]]);
+        }
+
+        // Backward sweep (D/w + L') z = (D/w) y, then z = (2 - w)/w z
+        double scale = (2.0d - omega) / omega;
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = target.get(i) * values[diagonal[i]] / omega;
+            for (int entry = diagonal[i] + 1; entry < pointers[i + 1]; entry++) {
+                sum -= values[entry] * target.get(indices[entry]);
+            }
+            target.set(i, sum * omega / values[diagonal[i]]);
+        }
+        for (int i = 0; i < n; i++) {
+            target.set(i, target.get(i) * scale);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Holds the result of a singular value decomposition A = USV', see {@link JacobiSVD} and {@link RandomizedSVD}.
+ *
+ * The singular values are held in decreasing order, and the columns of U and V are the corresponding left and
+ * right singular vectors. U and V have more columns than there are singular values in a full decomposition.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SVDResult {
+    private final Matrix u;
+    private final double[] values;
+    private final Matrix v;
+
+    /**
+     * Constructs a singular value decomposition result object.
+     *
+     * @param u the left singular vectors, as columns
+     * @param values the singular values, in decreasing order
+     * @param v the right singular vectors, as columns
+     */
+    SVDResult(Matrix u, double[] values, Matrix v) {
+        this.u = requireNonNull(u, "u can't be null");
+        this.values = requireNonNull(values, "values can't be null");
+        this.v = requireNonNull(v, "v can't be null");
+    }
+
+    /**
+     * Gets the left singular vectors, as columns
+     *
+     * @return the matrix U
+     */
+    public Matrix getU() {
+        return u.copy();
+    }
+
+    /**
+     * Gets the right singular vectors, as columns
+     *
+     * @return the matrix V
+     */
+    public Matrix getV() {
+        return v.copy();
+    }
+
+    /**
+     * Gets the diagonal matrix of singular values, sized to fit between U and V'
+     *
+     * @return the matrix S
+     */
+    public Matrix getS() {
+        Matrix s = Matrix.zero(u.size().cols(), v.size().cols());
+        for (int k = 0; k < values.length; k++) {
+            s.setAt(k + 1, k + 1, values[k]);
+        }
+        return s;
+    }
+
+    /**
+     * Gets the singular values, in decreasing order
+     *
+     * @return the singular values
+     */
+    public Vector singularValues() {
+        return Vector.of(Arrays.copyOf(values, values.length));
+    }
+
+    /**
+     * Gets the 2-norm of the matrix, being the largest singular value
+     *
+     * @return the 2-norm
+     */
+    public double norm2() {
+        return values.length > 0 ? values[0] : 0.0d;
+    }
+
+    /**
+     * Gets the 2-norm condition number of the matrix, being the ratio of the largest and smallest singular value
+     *
+     * @return the condition number, being infinite for a rank deficient matrix
+     */
+    public double conditionNumber() {
+        return values.length > 0 ? values[0] / values[values.length - 1] : 0.0d;
+    }
+
+    /**
+     * Gets the numerical rank of the matrix, being the number of singular values above max(m, n) times the
+     * spacing of doubles at the largest one
+     *
+     * @return the rank
+     */
+    public int rank() {
+        return rank(defaultTolerance());
+    }
+
+    /**
+     * Gets the number of singular values above the specified tolerance
+     *
+     * @param tolerance the tolerance
+     * @return the rank
+     */
+    public int rank(double tolerance) {
+        int r = 0;
+        while (r < values.length && values[r] > tolerance) {
+            r++;
+        }
+        return r;
+    }
+
+    /**
+     * Calculates the Moore-Penrose pseudo-inverse VS^+U', where S^+ inverts the singular values above the default
+     * tolerance, and zeroes the others
+     *
+     * @return the n x m pseudo-inverse
+     */
+    public Matrix pseudoInverse() {
+        int r = rank();
+        if (r == 0) {
+            return Matrix.zero(v.size().rows(), u.size().rows());
+        }
+
+        Matrix scaled = columns(v, r).transformElements((i, j, value) -> value / values[j]);
+        return scaled.multiply(columns(u, r).transpose());
+    }
+
+    /**
+     * Solves Ax = b in the least squares sense, finding the solution of minimum norm also when A is rank
+     * deficient, by x = VS^+U'b
+     *
+     * @param b the right hand side values of the equations
+     * @return the minimum norm least squares solution
+     */
+    public Vector solve(Vector b) {
+        requireNonNull(b, "b can't be null");
+        require(() -> b.dimension() == u.size().rows(), "dimension of b must match number of rows in decomposed matrix");
+
+        int r = rank();
+        Vector x = Vector.zero(v.size().rows());
+        for (int k = 1; k <= r; k++) {
+            double coefficient = 0.0d;
+            for (int i = 1; i <= b.dimension(); i++) {
+                coefficient += u.at(i, k) * b.at(i);
+            }
+            coefficient /= values[k - 1];
+            for (int i = 1; i <= x.dimension(); i++) {
+                x.setAt(i, x.at(i) + coefficient * v.at(i, k));
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Gets the leading part of this decomposition, holding the specified number of largest singular values
+     */
+    SVDResult truncate(int rank) {
+        return new SVDResult(columns(u, rank), Arrays.copyOf(values, rank), columns(v, rank));
+    }
+
+    private double defaultTolerance() {
+        return Math.max(u.size().rows(), v.size().rows()) * Math.ulp(norm2());
+    }
+
+    private static Matrix columns(Matrix matrix, int count) {
+        int rows = matrix.size().rows();
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(rows, count);
+        double[] values = ((ArrayBackedMatrixBuffer) buffer).array();
+        matrix.forEachElement((i, j, value) -> {
+            if (j < count) {
+                values[i * count + j] = value;
+            }
+        });
+        return Matrix.from(buffer);
+    }
+}
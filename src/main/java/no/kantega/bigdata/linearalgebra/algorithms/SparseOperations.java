@@ -0,0 +1,279 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SparseVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements kernels for sparse matrices in compressed row (CSR) or column (CSC) format, and for sparse vectors.
+ * The kernels visit the stored elements only, so their cost depends on the number of non-zeros rather than on
+ * the matrix or vector size.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class SparseOperations {
+
+    private SparseOperations() {
+    }
+
+    /**
+     * Computes the sparse matrix-vector product y = A * x (SpMV).
+     *
+     * In CSR format, each component of y is the inner product of a sparse row and x. In CSC format, the sparse
+     * columns scaled by the components of x are added to y.
+     *
+     * @param a the sparse m x n matrix A
+     * @param x the vector x of dimension n
+     * @param y the vector y of dimension m, receiving the result
+     */
+    public static void multiply(CompressedMatrixBuffer a, VectorBuffer x, VectorBuffer y) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(x, "x can't be null");
+        requireNonNull(y, "y can't be null");
+        require(() -> a.size().cols() == x.size(), "number of columns in A must match dimension of x");
+        require(() -> a.size().rows() == y.size(), "number of rows in A must match dimension of y");
+
+        int[] pointers = a.pointers();
+        int[] indices = a.indices();
+        double[] values = a.values();
+
+        if (a.isRowCompressed()) {
+            for (int i = 0; i < y.size(); i++) {
+                double sum = 0.0d;
+                for (int entry = pointers[i]; entry < pointers[i + 1]; entry++) {
+                    sum += values[entry] * x.get(indices[entry]);
+                }
+                y.set(i, sum);
+            }
+        } else {
+            for (int i = 0; i < y.size(); i++) {
+                y.set(i, 0.0d);
+            }
+            if (x instanceof SparseVectorBuffer) {
+                // Only the columns selected by the stored components of x contribute
+                SparseVectorBuffer sx = (SparseVectorBuffer) x;
+                for (int k = 0; k < sx.nonZeros(); k++) {
+                    addColumn(pointers, indices, values, sx.indexAt(k), sx.valueAt(k), y);
+                }
+            } else {
+                for (int j = 0; j < x.size(); j++) {
+                    double xj = x.get(j);
+                    if (xj != 0.0d) {
+                        addColumn(pointers, indices, values, j, xj, y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C, where A is sparse and B and C are dense (SpMM).
+     *
+     * Each stored element a(i,k) adds alpha * a(i,k) times row k of B to row i of C. When beta is zero, C is not
+     * read, so it need not be initialized.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the sparse m x k matrix A
+     * @param b the k x n matrix B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result
+     */
+    public static void multiply(double alpha, CompressedMatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+
+        scale(beta, c);
+        if (alpha == 0.0d) {
+            return;
+        }
+
+        int n = c.size().cols();
+        if (b instanceof ArrayBackedMatrixBuffer && c instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer bb = (ArrayBackedMatrixBuffer) b;
+            ArrayBackedMatrixBuffer cb = (ArrayBackedMatrixBuffer) c;
+            double[] bValues = bb.array();
+            double[] cValues = cb.array();
+            int bcs = bb.columnStride();
+            int ccs = cb.columnStride();
+
+            a.forEachNonZero((i, k, v) -> {
+                double factor = alpha * v;
+                int bAddress = bb.offset() + k * bb.rowStride();
+                int cAddress = cb.offset() + i * cb.rowStride();
+                for (int j = 0; j < n; j++) {
+                    cValues[cAddress] += factor * bValues[bAddress];
+                    bAddress += bcs;
+                    cAddress += ccs;
+                }
+            });
+        } else {
+            a.forEachNonZero((i, k, v) -> {
+                double factor = alpha * v;
+                for (int j = 0; j < n; j++) {
+                    c.set(i, j, c.get(i, j) + factor * b.get(k, j));
+                }
+            });
+        }
+    }
+
+    /**
+     * Computes the sparse product C = A * B of two sparse matrices, using Gustavson's row by row algorithm.
+     * Each row of C is accumulated in a dense work row, visiting the stored elements of A and the rows of B
+     * they select only.
+     *
+     * @param a the sparse m x k matrix A
+     * @param b the sparse k x n matrix B
+     * @return the sparse product in CSR format
+     */
+    public static CompressedRowMatrixBuffer multiply(CompressedMatrixBuffer a, CompressedMatrixBuffer b) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+
+        CompressedRowMatrixBuffer csrA = a.toRowCompressed();
+        CompressedRowMatrixBuffer csrB = b.toRowCompressed();
+        int m = a.size().rows();
+        int n = b.size().cols();
+
+        int[] aPointers = csrA.pointers(), aIndices = csrA.indices();
+        int[] bPointers = csrB.pointers(), bIndices = csrB.indices();
+        double[] aValues = csrA.values(), bValues = csrB.values();
+
+        double[] work = new double[n];
+        int[] marker = new int[n];
+        Arrays.fill(marker, -1);
+        int[] columns = new int[n];
+
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(m, n);
+        for (int i = 0; i < m; i++) {
+            int count = 0;
+            for (int ea = aPointers[i]; ea < aPointers[i + 1]; ea++) {
+                int k = aIndices[ea];
+                double av = aValues[ea];
+                for (int eb = bPointers[k]; eb < bPointers[k + 1]; eb++) {
+                    int j = bIndices[eb];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        work[j] = 0.0d;
+                        columns[count++] = j;
+                    }
+                    work[j] += av * bValues[eb];
+                }
+            }
+            for (int t = 0; t < count; t++) {
+                builder.add(i, columns[t], work[columns[t]]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Computes C = C + factor * A, where A is sparse, visiting the stored elements of A only. When C is sparse too,
+     * the stored elements of both are merged, see {@link CompressedMatrixBuffer#addScaled(double, CompressedMatrixBuffer)}.
+     *
+     * @param factor the scalar to multiply A with
+     * @param a the sparse matrix A
+     * @param c the matrix C, receiving the result
+     */
+    public static void addTo(double factor, CompressedMatrixBuffer a, MatrixBuffer c) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(c, "c can't be null");
+        require(() -> a.size().equals(c.size()), "size of A must match size of C");
+
+        if (c instanceof CompressedMatrixBuffer) {
+            ((CompressedMatrixBuffer) c).addScaled(factor, a);
+        } else {
+            a.forEachNonZero((i, j, v) -> c.set(i, j, c.get(i, j) + factor * v));
+        }
+    }
+
+    /**
+     * Computes the inner product of a sparse and a dense vector, visiting the stored components of x only
+     *
+     * @param x the sparse vector x
+     * @param y the vector y
+     * @return the inner product
+     */
+    public static double innerProduct(SparseVectorBuffer x, VectorBuffer y) {
+        requireNonNull(x, "x can't be null");
+        requireNonNull(y, "y can't be null");
+        require(() -> x.size() == y.size(), "dimension of x must match dimension of y");
+
+        if (y instanceof SparseVectorBuffer) {
+            return innerProduct(x, (SparseVectorBuffer) y);
+        }
+
+        double sum = 0.0d;
+        for (int k = 0; k < x.nonZeros(); k++) {
+            sum += x.valueAt(k) * y.get(x.indexAt(k));
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the inner product of two sparse vectors, merging their sorted indices
+     */
+    private static double innerProduct(SparseVectorBuffer x, SparseVectorBuffer y) {
+        double sum = 0.0d;
+        int kx = 0, ky = 0;
+        int nx = x.nonZeros(), ny = y.nonZeros();
+        while (kx < nx && ky < ny) {
+            int ix = x.indexAt(kx);
+            int iy = y.indexAt(ky);
+            if (ix == iy) {
+                sum += x.valueAt(kx++) * y.valueAt(ky++);
+            } else if (ix < iy) {
+                kx++;
+            } else {
+                ky++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Computes y = y + factor * x, where x is sparse, visiting the stored components of x only (axpy)
+     *
+     * @param factor the scalar to multiply x with
+     * @param x the sparse vector x
+     * @param y the vector y, receiving the result
+     */
+    public static void addTo(double factor, SparseVectorBuffer x, VectorBuffer y) {
+        requireNonNull(x, "x can't be null");
+        requireNonNull(y, "y can't be null");
+        require(() -> x.size() == y.size(), "dimension of x must match dimension of y");
+
+        for (int k = 0; k < x.nonZeros(); k++) {
+            int index = x.indexAt(k);
+            y.set(index, y.get(index) + factor * x.valueAt(k));
+        }
+    }
+
+    private static void addColumn(int[] pointers, int[] indices, double[] values, int col, double factor, VectorBuffer y) {
+        for (int entry = pointers[col]; entry < pointers[col + 1]; entry++) {
+            y.set(indices[entry], y.get(indices[entry]) + values[entry] * factor);
+        }
+    }
+
+    private static void scale(double beta, MatrixBuffer c) {
+        if (beta == 1.0d) {
+            return;
+        }
+        for (int i = 0; i < c.size().rows(); i++) {
+            for (int j = 0; j < c.size().cols(); j++) {
+                c.set(i, j, beta == 0.0d ? 0.0d : beta * c.get(i, j));
+            }
+        }
+    }
+}
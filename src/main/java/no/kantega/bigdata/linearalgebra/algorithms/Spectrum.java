@@ -0,0 +1,44 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+/**
+ * The parts of the spectrum that the Krylov eigensolvers may target, see {@link LanczosEigenSolver} and
+ * {@link ArnoldiEigenSolver}. For symmetric operators, the real parts are the eigenvalues themselves.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public enum Spectrum {
+    /**
+     * The eigenvalues of largest magnitude
+     */
+    LARGEST_MAGNITUDE {
+        @Override
+        int compare(double re1, double im1, double re2, double im2) {
+            return Double.compare(Math.hypot(re2, im2), Math.hypot(re1, im1));
+        }
+    },
+
+    /**
+     * The eigenvalues of largest real part
+     */
+    LARGEST_REAL {
+        @Override
+        int compare(double re1, double im1, double re2, double im2) {
+            return Double.compare(re2, re1);
+        }
+    },
+
+    /**
+     * The eigenvalues of smallest real part
+     */
+    SMALLEST_REAL {
+        @Override
+        int compare(double re1, double im1, double re2, double im2) {
+            return Double.compare(re1, re2);
+        }
+    };
+
+    /**
+     * Compares two eigenvalues by preference, the most wanted first. Complex conjugates compare equal.
+     */
+    abstract int compare(double re1, double im1, double re2, double im2);
+}
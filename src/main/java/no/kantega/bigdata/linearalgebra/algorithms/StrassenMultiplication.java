@@ -0,0 +1,323 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Size;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements matrix multiplication C = A * B using the Winograd variant of the Strassen algorithm.
+ *
+ * Each level of recursion splits the matrices into 2 x 2 blocks and forms the product using 7 block multiplications
+ * and 15 block additions, instead of the 8 multiplications of the conventional algorithm. This saves 1/8 of the
+ * floating point operations per level, giving O(n^2.81) in total. The recursion stops when any dimension falls
+ * below the cutoff, where the blocked kernel of {@link MatrixMultiplication} is used instead.
+ *
+ * Dimensions that are odd are handled by dynamic peeling: the product is formed for the largest even sized
+ * leading part, and the last row, column or inner dimension is added afterwards using the blocked kernel.
+ * Thus, no padding of the operands is needed.
+ *
+ * The seven block products of a level are independent, and are computed as parallel fork/join tasks when a
+ * parallel setting is given. Note that the Strassen algorithm is numerically somewhat less stable than the
+ * conventional algorithm, as the additions of blocks may cancel out.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class StrassenMultiplication {
+    /**
+     * The default dimension below which the blocked kernel is used instead of recursing further
+     */
+    public static final int DEFAULT_CUTOFF = 512;
+
+    private StrassenMultiplication() {
+    }
+
+    /**
+     * Computes C = A * B.
+     *
+     * C is not read, so it need not be initialized. C must not overlap A or B, though it may be a disjoint view of
+     * the same array.
+     *
+     * @param a the m x k matrix A
+     * @param b the k x n matrix B
+     * @param c the m x n matrix C, receiving the result
+     * @param cutoff the dimension below which the blocked kernel is used, must be 2 or higher
+     * @param parallelism the parallel setting
+     */
+    public static void multiply(MatrixBuffer a, MatrixBuffer b, MatrixBuffer c, int cutoff, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> cutoff >= 2, "cutoff must be 2 or higher");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+        require(() -> !MatrixMultiplication.overlaps(a, c) && !MatrixMultiplication.overlaps(b, c), "C can't overlap A or B");
+
+        if (isBaseCase(a.size().rows(), a.size().cols(), b.size().cols(), cutoff)) {
+            MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c, parallelism);
+            return;
+        }
+
+        StrassenTask task = new StrassenTask(Block.of(a), Block.of(b), Block.of(c), cutoff, parallelism);
+        if (parallelism.isSequential()) {
+            task.compute();
+        } else {
+            parallelism.invoke(task);
+        }
+
+        if (!(c instanceof ArrayBackedMatrixBuffer)) {
+            task.c.copyTo(c);
+        }
+    }
+
+    private static boolean isBaseCase(int m, int k, int n, int cutoff) {
+        return m < cutoff || k < cutoff || n < cutoff;
+    }
+
+    /**
+     * Computes C = A * B for one level of the recursion
+     */
+    private static class StrassenTask extends RecursiveAction {
+        private final Block a, b, c;
+        private final int cutoff;
+        private final Parallelism parallelism;
+
+        StrassenTask(Block a, Block b, Block c, int cutoff, Parallelism parallelism) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.cutoff = cutoff;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected void compute() {
+            int m = a.rows();
+            int k = a.cols();
+            int n = b.cols();
+
+            if (isBaseCase(m, k, n, cutoff)) {
+                MatrixMultiplication.multiplyBlock(1.0d, a, b, 0.0d, c, 0, m, 0, n);
+                return;
+            }
+
+            int mh = m / 2;
+            int kh = k / 2;
+            int nh = n / 2;
+
+            multiplyEvenPart(mh, kh, nh);
+
+            // Peel off the odd inner dimension, the odd last column and the odd last row
+            int me = 2 * mh;
+            int ke = 2 * kh;
+            int ne = 2 * nh;
+
+            if (k > ke) {
+                MatrixMultiplication.multiplyBlock(1.0d, a.block(0, ke, me, 1), b.block(ke, 0, 1, ne), 1.0d, c.block(0, 0, me, ne), 0, me, 0, ne);
+            }
+            if (n > ne) {
+                MatrixMultiplication.multiplyBlock(1.0d, a, b.block(0, ne, k, 1), 0.0d, c.block(0, ne, m, 1), 0, m, 0, 1);
+            }
+            if (m > me) {
+                MatrixMultiplication.multiplyBlock(1.0d, a.block(me, 0, 1, k), b.block(0, 0, k, ne), 0.0d, c.block(me, 0, 1, ne), 0, 1, 0, ne);
+            }
+        }
+
+        private void multiplyEvenPart(int mh, int kh, int nh) {
+            Block a11 = a.block(0, 0, mh, kh), a12 = a.block(0, kh, mh, kh);
+            Block a21 = a.block(mh, 0, mh, kh), a22 = a.block(mh, kh, mh, kh);
+            Block b11 = b.block(0, 0, kh, nh), b12 = b.block(0, nh, kh, nh);
+            Block b21 = b.block(kh, 0, kh, nh), b22 = b.block(kh, nh, kh, nh);
+            Block c11 = c.block(0, 0, mh, nh), c12 = c.block(0, nh, mh, nh);
+            Block c21 = c.block(mh, 0, mh, nh), c22 = c.block(mh, nh, mh, nh);
+
+            Block s1 = Block.allocate(mh, kh).assignSum(a21, 1.0d, a22);
+            Block s2 = Block.allocate(mh, kh).assignSum(s1, -1.0d, a11);
+            Block s3 = Block.allocate(mh, kh).assignSum(a11, -1.0d, a21);
+            Block s4 = Block.allocate(mh, kh).assignSum(a12, -1.0d, s2);
+            Block t1 = Block.allocate(kh, nh).assignSum(b12, -1.0d, b11);
+            Block t2 = Block.allocate(kh, nh).assignSum(b22, -1.0d, t1);
+            Block t3 = Block.allocate(kh, nh).assignSum(b22, -1.0d, b12);
+            Block t4 = Block.allocate(kh, nh).assignSum(t2, -1.0d, b21);
+
+            Block m1 = Block.allocate(mh, nh), m2 = Block.allocate(mh, nh), m3 = Block.allocate(mh, nh);
+            Block m4 = Block.allocate(mh, nh), m5 = Block.allocate(mh, nh), m6 = Block.allocate(mh, nh);
+            Block m7 = Block.allocate(mh, nh);
+
+            StrassenTask[] products = {
+                    new StrassenTask(a11, b11, m1, cutoff, parallelism),
+                    new StrassenTask(a12, b21, m2, cutoff, parallelism),
+                    new StrassenTask(s4, b22, m3, cutoff, parallelism),
+                    new StrassenTask(a22, t4, m4, cutoff, parallelism),
+                    new StrassenTask(s1, t1, m5, cutoff, parallelism),
+                    new StrassenTask(s2, t2, m6, cutoff, parallelism),
+                    new StrassenTask(s3, t3, m7, cutoff, parallelism)
+            };
+
+            if (parallelism.shouldSplit(2L * mh * kh * nh * 7)) {
+                invokeAll(products);
+            } else {
+                for (StrassenTask product : products) {
+                    product.compute();
+                }
+            }
+
+            // U2 = M1 + M6, U3 = U2 + M7, U4 = U2 + M5
+            m6.assignSum(m6, 1.0d, m1);
+            m7.assignSum(m7, 1.0d, m6);
+            m6.assignSum(m6, 1.0d, m5);
+
+            c11.assignSum(m1, 1.0d, m2);  // U1 = M1 + M2
+            c12.assignSum(m6, 1.0d, m3);  // U5 = U4 + M3
+            c21.assignSum(m7, -1.0d, m4); // U6 = U3 - M4
+            c22.assignSum(m7, 1.0d, m5);  // U7 = U3 + M5
+        }
+    }
+
+    /**
+     * A rectangular block of an array, addressed through an offset and row and column strides.
+     * Blocks of blocks share the same array.
+     */
+    private static class Block implements ArrayBackedMatrixBuffer {
+        private final Size size;
+        private final double[] values;
+        private final int offset, rowStride, columnStride;
+
+        static Block of(MatrixBuffer buffer) {
+            if (buffer instanceof Block) {
+                return (Block) buffer;
+            } else if (buffer instanceof ArrayBackedMatrixBuffer) {
+                ArrayBackedMatrixBuffer ab = (ArrayBackedMatrixBuffer) buffer;
+                return new Block(ab.size(), ab.array(), ab.offset(), ab.rowStride(), ab.columnStride());
+            } else {
+                Block block = allocate(buffer.size().rows(), buffer.size().cols());
+                for (int i = 0; i < block.rows(); i++) {
+                    for (int j = 0; j < block.cols(); j++) {
+                        block.set(i, j, buffer.get(i, j));
+                    }
+                }
+                return block;
+            }
+        }
+
+        static Block allocate(int rows, int cols) {
+            return new Block(Size.of(rows, cols), new double[rows * cols], 0, cols, 1);
+        }
+
+        private Block(Size size, double[] values, int offset, int rowStride, int columnStride) {
+            this.size = size;
+            this.values = values;
+            this.offset = offset;
+            this.rowStride = rowStride;
+            this.columnStride = columnStride;
+        }
+
+        int rows() {
+            return size.rows();
+        }
+
+        int cols() {
+            return size.cols();
+        }
+
+        Block block(int row, int col, int rows, int cols) {
+            return new Block(Size.of(rows, cols), values, addressOf(row, col), rowStride, columnStride);
+        }
+
+        /**
+         * Assigns x + factor * y to this block, which may be the same as x or y
+         */
+        Block assignSum(Block x, double factor, Block y) {
+            for (int i = 0; i < rows(); i++) {
+                int address = addressOf(i, 0);
+                int xAddress = x.addressOf(i, 0);
+                int yAddress = y.addressOf(i, 0);
+                for (int j = 0; j < cols(); j++) {
+                    values[address] = x.values[xAddress] + factor * y.values[yAddress];
+                    address += columnStride;
+                    xAddress += x.columnStride;
+                    yAddress += y.columnStride;
+                }
+            }
+            return this;
+        }
+
+        void copyTo(MatrixBuffer buffer) {
+            for (int i = 0; i < rows(); i++) {
+                for (int j = 0; j < cols(); j++) {
+                    buffer.set(i, j, get(i, j));
+                }
+            }
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return values[addressOf(row, col)];
+        }
+
+        @Override
+        public void set(int row, int col, double value) {
+            values[addressOf(row, col)] = value;
+        }
+
+        @Override
+        public VectorBuffer row(int row) {
+            return FixedVectorBuffer.from(cols(), values, addressOf(row, 0), columnStride);
+        }
+
+        @Override
+        public VectorBuffer column(int col) {
+            return FixedVectorBuffer.from(rows(), values, addressOf(0, col), rowStride);
+        }
+
+        @Override
+        public Size size() {
+            return size;
+        }
+
+        @Override
+        public MatrixBuffer copy() {
+            MatrixBuffer copy = FixedRowMajorMatrixBuffer.allocate(rows(), cols());
+            copyTo(copy);
+            return copy;
+        }
+
+        @Override
+        public MatrixBuffer transpose() {
+            return new Block(Size.of(cols(), rows()), values, offset, columnStride, rowStride);
+        }
+
+        @Override
+        public double[] array() {
+            return values;
+        }
+
+        @Override
+        public int offset() {
+            return offset;
+        }
+
+        @Override
+        public int rowStride() {
+            return rowStride;
+        }
+
+        @Override
+        public int columnStride() {
+            return columnStride;
+        }
+
+        private int addressOf(int row, int col) {
+            return offset + row * rowStride + col * columnStride;
+        }
+    }
+}
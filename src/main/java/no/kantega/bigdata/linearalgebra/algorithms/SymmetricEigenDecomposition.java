@@ -0,0 +1,287 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the eigendecomposition A = XDX' of symmetric matrices, as LAPACK's dsyevd does.
+ *
+ * The matrix is copied into a row-major array, and reduced to a symmetric tridiagonal matrix T = Q'AQ by n - 2
+ * Householder reflectors, each applied to the trailing matrix by a symmetric rank-two update (dsytd2). The
+ * matrix-vector products and the updates are split by rows into parallel tasks. Then the eigenvalues and
+ * eigenvectors Z of T are found by {@link TridiagonalEigenSolver}, by divide-and-conquer, and the eigenvectors
+ * of A are X = QZ, applying the reflectors to column blocks of Z in parallel. When the eigenvalues only are
+ * requested, T is solved by the implicit QL method and the reflectors are never applied, taking O(n^2) operations
+ * beyond the 4n^3/3 of the reduction.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class SymmetricEigenDecomposition {
+
+    private SymmetricEigenDecomposition() {
+    }
+
+    /**
+     * Decomposes the specified matrix, which is not modified.
+     *
+     * @param a the symmetric n x n matrix to decompose, of which the lower triangle is read
+     * @param eigenvectors whether to compute the eigenvectors, or the eigenvalues only
+     * @param parallelism the parallel setting
+     * @return the result of the eigendecomposition
+     */
+    public static EigenDecompositionResult decompose(MatrixBuffer a, boolean eigenvectors, Parallelism parallelism) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(parallelism, "parallelism can't be null");
+        require(() -> a.size().rows() == a.size().cols(), "eigendecomposition can be performed on a square matrix only");
+
+        int n = a.size().rows();
+        double[] v = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                v[i * n + j] = a.get(i, j);
+                v[j * n + i] = v[i * n + j];
+            }
+        }
+
+        double[] d = new double[n];
+        double[] e = new double[n];
+        double[] tau = new double[n];
+        tridiagonalize(v, n, d, e, tau, parallelism);
+
+        if (!eigenvectors) {
+            TridiagonalEigenSolver.eigenvalues(d, e);
+            return new EigenDecompositionResult(d, null);
+        }
+
+        MatrixBuffer z = TridiagonalEigenSolver.eigenvectors(d, e, parallelism);
+        ApplyReflectorsTask task = new ApplyReflectorsTask(v, n, tau, z, parallelism, 0, n);
+        if (parallelism.shouldSplit(task.flops())) {
+            parallelism.invoke(task);
+        } else {
+            task.compute();
+        }
+        return new EigenDecompositionResult(d, Matrix.from(z));
+    }
+
+    /**
+     * Reduces the full symmetric row-major array to tridiagonal form, storing the diagonal in d, the subdiagonal in
+     * e, and the reflector of step k in column k below the subdiagonal, having an implicit leading 1 and factor tau[k]
+     */
+    private static void tridiagonalize(double[] a, int n, double[] d, double[] e, double[] tau, Parallelism parallelism) {
+        for (int k = 0; k < n - 2; k++) {
+            tau[k] = householder(a, n, k);
+            e[k] = a[(k + 1) * n + k];
+            d[k] = a[k * n + k];
+            if (tau[k] == 0.0d) {
+                continue;
+            }
+
+            // The reflector v acts on the trailing matrix A22 of rows and columns k+1 to n
+            int offset = k + 1;
+            int length = n - offset;
+            double[] u = new double[length];
+            u[0] = 1.0d;
+            for (int i = 1; i < length; i++) {
+                u[i] = a[(offset + i) * n + k];
+            }
+
+            // p = tau * A22 * v, w = p - (tau/2) * (p'v) * v, and A22 = A22 - v * w' - w * v'
+            double t = tau[k];
+            double[] p = new double[length];
+            forEachRowRange(length, 2L * length * length, parallelism, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int row = (offset + i) * n + offset;
+                    double sum = 0.0d;
+                    for (int j = 0; j < length; j++) {
+                        sum += a[row + j] * u[j];
+                    }
+                    p[i] = t * sum;
+                }
+            });
+            double dot = 0.0d;
+            for (int i = 0; i < length; i++) {
+                dot += p[i] * u[i];
+            }
+            double coefficient = t / 2.0d * dot;
+            for (int i = 0; i < length; i++) {
+                p[i] -= coefficient * u[i];
+            }
+            forEachRowRange(length, 4L * length * length, parallelism, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int row = (offset + i) * n + offset;
+                    double ui = u[i];
+                    double wi = p[i];
+                    for (int j = 0; j < length; j++) {
+                        a[row + j] -= ui * p[j] + wi * u[j];
+                    }
+                }
+            });
+        }
+        if (n >= 2) {
+            d[n - 2] = a[(n - 2) * n + n - 2];
+            e[n - 2] = a[(n - 1) * n + n - 2];
+        }
+        if (n >= 1) {
+            d[n - 1] = a[n * n - 1];
+        }
+    }
+
+    /**
+     * Generates the reflector annihilating column k below the subdiagonal, overwriting the subdiagonal element
+     * by beta and the elements below by v
+     *
+     * @return the scalar factor tau of the reflector, being zero when there is nothing to annihilate
+     */
+    private static double householder(double[] a, int n, int k) {
+        double scale = 0.0d;
+        for (int i = k + 2; i < n; i++) {
+            scale = Math.max(scale, Math.abs(a[i * n + k]));
+        }
+        if (scale == 0.0d) {
+            return 0.0d;
+        }
+
+        double sum = 0.0d;
+        for (int i = k + 2; i < n; i++) {
+            double scaled = a[i * n + k] / scale;
+            sum += scaled * scaled;
+        }
+        double alpha = a[(k + 1) * n + k];
+        double beta = -Math.copySign(Math.hypot(alpha, scale * Math.sqrt(sum)), alpha);
+
+        double multiplier = 1.0d / (alpha - beta);
+        for (int i = k + 2; i < n; i++) {
+            a[i * n + k] *= multiplier;
+        }
+        a[(k + 1) * n + k] = beta;
+        return (beta - alpha) / beta;
+    }
+
+    private static void forEachRowRange(int rows, long flops, Parallelism parallelism, RowRange range) {
+        RowsTask task = new RowsTask(range, flops / Math.max(rows, 1), parallelism, 0, rows);
+        if (parallelism.shouldSplit(flops)) {
+            parallelism.invoke(task);
+        } else {
+            range.run(0, rows);
+        }
+    }
+
+    /**
+     * Work on a range of rows
+     */
+    @FunctionalInterface
+    private interface RowRange {
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs a range of rows, recursively splitting it in halves until the work falls below the flop threshold
+     */
+    private static class RowsTask extends RecursiveAction {
+        private final RowRange range;
+        private final long flopsPerRow;
+        private final Parallelism parallelism;
+        private final int from, to;
+
+        RowsTask(RowRange range, long flopsPerRow, Parallelism parallelism, int from, int to) {
+            this.range = range;
+            this.flopsPerRow = flopsPerRow;
+            this.parallelism = parallelism;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from < 2 || !parallelism.shouldSplit(flopsPerRow * (to - from))) {
+                range.run(from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowsTask(range, flopsPerRow, parallelism, from, mid),
+                          new RowsTask(range, flopsPerRow, parallelism, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Overwrites a block of columns of Z by QZ, applying the reflectors in reverse order, recursively splitting
+     * the columns in halves until the work falls below the flop threshold
+     */
+    private static class ApplyReflectorsTask extends RecursiveAction {
+        private final double[] a;
+        private final int n;
+        private final double[] tau;
+        private final MatrixBuffer z;
+        private final Parallelism parallelism;
+        private final int colFrom, colTo;
+
+        ApplyReflectorsTask(double[] a, int n, double[] tau, MatrixBuffer z, Parallelism parallelism, int colFrom, int colTo) {
+            this.a = a;
+            this.n = n;
+            this.tau = tau;
+            this.z = z;
+            this.parallelism = parallelism;
+            this.colFrom = colFrom;
+            this.colTo = colTo;
+        }
+
+        long flops() {
+            return 2L * n * n * (colTo - colFrom);
+        }
+
+        @Override
+        protected void compute() {
+            int width = colTo - colFrom;
+            if (width < 2 * LUDecompositionResult.MIN_COLUMNS || !parallelism.shouldSplit(flops())) {
+                apply();
+            } else {
+                int colMid = colFrom + width / 2;
+                invokeAll(new ApplyReflectorsTask(a, n, tau, z, parallelism, colFrom, colMid),
+                          new ApplyReflectorsTask(a, n, tau, z, parallelism, colMid, colTo));
+            }
+        }
+
+        private void apply() {
+            double[] x = ((ArrayBackedMatrixBuffer) z).array();
+            double[] w = new double[colTo - colFrom];
+            for (int k = n - 3; k >= 0; k--) {
+                double t = tau[k];
+                if (t == 0.0d) {
+                    continue;
+                }
+
+                // w = v'X, and X = X - tau * v * w, where v has its leading 1 in row k+1
+                int first = (k + 1) * n;
+                for (int c = colFrom; c < colTo; c++) {
+                    w[c - colFrom] = x[first + c];
+                }
+                for (int i = k + 2; i < n; i++) {
+                    double vi = a[i * n + k];
+                    if (vi != 0.0d) {
+                        for (int c = colFrom; c < colTo; c++) {
+                            w[c - colFrom] += vi * x[i * n + c];
+                        }
+                    }
+                }
+                for (int c = colFrom; c < colTo; c++) {
+                    x[first + c] -= t * w[c - colFrom];
+                }
+                for (int i = k + 2; i < n; i++) {
+                    double factor = t * a[i * n + k];
+                    if (factor != 0.0d) {
+                        for (int c = colFrom; c < colTo; c++) {
+                            x[i * n + c] -= factor * w[c - colFrom];
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SymmetricPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements kernels for symmetric matrices stored as packed lower triangles.
+ *
+ * Each stored element a(i,j) below the diagonal stands for both a(i,j) and a(j,i), and is used for both in the same
+ * pass. Thus, every stored element is read only once, and the symmetric operand costs half the memory traffic of a
+ * general one. The kernels are named after their BLAS counterparts.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class SymmetricOperations {
+
+    private SymmetricOperations() {
+    }
+
+    /**
+     * Computes the symmetric matrix-vector product y = alpha * A * x + beta * y (SYMV).
+     * When beta is zero, y is not read, so it need not be initialized. y must not be the same buffer as x.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the symmetric n x n matrix A
+     * @param x the vector x of dimension n
+     * @param beta the scalar to multiply y with before adding the product
+     * @param y the vector y of dimension n, receiving the result
+     */
+    public static void multiply(double alpha, SymmetricPackedMatrixBuffer a, VectorBuffer x, double beta, VectorBuffer y) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(x, "x can't be null");
+        requireNonNull(y, "y can't be null");
+        require(() -> a.size().cols() == x.size() && a.size().rows() == y.size(), "dimensions of x and y must match order of A");
+        require(() -> x != y, "x and y can't be the same vector");
+
+        int n = y.size();
+        for (int i = 0; i < n; i++) {
+            y.set(i, beta == 0.0d ? 0.0d : beta * y.get(i));
+        }
+
+        double[] packed = a.array();
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            double xi = alpha * x.get(i);
+            double sum = 0.0d;
+            for (int j = 0; j < i; j++, k++) {
+                sum += packed[k] * x.get(j);
+                y.set(j, y.get(j) + packed[k] * xi);
+            }
+            y.set(i, y.get(i) + alpha * sum + packed[k++] * xi);
+        }
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C, where A is symmetric (SYMM).
+     * When beta is zero, C is not read, so it need not be initialized.
+     *
+     * Each stored element a(i,j) below the diagonal adds alpha * a(i,j) times row j of B to row i of C, and
+     * alpha * a(i,j) times row i of B to row j of C.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the symmetric m x m matrix A
+     * @param b the m x n matrix B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result
+     */
+    public static void multiply(double alpha, SymmetricPackedMatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+
+        int m = c.size().rows();
+        int n = c.size().cols();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                c.set(i, j, beta == 0.0d ? 0.0d : beta * c.get(i, j));
+            }
+        }
+        if (alpha == 0.0d) {
+            return;
+        }
+
+        double[] packed = a.array();
+        int k = 0;
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j <= i; j++, k++) {
+                double factor = alpha * packed[k];
+                if (factor != 0.0d) {
+                    addRow(factor, b, j, c, i);
+                    if (i != j) {
+                        addRow(factor, b, i, c, j);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the symmetric rank k update C = alpha * A * A' + beta * C, or C = alpha * A' * A + beta * C when
+     * transposed (SYRK). Only the lower triangle of C is computed, as C is symmetric. The latter form gives the
+     * Gram matrix of the columns of A. When beta is zero, C is not read, so it need not be initialized.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the matrix A, being n x k, or k x n when transposed
+     * @param transpose whether to compute A' * A rather than A * A'
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the symmetric n x n matrix C, receiving the result
+     */
+    public static void rankKUpdate(double alpha, MatrixBuffer a, boolean transpose, double beta, SymmetricPackedMatrixBuffer c) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(c, "c can't be null");
+        MatrixBuffer x = transpose ? a.transpose() : a;
+        require(() -> x.size().rows() == c.size().rows(), "order of C must match the product");
+
+        int n = x.size().rows();
+        int k = x.size().cols();
+        double[] packed = c.array();
+        for (int t = 0; t < packed.length; t++) {
+            packed[t] = beta == 0.0d ? 0.0d : beta * packed[t];
+        }
+        if (alpha == 0.0d) {
+            return;
+        }
+
+        if (x instanceof ArrayBackedMatrixBuffer && ((ArrayBackedMatrixBuffer) x).columnStride() == 1) {
+            // The rows of X are contiguous, so each element of C is the inner product of two rows
+            ArrayBackedMatrixBuffer xb = (ArrayBackedMatrixBuffer) x;
+            double[] values = xb.array();
+            int t = 0;
+            for (int i = 0; i < n; i++) {
+                int rowI = xb.offset() + i * xb.rowStride();
+                for (int j = 0; j <= i; j++, t++) {
+                    int rowJ = xb.offset() + j * xb.rowStride();
+                    double sum = 0.0d;
+                    for (int p = 0; p < k; p++) {
+                        sum += values[rowI + p] * values[rowJ + p];
+                    }
+                    packed[t] += alpha * sum;
+                }
+            }
+        } else {
+            // Accumulate the outer products of the columns of X, reading each column once
+            double[] column = new double[n];
+            for (int p = 0; p < k; p++) {
+                for (int i = 0; i < n; i++) {
+                    column[i] = x.get(i, p);
+                }
+                int t = 0;
+                for (int i = 0; i < n; i++) {
+                    double factor = alpha * column[i];
+                    for (int j = 0; j <= i; j++, t++) {
+                        packed[t] += factor * column[j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds factor times row r of B to row i of C
+     */
+    static void addRow(double factor, MatrixBuffer b, int r, MatrixBuffer c, int i) {
+        int n = c.size().cols();
+        if (b instanceof ArrayBackedMatrixBuffer && c instanceof ArrayBackedMatrixBuffer) {
+            ArrayBackedMatrixBuffer bb = (ArrayBackedMatrixBuffer) b;
+            ArrayBackedMatrixBuffer cb = (ArrayBackedMatrixBuffer) c;
+            double[] bValues = bb.array();
+            double[] cValues = cb.array();
+            int bAddress = bb.offset() + r * bb.rowStride();
+            int cAddress = cb.offset() + i * cb.rowStride();
+            for (int j = 0; j < n; j++) {
+                cValues[cAddress] += factor * bValues[bAddress];
+                bAddress += bb.columnStride();
+                cAddress += cb.columnStride();
+            }
+        } else {
+            for (int j = 0; j < n; j++) {
+                c.set(i, j, c.get(i, j) + factor * b.get(r, j));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moves tiles of elements between buffers on disk and in memory, for the out-of-core algorithms.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class Tiles {
+
+    private Tiles() {
+    }
+
+    /**
+     * Copies a block of the specified buffer into a new row major buffer in memory
+     */
+    static MatrixBuffer load(MatrixBuffer source, int row, int col, int rows, int cols) {
+        MatrixBuffer tile = FixedRowMajorMatrixBuffer.allocate(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                tile.set(i, j, source.get(row + i, col + j));
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Copies the specified tile into a block of the target buffer, row by row
+     */
+    static void store(MatrixBuffer tile, MatrixBuffer target, int row, int col) {
+        for (int i = 0; i < tile.size().rows(); i++) {
+            for (int j = 0; j < tile.size().cols(); j++) {
+                target.set(row + i, col + j, tile.get(i, j));
+            }
+        }
+    }
+
+    /**
+     * Creates a single, daemon thread executor for reading tiles ahead of their use
+     */
+    static ExecutorService newPrefetcher() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tile-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Waits for a prefetched tile, rethrowing any failure of the read as is
+     */
+    static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for tile", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("failed to read tile", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.TriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements kernels for triangular matrices stored as packed triangles.
+ *
+ * Only the stored triangle is read, so the zeros of the other triangle cost neither memory traffic nor
+ * operations. The kernels are named after their BLAS counterparts.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public final class TriangularOperations {
+    private static final double TINY = 1e-20;
+
+    private TriangularOperations() {
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C, where A is triangular (TRMM).
+     * When beta is zero, C is not read, so it need not be initialized.
+     *
+     * @param alpha the scalar to multiply the product with
+     * @param a the triangular m x m matrix A
+     * @param b the m x n matrix B
+     * @param beta the scalar to multiply C with before adding the product
+     * @param c the m x n matrix C, receiving the result, which must be distinct from B
+     */
+    public static void multiply(double alpha, TriangularPackedMatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        requireNonNull(c, "c can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+        require(() -> a.size().rows() == c.size().rows() && b.size().cols() == c.size().cols(), "size of C must match size of product A * B");
+
+        int m = c.size().rows();
+        int n = c.size().cols();
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                c.set(i, j, beta == 0.0d ? 0.0d : beta * c.get(i, j));
+            }
+        }
+        if (alpha == 0.0d) {
+            return;
+        }
+
+        // Visit the triangle in storage order, adding alpha * a(i,j) times row j of B to row i of C
+        double[] packed = a.array();
+        boolean upper = a.isUpper();
+        int k = 0;
+        for (int major = 0; major < m; major++) {
+            for (int minor = 0; minor <= major; minor++, k++) {
+                double factor = alpha * packed[k];
+                if (factor != 0.0d) {
+                    int row = upper ? minor : major;
+                    int col = upper ? major : minor;
+                    SymmetricOperations.addRow(factor, b, col, c, row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves A * X = alpha * B for X, where A is triangular, overwriting B with X (TRSM).
+     *
+     * Lower triangular systems are solved by forward substitution, and upper triangular ones by back substitution,
+     * one row of B at a time.
+     *
+     * @param alpha the scalar to multiply B with
+     * @param a the triangular m x m matrix A
+     * @param b the m x n matrix B, receiving the solution X
+     * @throws SingularMatrixException when A has a zero on its diagonal
+     */
+    public static void solve(double alpha, TriangularPackedMatrixBuffer a, MatrixBuffer b) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        require(() -> a.size().cols() == b.size().rows(), "number of columns in A must match number of rows in B");
+
+        int m = a.size().rows();
+        int n = b.size().cols();
+        double[] packed = a.array();
+        boolean upper = a.isUpper();
+        for (int step = 0; step < m; step++) {
+            int i = upper ? m - 1 - step : step;
+            for (int j = 0; j < n; j++) {
+                b.set(i, j, alpha * b.get(i, j));
+            }
+
+            // Subtract the rows already solved, being those between the diagonal and the edge of the triangle
+            int from = upper ? i + 1 : 0;
+            int to = upper ? m : i;
+            for (int p = from; p < to; p++) {
+                double factor = packed[a.indexOf(i, p)];
+                if (factor != 0.0d) {
+                    SymmetricOperations.addRow(-factor, b, p, b, i);
+                }
+            }
+
+            double divisor = requireNonSingular(packed[a.indexOf(i, i)]);
+            for (int j = 0; j < n; j++) {
+                b.set(i, j, b.get(i, j) / divisor);
+            }
+        }
+    }
+
+    /**
+     * Solves A * x = b for x, where A is triangular, overwriting b with x (TRSV).
+     *
+     * @param a the triangular n x n matrix A
+     * @param b the vector b of dimension n, receiving the solution x
+     * @throws SingularMatrixException when A has a zero on its diagonal
+     */
+    public static void solve(TriangularPackedMatrixBuffer a, VectorBuffer b) {
+        requireNonNull(a, "a can't be null");
+        requireNonNull(b, "b can't be null");
+        require(() -> a.size().cols() == b.size(), "dimension of b must match order of A");
+
+        int n = a.size().rows();
+        double[] packed = a.array();
+        boolean upper = a.isUpper();
+        for (int step = 0; step < n; step++) {
+            int i = upper ? n - 1 - step : step;
+            int from = upper ? i + 1 : 0;
+            int to = upper ? n : i;
+            double sum = b.get(i);
+            for (int p = from; p < to; p++) {
+                sum -= packed[a.indexOf(i, p)] * b.get(p);
+            }
+            b.set(i, sum / requireNonSingular(packed[a.indexOf(i, i)]));
+        }
+    }
+
+    private static double requireNonSingular(double diagonal) {
+        if (Math.abs(diagonal) <= TINY) {
+            throw new SingularMatrixException();
+        }
+        return diagonal;
+    }
+}
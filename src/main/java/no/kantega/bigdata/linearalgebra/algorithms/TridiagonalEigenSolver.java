@@ -0,0 +1,491 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.ArrayBackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Implements eigensolvers for symmetric tridiagonal matrices, given by the diagonal d and the subdiagonal e, where
+ * e[i] = T(i+1, i) and e[n-1] is used as scratch space.
+ *
+ * The eigenvalues only are found by the implicit QL method with Wilkinson shifts, taking O(n^2) operations.
+ * Eigenvectors are found by Cuppen's divide-and-conquer method, as LAPACK's dstedc does. The matrix is torn into
+ * two halves by a rank-one modification, the halves are solved recursively, in parallel, and the solutions are
+ * merged by solving the secular equation of the modification. Deflation removes the eigenpairs that are already
+ * known to working precision, and the eigenvectors are computed from Gu and Eisenstat's recomputed modification
+ * vector, such that they are orthogonal to working precision. The merged eigenvectors are found by a single call
+ * to the blocked kernel of {@link MatrixMultiplication}. Small blocks are solved by the implicit QL method.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class TridiagonalEigenSolver {
+    /**
+     * The size of the blocks solved by the implicit QL method rather than being divided
+     */
+    static final int LEAF_SIZE = 32;
+
+    private static final double EPSILON = Math.ulp(1.0d);
+
+    private TridiagonalEigenSolver() {
+    }
+
+    /**
+     * Computes the eigenvalues only, overwriting d by them in ascending order, and e by scratch values
+     */
+    static void eigenvalues(double[] d, double[] e) {
+        ql(d, e, null, d.length);
+    }
+
+    /**
+     * Computes the eigenvalues and eigenvectors, overwriting d by the eigenvalues in ascending order, and e by
+     * scratch values
+     *
+     * @return the row-major n x n matrix having the corresponding eigenvectors as columns
+     */
+    static MatrixBuffer eigenvectors(double[] d, double[] e, Parallelism parallelism) {
+        int n = d.length;
+        DivideTask task = new DivideTask(d, e, 0, n, parallelism);
+        if (parallelism.shouldSplit(task.flops())) {
+            parallelism.invoke(task);
+        } else {
+            task.compute();
+        }
+        return task.q;
+    }
+
+    /**
+     * Solves the block of rows and columns from to to, returning its eigenvectors
+     */
+    private static MatrixBuffer solve(double[] d, double[] e, int from, int to, Parallelism parallelism) {
+        int n = to - from;
+        if (n <= LEAF_SIZE) {
+            MatrixBuffer q = FixedRowMajorMatrixBuffer.allocate(n, n);
+            double[] z = ((ArrayBackedMatrixBuffer) q).array();
+            for (int i = 0; i < n; i++) {
+                z[i * n + i] = 1.0d;
+            }
+            double[] dl = Arrays.copyOfRange(d, from, to);
+            double[] el = Arrays.copyOfRange(e, from, to);
+            el[n - 1] = 0.0d;
+            ql(dl, el, z, n);
+            System.arraycopy(dl, 0, d, from, n);
+            return q;
+        }
+
+        // T = diag(T1, T2) + rho * u * u', having u = e(m-1) + e(m)
+        int mid = from + n / 2;
+        double rho = e[mid - 1];
+        d[mid - 1] -= rho;
+        d[mid] -= rho;
+
+        DivideTask first = new DivideTask(d, e, from, mid, parallelism);
+        DivideTask second = new DivideTask(d, e, mid, to, parallelism);
+        if (parallelism.shouldSplit(first.flops())) {
+            ForkJoinTask.invokeAll(first, second);
+        } else {
+            first.compute();
+            second.compute();
+        }
+
+        int n1 = mid - from;
+        int n2 = to - mid;
+        double[] q1 = ((ArrayBackedMatrixBuffer) first.q).array();
+        double[] q2 = ((ArrayBackedMatrixBuffer) second.q).array();
+        MatrixBuffer q = FixedRowMajorMatrixBuffer.allocate(n, n);
+        double[] qv = ((ArrayBackedMatrixBuffer) q).array();
+        for (int i = 0; i < n1; i++) {
+            System.arraycopy(q1, i * n1, qv, i * n, n1);
+        }
+        for (int i = 0; i < n2; i++) {
+            System.arraycopy(q2, i * n2, qv, (n1 + i) * n + n1, n2);
+        }
+
+        // z = Q'u is the last row of Q1 followed by the first row of Q2
+        double[] z = new double[n];
+        System.arraycopy(q1, (n1 - 1) * n1, z, 0, n1);
+        System.arraycopy(q2, 0, z, n1, n2);
+
+        double[] values = Arrays.copyOfRange(d, from, to);
+        MatrixBuffer merged = merge(values, z, rho, q, parallelism);
+        System.arraycopy(values, 0, d, from, n);
+        return merged;
+    }
+
+    /**
+     * Finds the eigendecomposition of Q * (D + rho * z * z') * Q', overwriting the diagonal D by the eigenvalues in
+     * ascending order
+     *
+     * @return the eigenvectors, as columns
+     */
+    private static MatrixBuffer merge(double[] d, double[] z, double rho, MatrixBuffer q, Parallelism parallelism) {
+        int n = d.length;
+        double[] qv = ((ArrayBackedMatrixBuffer) q).array();
+
+        // Normalizes z, and negates a negative modification, so that rho > 0
+        double norm = 0.0d;
+        for (double value : z) {
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        rho *= norm * norm;
+        for (int i = 0; i < n; i++) {
+            z[i] /= norm;
+        }
+        boolean negated = rho < 0.0d;
+        if (negated) {
+            rho = -rho;
+            for (int i = 0; i < n; i++) {
+                d[i] = -d[i];
+            }
+        }
+
+        double maxD = 0.0d;
+        double maxZ = 0.0d;
+        for (int i = 0; i < n; i++) {
+            maxD = Math.max(maxD, Math.abs(d[i]));
+            maxZ = Math.max(maxZ, Math.abs(z[i]));
+        }
+        double tolerance = 8.0d * EPSILON * Math.max(maxD, maxZ);
+
+        // Deflates the small components of z, and one of each pair of close eigenvalues by a Givens rotation
+        boolean[] deflated = new boolean[n];
+        int previous = -1;
+        for (int i : ascending(d, IntStream.range(0, n).toArray())) {
+            if (rho * Math.abs(z[i]) <= tolerance) {
+                deflated[i] = true;
+                continue;
+            }
+            if (previous >= 0) {
+                double radius = Math.hypot(z[i], z[previous]);
+                double c = z[i] / radius;
+                double s = -z[previous] / radius;
+                if (Math.abs((d[i] - d[previous]) * c * s) <= tolerance) {
+                    z[i] = radius;
+                    z[previous] = 0.0d;
+                    for (int r = 0; r < n; r++) {
+                        double x = qv[r * n + previous];
+                        double y = qv[r * n + i];
+                        qv[r * n + previous] = c * x + s * y;
+                        qv[r * n + i] = c * y - s * x;
+                    }
+                    double t = d[previous] * c * c + d[i] * s * s;
+                    d[i] = d[previous] * s * s + d[i] * c * c;
+                    d[previous] = t;
+                    deflated[previous] = true;
+                }
+            }
+            previous = i;
+        }
+
+        int[] kept = ascending(d, IntStream.range(0, n).filter(i -> !deflated[i]).toArray());
+        int k = kept.length;
+        if (k > 0) {
+            double[] dk = new double[k];
+            double[] zk = new double[k];
+            for (int j = 0; j < k; j++) {
+                dk[j] = d[kept[j]];
+                zk[j] = z[kept[j]];
+            }
+            double[] origin = new double[k];
+            double[] tau = new double[k];
+            solveSecularEquation(dk, zk, rho, origin, tau);
+
+            // The secular eigenvectors, as columns, and the eigenvectors they combine
+            MatrixBuffer u = secularEigenvectors(dk, zk, rho, origin, tau);
+            MatrixBuffer qk = FixedRowMajorMatrixBuffer.allocate(n, k);
+            double[] qkv = ((ArrayBackedMatrixBuffer) qk).array();
+            for (int r = 0; r < n; r++) {
+                for (int j = 0; j < k; j++) {
+                    qkv[r * k + j] = qv[r * n + kept[j]];
+                }
+            }
+            MatrixBuffer product = FixedRowMajorMatrixBuffer.allocate(n, k);
+            MatrixMultiplication.multiply(1.0d, qk, u, 0.0d, product, parallelism);
+
+            double[] pv = ((ArrayBackedMatrixBuffer) product).array();
+            for (int r = 0; r < n; r++) {
+                for (int j = 0; j < k; j++) {
+                    qv[r * n + kept[j]] = pv[r * k + j];
+                }
+            }
+            for (int j = 0; j < k; j++) {
+                d[kept[j]] = origin[j] + tau[j];
+            }
+        }
+
+        if (negated) {
+            for (int i = 0; i < n; i++) {
+                d[i] = -d[i];
+            }
+        }
+
+        // Sorts the eigenpairs by ascending eigenvalue
+        int[] order = ascending(d, IntStream.range(0, n).toArray());
+        double[] sorted = new double[n];
+        MatrixBuffer result = FixedRowMajorMatrixBuffer.allocate(n, n);
+        double[] rv = ((ArrayBackedMatrixBuffer) result).array();
+        for (int j = 0; j < n; j++) {
+            sorted[j] = d[order[j]];
+        }
+        for (int r = 0; r < n; r++) {
+            for (int j = 0; j < n; j++) {
+                rv[r * n + j] = qv[r * n + order[j]];
+            }
+        }
+        System.arraycopy(sorted, 0, d, 0, n);
+        return result;
+    }
+
+    /**
+     * Finds the roots of the secular equation f(x) = 1 + rho * sum(z_i^2 / (d_i - x)) = 0, for ascending d and
+     * rho > 0. Root j lies between d_j and d_j+1, or above the last d. Each root is found relative to its nearest
+     * pole, as origin + tau, by Newton steps safeguarded by bisection, keeping the differences to the poles accurate.
+     */
+    private static void solveSecularEquation(double[] d, double[] z, double rho, double[] origin, double[] tau) {
+        int k = d.length;
+        double sumZ2 = 0.0d;
+        for (double value : z) {
+            sumZ2 += value * value;
+        }
+
+        double[] delta = new double[k];
+        for (int j = 0; j < k; j++) {
+            double lo, hi;
+            if (j < k - 1) {
+                double mid = (d[j] + d[j + 1]) / 2.0d;
+                if (secular(d, z, rho, d[j], mid - d[j], delta) >= 0.0d) {
+                    origin[j] = d[j];
+                    lo = 0.0d;
+                    hi = mid - d[j];
+                } else {
+                    origin[j] = d[j + 1];
+                    lo = mid - d[j + 1];
+                    hi = 0.0d;
+                }
+            } else {
+                origin[j] = d[j];
+                lo = 0.0d;
+                hi = rho * sumZ2;
+            }
+
+            for (int i = 0; i < k; i++) {
+                delta[i] = d[i] - origin[j];
+            }
+            double t = (lo + hi) / 2.0d;
+            for (int iteration = 0; iteration < 200; iteration++) {
+                double f = 1.0d;
+                double derivative = 0.0d;
+                double magnitude = 1.0d;
+                for (int i = 0; i < k; i++) {
+                    double term = z[i] / (delta[i] - t);
+                    f += rho * z[i] * term;
+                    derivative += rho * term * term;
+                    magnitude += Math.abs(rho * z[i] * term);
+                }
+                if (Math.abs(f) <= 4.0d * k * EPSILON * magnitude) {
+                    break;
+                }
+                if (f > 0.0d) {
+                    hi = t;
+                } else {
+                    lo = t;
+                }
+                if (hi - lo <= 2.0d * EPSILON * Math.max(Math.abs(lo), Math.abs(hi))) {
+                    break;
+                }
+                double next = t - f / derivative;
+                t = next > lo && next < hi ? next : (lo + hi) / 2.0d;
+            }
+            tau[j] = t;
+        }
+    }
+
+    /**
+     * Evaluates the secular function at origin + t, filling delta with the differences of d to the origin
+     */
+    private static double secular(double[] d, double[] z, double rho, double origin, double t, double[] delta) {
+        double f = 1.0d;
+        for (int i = 0; i < d.length; i++) {
+            delta[i] = d[i] - origin;
+            f += rho * z[i] * z[i] / (delta[i] - t);
+        }
+        return f;
+    }
+
+    /**
+     * Forms the eigenvectors of D + rho * z * z' from the roots, using the recomputed z of Gu and Eisenstat,
+     * for which the roots are exact eigenvalues, such that the eigenvectors are orthogonal
+     *
+     * @return the eigenvectors, as columns of a k x k row-major buffer
+     */
+    private static MatrixBuffer secularEigenvectors(double[] d, double[] z, double rho, double[] origin, double[] tau) {
+        int k = d.length;
+        double[] zHat = new double[k];
+        for (int i = 0; i < k; i++) {
+            // The products are paired into ratios of comparable magnitude, to avoid overflow and underflow
+            double product = ((origin[k - 1] - d[i]) + tau[k - 1]) / rho;
+            for (int j = 0; j < i; j++) {
+                product *= ((origin[j] - d[i]) + tau[j]) / (d[j] - d[i]);
+            }
+            for (int j = i; j < k - 1; j++) {
+                product *= ((origin[j] - d[i]) + tau[j]) / (d[j + 1] - d[i]);
+            }
+            zHat[i] = Math.copySign(Math.sqrt(Math.abs(product)), z[i]);
+        }
+
+        MatrixBuffer u = FixedRowMajorMatrixBuffer.allocate(k, k);
+        double[] uv = ((ArrayBackedMatrixBuffer) u).array();
+        for (int j = 0; j < k; j++) {
+            double norm = 0.0d;
+            for (int i = 0; i < k; i++) {
+                double value = zHat[i] / ((d[i] - origin[j]) - tau[j]);
+                uv[i * k + j] = value;
+                norm += value * value;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = 0; i < k; i++) {
+                uv[i * k + j] /= norm;
+            }
+        }
+        return u;
+    }
+
+    /**
+     * Implements the implicit QL method with Wilkinson shifts, as EISPACK's tql2 does, accumulating the rotations
+     * in the columns of the row-major n x n array z, unless null. Sorts the eigenvalues in ascending order.
+     */
+    private static void ql(double[] d, double[] e, double[] z, int n) {
+        if (n == 0) {
+            return;
+        }
+        e[n - 1] = 0.0d;
+
+        double shift = 0.0d;
+        double test = 0.0d;
+        for (int l = 0; l < n; l++) {
+            test = Math.max(test, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > EPSILON * test) {
+                m++;
+            }
+
+            if (m > l) {
+                int iterations = 0;
+                do {
+                    if (++iterations > 30 * n) {
+                        throw new IllegalStateException("QL iteration did not converge");
+                    }
+
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0d * e[l]);
+                    double r = Math.copySign(Math.hypot(p, 1.0d), p);
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    shift += h;
+
+                    p = d[m];
+                    double c = 1.0d, c2 = c, c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0d, s2 = 0.0d;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+
+                        if (z != null) {
+                            for (int row = 0; row < n; row++) {
+                                h = z[row * n + i + 1];
+                                z[row * n + i + 1] = s * z[row * n + i] + c * h;
+                                z[row * n + i] = c * z[row * n + i] - s * h;
+                            }
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > EPSILON * test);
+            }
+            d[l] += shift;
+            e[l] = 0.0d;
+        }
+
+        // Selection sort, swapping the eigenvectors along
+        for (int i = 0; i < n - 1; i++) {
+            int min = i;
+            for (int j = i + 1; j < n; j++) {
+                if (d[j] < d[min]) {
+                    min = j;
+                }
+            }
+            if (min != i) {
+                double tmp = d[i];
+                d[i] = d[min];
+                d[min] = tmp;
+                if (z != null) {
+                    for (int row = 0; row < n; row++) {
+                        tmp = z[row * n + i];
+                        z[row * n + i] = z[row * n + min];
+                        z[row * n + min] = tmp;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders the specified indices by ascending value
+     */
+    private static int[] ascending(double[] values, int[] indices) {
+        return Arrays.stream(indices).boxed()
+                .sorted((i, j) -> Double.compare(values[i], values[j]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Solves a block of the tridiagonal matrix, dividing it into parallel tasks while large enough
+     */
+    private static class DivideTask extends RecursiveAction {
+        private final double[] d, e;
+        private final int from, to;
+        private final Parallelism parallelism;
+        private MatrixBuffer q;
+
+        DivideTask(double[] d, double[] e, int from, int to, Parallelism parallelism) {
+            this.d = d;
+            this.e = e;
+            this.from = from;
+            this.to = to;
+            this.parallelism = parallelism;
+        }
+
+        long flops() {
+            long n = to - from;
+            return n * n * n;
+        }
+
+        @Override
+        protected void compute() {
+            q = solve(d, e, from, to, parallelism);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+/**
+ * Defines a matrix buffer storing its elements in a plain double array.
+ *
+ * The element at (row, col) is found at index offset + row * rowStride + col * columnStride of the backing array.
+ * Computational kernels use this to work directly on the array instead of going through get/set per element.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public interface ArrayBackedMatrixBuffer extends MatrixBuffer {
+    /**
+     * Gets the backing array. Modifications of the array are reflected in the buffer.
+     * @return the backing array
+     */
+    double[] array();
+
+    /**
+     * Gets the array index of the element at row 0, column 0
+     * @return the array offset
+     */
+    int offset();
+
+    /**
+     * Gets the distance in the backing array between two vertically adjacent elements
+     * @return the row stride
+     */
+    int rowStride();
+
+    /**
+     * Gets the distance in the backing array between two horizontally adjacent elements
+     * @return the column stride
+     */
+    int columnStride();
+}
@@ -0,0 +1,213 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer for banded matrices, storing the band around the diagonal only.
+ *
+ * The band holds the kl diagonals below and the ku diagonals above the main diagonal. It is stored the LAPACK way,
+ * column by column with a leading dimension of kl + ku + 1, so element (i,j) is found at j(kl+ku+1) + ku + i - j.
+ * Thus, each diagonal of the band forms a row of the storage, and a tridiagonal matrix of order n takes 3n values
+ * rather than n^2. Elements outside the band are zero, and can't be set to anything else. The transpose is a view
+ * sharing the storage, having the bandwidths swapped.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BandMatrixBuffer implements MatrixBuffer {
+    private final Size size;
+    private final int lower;
+    private final int upper;
+    private final double[] values;
+    private final boolean transposed;
+
+    /**
+     * Creates a buffer for a banded matrix of specified size and bandwidths, with all elements zero
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param lowerBandwidth the number of diagonals below the main diagonal
+     * @param upperBandwidth the number of diagonals above the main diagonal
+     * @return the buffer
+     */
+    public static BandMatrixBuffer allocate(int rows, int cols, int lowerBandwidth, int upperBandwidth) {
+        require(() -> rows > 0 && cols > 0, "number of rows and columns must be positive");
+        require(() -> lowerBandwidth >= 0 && upperBandwidth >= 0, "bandwidths can't be negative");
+        long length = (long) cols * (lowerBandwidth + upperBandwidth + 1);
+        require(() -> length <= Integer.MAX_VALUE, "band is too large to be held in an array");
+        return new BandMatrixBuffer(Size.of(rows, cols), lowerBandwidth, upperBandwidth, new double[(int) length], false);
+    }
+
+    /**
+     * Creates a buffer for a tridiagonal matrix of order n, from its three diagonals
+     *
+     * @param sub the n-1 elements below the diagonal, i.e. (1,0), (2,1), ...
+     * @param diagonal the n elements on the diagonal
+     * @param sup the n-1 elements above the diagonal, i.e. (0,1), (1,2), ...
+     * @return the buffer
+     */
+    public static BandMatrixBuffer tridiagonal(double[] sub, double[] diagonal, double[] sup) {
+        requireNonNull(sub, "sub can't be null");
+        requireNonNull(diagonal, "diagonal can't be null");
+        requireNonNull(sup, "sup can't be null");
+        int n = diagonal.length;
+        require(() -> sub.length == n - 1 && sup.length == n - 1, "off-diagonals must have one element less than the diagonal");
+
+        BandMatrixBuffer buffer = allocate(n, n, 1, 1);
+        for (int i = 0; i < n; i++) {
+            buffer.values[buffer.indexOf(i, i)] = diagonal[i];
+            if (i > 0) {
+                buffer.values[buffer.indexOf(i, i - 1)] = sub[i - 1];
+                buffer.values[buffer.indexOf(i - 1, i)] = sup[i - 1];
+            }
+        }
+        return buffer;
+    }
+
+    private BandMatrixBuffer(Size size, int lower, int upper, double[] values, boolean transposed) {
+        this.size = size;
+        this.lower = lower;
+        this.upper = upper;
+        this.values = values;
+        this.transposed = transposed;
+    }
+
+    /**
+     * Gets the number of diagonals below the main diagonal
+     * @return the lower bandwidth
+     */
+    public int lowerBandwidth() {
+        return transposed ? upper : lower;
+    }
+
+    /**
+     * Gets the number of diagonals above the main diagonal
+     * @return the upper bandwidth
+     */
+    public int upperBandwidth() {
+        return transposed ? lower : upper;
+    }
+
+    /**
+     * Gets the band storage array. The array is shared, not copied. Its layout is that of the buffer
+     * this is a transpose of, if any.
+     * @return the band storage array
+     */
+    public double[] array() {
+        return values;
+    }
+
+    /**
+     * Gets whether specified element is within the band
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @return true if the element is stored; else false
+     */
+    public boolean isStored(int row, int col) {
+        return row - col <= lowerBandwidth() && col - row <= upperBandwidth();
+    }
+
+    /**
+     * Gets the position in the band storage array of specified element within the band
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @return the position in the band storage array
+     */
+    public int indexOf(int row, int col) {
+        return transposed
+            ? row * (lower + upper + 1) + upper + col - row
+            : col * (lower + upper + 1) + upper + row - col;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return isStored(row, col) ? values[indexOf(row, col)] : 0.0d;
+    }
+
+    /**
+     * Sets the value of the element at given position, which must be within the band unless the value is zero
+     */
+    @Override
+    public void set(int row, int col, double value) {
+        if (isStored(row, col)) {
+            values[indexOf(row, col)] = value;
+        } else {
+            require(() -> value == 0.0d, "can't set a non-zero value outside the band");
+        }
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return new LineVectorBuffer(this, row, true);
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return new LineVectorBuffer(this, col, false);
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    @Override
+    public BandMatrixBuffer copy() {
+        return new BandMatrixBuffer(size, lower, upper, values.clone(), transposed);
+    }
+
+    @Override
+    public BandMatrixBuffer transpose() {
+        return new BandMatrixBuffer(Size.of(size.cols(), size.rows()), lower, upper, values, !transposed);
+    }
+
+    @Override
+    public MatrixStructure structure() {
+        return MatrixStructure.BANDED;
+    }
+
+    /**
+     * A view of a row or a column
+     */
+    private static class LineVectorBuffer implements VectorBuffer {
+        private final BandMatrixBuffer buffer;
+        private final int line;
+        private final boolean isRow;
+
+        LineVectorBuffer(BandMatrixBuffer buffer, int line, boolean isRow) {
+            this.buffer = buffer;
+            this.line = line;
+            this.isRow = isRow;
+        }
+
+        @Override
+        public double get(int index) {
+            return isRow ? buffer.get(line, index) : buffer.get(index, line);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            if (isRow) {
+                buffer.set(line, index, value);
+            } else {
+                buffer.set(index, line, value);
+            }
+        }
+
+        @Override
+        public int size() {
+            return isRow ? buffer.size.cols() : buffer.size.rows();
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            VectorBuffer copy = FixedVectorBuffer.allocate(size());
+            for (int i = 0; i < size(); i++) {
+                copy.set(i, get(i));
+            }
+            return copy;
+        }
+    }
+}
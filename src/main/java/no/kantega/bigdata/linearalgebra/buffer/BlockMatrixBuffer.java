@@ -0,0 +1,138 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a view of a rectangular block of another matrix buffer, for buffers not being able to address
+ * the block directly. Reads and writes are passed on to the parent buffer with the row and column offsets added.
+ *
+ * A square block on the diagonal of the parent keeps the structure of the parent, while any other block is general.
+ * Thus kernels trusting the structure of a view never skip elements that the view holds, and only square views are
+ * told to be symmetric or triangular.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+class BlockMatrixBuffer implements MatrixBuffer {
+    private final MatrixBuffer parent;
+    private final Size size;
+    private final int rowOffset;
+    private final int colOffset;
+
+    BlockMatrixBuffer(MatrixBuffer parent, int rowFrom, int rowTo, int colFrom, int colTo) {
+        requireValidBlock(parent.size(), rowFrom, rowTo, colFrom, colTo);
+        this.parent = parent;
+        this.size = Size.of(rowTo - rowFrom, colTo - colFrom);
+        this.rowOffset = rowFrom;
+        this.colOffset = colFrom;
+    }
+
+    /**
+     * Checks that the specified block is non-empty and within a buffer of specified size
+     */
+    static void requireValidBlock(Size size, int rowFrom, int rowTo, int colFrom, int colTo) {
+        require(() -> 0 <= rowFrom && rowFrom < rowTo && rowTo <= size.rows(), "rows of block must be within %d rows", size.rows());
+        require(() -> 0 <= colFrom && colFrom < colTo && colTo <= size.cols(), "columns of block must be within %d columns", size.cols());
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return parent.get(rowOffset + row, colOffset + col);
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        parent.set(rowOffset + row, colOffset + col, value);
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return new LineVectorBuffer(parent.row(rowOffset + row), colOffset, size.cols());
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return new LineVectorBuffer(parent.column(colOffset + col), rowOffset, size.rows());
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    @Override
+    public MatrixStructure structure() {
+        MatrixStructure structure = parent.structure();
+        if (rowOffset != colOffset || size.rows() != size.cols()) {
+            return MatrixStructure.GENERAL;
+        }
+        return structure;
+    }
+
+    @Override
+    public boolean isStructuredView() {
+        return parent.structure() != MatrixStructure.GENERAL;
+    }
+
+    @Override
+    public MatrixBuffer copy() {
+        MatrixBuffer copy = FixedRowMajorMatrixBuffer.allocate(size.rows(), size.cols());
+        for (int i = 0; i < size.rows(); i++) {
+            for (int j = 0; j < size.cols(); j++) {
+                copy.set(i, j, get(i, j));
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public MatrixBuffer transpose() {
+        return new BlockMatrixBuffer(parent.transpose(), colOffset, colOffset + size.cols(), rowOffset, rowOffset + size.rows());
+    }
+
+    @Override
+    public MatrixBuffer view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        requireValidBlock(size, rowFrom, rowTo, colFrom, colTo);
+        return new BlockMatrixBuffer(parent, rowOffset + rowFrom, rowOffset + rowTo, colOffset + colFrom, colOffset + colTo);
+    }
+
+    /**
+     * A range of a row or column vector of the parent
+     */
+    private static class LineVectorBuffer implements VectorBuffer {
+        private final VectorBuffer line;
+        private final int offset;
+        private final int size;
+
+        LineVectorBuffer(VectorBuffer line, int offset, int size) {
+            this.line = line;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public double get(int index) {
+            return line.get(offset + index);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            line.set(offset + index, value);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            VectorBuffer copy = FixedVectorBuffer.allocate(size);
+            for (int i = 0; i < size; i++) {
+                copy.set(i, get(i));
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+/**
+ * Implements a sparse matrix buffer in compressed sparse column (CSC) format.
+ *
+ * Columns are sparse vector views, suited for column oriented operations like solving triangular systems.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CompressedColumnMatrixBuffer extends CompressedMatrixBuffer {
+
+    /**
+     * Creates a builder assembling a buffer of specified size from triplets in any order
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the builder
+     */
+    public static Builder<CompressedColumnMatrixBuffer> builder(int rows, int cols) {
+        return new Builder<CompressedColumnMatrixBuffer>(rows, cols) {
+            @Override
+            public CompressedColumnMatrixBuffer build() {
+                return new CompressedColumnMatrixBuffer(Size.of(rows, cols),
+                        CompressedStorage.assemble(cols, rows, colIndices, rowIndices, values, count));
+            }
+        };
+    }
+
+    /**
+     * Creates a buffer of specified size with no elements stored, i.e. all zeros
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the buffer
+     */
+    public static CompressedColumnMatrixBuffer allocate(int rows, int cols) {
+        return builder(rows, cols).build();
+    }
+
+    CompressedColumnMatrixBuffer(Size size, CompressedStorage storage) {
+        super(size, storage);
+    }
+
+    @Override
+    public boolean isRowCompressed() {
+        return false;
+    }
+
+    @Override
+    public CompressedRowMatrixBuffer toRowCompressed() {
+        return new CompressedRowMatrixBuffer(size(), swapDimensions());
+    }
+
+    @Override
+    public CompressedColumnMatrixBuffer toColumnCompressed() {
+        return this;
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return minorLine(row);
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return majorLine(col);
+    }
+
+    @Override
+    public CompressedColumnMatrixBuffer copy() {
+        return new CompressedColumnMatrixBuffer(size(), storage.copy());
+    }
+
+    @Override
+    public CompressedRowMatrixBuffer transpose() {
+        return new CompressedRowMatrixBuffer(Size.of(size().cols(), size().rows()), storage);
+    }
+}
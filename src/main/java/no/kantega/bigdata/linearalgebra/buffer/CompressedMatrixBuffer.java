@@ -0,0 +1,327 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.ElementConsumer;
+import no.kantega.bigdata.linearalgebra.Size;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a sparse matrix buffer storing the non-zero elements only, in compressed row (CSR) or compressed
+ * column (CSC) format.
+ *
+ * Elements are stored as major lines of (minor index, value) entries, sorted by minor index. Getting an element
+ * takes a binary search within its line. Setting an element that is not stored inserts it, moving the entries of the
+ * following lines, so the buffers are best assembled using a builder, and updated in place afterwards.
+ *
+ * The lines along the major dimension are sparse vector views. The transposed buffer shares the same storage,
+ * as the CSR format of a matrix is the CSC format of its transpose. Thus products with the transpose take the same
+ * time as products with the matrix.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public abstract class CompressedMatrixBuffer implements MatrixBuffer {
+    final CompressedStorage storage;
+    private final Size size;
+
+    CompressedMatrixBuffer(Size size, CompressedStorage storage) {
+        this.size = size;
+        this.storage = storage;
+    }
+
+    /**
+     * Gets whether the rows are the major lines, i.e. CSR format, rather than the columns, i.e. CSC format
+     * @return true if rows are compressed, false if columns are compressed
+     */
+    public abstract boolean isRowCompressed();
+
+    /**
+     * Gets the number of stored elements
+     * @return the number of stored elements
+     */
+    public int nonZeros() {
+        return storage.nonZeros();
+    }
+
+    /**
+     * Gets the line pointers. The stored entries of major line i are at positions pointers[i] to pointers[i+1] - 1
+     * of the index and value arrays. The array is shared, not copied.
+     * @return the line pointers, having one more element than there are major lines
+     */
+    public int[] pointers() {
+        return storage.pointers;
+    }
+
+    /**
+     * Gets the minor indices of the stored entries. The array is shared, not copied, and may be longer than the
+     * number of stored elements.
+     * @return the minor indices
+     */
+    public int[] indices() {
+        return storage.indices;
+    }
+
+    /**
+     * Gets the values of the stored entries. The array is shared, not copied, and may be longer than the
+     * number of stored elements.
+     * @return the values
+     */
+    public double[] values() {
+        return storage.values;
+    }
+
+    /**
+     * Performs specified operation for each stored element, line by line along the major dimension
+     * @param consumer the operation to perform
+     */
+    public void forEachNonZero(ElementConsumer consumer) {
+        int[] pointers = storage.pointers;
+        int[] indices = storage.indices;
+        double[] values = storage.values;
+        boolean rowCompressed = isRowCompressed();
+
+        for (int major = 0; major < storage.majorCount; major++) {
+            for (int entry = pointers[major]; entry < pointers[major + 1]; entry++) {
+                if (rowCompressed) {
+                    consumer.accept(major, indices[entry], values[entry]);
+                } else {
+                    consumer.accept(indices[entry], major, values[entry]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds specified sparse matrix multiplied by specified factor to this buffer in place, i.e. this = this + factor *
+     * other. The sorted lines of both are merged in one pass, taking O(nnz) operations for the stored elements of
+     * both, rather than inserting the new elements one by one. The other matrix is converted first when in the
+     * other format. The transposed buffer sees the sum, as it shares the storage.
+     *
+     * @param factor the factor to multiply the other matrix with
+     * @param other the sparse matrix to add, having the same size
+     */
+    public void addScaled(double factor, CompressedMatrixBuffer other) {
+        requireNonNull(other, "other can't be null");
+        require(() -> other.size().equals(size), "size of other must match size of buffer");
+
+        CompressedMatrixBuffer aligned = other.isRowCompressed() == isRowCompressed() ? other
+                : isRowCompressed() ? other.toRowCompressed() : other.toColumnCompressed();
+        storage.addScaled(factor, aligned.storage);
+    }
+
+    /**
+     * Gets this buffer in CSR format, converting if in CSC format
+     * @return the buffer in CSR format
+     */
+    public abstract CompressedRowMatrixBuffer toRowCompressed();
+
+    /**
+     * Gets this buffer in CSC format, converting if in CSR format
+     * @return the buffer in CSC format
+     */
+    public abstract CompressedColumnMatrixBuffer toColumnCompressed();
+
+    @Override
+    public double get(int row, int col) {
+        return isRowCompressed() ? storage.get(row, col) : storage.get(col, row);
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        if (isRowCompressed()) {
+            storage.set(row, col, value);
+        } else {
+            storage.set(col, row, value);
+        }
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    @Override
+    public abstract CompressedMatrixBuffer copy();
+
+    @Override
+    public abstract CompressedMatrixBuffer transpose();
+
+    /**
+     * Gets the storage with the major and minor dimensions swapped, i.e. the same matrix in the other format
+     */
+    CompressedStorage swapDimensions() {
+        int majorCount = storage.majorCount;
+        int minorCount = storage.minorCount;
+        int nonZeros = storage.nonZeros();
+        int[] pointers = new int[minorCount + 1];
+        int[] indices = new int[nonZeros];
+        double[] values = new double[nonZeros];
+
+        for (int entry = 0; entry < nonZeros; entry++) {
+            pointers[storage.indices[entry] + 1]++;
+        }
+        for (int i = 0; i < minorCount; i++) {
+            pointers[i + 1] += pointers[i];
+        }
+        int[] next = pointers.clone();
+        for (int major = 0; major < majorCount; major++) {
+            for (int entry = storage.pointers[major]; entry < storage.pointers[major + 1]; entry++) {
+                int target = next[storage.indices[entry]]++;
+                indices[target] = major;
+                values[target] = storage.values[entry];
+            }
+        }
+        return new CompressedStorage(minorCount, majorCount, pointers, indices, values);
+    }
+
+    /**
+     * Gets a sparse view of specified major line
+     */
+    VectorBuffer majorLine(int major) {
+        return new CompressedLineVectorBuffer(storage, major);
+    }
+
+    /**
+     * Gets a view of specified line along the minor dimension, accessing elements one by one
+     */
+    VectorBuffer minorLine(int minor) {
+        return new CompressedCrossLineVectorBuffer(storage, minor);
+    }
+
+    /**
+     * Collects triplets of row, column and value in any order, for assembling compressed buffers.
+     * Values given for the same position more than once are summed.
+     */
+    public abstract static class Builder<B extends CompressedMatrixBuffer> {
+        final int rows, cols;
+        int[] rowIndices = new int[16];
+        int[] colIndices = new int[16];
+        double[] values = new double[16];
+        int count;
+
+        Builder(int rows, int cols) {
+            require(() -> rows > 0 && cols > 0, "number of rows and columns must be positive");
+            this.rows = rows;
+            this.cols = cols;
+        }
+
+        /**
+         * Adds specified value to the element at specified position
+         *
+         * @param row the row number (zero-based)
+         * @param col the column number (zero-based)
+         * @param value the value to add
+         * @return this builder
+         */
+        public Builder<B> add(int row, int col, double value) {
+            require(() -> row >= 0 && row < rows && col >= 0 && col < cols, "position (%d, %d) is outside the matrix", row, col);
+            if (count == values.length) {
+                int capacity = count + (count >> 1);
+                rowIndices = Arrays.copyOf(rowIndices, capacity);
+                colIndices = Arrays.copyOf(colIndices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rowIndices[count] = row;
+            colIndices[count] = col;
+            values[count] = value;
+            count++;
+            return this;
+        }
+
+        /**
+         * Assembles the buffer from the triplets added
+         * @return the buffer
+         */
+        public abstract B build();
+    }
+
+    /**
+     * A sparse view of a major line
+     */
+    private static class CompressedLineVectorBuffer implements SparseVectorBuffer {
+        private final CompressedStorage storage;
+        private final int major;
+
+        CompressedLineVectorBuffer(CompressedStorage storage, int major) {
+            this.storage = storage;
+            this.major = major;
+        }
+
+        @Override
+        public int nonZeros() {
+            return storage.pointers[major + 1] - storage.pointers[major];
+        }
+
+        @Override
+        public int indexAt(int entry) {
+            return storage.indices[storage.pointers[major] + entry];
+        }
+
+        @Override
+        public double valueAt(int entry) {
+            return storage.values[storage.pointers[major] + entry];
+        }
+
+        @Override
+        public double get(int index) {
+            return storage.get(major, index);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            storage.set(major, index, value);
+        }
+
+        @Override
+        public int size() {
+            return storage.minorCount;
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            int start = storage.pointers[major];
+            int end = storage.pointers[major + 1];
+            return CompressedVectorBuffer.from(size(), Arrays.copyOfRange(storage.indices, start, end),
+                    Arrays.copyOfRange(storage.values, start, end));
+        }
+    }
+
+    /**
+     * A view of a line along the minor dimension, where each element takes a binary search
+     */
+    private static class CompressedCrossLineVectorBuffer implements VectorBuffer {
+        private final CompressedStorage storage;
+        private final int minor;
+
+        CompressedCrossLineVectorBuffer(CompressedStorage storage, int minor) {
+            this.storage = storage;
+            this.minor = minor;
+        }
+
+        @Override
+        public double get(int index) {
+            return storage.get(index, minor);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            storage.set(index, minor, value);
+        }
+
+        @Override
+        public int size() {
+            return storage.majorCount;
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            VectorBuffer copy = FixedVectorBuffer.allocate(size());
+            for (int i = 0; i < size(); i++) {
+                copy.set(i, get(i));
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+/**
+ * Implements a sparse matrix buffer in compressed sparse row (CSR) format.
+ *
+ * Rows are sparse vector views, suited for row oriented operations like matrix-vector products.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CompressedRowMatrixBuffer extends CompressedMatrixBuffer {
+
+    /**
+     * Creates a builder assembling a buffer of specified size from triplets in any order
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the builder
+     */
+    public static Builder<CompressedRowMatrixBuffer> builder(int rows, int cols) {
+        return new Builder<CompressedRowMatrixBuffer>(rows, cols) {
+            @Override
+            public CompressedRowMatrixBuffer build() {
+                return new CompressedRowMatrixBuffer(Size.of(rows, cols),
+                        CompressedStorage.assemble(rows, cols, rowIndices, colIndices, values, count));
+            }
+        };
+    }
+
+    /**
+     * Creates a buffer of specified size with no elements stored, i.e. all zeros
+     *
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the buffer
+     */
+    public static CompressedRowMatrixBuffer allocate(int rows, int cols) {
+        return builder(rows, cols).build();
+    }
+
+    CompressedRowMatrixBuffer(Size size, CompressedStorage storage) {
+        super(size, storage);
+    }
+
+    @Override
+    public boolean isRowCompressed() {
+        return true;
+    }
+
+    @Override
+    public CompressedRowMatrixBuffer toRowCompressed() {
+        return this;
+    }
+
+    @Override
+    public CompressedColumnMatrixBuffer toColumnCompressed() {
+        return new CompressedColumnMatrixBuffer(size(), swapDimensions());
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return majorLine(row);
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return minorLine(col);
+    }
+
+    @Override
+    public CompressedRowMatrixBuffer copy() {
+        return new CompressedRowMatrixBuffer(size(), storage.copy());
+    }
+
+    @Override
+    public CompressedColumnMatrixBuffer transpose() {
+        return new CompressedColumnMatrixBuffer(Size.of(size().cols(), size().rows()), storage);
+    }
+}
@@ -0,0 +1,178 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import java.util.Arrays;
+
+/**
+ * Implements the compressed storage shared by the CSR and CSC formats.
+ *
+ * The elements are organized as major lines (rows for CSR, columns for CSC) of minor indices. The stored entries of
+ * major line i are found at positions pointers[i] to pointers[i+1] - 1 of the indices and values arrays, in increasing
+ * order of minor index. The arrays may have spare capacity beyond the last pointer, so entries can be inserted
+ * without reallocating every time.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+class CompressedStorage {
+    final int majorCount;
+    final int minorCount;
+    int[] pointers;
+    int[] indices;
+    double[] values;
+
+    CompressedStorage(int majorCount, int minorCount, int[] pointers, int[] indices, double[] values) {
+        this.majorCount = majorCount;
+        this.minorCount = minorCount;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    /**
+     * Assembles storage from triplets in any order. Values of duplicate positions are summed.
+     * Uses two stable counting sorts, first by minor and then by major index, taking linear time.
+     */
+    static CompressedStorage assemble(int majorCount, int minorCount, int[] majors, int[] minors, double[] values, int count) {
+        int[] byMinor = new int[count];
+        int[] minorStart = new int[minorCount + 1];
+        for (int t = 0; t < count; t++) {
+            minorStart[minors[t] + 1]++;
+        }
+        for (int i = 0; i < minorCount; i++) {
+            minorStart[i + 1] += minorStart[i];
+        }
+        for (int t = 0; t < count; t++) {
+            byMinor[minorStart[minors[t]]++] = t;
+        }
+
+        int[] order = new int[count];
+        int[] majorStart = new int[majorCount + 1];
+        for (int t = 0; t < count; t++) {
+            majorStart[majors[t] + 1]++;
+        }
+        for (int i = 0; i < majorCount; i++) {
+            majorStart[i + 1] += majorStart[i];
+        }
+        int[] next = Arrays.copyOf(majorStart, majorCount);
+        for (int t : byMinor) {
+            order[next[majors[t]]++] = t;
+        }
+
+        // Merge duplicates, which are now adjacent
+        int[] pointers = new int[majorCount + 1];
+        int[] indices = new int[count];
+        double[] sums = new double[count];
+        int stored = 0;
+        for (int major = 0; major < majorCount; major++) {
+            pointers[major] = stored;
+            int lineStart = stored;
+            for (int s = majorStart[major]; s < majorStart[major + 1]; s++) {
+                int t = order[s];
+                if (stored > lineStart && indices[stored - 1] == minors[t]) {
+                    sums[stored - 1] += values[t];
+                } else {
+                    indices[stored] = minors[t];
+                    sums[stored] = values[t];
+                    stored++;
+                }
+            }
+        }
+        pointers[majorCount] = stored;
+
+        return new CompressedStorage(majorCount, minorCount, pointers, indices, sums);
+    }
+
+    int nonZeros() {
+        return pointers[majorCount];
+    }
+
+    /**
+     * Finds the stored entry at specified position
+     *
+     * @return the entry number if stored, or -(insertion point) - 1 if not
+     */
+    int find(int major, int minor) {
+        return Arrays.binarySearch(indices, pointers[major], pointers[major + 1], minor);
+    }
+
+    double get(int major, int minor) {
+        int entry = find(major, minor);
+        return entry >= 0 ? values[entry] : 0.0d;
+    }
+
+    /**
+     * Sets the value at specified position. Setting a zero where no entry is stored has no effect, while setting a
+     * non-zero value there inserts an entry, moving the entries of the following lines.
+     */
+    void set(int major, int minor, double value) {
+        int entry = find(major, minor);
+        if (entry >= 0) {
+            values[entry] = value;
+        } else if (value != 0.0d) {
+            insert(major, -entry - 1, minor, value);
+        }
+    }
+
+    /**
+     * Adds factor times the other storage, having the same dimensions, merging the sorted lines of both in one pass
+     * into new arrays, taking linear time in the number of entries of both
+     */
+    void addScaled(double factor, CompressedStorage other) {
+        int capacity = nonZeros() + other.nonZeros();
+        int[] mergedPointers = new int[majorCount + 1];
+        int[] mergedIndices = new int[capacity];
+        double[] mergedValues = new double[capacity];
+        int stored = 0;
+
+        for (int major = 0; major < majorCount; major++) {
+            mergedPointers[major] = stored;
+            int p = pointers[major];
+            int q = other.pointers[major];
+            int pEnd = pointers[major + 1];
+            int qEnd = other.pointers[major + 1];
+            while (p < pEnd || q < qEnd) {
+                if (q == qEnd || (p < pEnd && indices[p] < other.indices[q])) {
+                    mergedIndices[stored] = indices[p];
+                    mergedValues[stored++] = values[p++];
+                } else if (p == pEnd || other.indices[q] < indices[p]) {
+                    double value = factor * other.values[q];
+                    if (value != 0.0d) {
+                        mergedIndices[stored] = other.indices[q];
+                        mergedValues[stored++] = value;
+                    }
+                    q++;
+                } else {
+                    mergedIndices[stored] = indices[p];
+                    mergedValues[stored++] = values[p++] + factor * other.values[q++];
+                }
+            }
+        }
+        mergedPointers[majorCount] = stored;
+
+        pointers = mergedPointers;
+        indices = mergedIndices;
+        values = mergedValues;
+    }
+
+    CompressedStorage copy() {
+        int nonZeros = nonZeros();
+        return new CompressedStorage(majorCount, minorCount, pointers.clone(),
+                Arrays.copyOf(indices, nonZeros), Arrays.copyOf(values, nonZeros));
+    }
+
+    private void insert(int major, int entry, int minor, double value) {
+        int nonZeros = nonZeros();
+        if (nonZeros == indices.length) {
+            int capacity = Math.max(8, nonZeros + (nonZeros >> 1));
+            indices = Arrays.copyOf(indices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(indices, entry, indices, entry + 1, nonZeros - entry);
+        System.arraycopy(values, entry, values, entry + 1, nonZeros - entry);
+        indices[entry] = minor;
+        values[entry] = value;
+        for (int i = major + 1; i <= majorCount; i++) {
+            pointers[i]++;
+        }
+    }
+}
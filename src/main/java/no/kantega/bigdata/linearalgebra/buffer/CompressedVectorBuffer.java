@@ -0,0 +1,209 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a sparse vector buffer storing the non-zero components only, as sorted arrays of indices and values.
+ *
+ * Getting a component takes a binary search. Setting a component that is not stored inserts it, moving the
+ * entries following it, so the buffer is best created from arrays of indices and values, and updated in place
+ * afterwards. Setting a zero where no entry is stored has no effect.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CompressedVectorBuffer implements SparseVectorBuffer {
+    private final int size;
+    private int[] indices;
+    private double[] values;
+    private int nonZeros;
+
+    /**
+     * Creates a buffer of specified size with no components stored, i.e. all zeros
+     *
+     * @param size the number of components
+     * @return the buffer
+     */
+    public static CompressedVectorBuffer allocate(int size) {
+        require(() -> size > 0, "size must be positive");
+        return new CompressedVectorBuffer(size, new int[0], new double[0], 0);
+    }
+
+    /**
+     * Creates a buffer of specified size from arrays of indices and values in any order.
+     * Values given for the same index more than once are summed. The arrays are copied.
+     *
+     * @param size the number of components
+     * @param indices the indices of the components (zero-based)
+     * @param values the values of the components
+     * @return the buffer
+     */
+    public static CompressedVectorBuffer from(int size, int[] indices, double[] values) {
+        requireNonNull(indices, "indices can't be null");
+        requireNonNull(values, "values can't be null");
+        require(() -> size > 0, "size must be positive");
+        require(() -> indices.length == values.length, "number of indices must match number of values");
+        require(() -> Arrays.stream(indices).allMatch(i -> i >= 0 && i < size), "indices must be between 0 and %d", size - 1);
+
+        int[] sortedIndices = indices.clone();
+        double[] sortedValues = values.clone();
+        if (!isSorted(sortedIndices)) {
+            sort(sortedIndices, sortedValues);
+        }
+
+        int stored = 0;
+        for (int k = 0; k < sortedIndices.length; k++) {
+            if (stored > 0 && sortedIndices[stored - 1] == sortedIndices[k]) {
+                sortedValues[stored - 1] += sortedValues[k];
+            } else {
+                sortedIndices[stored] = sortedIndices[k];
+                sortedValues[stored] = sortedValues[k];
+                stored++;
+            }
+        }
+        return new CompressedVectorBuffer(size, sortedIndices, sortedValues, stored);
+    }
+
+    private CompressedVectorBuffer(int size, int[] indices, double[] values, int nonZeros) {
+        this.size = size;
+        this.indices = indices;
+        this.values = values;
+        this.nonZeros = nonZeros;
+    }
+
+    @Override
+    public int nonZeros() {
+        return nonZeros;
+    }
+
+    @Override
+    public int indexAt(int entry) {
+        return indices[entry];
+    }
+
+    @Override
+    public double valueAt(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * Sets the value of specified stored entry
+     * @param entry the entry number (zero-based)
+     * @param value the component value
+     */
+    public void setValueAt(int entry, double value) {
+        values[entry] = value;
+    }
+
+    @Override
+    public double get(int index) {
+        int entry = Arrays.binarySearch(indices, 0, nonZeros, index);
+        return entry >= 0 ? values[entry] : 0.0d;
+    }
+
+    @Override
+    public void set(int index, double value) {
+        int entry = Arrays.binarySearch(indices, 0, nonZeros, index);
+        if (entry >= 0) {
+            values[entry] = value;
+        } else if (value != 0.0d) {
+            insert(-entry - 1, index, value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds specified vector multiplied by specified factor to this buffer in place, i.e. this = this + factor * other.
+     *
+     * The sorted entries are merged into new arrays in one pass, rather than inserted one at a time. When the other
+     * vector is dense, each of its components is stored, unless it sums to zero where nothing was stored.
+     *
+     * @param factor the factor to multiply the other vector with
+     * @param other the vector to add, having the same size
+     */
+    public void addScaled(double factor, VectorBuffer other) {
+        requireNonNull(other, "other can't be null");
+        require(() -> other.size() == size, "size of other must match size of buffer");
+
+        boolean sparse = other instanceof SparseVectorBuffer;
+        int otherCount = sparse ? ((SparseVectorBuffer) other).nonZeros() : size;
+        int[] mergedIndices = new int[nonZeros + otherCount];
+        double[] mergedValues = new double[nonZeros + otherCount];
+        int stored = 0;
+        int p = 0;
+        for (int q = 0; q < otherCount; q++) {
+            int index = sparse ? ((SparseVectorBuffer) other).indexAt(q) : q;
+            double value = factor * (sparse ? ((SparseVectorBuffer) other).valueAt(q) : other.get(q));
+            while (p < nonZeros && indices[p] < index) {
+                mergedIndices[stored] = indices[p];
+                mergedValues[stored++] = values[p++];
+            }
+            if (p < nonZeros && indices[p] == index) {
+                mergedIndices[stored] = index;
+                mergedValues[stored++] = values[p++] + value;
+            } else if (value != 0.0d) {
+                mergedIndices[stored] = index;
+                mergedValues[stored++] = value;
+            }
+        }
+        while (p < nonZeros) {
+            mergedIndices[stored] = indices[p];
+            mergedValues[stored++] = values[p++];
+        }
+
+        indices = mergedIndices;
+        values = mergedValues;
+        nonZeros = stored;
+    }
+
+    @Override
+    public CompressedVectorBuffer copy() {
+        return new CompressedVectorBuffer(size, Arrays.copyOf(indices, nonZeros), Arrays.copyOf(values, nonZeros), nonZeros);
+    }
+
+    private void insert(int entry, int index, double value) {
+        if (nonZeros == indices.length) {
+            int capacity = Math.max(8, nonZeros + (nonZeros >> 1));
+            indices = Arrays.copyOf(indices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        System.arraycopy(indices, entry, indices, entry + 1, nonZeros - entry);
+        System.arraycopy(values, entry, values, entry + 1, nonZeros - entry);
+        indices[entry] = index;
+        values[entry] = value;
+        nonZeros++;
+    }
+
+    private static boolean isSorted(int[] indices) {
+        for (int k = 1; k < indices.length; k++) {
+            if (indices[k - 1] > indices[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the indices, keeping the values in step, by sorting the index and entry number packed in a long
+     */
+    private static void sort(int[] indices, double[] values) {
+        long[] keys = new long[indices.length];
+        for (int k = 0; k < indices.length; k++) {
+            keys[k] = ((long) indices[k] << 32) | k;
+        }
+        Arrays.sort(keys);
+
+        double[] unsorted = values.clone();
+        for (int k = 0; k < keys.length; k++) {
+            indices[k] = (int) (keys[k] >>> 32);
+            values[k] = unsorted[(int) keys[k]];
+        }
+    }
+}
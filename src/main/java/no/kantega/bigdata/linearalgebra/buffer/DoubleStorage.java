@@ -0,0 +1,169 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements storage of doubles in direct (off-heap) byte buffers, addressed by a long index.
+ *
+ * A single byte buffer can hold at most 2 GB, so the storage is split into chunks of a fixed power of two
+ * number of doubles. All views of a buffer share the same storage, and closing it releases the memory of
+ * all of them at once. Any access after closing fails with an IllegalStateException. Closing must not happen
+ * concurrently with access from other threads.
+ *
+ * Memory that is never explicitly released is freed by the garbage collector, through the cleaners of the
+ * underlying byte buffers.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+class DoubleStorage {
+    /**
+     * Number of doubles per chunk as a power of two, giving chunks of 1 GB
+     */
+    static final int DEFAULT_CHUNK_SHIFT = 27;
+
+    private static final Releaser RELEASER = Releaser.find();
+
+    private final long capacity;
+    private final int chunkShift;
+    private final long chunkMask;
+    private ByteBuffer[] bytes;
+    private DoubleBuffer[] chunks;
+
+    /**
+     * Allocates direct storage for the specified number of doubles, initialized to zero
+     */
+    static DoubleStorage allocate(long capacity) {
+        return allocate(capacity, DEFAULT_CHUNK_SHIFT);
+    }
+
+    static DoubleStorage allocate(long capacity, int chunkShift) {
+        require(() -> capacity >= 0, "capacity can't be negative");
+        require(() -> chunkShift > 0 && chunkShift <= DEFAULT_CHUNK_SHIFT, "chunk shift must be in range 1 to %d", DEFAULT_CHUNK_SHIFT);
+
+        long chunkSize = 1L << chunkShift;
+        int count = (int) ((capacity + chunkSize - 1) >>> chunkShift);
+        ByteBuffer[] bytes = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long doubles = Math.min(chunkSize, capacity - i * chunkSize);
+            bytes[i] = ByteBuffer.allocateDirect((int) (doubles * Double.BYTES));
+        }
+        return new DoubleStorage(capacity, chunkShift, bytes, ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Creates storage on top of existing byte buffers, e.g. memory mapped files. Every chunk but the last must
+     * hold exactly 2^chunkShift doubles. The doubles are stored in the specified byte order.
+     */
+    DoubleStorage(long capacity, int chunkShift, ByteBuffer[] bytes, ByteOrder order) {
+        this.capacity = capacity;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.bytes = bytes;
+        this.chunks = new DoubleBuffer[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chunks[i] = bytes[i].order(order).asDoubleBuffer();
+        }
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    double get(long index) {
+        return chunks()[(int) (index >>> chunkShift)].get((int) (index & chunkMask));
+    }
+
+    void set(long index, double value) {
+        chunks()[(int) (index >>> chunkShift)].put((int) (index & chunkMask), value);
+    }
+
+    /**
+     * Gets the byte buffers holding the chunks, for subclasses needing to flush or sync them
+     */
+    ByteBuffer[] bytes() {
+        if (bytes == null) {
+            throw new IllegalStateException("storage is closed");
+        }
+        return bytes;
+    }
+
+    boolean isClosed() {
+        return chunks == null;
+    }
+
+    /**
+     * Releases the memory. Closing storage that is already closed has no effect.
+     */
+    void close() {
+        ByteBuffer[] released = bytes;
+        chunks = null;
+        bytes = null;
+        if (released != null) {
+            for (ByteBuffer buffer : released) {
+                RELEASER.release(buffer);
+            }
+        }
+    }
+
+    private DoubleBuffer[] chunks() {
+        DoubleBuffer[] current = chunks;
+        if (current == null) {
+            throw new IllegalStateException("storage is closed");
+        }
+        return current;
+    }
+
+    /**
+     * Releases the memory of direct byte buffers without waiting for garbage collection. There is no public API
+     * for this, so the method is looked up reflectively: Unsafe.invokeCleaner on Java 9 and later, and the cleaner
+     * of the buffer on Java 8. If neither is available, the memory is left to the garbage collector.
+     */
+    @FunctionalInterface
+    private interface Releaser {
+        void release(ByteBuffer buffer);
+
+        static Releaser find() {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                return buffer -> invoke(invokeCleaner, unsafe, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Not Java 9 or later, try the Java 8 way
+            }
+
+            try {
+                Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> {
+                    try {
+                        Object cleaner = cleanerMethod.invoke(buffer);
+                        if (cleaner != null) {
+                            cleanMethod.invoke(cleaner);
+                        }
+                    } catch (ReflectiveOperationException | RuntimeException e) {
+                        // Leave it to the garbage collector
+                    }
+                };
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return buffer -> { };
+            }
+        }
+
+        static void invoke(Method method, Object target, ByteBuffer buffer) {
+            try {
+                method.invoke(target, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Leave it to the garbage collector
+            }
+        }
+    }
+}
@@ -2,14 +2,17 @@ package no.kantega.bigdata.linearalgebra.buffer;
 
 import no.kantega.bigdata.linearalgebra.Size;
 
+import static no.kantega.bigdata.linearalgebra.buffer.BlockMatrixBuffer.requireValidBlock;
+
 /**
  * Implements a matrix buffer of fixed size storing elements column wise
  *
  * @author Tore Eide Andersen (Kantega AS)
  */
-public class FixedColumnMajorMatrixBuffer implements MatrixBuffer {
+public class FixedColumnMajorMatrixBuffer implements ArrayBackedMatrixBuffer {
     private Size size;
     private final double[] values;
+    private final int offset;
     private int stride;
 
     public static MatrixBuffer allocate(int rows, int cols) {
@@ -19,12 +22,18 @@ public class FixedColumnMajorMatrixBuffer implements MatrixBuffer {
     private FixedColumnMajorMatrixBuffer(int rows, int cols) {
         this.size = Size.of(rows, cols);
         this.values = new double[rows*cols];
+        this.offset = 0;
         this.stride = rows;
     }
 
     FixedColumnMajorMatrixBuffer(Size size, double[] values, int stride) {
+        this(size, values, 0, stride);
+    }
+
+    FixedColumnMajorMatrixBuffer(Size size, double[] values, int offset, int stride) {
         this.size = size;
         this.values = values;
+        this.offset = offset;
         this.stride = stride;
     }
 
@@ -40,12 +49,12 @@ public class FixedColumnMajorMatrixBuffer implements MatrixBuffer {
 
     @Override
     public VectorBuffer row(int row) {
-        return FixedVectorBuffer.from(size.cols(), values, row, stride);
+        return FixedVectorBuffer.from(size.cols(), values, offset + row, stride);
     }
 
     @Override
     public VectorBuffer column(int col) {
-        return FixedVectorBuffer.from(size.rows(), values, col * stride, 1);
+        return FixedVectorBuffer.from(size.rows(), values, offset + col * stride, 1);
     }
 
     @Override
@@ -55,15 +64,53 @@ public class FixedColumnMajorMatrixBuffer implements MatrixBuffer {
 
     @Override
     public MatrixBuffer copy() {
-        return new FixedColumnMajorMatrixBuffer(size, values.clone(), stride);
+        if (offset == 0 && stride == size.rows() && values.length == size.count()) {
+            return new FixedColumnMajorMatrixBuffer(size, values.clone(), stride);
+        }
+
+        // A view copies its own elements only, into a compact array
+        double[] copy = new double[size.count()];
+        for (int k = 0; k < size.cols(); k++) {
+            System.arraycopy(values, offset + k * stride, copy, k * size.rows(), size.rows());
+        }
+        return new FixedColumnMajorMatrixBuffer(size, copy, size.rows());
+    }
+
+    /**
+     * Gets a view of a rectangular block, sharing the backing array
+     */
+    @Override
+    public MatrixBuffer view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        requireValidBlock(size, rowFrom, rowTo, colFrom, colTo);
+        return new FixedColumnMajorMatrixBuffer(Size.of(rowTo - rowFrom, colTo - colFrom), values, addressOf(rowFrom, colFrom), stride);
     }
 
     @Override
     public MatrixBuffer transpose() {
-        return new FixedRowMajorMatrixBuffer(Size.of(size.cols(), size.rows()), values, size.rows());
+        return new FixedRowMajorMatrixBuffer(Size.of(size.cols(), size.rows()), values, offset, stride);
+    }
+
+    @Override
+    public double[] array() {
+        return values;
+    }
+
+    @Override
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int rowStride() {
+        return 1;
+    }
+
+    @Override
+    public int columnStride() {
+        return stride;
     }
 
     private int addressOf(int row, int col) {
-        return stride * col + row;
+        return offset + stride * col + row;
     }
 }
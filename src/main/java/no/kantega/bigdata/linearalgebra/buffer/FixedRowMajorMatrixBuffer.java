@@ -2,14 +2,17 @@ package no.kantega.bigdata.linearalgebra.buffer;
 
 import no.kantega.bigdata.linearalgebra.Size;
 
+import static no.kantega.bigdata.linearalgebra.buffer.BlockMatrixBuffer.requireValidBlock;
+
 /**
  * Implements a matrix buffer of fixed size storing elements row wise
  *
  * @author Tore Eide Andersen (Kantega AS)
  */
-public class FixedRowMajorMatrixBuffer implements MatrixBuffer {
+public class FixedRowMajorMatrixBuffer implements ArrayBackedMatrixBuffer {
     private Size size;
     private final double[] values;
+    private final int offset;
     private int stride;
 
     public static MatrixBuffer allocate(int rows, int cols) {
@@ -19,12 +22,18 @@ public class FixedRowMajorMatrixBuffer implements MatrixBuffer {
     private FixedRowMajorMatrixBuffer(int rows, int cols) {
         this.size = Size.of(rows, cols);
         this.values = new double[rows*cols];
+        this.offset = 0;
         this.stride = cols;
     }
 
     FixedRowMajorMatrixBuffer(Size size, double[] values, int stride) {
+        this(size, values, 0, stride);
+    }
+
+    FixedRowMajorMatrixBuffer(Size size, double[] values, int offset, int stride) {
         this.size = size;
         this.values = values;
+        this.offset = offset;
         this.stride = stride;
     }
 
@@ -40,12 +49,12 @@ public class FixedRowMajorMatrixBuffer implements MatrixBuffer {
 
     @Override
     public VectorBuffer row(int row) {
-        return FixedVectorBuffer.from(size.cols(), values, row * stride, 1);
+        return FixedVectorBuffer.from(size.cols(), values, offset + row * stride, 1);
     }
 
     @Override
     public VectorBuffer column(int col) {
-        return FixedVectorBuffer.from(size.rows(), values, col, stride);
+        return FixedVectorBuffer.from(size.rows(), values, offset + col, stride);
     }
 
     @Override
@@ -55,15 +64,53 @@ public class FixedRowMajorMatrixBuffer implements MatrixBuffer {
 
     @Override
     public MatrixBuffer copy() {
-        return new FixedRowMajorMatrixBuffer(size, values.clone(), stride);
+        if (offset == 0 && stride == size.cols() && values.length == size.count()) {
+            return new FixedRowMajorMatrixBuffer(size, values.clone(), stride);
+        }
+
+        // A view copies its own elements only, into a compact array
+        double[] copy = new double[size.count()];
+        for (int k = 0; k < size.rows(); k++) {
+            System.arraycopy(values, offset + k * stride, copy, k * size.cols(), size.cols());
+        }
+        return new FixedRowMajorMatrixBuffer(size, copy, size.cols());
+    }
+
+    /**
+     * Gets a view of a rectangular block, sharing the backing array
+     */
+    @Override
+    public MatrixBuffer view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        requireValidBlock(size, rowFrom, rowTo, colFrom, colTo);
+        return new FixedRowMajorMatrixBuffer(Size.of(rowTo - rowFrom, colTo - colFrom), values, addressOf(rowFrom, colFrom), stride);
     }
 
     @Override
     public MatrixBuffer transpose() {
-        return new FixedColumnMajorMatrixBuffer(Size.of(size.cols(), size.rows()), values, size.cols());
+        return new FixedColumnMajorMatrixBuffer(Size.of(size.cols(), size.rows()), values, offset, stride);
+    }
+
+    @Override
+    public double[] array() {
+        return values;
+    }
+
+    @Override
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int rowStride() {
+        return stride;
+    }
+
+    @Override
+    public int columnStride() {
+        return 1;
     }
 
     private int addressOf(int row, int col) {
-        return stride * row + col;
+        return offset + stride * row + col;
     }
 }
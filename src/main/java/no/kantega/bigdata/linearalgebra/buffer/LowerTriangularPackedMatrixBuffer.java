@@ -0,0 +1,52 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer for lower triangular matrices, storing the n(n+1)/2 elements on and below the diagonal only.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class LowerTriangularPackedMatrixBuffer extends TriangularPackedMatrixBuffer {
+
+    /**
+     * Creates a buffer for a lower triangular matrix of specified order, with all elements zero
+     *
+     * @param n the number of rows and columns
+     * @return the buffer
+     */
+    public static LowerTriangularPackedMatrixBuffer allocate(int n) {
+        require(() -> n > 0, "number of rows and columns must be positive");
+        return new LowerTriangularPackedMatrixBuffer(n, new double[SymmetricPackedMatrixBuffer.packedLength(n)]);
+    }
+
+    /**
+     * Creates a buffer holding the lower triangle of specified square buffer. The other triangle is ignored.
+     *
+     * @param buffer the buffer to copy the lower triangle from
+     * @return the buffer
+     */
+    public static LowerTriangularPackedMatrixBuffer fromLowerTriangle(MatrixBuffer buffer) {
+        double[] values = packTriangle(buffer, false);
+        return new LowerTriangularPackedMatrixBuffer(buffer.size().rows(), values);
+    }
+
+    LowerTriangularPackedMatrixBuffer(int n, double[] values) {
+        super(n, values);
+    }
+
+    @Override
+    public boolean isUpper() {
+        return false;
+    }
+
+    @Override
+    public LowerTriangularPackedMatrixBuffer copy() {
+        return new LowerTriangularPackedMatrixBuffer(size().rows(), array().clone());
+    }
+
+    @Override
+    public UpperTriangularPackedMatrixBuffer transpose() {
+        return new UpperTriangularPackedMatrixBuffer(size().rows(), array());
+    }
+}
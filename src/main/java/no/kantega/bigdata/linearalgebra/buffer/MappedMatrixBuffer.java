@@ -0,0 +1,199 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer stored in a memory mapped file.
+ *
+ * The elements are not read into memory up front. Instead, the file is mapped into the address space, and the
+ * operating system pages elements in and out on demand. Thus, opening a matrix is cheap regardless of its size,
+ * and matrices larger than the available memory can be processed. A mapping can span at most 2 GB, so large
+ * files are mapped as several consecutive regions.
+ *
+ * The file starts with a header of {@value #HEADER_SIZE} bytes, holding a magic number, the format version, the
+ * number of rows and columns, and the layout. The elements follow in row or column major order, as little
+ * endian doubles.
+ *
+ * Changes are written back to the file by the operating system at its discretion, or explicitly by
+ * {@link #force()}. The mappings are released by {@link #close()}, after which any access fails with an
+ * IllegalStateException.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class MappedMatrixBuffer extends OffHeapMatrixBuffer {
+    /**
+     * The size of the file header, in bytes. The elements start at this offset.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    private static final int MAGIC = 0x4D585446; // "MXTF"
+    private static final int VERSION = 1;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * The order of the elements in the file
+     */
+    public enum Layout {
+        ROW_MAJOR,
+        COLUMN_MAJOR
+    }
+
+    private final Path file;
+    private final Layout layout;
+
+    /**
+     * Creates a new matrix file of the specified size, with all elements initialized to zero.
+     * An existing file is overwritten.
+     *
+     * @param file the file path
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param layout the layout of the elements in the file
+     * @return a buffer mapping the file for reading and writing
+     * @throws IOException if the file can't be created or mapped
+     */
+    public static MappedMatrixBuffer create(Path file, int rows, int cols, Layout layout) throws IOException {
+        return create(file, rows, cols, layout, DoubleStorage.DEFAULT_CHUNK_SHIFT);
+    }
+
+    static MappedMatrixBuffer create(Path file, int rows, int cols, Layout layout, int chunkShift) throws IOException {
+        requireNonNull(file, "file can't be null");
+        requireNonNull(layout, "layout can't be null");
+        require(() -> rows > 0 && cols > 0, "number of rows and columns must be positive");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(layout.ordinal());
+            header.rewind();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+
+            // Extend the file by writing its last byte, leaving the elements as zeros
+            long length = HEADER_SIZE + (long) rows * cols * Double.BYTES;
+            channel.write(ByteBuffer.allocate(1), length - 1);
+
+            return map(file, channel, FileChannel.MapMode.READ_WRITE, rows, cols, layout, chunkShift);
+        }
+    }
+
+    /**
+     * Opens an existing matrix file for reading and writing
+     *
+     * @param file the file path
+     * @return a buffer mapping the file
+     * @throws IOException if the file can't be read or mapped, or is not a matrix file
+     */
+    public static MappedMatrixBuffer open(Path file) throws IOException {
+        return open(file, FileChannel.MapMode.READ_WRITE, DoubleStorage.DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Opens an existing matrix file for reading only. Setting elements fails with a ReadOnlyBufferException.
+     *
+     * @param file the file path
+     * @return a buffer mapping the file
+     * @throws IOException if the file can't be read or mapped, or is not a matrix file
+     */
+    public static MappedMatrixBuffer openReadOnly(Path file) throws IOException {
+        return open(file, FileChannel.MapMode.READ_ONLY, DoubleStorage.DEFAULT_CHUNK_SHIFT);
+    }
+
+    static MappedMatrixBuffer open(Path file, FileChannel.MapMode mode, int chunkShift) throws IOException {
+        requireNonNull(file, "file can't be null");
+
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[] {StandardOpenOption.READ}
+                : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            }
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a matrix file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported format version " + version);
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int layout = header.getInt();
+            if (rows <= 0 || cols <= 0 || layout < 0 || layout >= Layout.values().length
+                    || channel.size() < HEADER_SIZE + (long) rows * cols * Double.BYTES) {
+                throw new IOException(file + " has an invalid header or is truncated");
+            }
+
+            return map(file, channel, mode, rows, cols, Layout.values()[layout], chunkShift);
+        }
+    }
+
+    /**
+     * Maps the elements as consecutive regions of whole chunks. The mappings stay valid after the channel is closed.
+     */
+    private static MappedMatrixBuffer map(Path file, FileChannel channel, FileChannel.MapMode mode, int rows, int cols,
+                                          Layout layout, int chunkShift) throws IOException {
+        long capacity = (long) rows * cols;
+        long chunkSize = 1L << chunkShift;
+        int count = (int) ((capacity + chunkSize - 1) >>> chunkShift);
+
+        ByteBuffer[] regions = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long doubles = Math.min(chunkSize, capacity - i * chunkSize);
+            regions[i] = channel.map(mode, HEADER_SIZE + i * chunkSize * Double.BYTES, doubles * Double.BYTES);
+        }
+
+        DoubleStorage storage = new DoubleStorage(capacity, chunkShift, regions, BYTE_ORDER);
+        return new MappedMatrixBuffer(file, layout, Size.of(rows, cols), storage);
+    }
+
+    private MappedMatrixBuffer(Path file, Layout layout, Size size, DoubleStorage storage) {
+        super(size, storage, 0,
+                layout == Layout.ROW_MAJOR ? size.cols() : 1,
+                layout == Layout.ROW_MAJOR ? 1 : size.rows());
+        this.file = file;
+        this.layout = layout;
+    }
+
+    /**
+     * Gets the path of the mapped file
+     * @return the file path
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Gets the layout of the elements in the file
+     * @return the layout
+     */
+    public Layout layout() {
+        return layout;
+    }
+
+    /**
+     * Writes any changes to the elements back to the file
+     */
+    public void force() {
+        for (ByteBuffer region : storage().bytes()) {
+            if (!region.isReadOnly()) {
+                ((MappedByteBuffer) region).force();
+            }
+        }
+    }
+}
@@ -55,4 +55,35 @@ public interface MatrixBuffer {
      * @return the transposed matrix buffer
      */
     MatrixBuffer transpose();
+
+    /**
+     * Gets a view of a rectangular block of this matrix. The view shares the elements of this buffer, so writes
+     * to either are visible in both. Buffers backed by arrays or off-heap memory address the block directly by
+     * an offset and their strides, other buffers pass on reads and writes with the offsets added.
+     * @param rowFrom the first row of the block (zero-based, inclusive)
+     * @param rowTo the end row of the block (zero-based, exclusive)
+     * @param colFrom the first column of the block (zero-based, inclusive)
+     * @param colTo the end column of the block (zero-based, exclusive)
+     * @return the block view
+     */
+    default MatrixBuffer view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        return new BlockMatrixBuffer(this, rowFrom, rowTo, colFrom, colTo);
+    }
+
+    /**
+     * Gets whether this buffer is a view passing its reads and writes on to another buffer of special structure.
+     * Such a view can't be replaced by a general copy without detaching it from the other buffer.
+     * @return true if a view of a buffer of special structure; else false
+     */
+    default boolean isStructuredView() {
+        return false;
+    }
+
+    /**
+     * Gets the structure of the matrix, as given by the way its elements are stored
+     * @return the matrix structure
+     */
+    default MatrixStructure structure() {
+        return MatrixStructure.GENERAL;
+    }
 }
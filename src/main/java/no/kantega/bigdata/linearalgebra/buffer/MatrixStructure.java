@@ -0,0 +1,45 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+/**
+ * Defines the structures of matrices known to a matrix buffer.
+ *
+ * Buffers of a special structure store only the elements that can differ from the structure, e.g. one triangle of
+ * a symmetric matrix. Kernels may use the structure to read each stored element only once, and operations that would
+ * break the structure need to move the elements to a general buffer first.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public enum MatrixStructure {
+    /**
+     * Any element may have any value
+     */
+    GENERAL,
+
+    /**
+     * Element (i,j) equals element (j,i)
+     */
+    SYMMETRIC,
+
+    /**
+     * Elements below the diagonal are zero
+     */
+    UPPER_TRIANGULAR,
+
+    /**
+     * Elements above the diagonal are zero
+     */
+    LOWER_TRIANGULAR,
+
+    /**
+     * Elements outside a band around the diagonal are zero
+     */
+    BANDED;
+
+    /**
+     * Gets whether the structure is triangular, either upper or lower
+     * @return true if triangular; else false
+     */
+    public boolean isTriangular() {
+        return this == UPPER_TRIANGULAR || this == LOWER_TRIANGULAR;
+    }
+}
@@ -0,0 +1,131 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer of fixed size storing elements in direct memory outside of the Java heap.
+ *
+ * Large matrices kept in arrays on the heap put pressure on the garbage collector, and arrays of several GB
+ * may fail to allocate at all. This buffer stores the elements in chunked direct memory instead, addressed by
+ * long indices, so its size is limited by available memory only. Elements are stored row wise.
+ *
+ * Row and column vectors, as well as the transposed buffer, are views sharing the same memory. The memory
+ * is released by {@link #close()}, which affects all views. Any access after closing fails with an
+ * IllegalStateException. Buffers that are never closed are released when garbage collected.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class OffHeapMatrixBuffer implements MatrixBuffer, AutoCloseable {
+    private final Size size;
+    private final DoubleStorage storage;
+    private final long offset;
+    private final long rowStride;
+    private final long columnStride;
+
+    public static OffHeapMatrixBuffer allocate(int rows, int cols) {
+        require(() -> rows > 0 && cols > 0, "number of rows and columns must be positive");
+        return new OffHeapMatrixBuffer(Size.of(rows, cols), DoubleStorage.allocate((long) rows * cols), 0, cols, 1);
+    }
+
+    /**
+     * Creates an off-heap buffer with the same size and element values as the specified buffer
+     * @param buffer the buffer to copy
+     * @return the off-heap buffer
+     */
+    public static OffHeapMatrixBuffer copyOf(MatrixBuffer buffer) {
+        OffHeapMatrixBuffer copy = allocate(buffer.size().rows(), buffer.size().cols());
+        copy.assign(buffer);
+        return copy;
+    }
+
+    OffHeapMatrixBuffer(Size size, DoubleStorage storage, long offset, long rowStride, long columnStride) {
+        this.size = size;
+        this.storage = storage;
+        this.offset = offset;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return storage.get(addressOf(row, col));
+    }
+
+    @Override
+    public void set(int row, int col, double value) {
+        storage.set(addressOf(row, col), value);
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return new OffHeapVectorBuffer(size.cols(), storage, addressOf(row, 0), columnStride);
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return new OffHeapVectorBuffer(size.rows(), storage, addressOf(0, col), rowStride);
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    /**
+     * Creates a copy of this buffer, in newly allocated off-heap memory
+     * @return the copy
+     */
+    @Override
+    public MatrixBuffer copy() {
+        return copyOf(this);
+    }
+
+    @Override
+    public MatrixBuffer transpose() {
+        return new OffHeapMatrixBuffer(Size.of(size.cols(), size.rows()), storage, offset, columnStride, rowStride);
+    }
+
+    /**
+     * Gets a view of a rectangular block, sharing the off-heap memory
+     */
+    @Override
+    public MatrixBuffer view(int rowFrom, int rowTo, int colFrom, int colTo) {
+        BlockMatrixBuffer.requireValidBlock(size, rowFrom, rowTo, colFrom, colTo);
+        return new OffHeapMatrixBuffer(Size.of(rowTo - rowFrom, colTo - colFrom), storage,
+                offset + rowFrom * rowStride + colFrom * columnStride, rowStride, columnStride);
+    }
+
+    /**
+     * Checks whether the memory of this buffer is released
+     * @return true if closed, false if not
+     */
+    public boolean isClosed() {
+        return storage.isClosed();
+    }
+
+    /**
+     * Releases the memory of this buffer and all views of it
+     */
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    DoubleStorage storage() {
+        return storage;
+    }
+
+    private void assign(MatrixBuffer buffer) {
+        for (int i = 0; i < size.rows(); i++) {
+            for (int j = 0; j < size.cols(); j++) {
+                set(i, j, buffer.get(i, j));
+            }
+        }
+    }
+
+    private long addressOf(int row, int col) {
+        return offset + row * rowStride + col * columnStride;
+    }
+}
@@ -0,0 +1,78 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a vector buffer of fixed size storing components in direct memory outside of the Java heap.
+ *
+ * Row and column vectors of an {@link OffHeapMatrixBuffer} are of this type, sharing memory with the matrix.
+ * The memory is released by {@link #close()}, which affects the matrix and all other views of it.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class OffHeapVectorBuffer implements VectorBuffer, AutoCloseable {
+    private final int size;
+    private final DoubleStorage storage;
+    private final long base;
+    private final long stride;
+
+    public static OffHeapVectorBuffer allocate(int size) {
+        require(() -> size > 0, "size must be positive");
+        return new OffHeapVectorBuffer(size, DoubleStorage.allocate(size), 0, 1);
+    }
+
+    OffHeapVectorBuffer(int size, DoubleStorage storage, long base, long stride) {
+        this.size = size;
+        this.storage = storage;
+        this.base = base;
+        this.stride = stride;
+    }
+
+    @Override
+    public double get(int index) {
+        return storage.get(addressOf(index));
+    }
+
+    @Override
+    public void set(int index, double value) {
+        storage.set(addressOf(index), value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates a copy of this buffer, in newly allocated off-heap memory
+     * @return the copy
+     */
+    @Override
+    public VectorBuffer copy() {
+        OffHeapVectorBuffer copy = allocate(size);
+        for (int i = 0; i < size; i++) {
+            copy.set(i, get(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Checks whether the memory of this buffer is released
+     * @return true if closed, false if not
+     */
+    public boolean isClosed() {
+        return storage.isClosed();
+    }
+
+    /**
+     * Releases the memory of this buffer, and of the matrix it is a view of
+     */
+    @Override
+    public void close() {
+        storage.close();
+    }
+
+    private long addressOf(int index) {
+        return base + stride * index;
+    }
+}
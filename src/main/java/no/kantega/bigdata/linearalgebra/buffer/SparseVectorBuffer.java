@@ -0,0 +1,31 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+/**
+ * Defines storage buffer for vector components where only non-zero components are stored.
+ *
+ * The stored entries are accessed by their entry number, from 0 to nonZeros() - 1, in increasing order of
+ * component index. Stored entries may hold explicit zeros.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public interface SparseVectorBuffer extends VectorBuffer {
+    /**
+     * Gets the number of stored entries
+     * @return the number of stored entries
+     */
+    int nonZeros();
+
+    /**
+     * Gets the component index of specified stored entry
+     * @param entry the entry number (zero-based)
+     * @return the component index (zero-based)
+     */
+    int indexAt(int entry);
+
+    /**
+     * Gets the value of specified stored entry
+     * @param entry the entry number (zero-based)
+     * @return the component value
+     */
+    double valueAt(int entry);
+}
@@ -0,0 +1,172 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer for symmetric matrices, storing the lower triangle only.
+ *
+ * The n(n+1)/2 elements on and below the diagonal are packed row by row into one array, so element (i,j) with
+ * i >= j is found at i(i+1)/2 + j. Elements above the diagonal mirror those below, so getting (i,j) returns the
+ * value of (j,i), and setting either sets both. The buffer is its own transpose.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SymmetricPackedMatrixBuffer implements MatrixBuffer {
+    private final Size size;
+    private final double[] values;
+
+    /**
+     * Creates a buffer for a symmetric matrix of specified order, with all elements zero
+     *
+     * @param n the number of rows and columns
+     * @return the buffer
+     */
+    public static SymmetricPackedMatrixBuffer allocate(int n) {
+        require(() -> n > 0, "number of rows and columns must be positive");
+        return new SymmetricPackedMatrixBuffer(n, new double[packedLength(n)]);
+    }
+
+    /**
+     * Creates a buffer holding the lower triangle of specified square buffer. The upper triangle is ignored,
+     * so a buffer that is not symmetric gets symmetrized from its lower triangle.
+     *
+     * @param buffer the buffer to copy the lower triangle from
+     * @return the buffer
+     */
+    public static SymmetricPackedMatrixBuffer fromLowerTriangle(MatrixBuffer buffer) {
+        requireNonNull(buffer, "buffer can't be null");
+        require(() -> buffer.size().rows() == buffer.size().cols(), "buffer must be square");
+
+        int n = buffer.size().rows();
+        SymmetricPackedMatrixBuffer packed = allocate(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                packed.values[indexOf(i, j)] = buffer.get(i, j);
+            }
+        }
+        return packed;
+    }
+
+    private SymmetricPackedMatrixBuffer(int n, double[] values) {
+        this.size = Size.of(n, n);
+        this.values = values;
+    }
+
+    /**
+     * Gets the number of values stored for a symmetric matrix of specified order
+     *
+     * @param n the number of rows and columns
+     * @return the packed length, n(n+1)/2
+     */
+    public static int packedLength(int n) {
+        return (int) ((long) n * (n + 1) / 2);
+    }
+
+    /**
+     * Gets the position in the packed array of element (i,j), where i >= j
+     *
+     * @param i the row number (zero-based)
+     * @param j the column number (zero-based), not above i
+     * @return the position in the packed array
+     */
+    public static int indexOf(int i, int j) {
+        return (int) ((long) i * (i + 1) / 2) + j;
+    }
+
+    /**
+     * Gets the packed array of the lower triangle, row by row. The array is shared, not copied.
+     * @return the packed array
+     */
+    public double[] array() {
+        return values;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return values[row >= col ? indexOf(row, col) : indexOf(col, row)];
+    }
+
+    /**
+     * Sets the value of the element at given position, and of its mirror across the diagonal
+     */
+    @Override
+    public void set(int row, int col, double value) {
+        values[row >= col ? indexOf(row, col) : indexOf(col, row)] = value;
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return new LineVectorBuffer(this, row);
+    }
+
+    /**
+     * Gets the specified column vector, which equals the row vector of the same number
+     */
+    @Override
+    public VectorBuffer column(int col) {
+        return new LineVectorBuffer(this, col);
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    @Override
+    public SymmetricPackedMatrixBuffer copy() {
+        return new SymmetricPackedMatrixBuffer(size.rows(), values.clone());
+    }
+
+    /**
+     * Returns this buffer, as a symmetric matrix is its own transpose
+     */
+    @Override
+    public SymmetricPackedMatrixBuffer transpose() {
+        return this;
+    }
+
+    @Override
+    public MatrixStructure structure() {
+        return MatrixStructure.SYMMETRIC;
+    }
+
+    /**
+     * A view of a row, which is also the column of the same number
+     */
+    private static class LineVectorBuffer implements VectorBuffer {
+        private final SymmetricPackedMatrixBuffer buffer;
+        private final int line;
+
+        LineVectorBuffer(SymmetricPackedMatrixBuffer buffer, int line) {
+            this.buffer = buffer;
+            this.line = line;
+        }
+
+        @Override
+        public double get(int index) {
+            return buffer.get(line, index);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            buffer.set(line, index, value);
+        }
+
+        @Override
+        public int size() {
+            return buffer.size.rows();
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            VectorBuffer copy = FixedVectorBuffer.allocate(size());
+            for (int i = 0; i < size(); i++) {
+                copy.set(i, get(i));
+            }
+            return copy;
+        }
+    }
+}
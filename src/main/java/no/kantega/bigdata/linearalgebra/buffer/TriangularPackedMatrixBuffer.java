@@ -0,0 +1,168 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+
+import static java.util.Objects.requireNonNull;
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements the common parts of matrix buffers for triangular matrices, storing the triangle only.
+ *
+ * The n(n+1)/2 elements of the triangle are packed into one array by their major index, being the larger of row
+ * and column, so element (i,j) is found at major(major+1)/2 + minor. The lower triangle is thus packed row by row,
+ * and the upper triangle column by column. A triangle and its transpose share the same array, and transposing
+ * swaps between the lower and upper variant. Elements outside the triangle are zero, and can't be set to anything
+ * else.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public abstract class TriangularPackedMatrixBuffer implements MatrixBuffer {
+    private final Size size;
+    private final double[] values;
+
+    TriangularPackedMatrixBuffer(int n, double[] values) {
+        this.size = Size.of(n, n);
+        this.values = values;
+    }
+
+    /**
+     * Creates the values of a triangle of specified order, copied from the corresponding triangle of specified buffer
+     */
+    static double[] packTriangle(MatrixBuffer buffer, boolean upper) {
+        requireNonNull(buffer, "buffer can't be null");
+        require(() -> buffer.size().rows() == buffer.size().cols(), "buffer must be square");
+
+        int n = buffer.size().rows();
+        double[] values = new double[SymmetricPackedMatrixBuffer.packedLength(n)];
+        int k = 0;
+        for (int major = 0; major < n; major++) {
+            for (int minor = 0; minor <= major; minor++) {
+                values[k++] = upper ? buffer.get(minor, major) : buffer.get(major, minor);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets whether the triangle is above the diagonal
+     * @return true if upper triangular; else false
+     */
+    public abstract boolean isUpper();
+
+    /**
+     * Gets the packed array of the triangle. The array is shared, not copied.
+     * @return the packed array
+     */
+    public double[] array() {
+        return values;
+    }
+
+    /**
+     * Gets whether specified element is within the stored triangle
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @return true if the element is stored; else false
+     */
+    public boolean isStored(int row, int col) {
+        return isUpper() ? row <= col : row >= col;
+    }
+
+    /**
+     * Gets the position in the packed array of specified element within the triangle
+     * @param row the row number (zero-based)
+     * @param col the column number (zero-based)
+     * @return the position in the packed array
+     */
+    public int indexOf(int row, int col) {
+        return isUpper() ? SymmetricPackedMatrixBuffer.indexOf(col, row) : SymmetricPackedMatrixBuffer.indexOf(row, col);
+    }
+
+    @Override
+    public double get(int row, int col) {
+        return isStored(row, col) ? values[indexOf(row, col)] : 0.0d;
+    }
+
+    /**
+     * Sets the value of the element at given position, which must be within the triangle unless the value is zero
+     */
+    @Override
+    public void set(int row, int col, double value) {
+        if (isStored(row, col)) {
+            values[indexOf(row, col)] = value;
+        } else {
+            require(() -> value == 0.0d, "can't set a non-zero value outside the triangle");
+        }
+    }
+
+    @Override
+    public VectorBuffer row(int row) {
+        return new LineVectorBuffer(this, row, true);
+    }
+
+    @Override
+    public VectorBuffer column(int col) {
+        return new LineVectorBuffer(this, col, false);
+    }
+
+    @Override
+    public Size size() {
+        return size;
+    }
+
+    @Override
+    public abstract TriangularPackedMatrixBuffer copy();
+
+    /**
+     * Gets the transpose, being the opposite triangle sharing the same array
+     */
+    @Override
+    public abstract TriangularPackedMatrixBuffer transpose();
+
+    @Override
+    public MatrixStructure structure() {
+        return isUpper() ? MatrixStructure.UPPER_TRIANGULAR : MatrixStructure.LOWER_TRIANGULAR;
+    }
+
+    /**
+     * A view of a row or a column
+     */
+    private static class LineVectorBuffer implements VectorBuffer {
+        private final TriangularPackedMatrixBuffer buffer;
+        private final int line;
+        private final boolean isRow;
+
+        LineVectorBuffer(TriangularPackedMatrixBuffer buffer, int line, boolean isRow) {
+            this.buffer = buffer;
+            this.line = line;
+            this.isRow = isRow;
+        }
+
+        @Override
+        public double get(int index) {
+            return isRow ? buffer.get(line, index) : buffer.get(index, line);
+        }
+
+        @Override
+        public void set(int index, double value) {
+            if (isRow) {
+                buffer.set(line, index, value);
+            } else {
+                buffer.set(index, line, value);
+            }
+        }
+
+        @Override
+        public int size() {
+            return buffer.size.rows();
+        }
+
+        @Override
+        public VectorBuffer copy() {
+            VectorBuffer copy = FixedVectorBuffer.allocate(size());
+            for (int i = 0; i < size(); i++) {
+                copy.set(i, get(i));
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import static no.kantega.bigdata.linearalgebra.utils.Assert.require;
+
+/**
+ * Implements a matrix buffer for upper triangular matrices, storing the n(n+1)/2 elements on and above the diagonal only.
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class UpperTriangularPackedMatrixBuffer extends TriangularPackedMatrixBuffer {
+
+    /**
+     * Creates a buffer for a upper triangular matrix of specified order, with all elements zero
+     *
+     * @param n the number of rows and columns
+     * @return the buffer
+     */
+    public static UpperTriangularPackedMatrixBuffer allocate(int n) {
+        require(() -> n > 0, "number of rows and columns must be positive");
+        return new UpperTriangularPackedMatrixBuffer(n, new double[SymmetricPackedMatrixBuffer.packedLength(n)]);
+    }
+
+    /**
+     * Creates a buffer holding the upper triangle of specified square buffer. The other triangle is ignored.
+     *
+     * @param buffer the buffer to copy the upper triangle from
+     * @return the buffer
+     */
+    public static UpperTriangularPackedMatrixBuffer fromUpperTriangle(MatrixBuffer buffer) {
+        double[] values = packTriangle(buffer, true);
+        return new UpperTriangularPackedMatrixBuffer(buffer.size().rows(), values);
+    }
+
+    UpperTriangularPackedMatrixBuffer(int n, double[] values) {
+        super(n, values);
+    }
+
+    @Override
+    public boolean isUpper() {
+        return true;
+    }
+
+    @Override
+    public UpperTriangularPackedMatrixBuffer copy() {
+        return new UpperTriangularPackedMatrixBuffer(size().rows(), array().clone());
+    }
+
+    @Override
+    public LowerTriangularPackedMatrixBuffer transpose() {
+        return new LowerTriangularPackedMatrixBuffer(size().rows(), array());
+    }
+}
@@ -0,0 +1,136 @@
+package no.kantega.bigdata.linearalgebra;
+
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import org.junit.Test;
+
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the LinearOperator interface
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class LinearOperatorTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldApplyDenseMatrixAndItsTranspose() {
+        Matrix a = Matrix.random(7, 4, -9.9d, +9.9d);
+
+        assertOperator(a, a);
+    }
+
+    @Test
+    public void shouldApplySparseBufferAndItsTranspose() {
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(5, 8);
+        builder.add(0, 3, 2.0d).add(1, 0, -1.0d).add(1, 7, 4.0d).add(3, 3, 5.0d).add(4, 6, -3.0d);
+        CompressedRowMatrixBuffer a = builder.build();
+
+        assertOperator(LinearOperator.of(a), Matrix.from(a.copy()));
+        assertOperator(LinearOperator.of(a.transpose()), Matrix.from(a.copy()).transpose());
+    }
+
+    @Test
+    public void shouldApplyBandMatrixTranspose() {
+        BandMatrixBuffer band = BandMatrixBuffer.allocate(6, 6, 1, 2);
+        for (int i = 0; i < 6; i++) {
+            for (int j = Math.max(0, i - 1); j <= Math.min(5, i + 2); j++) {
+                band.set(i, j, i + 2.0d * j + 1.0d);
+            }
+        }
+
+        assertOperator(Matrix.from(band), Matrix.from(band.copy()));
+    }
+
+    @Test
+    public void shouldTransposeWithoutFormingIt() {
+        Matrix a = Matrix.random(3, 6, -9.9d, +9.9d);
+        LinearOperator transposed = a.asTransposedOperator();
+
+        assertThat(transposed.size(), is(Size.of(6, 3)));
+        assertOperator(transposed, a.copy().transpose());
+        assertThat(transposed.asTransposedOperator() == a, is(true));
+    }
+
+    @Test
+    public void shouldScale() {
+        Matrix a = Matrix.random(4, 5, -9.9d, +9.9d);
+
+        assertOperator(a.scaled(-2.5d), a.copy().multiplyScalar(-2.5d));
+    }
+
+    @Test
+    public void shouldAdd() {
+        Matrix a = Matrix.random(4, 5, -9.9d, +9.9d);
+        Matrix b = Matrix.random(4, 5, -9.9d, +9.9d);
+
+        assertOperator(a.sum(b), a.copy().add(b));
+    }
+
+    @Test
+    public void shouldMultiply() {
+        Matrix a = Matrix.random(4, 6, -9.9d, +9.9d);
+        Matrix b = Matrix.random(6, 3, -9.9d, +9.9d);
+
+        LinearOperator product = a.product(b);
+
+        assertThat(product.size(), is(Size.of(4, 3)));
+        assertOperator(product, a.multiply(b));
+    }
+
+    @Test
+    public void shouldApplyLowRankPlusDiagonalAndGramMatrix() {
+        Matrix u = Matrix.random(9, 2, -1.0d, +1.0d);
+        Vector d = Vector.of(1.0d, 2.0d, 3.0d, 4.0d, 5.0d, 6.0d, 7.0d, 8.0d, 9.0d);
+        Matrix expected = u.multiply(u.copy().transpose());
+        for (int i = 1; i <= 9; i++) {
+            expected.setAt(i, i, expected.at(i, i) + d.at(i));
+        }
+
+        assertOperator(u.product(u.asTransposedOperator()).sum(LinearOperator.diagonal(d)), expected);
+        assertOperator(u.asTransposedOperator().product(u), u.gramMatrix());
+    }
+
+    @Test
+    public void shouldApplyCallbacks() {
+        Matrix a = Matrix.random(3, 5, -9.9d, +9.9d);
+
+        assertOperator(LinearOperator.of(a.size(), a::multiply, a::multiplyTranspose), a);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void shouldRequireTransposeCallback() {
+        LinearOperator.of(Size.of(2, 2), (x, y) -> y.setAt(1, x.at(2)), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAddOperatorsOfDifferentSize() {
+        Matrix.zero(2, 3).sum(Matrix.zero(3, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotApplyToVectorOfWrongDimension() {
+        Matrix.zero(2, 3).apply(Vector.zero(2), Vector.zero(2));
+    }
+
+    private void assertOperator(LinearOperator operator, Matrix expected) {
+        int m = operator.size().rows();
+        int n = operator.size().cols();
+        assertThat(operator.size(), is(expected.size()));
+
+        Vector x = Vector.zero(n).populate(() -> Math.random() - 0.5d);
+        Vector y = Vector.constant(m, 99.0d);
+        operator.apply(x, y);
+        assertThat(y, closeToVector(expected.multiply(x), EPSILON));
+
+        Vector z = Vector.zero(m).populate(() -> Math.random() - 0.5d);
+        Vector w = Vector.constant(n, 99.0d);
+        operator.applyTranspose(z, w);
+        assertThat(w, closeToVector(expected.copy().transpose().multiply(z), EPSILON));
+    }
+}
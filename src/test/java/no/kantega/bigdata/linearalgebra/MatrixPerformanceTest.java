@@ -1,10 +1,13 @@
 package no.kantega.bigdata.linearalgebra;
 
+import no.kantega.bigdata.linearalgebra.algorithms.BandLUDecompositionResult;
 import no.kantega.bigdata.linearalgebra.algorithms.LUDecompositionResult;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
 import org.junit.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 /**
@@ -38,6 +41,20 @@ public class MatrixPerformanceTest {
         LUDecompositionResult result = printExecutionTime("LU decomposition of 1000x1000 matrix", m::calcLuDecomposition);
     }
 
+    @Test
+    public void bandLuDecomposition() {
+        int n = 1_000_000;
+        double[] offDiagonal = new double[n - 1];
+        double[] diagonal = new double[n];
+        Arrays.fill(offDiagonal, -1.0d);
+        Arrays.fill(diagonal, 4.0d);
+        Matrix m = Matrix.from(BandMatrixBuffer.tridiagonal(offDiagonal, diagonal, offDiagonal));
+        Vector b = Vector.constant(n, 1.0d);
+
+        BandLUDecompositionResult result = printExecutionTime("Band LU decomposition of 1000000x1000000 tridiagonal matrix", m::calcBandLuDecomposition);
+        Vector x = printExecutionTime("Band LU solve of 1000000x1000000 tridiagonal system", () -> result.solve(b));
+    }
+
     private <T> T printExecutionTime(String caption, Supplier<T> executable) {
         Instant startTime = Instant.now();
         T result = executable.get();
@@ -1,13 +1,23 @@
 package no.kantega.bigdata.linearalgebra;
 
 import no.kantega.bigdata.linearalgebra.algorithms.LUDecompositionResult;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SymmetricPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.UpperTriangularPackedMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.utils.NumberFormatter;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
 import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static java.util.stream.Collectors.toSet;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.number.IsCloseTo.closeTo;
@@ -212,6 +222,15 @@ public class MatrixTest {
         assertThat(nonLowerTriangularMatrix.isTriangular(), is(false));
     }
 
+    @Test
+    public void shouldNotDetectNonSquareViewOfTriangularMatrixAsTriangular() {
+        Matrix upper = Matrix.from(UpperTriangularPackedMatrixBuffer.allocate(4));
+
+        assertThat(upper.view(1, 2, 1, 4).isUpperTriangular(), is(false));
+        assertThat(upper.view(1, 2, 1, 4).isTriangular(), is(false));
+        assertThat(upper.view(2, 3, 2, 3).isUpperTriangular(), is(true));
+    }
+
     @Test
     public void shouldDetectOrthogonalMatrix() {
         Matrix orthogonalMatrix = Matrix.zero(4,4);
@@ -277,6 +296,71 @@ public class MatrixTest {
         assertEqualToNoDecimals(result, "9 16\n0 26\n");
     }
 
+    @Test
+    public void shouldMultiplyInParallel() {
+        Matrix a = Matrix.random(150, 70, -9.9d, +9.9d);
+        Matrix b = Matrix.random(70, 130, -9.9d, +9.9d);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix result = a.multiply(b, Parallelism.of(pool, 1000));
+            assertThat(result, closeToMatrix(a.multiply(b), EPSILON));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldAccumulateProductIntoExistingMatrix() {
+        Matrix a = Matrix.fromRowMajorSequence(2, 3, 2, 1, 4, 1, 5, 2);
+        Matrix b = Matrix.fromRowMajorSequence(3, 2, 3, 2, -1, 4, 1, 2);
+        Matrix c = Matrix.fromRowMajorSequence(2, 2, 1, 2, 3, 4);
+
+        Matrix result = Matrix.gemm(1.0d, a, false, b, false, 1.0d, c);
+
+        assertThat(result == c, is(true));
+        assertEqualToNoDecimals(c, "10 18\n3 30\n");
+    }
+
+    @Test
+    public void shouldPerformGemmWithTransposes() {
+        Matrix a = Matrix.fromRowMajorSequence(3, 2, 2, 1, 1, 5, 4, 2);
+        Matrix b = Matrix.fromRowMajorSequence(2, 3, 3, -1, 1, 2, 4, 2);
+        Matrix c = Matrix.fromRowMajorSequence(2, 2, 1, 1, 1, 1);
+
+        Matrix.gemm(2.0d, a, true, b, true, -1.0d, c);
+
+        assertEqualToNoDecimals(c, "17 31\n-1 51\n");
+        assertEqualToNoDecimals(a, "2 1\n1 5\n4 2\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenGemmTargetIsAnOperand() {
+        Matrix a = Matrix.random(3, 3, -9.9d, +9.9d);
+        Matrix.gemm(1.0d, a, false, a, false, 1.0d, a);
+    }
+
+    @Test
+    public void shouldMultiplyVectorIntoResult() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 3, 2, 1, 4, 1, 5, 2);
+        Vector result = Vector.constant(2, 99.0d);
+
+        m.multiply(Vector.of(1.0d, -1.0d, 2.0d), result);
+
+        assertThat(result, closeToVector(Vector.of(9.0d, 0.0d), EPSILON));
+    }
+
+    @Test
+    public void shouldMultiplyTransposeWithoutFormingIt() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 3, 2, 1, 4, 1, 5, 2);
+        Vector result = Vector.zero(3);
+
+        m.multiplyTranspose(Vector.of(1.0d, -1.0d), result);
+
+        assertThat(result, closeToVector(Vector.of(1.0d, -4.0d, 2.0d), EPSILON));
+        assertThat(m.size(), is(Size.of(2, 3)));
+    }
+
     @Test
     public void shouldMultiplyScalar() {
         Matrix m = Matrix.fromRowMajorSequence(2, 3, 2, 1, 4, 1, 5, 2).multiplyScalar(2.0d);
@@ -289,6 +373,17 @@ public class MatrixTest {
         assertEqualToNoDecimals(m, "2 1 4\n1 5 2\n");
     }
 
+    @Test
+    public void shouldScaleStoredElementsOfSparseMatrix() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(2, 3).add(0, 2, 4).add(1, 0, 6).build();
+        Matrix m = Matrix.from(buffer);
+
+        m.multiplyScalar(3.0d).divideScalar(2.0d);
+
+        assertThat(buffer.nonZeros(), is(2));
+        assertEqualToNoDecimals(m, "0 0 6\n9 0 0\n");
+    }
+
     @Test
     public void shouldAdd() {
         Matrix a = Matrix.fromRowMajorSequence(3, 3, 1, 1, 1, 1, 1, 1, 1, 1, 1);
@@ -355,6 +450,22 @@ public class MatrixTest {
         assertEqualToNoDecimals(m, "1 0 0 3 -4 3\n0 1 0 1 -2 2\n0 0 1 -7 11 -9\n");
     }
 
+    @Test
+    public void shouldCalculateTrace() {
+        Matrix m = Matrix.fromRowMajorSequence(3, 3, 1,2,3, 4,5,6, 7,8,9);
+        assertThat(m.trace(), is(15.0d));
+        assertThat(m.view(2, 3, 2, 3).trace(), is(14.0d));
+        assertThat(Matrix.identity(4).trace(), is(4.0d));
+    }
+
+    @Test
+    public void shouldPerformGramSchmidtProcess() {
+        Matrix m = Matrix.fromRowMajorSequence(3, 2, 3,1, 4,1, 0,1).gramSchmidtProcess();
+        double norm = Math.sqrt(1.04d);
+        Matrix expected = Matrix.fromRowMajorSequence(3, 2, 0.6d, 0.16d / norm, 0.8d, -0.12d / norm, 0.0d, 1.0d / norm);
+        assertThat(m, closeToMatrix(expected, 0.000000001d));
+    }
+
     @Test(expected = SingularMatrixException.class)
     public void shouldThrowWhenPerformingLUDecompositionOfSingularMatrix() {
         Matrix a1 = Matrix.fromRowMajorSequence(3, 3, 1, 2, 4, 0, 0, 0, 2, 6, 13); // Row 2 all zeros -> singular
@@ -462,6 +573,104 @@ public class MatrixTest {
         assertInverseMatrix("m3", m3);
     }
 
+    @Test
+    public void shouldTransformElementsWithPrimitiveFunction() {
+        Matrix m = Matrix.zero(2, 3).transformElements((i, j, v) -> 10 * i + j);
+        assertEqualToNoDecimals(m, "0 1 2\n10 11 12\n");
+    }
+
+    @Test
+    public void shouldTransformElementsOfTransposedMatrix() {
+        Matrix m = Matrix.zero(2, 3).transpose().transformElements((i, j, v) -> 10 * i + j);
+        assertEqualToNoDecimals(m, "0 1\n10 11\n20 21\n");
+    }
+
+    @Test
+    public void shouldVisitEachElementOnce() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 2, 1, 2, 3, 4);
+        double[] sum = new double[1];
+        m.forEachElement((i, j, v) -> sum[0] += v * (i + 1));
+        assertThat(sum[0], is(1.0d + 2.0d + 6.0d + 8.0d));
+    }
+
+    @Test
+    public void shouldMatchAnyElementWithPrimitivePredicate() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 2, 1, 2, 3, 4);
+        assertThat(m.anyElementMatch((i, j, v) -> i == 1 && j == 0 && v == 3.0d), is(true));
+        assertThat(m.anyElementMatch((i, j, v) -> v > 4.0d), is(false));
+    }
+
+    @Test
+    public void shouldTransformValues() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 2, 1, 2, 3, 4).transformValues(v -> v * v);
+        assertEqualToNoDecimals(m, "1 4\n9 16\n");
+        assertThat(m.anyValueMatch(v -> v == 9.0d), is(true));
+    }
+
+    @Test
+    public void shouldAddMatricesOfDifferentLayout() {
+        Matrix a = Matrix.fromRowMajorSequence(2, 3, 1, 2, 3, 4, 5, 6);
+        Matrix b = Matrix.fromRowMajorSequence(3, 2, 10, 40, 20, 50, 30, 60).transpose();
+
+        assertEqualToNoDecimals(a.add(b), "11 22 33\n44 55 66\n");
+    }
+
+    @Test
+    public void shouldStreamElementValuesInRowMajorOrder() {
+        Matrix m = Matrix.fromRowMajorSequence(2, 3, 1, 2, 3, 4, 5, 6);
+        assertArrayEquals(new double[] {1, 2, 3, 4, 5, 6}, m.elementValues().toArray(), EPSILON);
+        assertArrayEquals(new double[] {1, 4, 2, 5, 3, 6}, m.transpose().elementValues().toArray(), EPSILON);
+    }
+
+    @Test
+    public void shouldSumElementValuesInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Parallelism parallelism = Parallelism.of(pool);
+            Matrix m = Matrix.random(101, 37, -9.9d, +9.9d);
+            double expected = m.rowMajorPositions().mapToDouble(m::at).sum();
+            Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+            double sum = parallelism.compute(() -> m.elementValues(parallelism).peek(v -> pools.add(ForkJoinTask.getPool())).sum());
+
+            assertThat(sum, closeTo(expected, 1e-9));
+            assertThat(m.elementIndices(parallelism).isParallel(), is(true));
+            assertThat(parallelism.compute(() -> m.elementIndices(parallelism).count()), is(101L * 37L));
+            assertThat(m.elementValues().isParallel(), is(false));
+            assertThat(m.elementIndices().isParallel(), is(false));
+            assertThat(pools.contains(ForkJoinPool.commonPool()), is(false));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStreamPositionsOnPoolOfParallelism() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Parallelism parallelism = Parallelism.of(pool);
+            Matrix m = Matrix.zero(300, 200);
+
+            Set<ForkJoinPool> pools = parallelism.compute(() -> m.columnMajorPositions(parallelism).map(p -> ForkJoinTask.getPool()).collect(toSet()));
+
+            assertThat(pools, equalTo(Collections.singleton(pool)));
+            assertThat(parallelism.compute(() -> m.upperTriangularPositions(parallelism).count()), is(200L * 199L / 2L));
+            assertThat(m.lowerTriangularPositions(parallelism).isParallel(), is(true));
+            assertThat(m.rowMajorPositions().isParallel(), is(false));
+            assertThat(m.diagonalPositions(Parallelism.sequential()).isParallel(), is(false));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStreamTriangularPositions() {
+        Matrix m = Matrix.zero(4, 5);
+        assertThat(m.lowerTriangularPositions().filter(p -> p.row() > p.col()).count(), is(6L));
+        assertThat(m.upperTriangularPositions().filter(p -> p.row() < p.col()).count(), is(6L));
+        assertThat(m.diagonalPositions().count(), is(4L));
+    }
+
     @Test
     public void shouldDetectEqualMatrix() {
         Matrix m = Matrix.fromRowMajorSequence(3, 3, 9,3,4, 7,4,3, 4,8,6);
@@ -469,6 +678,63 @@ public class MatrixTest {
         assertThat(m, equalTo(n));
     }
 
+    @Test
+    public void shouldShareElementsWithView() {
+        Matrix m = Matrix.fromRowMajorSequence(3, 4,
+                1, 2, 3, 4,
+                5, 6, 7, 8,
+                9, 10, 11, 12);
+
+        Matrix view = m.view(2, 3, 2, 3);
+        view.multiplyScalar(10);
+        view.setAt(1, 1, -1);
+
+        assertEqualToNoDecimals(view, "-1 70\n100 110\n");
+        assertEqualToNoDecimals(m, "1 2 3 4\n5 -1 70 8\n9 100 110 12\n");
+    }
+
+    @Test
+    public void shouldWriteThroughViewOfPackedMatrix() {
+        Matrix m = Matrix.from(SymmetricPackedMatrixBuffer.allocate(4));
+        m.setAt(2, 3, 5.0d);
+
+        Matrix view = m.view(2, 3, 2, 3);
+        view.setAt(1, 1, 2.0d);
+        view.multiplyScalar(3.0d);
+
+        assertEqualToNoDecimals(m, "0 0 0 0\n0 6 15 0\n0 15 0 0\n0 0 0 0\n");
+        assertThat(m.isSymmetrical(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotBreakStructureThroughViewOfPackedMatrix() {
+        Matrix m = Matrix.from(SymmetricPackedMatrixBuffer.allocate(4));
+
+        m.view(1, 2, 1, 2).transformElements((i, j, v) -> i);
+    }
+
+    @Test
+    public void shouldCopyViewOnly() {
+        Matrix m = Matrix.random(6, 5, -9.9d, +9.9d);
+
+        Matrix copy = m.view(2, 5, 3, 4).copy();
+        copy.transformValues(v -> 0.0d);
+
+        assertThat(copy.size(), equalTo(Size.of(4, 2)));
+        assertThat(m.at(2, 3) != 0.0d, is(true));
+    }
+
+    @Test
+    public void shouldMultiplyViews() {
+        Matrix a = Matrix.random(20, 30, -9.9d, +9.9d);
+        Matrix b = Matrix.random(30, 10, -9.9d, +9.9d);
+
+        Matrix product = a.view(3, 12, 5, 24).multiply(b.view(5, 24, 2, 9));
+
+        assertThat(product, closeToMatrix(a.view(3, 12, 5, 24).copy().multiply(b.view(5, 24, 2, 9).copy()), 0.000000001));
+        assertThat(a.view(3, 12, 5, 24).transpose().at(20, 10), is(a.at(12, 24)));
+    }
+
     private void assertEqualTo(Matrix matrix, String expected) {
         String actual = matrix.toString(NumberFormatter.compact());
         assertThat(actual, equalTo(expected));
@@ -0,0 +1,91 @@
+package no.kantega.bigdata.linearalgebra;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the PositionSpliterator class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class PositionSpliteratorTest {
+
+    @Test
+    public void shouldTraverseRowMajor() {
+        assertThat(positions(PositionSpliterator.rowMajor(Size.of(2, 3))), equalTo("0,0 0,1 0,2 1,0 1,1 1,2"));
+    }
+
+    @Test
+    public void shouldTraverseColumnMajor() {
+        assertThat(positions(PositionSpliterator.columnMajor(Size.of(2, 3))), equalTo("0,0 1,0 0,1 1,1 0,2 1,2"));
+    }
+
+    @Test
+    public void shouldTraverseDiagonal() {
+        assertThat(positions(PositionSpliterator.diagonal(Size.of(3, 5))), equalTo("0,0 1,1 2,2"));
+    }
+
+    @Test
+    public void shouldTraverseLowerTriangle() {
+        assertThat(positions(PositionSpliterator.lowerTriangle(Size.of(4, 4))), equalTo("1,0 2,0 2,1 3,0 3,1 3,2"));
+    }
+
+    @Test
+    public void shouldTraverseUpperTriangle() {
+        assertThat(positions(PositionSpliterator.upperTriangle(Size.of(4, 4))), equalTo("0,1 0,2 1,2 0,3 1,3 2,3"));
+    }
+
+    @Test
+    public void shouldReportExactSize() {
+        assertThat(PositionSpliterator.rowMajor(Size.of(7, 9)).getExactSizeIfKnown(), is(63L));
+        assertThat(PositionSpliterator.lowerTriangle(Size.of(10, 6)).getExactSizeIfKnown(), is(15L));
+    }
+
+    @Test
+    public void shouldCoverAllPositionsWhenSplit() {
+        for (int n = 1; n < 40; n++) {
+            Size size = Size.of(n, n + 1);
+            assertThat(splitPositions(PositionSpliterator.lowerTriangle(size)), equalTo(positions(PositionSpliterator.lowerTriangle(size))));
+            assertThat(splitPositions(PositionSpliterator.upperTriangle(size)), equalTo(positions(PositionSpliterator.upperTriangle(size))));
+            assertThat(splitPositions(PositionSpliterator.columnMajor(size)), equalTo(positions(PositionSpliterator.columnMajor(size))));
+        }
+    }
+
+    private String positions(Spliterator<Position> spliterator) {
+        StringBuilder sb = new StringBuilder();
+        spliterator.forEachRemaining(p -> sb.append(sb.length() == 0 ? "" : " ").append(p.row()).append(',').append(p.col()));
+        return sb.toString();
+    }
+
+    /**
+     * Splits recursively down to single positions, and visits them one at a time in encounter order
+     */
+    private String splitPositions(Spliterator<Position> spliterator) {
+        List<Spliterator<Position>> parts = new ArrayList<>();
+        split(spliterator, parts);
+
+        StringBuilder sb = new StringBuilder();
+        for (Spliterator<Position> part : parts) {
+            while (part.tryAdvance(p -> sb.append(sb.length() == 0 ? "" : " ").append(p.row()).append(',').append(p.col()))) {
+            }
+        }
+        return sb.toString();
+    }
+
+    private void split(Spliterator<Position> spliterator, List<Spliterator<Position>> parts) {
+        Spliterator<Position> prefix = spliterator.trySplit();
+        if (prefix == null) {
+            parts.add(spliterator);
+        } else {
+            split(prefix, parts);
+            split(spliterator, parts);
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package no.kantega.bigdata.linearalgebra;
 
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
 import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
 import no.kantega.bigdata.linearalgebra.utils.NumberFormatter;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -306,6 +312,120 @@ public class VectorTest {
         assertThat(v1, equalTo(v2));
     }
 
+    @Test
+    public void shouldCreateSparseVector() {
+        Vector v = Vector.sparse(1000000, new int[] {999999, 3, 3}, new double[] {2.0d, 1.0d, 0.5d});
+
+        assertThat(v.isSparse(), is(true));
+        assertThat(v.at(4), is(1.5d));
+        assertThat(v.at(1000000), is(2.0d));
+        assertThat(v.at(5), is(0.0d));
+    }
+
+    @Test
+    public void shouldCalculateInnerProductOfSparseVectors() {
+        Vector sparse = Vector.sparse(6, new int[] {0, 2, 5}, new double[] {1, 2, 3});
+        Vector otherSparse = Vector.sparse(6, new int[] {1, 2, 5}, new double[] {4, 5, 6});
+        Vector dense = Vector.of(1, 2, 3, 4, 5, 6);
+
+        assertThat(sparse.innerProduct(otherSparse), is(28.0d));
+        assertThat(sparse.innerProduct(dense), is(25.0d));
+        assertThat(dense.innerProduct(sparse), is(25.0d));
+    }
+
+    @Test
+    public void shouldAddScaledSparseVectors() {
+        Vector sparse = Vector.sparse(5, new int[] {0, 3}, new double[] {1, 2});
+        Vector otherSparse = Vector.sparse(5, new int[] {3, 4}, new double[] {1, 1});
+
+        sparse.addScaled(2.0d, otherSparse);
+
+        assertThat(sparse.isSparse(), is(true));
+        assertThat(sparse, closeToVector(Vector.of(1, 0, 0, 4, 2), EPSILON));
+    }
+
+    @Test
+    public void shouldAddSparseAndDenseVectors() {
+        Vector sparse = Vector.sparse(4, new int[] {1}, new double[] {5});
+        Vector dense = Vector.of(1, 2, 3, 4);
+
+        assertThat(dense.copy().add(sparse), closeToVector(Vector.of(1, 7, 3, 4), EPSILON));
+        assertThat(sparse.copy().subtract(dense), closeToVector(Vector.of(-1, 3, -3, -4), EPSILON));
+    }
+
+    @Test
+    public void shouldPopulateAndTransformLargeSparseVector() {
+        Vector v = Vector.sparse(5000);
+
+        v.populate(() -> 1.0d);
+        v.transform((i, value) -> i % 3 == 0 ? value + i : 0.0d);
+
+        for (int i = 1; i <= 5000; i++) {
+            assertThat(v.at(i), is((i - 1) % 3 == 0 ? (double) i : 0.0d));
+        }
+    }
+
+    @Test
+    public void shouldAddToRowOfMatrix() {
+        Matrix dense = Matrix.fromRowMajorSequence(2, 3, 1, 2, 3, 4, 5, 6);
+        Matrix sparse = Matrix.from(CompressedRowMatrixBuffer.builder(2, 3).add(0, 1, 2).add(1, 2, 6).build());
+
+        dense.rowVector(1).add(Vector.of(1, 1, 1));
+        sparse.rowVector(1).add(Vector.sparse(3, new int[] {0, 1}, new double[] {1, 1}));
+
+        assertThat(dense.rowVector(1), closeToVector(Vector.of(2, 3, 4), EPSILON));
+        assertThat(sparse.rowVector(1), closeToVector(Vector.of(1, 3, 0), EPSILON));
+    }
+
+    @Test
+    public void shouldKeepBufferWhenAddingToSparseVector() {
+        Vector sparse = Vector.sparse(4, new int[] {1}, new double[] {5});
+        VectorBuffer buffer = sparse.buffer();
+
+        sparse.add(Vector.of(1, 2, 3, 4));
+
+        assertThat(sparse.buffer(), is(buffer));
+        assertThat(sparse, closeToVector(Vector.of(1, 7, 3, 4), EPSILON));
+    }
+
+    @Test
+    public void shouldCalculateNormsOfSparseVector() {
+        Vector v = Vector.sparse(100, new int[] {10, 20}, new double[] {3, -4});
+
+        assertThat(v.length(), is(5.0d));
+        assertThat(v.norm1(), is(7.0d));
+        assertThat(v.normMax(), is(4.0d));
+        assertThat(v.copy().multiply(2.0d).at(21), is(-8.0d));
+        assertThat(Vector.sparse(100).isZeroVector(), is(true));
+    }
+
+    @Test
+    public void shouldProjectSparseVector() {
+        Vector v = Vector.sparse(3, new int[] {0, 1}, new double[] {1, 1});
+        Vector u = Vector.sparse(3, new int[] {0}, new double[] {2});
+
+        assertThat(v.projectOnto(u), closeToVector(Vector.of(1, 0, 0), EPSILON));
+    }
+
+    @Test
+    public void shouldReduceInParallelOnPoolOfParallelism() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Parallelism parallelism = Parallelism.of(pool, 1000);
+            Vector v = Vector.zero(20000).populate(() -> Math.random() - 0.5d);
+            Vector w = Vector.zero(20000).populate(() -> Math.random() - 0.5d);
+
+            Set<ForkJoinPool> pools = parallelism.compute(() -> v.components(parallelism).mapToObj(c -> ForkJoinTask.getPool()).collect(toSet()));
+
+            assertThat(pools, equalTo(Collections.singleton(pool)));
+            assertThat(v.innerProduct(w, parallelism), closeTo(v.innerProduct(w), 0.000000001));
+            assertThat(v.length(parallelism), closeTo(v.length(), 0.000000001));
+            assertThat(v.components().isParallel(), is(false));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     @Test
     public void shouldFormatVectorAsString() {
         Vector v = Vector.of(3.14d, -2, 6);
@@ -0,0 +1,126 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import org.junit.Test;
+
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the ArnoldiEigenSolver and HessenbergEigenSolver classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class ArnoldiEigenSolverTest {
+
+    private static final double EPSILON = 0.00000001;
+
+    @Test
+    public void shouldFindEigenvaluesOfTriangularMatrix() {
+        // The eigenvalues of a triangular matrix are its diagonal elements
+        int n = 150;
+        Matrix a = Matrix.random(n, n, -1.0d, +1.0d);
+        for (int i = 1; i <= n; i++) {
+            a.setAt(i, i, i);
+            for (int j = 1; j < i; j++) {
+                a.setAt(i, j, 0.0d);
+            }
+        }
+
+        NonsymmetricEigenDecompositionResult eigen = assertEigenpairs(a, 3, Spectrum.LARGEST_REAL);
+
+        assertThat(eigen.realParts(), closeToVector(Vector.of(150.0d, 149.0d, 148.0d), EPSILON));
+        assertThat(eigen.imaginaryParts(), closeToVector(Vector.zero(3), EPSILON));
+    }
+
+    @Test
+    public void shouldFindSmallestEigenvalues() {
+        int n = 100;
+        Matrix a = Matrix.zero(n, n);
+        for (int i = 1; i <= n; i++) {
+            a.setAt(i, i, i);
+            if (i < n) {
+                a.setAt(i, i + 1, 2.0d);
+            }
+        }
+
+        NonsymmetricEigenDecompositionResult eigen = assertEigenpairs(a, 2, Spectrum.SMALLEST_REAL);
+
+        assertThat(eigen.realParts(), closeToVector(Vector.of(1.0d, 2.0d), EPSILON));
+    }
+
+    @Test
+    public void shouldFindComplexConjugatePair() {
+        // A diagonal matrix with a rotation block having eigenvalues 5 +- 12i, hidden by an orthogonal similarity
+        int n = 80;
+        Matrix d = Matrix.zero(n, n);
+        for (int i = 1; i <= n; i++) {
+            d.setAt(i, i, i / 10.0d);
+        }
+        d.setAt(1, 1, 5.0d);
+        d.setAt(2, 2, 5.0d);
+        d.setAt(1, 2, 12.0d);
+        d.setAt(2, 1, -12.0d);
+        Matrix q = Matrix.random(n, n, -1.0d, +1.0d).calcQrDecomposition().getQ();
+        Matrix a = q.multiply(d).multiply(q.copy().transpose());
+
+        NonsymmetricEigenDecompositionResult eigen = assertEigenpairs(a, 1, Spectrum.LARGEST_MAGNITUDE);
+
+        assertThat(eigen.realParts(), closeToVector(Vector.of(5.0d, 5.0d), EPSILON));
+        assertThat(eigen.imaginaryParts(), closeToVector(Vector.of(12.0d, -12.0d), EPSILON));
+    }
+
+    @Test
+    public void shouldFindRealAndComplexEigenvalues() {
+        // The companion-like matrix with eigenvalues 10, 9 +- 3i and 1 / i for the rest
+        int n = 60;
+        Matrix d = Matrix.zero(n, n);
+        for (int i = 1; i <= n; i++) {
+            d.setAt(i, i, 1.0d / i);
+        }
+        d.setAt(1, 1, 10.0d);
+        d.setAt(2, 2, 9.0d);
+        d.setAt(3, 3, 9.0d);
+        d.setAt(2, 3, 3.0d);
+        d.setAt(3, 2, -3.0d);
+        Matrix q = Matrix.random(n, n, -1.0d, +1.0d).calcQrDecomposition().getQ();
+        Matrix a = q.multiply(d).multiply(q.copy().transpose());
+
+        NonsymmetricEigenDecompositionResult eigen = assertEigenpairs(a, 2, Spectrum.LARGEST_REAL);
+
+        assertThat(eigen.realParts(), closeToVector(Vector.of(10.0d, 9.0d, 9.0d), EPSILON));
+        assertThat(eigen.imaginaryParts(), closeToVector(Vector.of(0.0d, 3.0d, -3.0d), EPSILON));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptTooManyEigenvalues() {
+        ArnoldiEigenSolver.solve(Matrix.random(10, 10, -1.0d, +1.0d), 8, Spectrum.LARGEST_REAL);
+    }
+
+    private NonsymmetricEigenDecompositionResult assertEigenpairs(Matrix a, int k, Spectrum spectrum) {
+        NonsymmetricEigenDecompositionResult eigen = ArnoldiEigenSolver.solve(a, k, spectrum);
+        Vector re = eigen.realParts();
+        Vector im = eigen.imaginaryParts();
+        Matrix x = eigen.eigenvectors();
+        Matrix ax = a.multiply(x);
+
+        // A(x + iy) = (re + i im)(x + iy) for the columns x and y of each complex pair
+        for (int j = 1; j <= re.dimension(); j++) {
+            boolean complex = im.at(j) != 0.0d;
+            for (int i = 1; i <= a.size().rows(); i++) {
+                double expected = re.at(j) * x.at(i, j) - (complex ? im.at(j) * x.at(i, j + 1) : 0.0d);
+                assertThat(Math.abs(ax.at(i, j) - expected) < 0.000001d, is(true));
+                if (complex) {
+                    expected = re.at(j) * x.at(i, j + 1) + im.at(j) * x.at(i, j);
+                    assertThat(Math.abs(ax.at(i, j + 1) - expected) < 0.000001d, is(true));
+                }
+            }
+            if (complex) {
+                j++;
+            }
+        }
+        return eigen;
+    }
+}
@@ -0,0 +1,127 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.BandMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.toDense;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the banded kernels of the BandOperations and BandLUDecomposition classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BandOperationsTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void shouldMultiplyBandedMatrixWithVector() {
+        Matrix band = Matrix.from(randomBand(17, 3, 2, false));
+        Vector x = Vector.zero(17).populate(() -> random.nextDouble() - 0.5d);
+
+        assertThat(band.multiply(x), closeToVector(toDense(band).multiply(x), EPSILON));
+        assertThat(band.copy().transpose().multiply(x), closeToVector(toDense(band).transpose().multiply(x), EPSILON));
+    }
+
+    @Test
+    public void shouldSolveWithBandLuDecomposition() {
+        BandMatrixBuffer a = randomBand(23, 2, 3, false);
+        Vector x = Vector.zero(23).populate(() -> random.nextDouble() - 0.5d);
+        Vector b = Matrix.from(a).multiply(x);
+
+        BandLUDecompositionResult lud = Matrix.from(a).calcBandLuDecomposition();
+
+        assertThat(lud.solve(b), closeToVector(x, EPSILON));
+    }
+
+    @Test
+    public void shouldCalculateDeterminantWithBandLuDecomposition() {
+        // The determinants of the tridiagonal matrices having 4 on the diagonal and -1 beside it are 4, 15, 56, 209, ...
+        BandMatrixBuffer a = BandMatrixBuffer.tridiagonal(new double[] {-1, -1, -1}, new double[] {4, 4, 4, 4}, new double[] {-1, -1, -1});
+
+        assertThat(Matrix.from(a).calcBandLuDecomposition().determinant(), closeTo(209.0d, EPSILON));
+    }
+
+    @Test
+    public void shouldPivotWhenDiagonalIsZero() {
+        BandMatrixBuffer a = BandMatrixBuffer.tridiagonal(new double[] {1, 1, 1}, new double[] {0, 0, 0, 0}, new double[] {1, 1, 1});
+        Vector x = Vector.of(1, 2, 3, 4);
+
+        Vector solution = Matrix.from(a).calcBandLuDecomposition().solve(Matrix.from(a).multiply(x));
+
+        assertThat(solution, closeToVector(x, EPSILON));
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void shouldFailOnSingularBandedMatrix() {
+        BandMatrixBuffer a = BandMatrixBuffer.tridiagonal(new double[] {1, 0}, new double[] {1, 1, 1}, new double[] {1, 0});
+
+        Matrix.from(a).calcBandLuDecomposition();
+    }
+
+    @Test
+    public void shouldSolveTridiagonalSystem() {
+        BandMatrixBuffer a = randomBand(31, 1, 1, true);
+        Vector x = Vector.zero(31).populate(() -> random.nextDouble() - 0.5d);
+        Vector b = Matrix.from(a).multiply(x);
+
+        VectorBuffer solution = FixedVectorBuffer.allocate(31);
+        for (int i = 0; i < 31; i++) {
+            solution.set(i, b.at(i + 1));
+        }
+        BandOperations.solveTridiagonal(a, solution);
+
+        assertThat(Vector.from(solution), closeToVector(x, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveLargeTridiagonalSystem() {
+        int n = 1_000_000;
+        double[] sub = new double[n - 1];
+        double[] diagonal = new double[n];
+        double[] sup = new double[n - 1];
+        Arrays.fill(sub, -1.0d);
+        Arrays.fill(diagonal, 4.0d);
+        Arrays.fill(sup, -1.0d);
+        BandMatrixBuffer a = BandMatrixBuffer.tridiagonal(sub, diagonal, sup);
+
+        // The right hand side of the solution x = (1, 1, ..., 1)
+        VectorBuffer b = FixedVectorBuffer.allocate(n);
+        for (int i = 0; i < n; i++) {
+            b.set(i, i == 0 || i == n - 1 ? 3.0d : 2.0d);
+        }
+        BandOperations.solveTridiagonal(a, b);
+
+        for (int i = 0; i < n; i += 9973) {
+            assertThat(b.get(i), closeTo(1.0d, EPSILON));
+        }
+        assertThat(b.size(), is(n));
+    }
+
+    /**
+     * Creates a random banded matrix, with a dominant diagonal when requested
+     */
+    private BandMatrixBuffer randomBand(int n, int lower, int upper, boolean dominant) {
+        BandMatrixBuffer buffer = BandMatrixBuffer.allocate(n, n, lower, upper);
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) {
+                buffer.set(i, j, i == j && dominant ? 4.0d + random.nextDouble() : random.nextDouble() - 0.5d);
+            }
+        }
+        return buffer;
+    }
+}
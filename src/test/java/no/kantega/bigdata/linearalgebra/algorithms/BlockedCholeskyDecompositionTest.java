@@ -0,0 +1,118 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.NotPositiveDefiniteMatrixException;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit test for the BlockedCholeskyDecomposition and CholeskyDecompositionResult classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BlockedCholeskyDecompositionTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldFactorAsLowerTimesTranspose() {
+        assertFactorization(spd(50), 8, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldFactorWhenOrderIsNotMultipleOfBlockSize() {
+        assertFactorization(spd(37), 10, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldFactorInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertFactorization(spd(97), 16, Parallelism.of(pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSolveLinearEquations() {
+        Matrix a = spd(30);
+        Vector expected = Vector.zero(30).populate(() -> Math.random() - 0.5d);
+        Vector b = a.multiply(expected);
+
+        assertThat(a.calcCholeskyDecomposition().solve(b), closeToVector(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveForAllColumns() {
+        Matrix a = spd(30);
+        Matrix expected = Matrix.random(30, 40, -9.9d, +9.9d);
+        Matrix b = a.multiply(expected);
+
+        assertThat(a.calcCholeskyDecomposition().solve(b), closeToMatrix(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldInvertMatrix() {
+        Matrix a = spd(20);
+
+        assertThat(a.multiply(a.calcCholeskyDecomposition().inverse()), closeToMatrix(Matrix.identity(20), EPSILON));
+    }
+
+    @Test
+    public void shouldCalculateLogDeterminant() {
+        Matrix a = spd(15);
+        double expected = Math.log(a.calcLuDecomposition().determinant());
+
+        CholeskyDecompositionResult chol = a.calcCholeskyDecomposition();
+
+        assertThat(chol.logDeterminant(), closeTo(expected, Math.abs(expected) * EPSILON));
+        assertThat(Math.log(chol.determinant()), closeTo(expected, Math.abs(expected) * EPSILON));
+    }
+
+    @Test
+    public void shouldRejectMatrixNotPositiveDefinite() {
+        Matrix a = Matrix.fromRowMajorSequence(3, 3,
+                4.0d, 2.0d, 1.0d,
+                2.0d, 1.0d, 3.0d,
+                1.0d, 3.0d, 5.0d);
+        try {
+            a.calcCholeskyDecomposition();
+            fail("expected NotPositiveDefiniteMatrixException");
+        } catch (NotPositiveDefiniteMatrixException e) {
+            assertThat(e.column(), is(2));
+        }
+    }
+
+    private void assertFactorization(Matrix a, int blockSize, Parallelism parallelism) {
+        Matrix l = BlockedCholeskyDecomposition.decompose(toBuffer(a), blockSize, parallelism).lowerMatrix();
+
+        assertThat(l.isLowerTriangular(), is(true));
+        assertThat(l.multiply(l.copy().transpose()), closeToMatrix(a, EPSILON * a.size().rows() * 100));
+    }
+
+    private static MatrixBuffer toBuffer(Matrix matrix) {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
+    }
+
+    /**
+     * Makes a random symmetric positive definite matrix, being a Gram matrix with its diagonal shifted
+     */
+    private static Matrix spd(int n) {
+        return Matrix.random(n, n, -1.0d, +1.0d).gramMatrix().add(Matrix.identity(n).multiplyScalar(n));
+    }
+}
@@ -0,0 +1,83 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the BlockedLUDecomposition class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BlockedLUDecompositionTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldDecomposeUsingNarrowPanels() {
+        Matrix a = Matrix.random(47, 47, -9.9d, +9.9d);
+
+        // Panels of 5 columns, leaving a partial panel at the end
+        LUDecompositionResult lud = BlockedLUDecomposition.decompose(toBuffer(a), 5, Parallelism.sequential());
+
+        assertDecomposition(lud, a);
+    }
+
+    @Test
+    public void shouldDecomposeSinglePanel() {
+        Matrix a = Matrix.random(20, 20, -9.9d, +9.9d);
+
+        assertDecomposition(BlockedLUDecomposition.decompose(toBuffer(a), 64, Parallelism.sequential()), a);
+    }
+
+    @Test
+    public void shouldDecomposeInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix a = Matrix.random(150, 150, -9.9d, +9.9d);
+
+            assertDecomposition(a.calcLuDecomposition(Parallelism.of(pool, 1)), a);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void shouldFailOnSingularMatrix() {
+        Matrix a = Matrix.random(30, 30, -9.9d, +9.9d);
+        for (int i = 1; i <= 30; i++) {
+            a.setAt(i, 17, 0.0d);
+        }
+
+        BlockedLUDecomposition.decompose(toBuffer(a), 8, Parallelism.sequential());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenMatrixIsTooLargeForOneArray() {
+        int n = BlockedLUDecomposition.MAX_SIZE + 1;
+
+        BlockedLUDecomposition.decompose(CompressedRowMatrixBuffer.builder(n, n).build(), Parallelism.sequential());
+    }
+
+    private void assertDecomposition(LUDecompositionResult lud, Matrix a) {
+        Matrix lu = lud.lowerMatrix().multiply(lud.getU());
+        Matrix pa = lud.permutationMatrix().multiply(a);
+
+        assertThat(lu, closeToMatrix(pa, EPSILON));
+    }
+
+    private static MatrixBuffer toBuffer(Matrix matrix) {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
+    }
+}
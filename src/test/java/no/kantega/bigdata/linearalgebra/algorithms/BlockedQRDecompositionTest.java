@@ -0,0 +1,113 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the BlockedQRDecomposition and QRDecompositionResult classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BlockedQRDecompositionTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldFactorAsOrthonormalTimesUpperTriangular() {
+        assertDecomposition(Matrix.random(60, 45, -9.9d, +9.9d), 8, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldFactorSquareMatrixInSinglePanel() {
+        assertDecomposition(Matrix.random(20, 20, -9.9d, +9.9d), 32, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldFactorInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertDecomposition(Matrix.random(150, 100, -9.9d, +9.9d), 16, Parallelism.of(pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldApplyImplicitQ() {
+        Matrix a = Matrix.random(30, 12, -9.9d, +9.9d);
+        Matrix b = Matrix.random(30, 5, -9.9d, +9.9d);
+        QRDecompositionResult qr = BlockedQRDecomposition.decompose(toBuffer(a), 4, Parallelism.sequential());
+
+        assertThat(qr.multiplyQ(qr.multiplyQTranspose(b)), closeToMatrix(b, EPSILON));
+        assertThat(qr.multiplyQTranspose(qr.getQ()).view(1, 12, 1, 12), closeToMatrix(Matrix.identity(12), EPSILON));
+    }
+
+    @Test
+    public void shouldSolveSquareSystem() {
+        Matrix a = Matrix.random(25, 25, -9.9d, +9.9d);
+        Vector expected = Vector.zero(25).populate(() -> Math.random() - 0.5d);
+
+        assertThat(a.calcQrDecomposition().solve(a.multiply(expected)), closeToVector(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveLeastSquares() {
+        Matrix a = Matrix.random(80, 6, -9.9d, +9.9d);
+        Vector b = Vector.zero(80).populate(() -> Math.random() - 0.5d);
+
+        Vector x = a.calcQrDecomposition().solve(b);
+
+        // The residual is orthogonal to the columns of A, i.e. the normal equations are satisfied
+        Matrix at = a.copy().transpose();
+        assertThat(at.multiply(a).multiply(x), closeToVector(at.multiply(b), EPSILON));
+    }
+
+    @Test
+    public void shouldSolveLeastSquaresForAllColumns() {
+        Matrix a = Matrix.random(50, 10, -9.9d, +9.9d);
+        Matrix expected = Matrix.random(10, 3, -9.9d, +9.9d);
+
+        assertThat(a.calcQrDecomposition().solve(a.multiply(expected)), closeToMatrix(expected, EPSILON));
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void shouldRejectRankDeficientMatrix() {
+        Matrix a = Matrix.random(10, 4, -9.9d, +9.9d);
+        for (int i = 1; i <= 10; i++) {
+            a.setAt(i, 3, 2.0d * a.at(i, 1));
+        }
+
+        QRDecompositionResult qr = a.calcQrDecomposition();
+        assertThat(qr.isFullRank(), is(false));
+        qr.solve(Vector.zero(10));
+    }
+
+    private void assertDecomposition(Matrix a, int blockSize, Parallelism parallelism) {
+        QRDecompositionResult qr = BlockedQRDecomposition.decompose(toBuffer(a), blockSize, parallelism);
+        Matrix q = qr.getQ();
+        Matrix r = qr.getR();
+        int n = a.size().cols();
+
+        assertThat(r.isUpperTriangular(), is(true));
+        assertThat(q.copy().transpose().multiply(q), closeToMatrix(Matrix.identity(n), EPSILON));
+        assertThat(q.multiply(r), closeToMatrix(a, EPSILON));
+    }
+
+    private static MatrixBuffer toBuffer(Matrix matrix) {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
+    }
+}
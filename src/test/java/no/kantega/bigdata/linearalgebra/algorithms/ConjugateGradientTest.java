@@ -0,0 +1,162 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the ConjugateGradient class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class ConjugateGradientTest {
+
+    private static final double EPSILON = 0.00000001;
+
+    @Test
+    public void shouldSolveSparseSystemWithoutPreconditioner() {
+        CompressedRowMatrixBuffer a = poisson(30);
+        Vector b = Vector.zero(900).populate(() -> Math.random());
+
+        assertSolution(LinearOperator.of(a), b, ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.identity()));
+    }
+
+    @Test
+    public void shouldConvergeFasterWithPreconditioners() {
+        CompressedRowMatrixBuffer a = poisson(40);
+        Vector b = Vector.zero(1600).populate(() -> Math.random());
+
+        ConjugateGradientResult plain = ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.identity());
+        ConjugateGradientResult jacobi = ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.jacobi(a));
+        ConjugateGradientResult ssor = ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.ssor(a, 1.5d));
+        ConjugateGradientResult ic = ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.incompleteCholesky(a));
+
+        assertSolution(LinearOperator.of(a), b, jacobi);
+        assertSolution(LinearOperator.of(a), b, ssor);
+        assertSolution(LinearOperator.of(a), b, ic);
+        assertThat(ssor.iterations() < plain.iterations(), is(true));
+        assertThat(ic.iterations() < plain.iterations(), is(true));
+    }
+
+    @Test
+    public void shouldSolveDenseSystem() {
+        Matrix c = Matrix.random(60, 60, -1.0d, +1.0d);
+        Matrix a = c.copy().transpose().multiply(c).add(Matrix.identity(60));
+        Vector b = Vector.zero(60).populate(() -> Math.random());
+
+        ConjugateGradientResult result = ConjugateGradient.solve(a, b, Preconditioner.identity());
+
+        assertSolution(a, b, result);
+        assertThat(result.solution(), closeToVector(a.calcLuDecomposition().solve(b), 0.000001d));
+    }
+
+    @Test
+    public void shouldSolveMatrixFreeOperator() {
+        // The implicit normal equations (C'C + I) x = b
+        Matrix c = Matrix.random(80, 50, -1.0d, +1.0d);
+        LinearOperator a = c.asTransposedOperator().product(c).sum(LinearOperator.diagonal(Vector.constant(50, 1.0d)));
+        Vector b = Vector.zero(50).populate(() -> Math.random());
+
+        assertSolution(a, b, ConjugateGradient.solve(a, b, Preconditioner.identity()));
+    }
+
+    @Test
+    public void shouldWarmStartFromInitialGuess() {
+        CompressedRowMatrixBuffer a = poisson(20);
+        Vector b = Vector.zero(400).populate(() -> Math.random());
+        Vector solution = ConjugateGradient.solve(LinearOperator.of(a), b, Preconditioner.incompleteCholesky(a)).solution();
+        Vector guess = solution.copy();
+
+        ConjugateGradientResult result = ConjugateGradient.solve(LinearOperator.of(a), b, guess, Preconditioner.incompleteCholesky(a));
+
+        assertThat(result.iterations() <= 1, is(true));
+        assertThat(result.solution(), closeToVector(solution, EPSILON));
+        assertThat(guess, closeToVector(solution, 0.0d));
+    }
+
+    @Test
+    public void shouldNotifyListenerAndStopEarly() {
+        CompressedRowMatrixBuffer a = poisson(20);
+        Vector b = Vector.constant(400, 1.0d);
+        List<Double> residuals = new ArrayList<>();
+
+        ConjugateGradientResult result = ConjugateGradient.solve(LinearOperator.of(a), b, Vector.zero(400), Preconditioner.jacobi(a), EPSILON, 1000,
+            (iteration, residual) -> residuals.add(residual) && iteration < 5);
+
+        assertThat(result.iterations(), is(5));
+        assertThat(residuals.size(), is(5));
+        assertThat(result.residual(), is(residuals.get(4)));
+        assertThat(result.isConverged(), is(false));
+    }
+
+    @Test
+    public void shouldStopAtMaximumIterations() {
+        CompressedRowMatrixBuffer a = poisson(20);
+
+        ConjugateGradientResult result = ConjugateGradient.solve(LinearOperator.of(a), Vector.constant(400, 1.0d), Vector.zero(400), Preconditioner.identity(),
+            EPSILON, 3, (iteration, residual) -> true);
+
+        assertThat(result.iterations(), is(3));
+        assertThat(result.isConverged(), is(false));
+    }
+
+    @Test
+    public void shouldSolveHomogeneousSystem() {
+        CompressedRowMatrixBuffer a = poisson(5);
+
+        ConjugateGradientResult result = ConjugateGradient.solve(LinearOperator.of(a), Vector.zero(25), Preconditioner.identity());
+
+        assertThat(result.solution(), closeToVector(Vector.zero(25), 0.0d));
+        assertThat(result.iterations(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenNotPositiveDefinite() {
+        Matrix a = Matrix.identity(10).multiplyScalar(-1.0d);
+
+        ConjugateGradient.solve(a, Vector.constant(10, 1.0d), Preconditioner.identity());
+    }
+
+    private void assertSolution(LinearOperator a, Vector b, ConjugateGradientResult result) {
+        Vector ax = Vector.zero(b.dimension());
+        a.apply(result.solution(), ax);
+
+        assertThat(result.isConverged(), is(true));
+        assertThat(result.residual() <= ConjugateGradient.DEFAULT_TOLERANCE, is(true));
+        assertThat(ax.subtract(b).length() / b.length() < EPSILON, is(true));
+    }
+
+    /**
+     * Creates the five-point Laplacian of a g x g grid, in CSR format
+     */
+    static CompressedRowMatrixBuffer poisson(int g) {
+        int n = g * g;
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(n, n);
+        for (int i = 0; i < n; i++) {
+            builder.add(i, i, 4.0d);
+            if (i % g > 0) {
+                builder.add(i, i - 1, -1.0d);
+            }
+            if (i % g < g - 1) {
+                builder.add(i, i + 1, -1.0d);
+            }
+            if (i >= g) {
+                builder.add(i, i - g, -1.0d);
+            }
+            if (i + g < n) {
+                builder.add(i, i + g, -1.0d);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,112 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the JacobiSVD and SVDResult classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class JacobiSVDTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldDecomposeSquareMatrix() {
+        assertDecomposition(Matrix.random(20, 20, -9.9d, +9.9d), true, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldDecomposeTallMatrix() {
+        assertDecomposition(Matrix.random(60, 15, -9.9d, +9.9d), true, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldDecomposeWideMatrix() {
+        assertDecomposition(Matrix.random(9, 31, -9.9d, +9.9d), true, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldDecomposeFully() {
+        SVDResult svd = assertDecomposition(Matrix.random(25, 8, -9.9d, +9.9d), false, Parallelism.sequential());
+
+        assertThat(svd.getU().size().cols(), is(25));
+        assertThat(svd.getS().size().rows(), is(25));
+    }
+
+    @Test
+    public void shouldDecomposeInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertDecomposition(Matrix.random(120, 81, -9.9d, +9.9d), true, Parallelism.of(pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFindKnownSingularValues() {
+        Matrix a = Matrix.fromRowMajorSequence(3, 2, 3, 0, 0, -2, 0, 0);
+
+        SVDResult svd = a.calcSvd();
+
+        assertThat(svd.singularValues(), closeToVector(Vector.of(3.0d, 2.0d), EPSILON));
+        assertThat(svd.norm2(), closeTo(3.0d, EPSILON));
+        assertThat(svd.conditionNumber(), closeTo(1.5d, EPSILON));
+    }
+
+    @Test
+    public void shouldHandleRankDeficientMatrix() {
+        Matrix a = Matrix.random(30, 4, -9.9d, +9.9d).multiply(Matrix.random(4, 12, -9.9d, +9.9d));
+
+        SVDResult svd = assertDecomposition(a, true, Parallelism.sequential());
+
+        assertThat(svd.rank(), is(4));
+        Matrix v = svd.getV();
+        assertThat(v.copy().transpose().multiply(v), closeToMatrix(Matrix.identity(12), EPSILON));
+    }
+
+    @Test
+    public void shouldCalculatePseudoInverse() {
+        Matrix a = Matrix.random(20, 5, -9.9d, +9.9d).multiply(Matrix.random(5, 8, -9.9d, +9.9d));
+
+        Matrix pinv = a.calcSvd().pseudoInverse();
+
+        // The Moore-Penrose conditions A * A+ * A = A and A+ * A * A+ = A+
+        assertThat(a.multiply(pinv).multiply(a), closeToMatrix(a, 0.0000001d));
+        assertThat(pinv.multiply(a).multiply(pinv), closeToMatrix(pinv, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveLeastSquares() {
+        Matrix a = Matrix.random(40, 6, -9.9d, +9.9d);
+        Vector b = Vector.zero(40).populate(() -> Math.random() - 0.5d);
+
+        assertThat(a.calcSvd().solve(b), closeToVector(a.calcQrDecomposition().solve(b), EPSILON));
+    }
+
+    private SVDResult assertDecomposition(Matrix a, boolean thin, Parallelism parallelism) {
+        SVDResult svd = a.calcSvd(thin, parallelism);
+        Matrix u = svd.getU();
+        int k = u.size().cols();
+
+        assertThat(u.copy().transpose().multiply(u), closeToMatrix(Matrix.identity(k), EPSILON));
+        assertThat(u.multiply(svd.getS()).multiply(svd.getV().transpose()), closeToMatrix(a, 0.0000001d));
+        Vector values = svd.singularValues();
+        for (int i = 2; i <= values.dimension(); i++) {
+            assertThat(values.at(i) <= values.at(i - 1), is(true));
+        }
+        return svd;
+    }
+}
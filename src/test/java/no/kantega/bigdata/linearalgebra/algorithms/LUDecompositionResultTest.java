@@ -0,0 +1,82 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the solvers of the LUDecompositionResult class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class LUDecompositionResultTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldSolveIntoGivenVector() {
+        Matrix a = Matrix.random(25, 25, -9.9d, +9.9d);
+        Vector expected = Vector.zero(25).populate(() -> Math.random() - 0.5d);
+        Vector b = a.multiply(expected);
+        Vector x = Vector.zero(25);
+
+        a.calcLuDecomposition().solveInto(b, x);
+
+        assertThat(x, closeToVector(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveForAllColumns() {
+        Matrix a = Matrix.random(25, 25, -9.9d, +9.9d);
+        Matrix expected = Matrix.random(25, 7, -9.9d, +9.9d);
+        Matrix b = a.multiply(expected);
+
+        assertThat(a.calcLuDecomposition().solve(b), closeToMatrix(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldSolveForAllColumnsInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix a = Matrix.random(40, 40, -9.9d, +9.9d);
+            Matrix expected = Matrix.random(40, 101, -9.9d, +9.9d);
+            Matrix b = a.multiply(expected);
+
+            assertThat(a.calcLuDecomposition().solve(b, Parallelism.of(pool, 1)), closeToMatrix(expected, EPSILON));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSolveWithResultBackedByMatrix() {
+        Matrix a = Matrix.random(12, 12, -9.9d, +9.9d);
+        LUDecompositionResult lud = a.calcLuDecomposition();
+        LUDecompositionResult copy = new LUDecompositionResult(lud.lowerMatrix().subtract(Matrix.identity(12)).add(lud.getU()),
+                permutation(lud), 1.0d);
+
+        assertThat(copy.inverse(), closeToMatrix(lud.inverse(), EPSILON));
+        assertThat(a.multiply(copy.inverse()), closeToMatrix(Matrix.identity(12), EPSILON));
+    }
+
+    /**
+     * Recovers the permutation indices from the permutation matrix
+     */
+    private static int[] permutation(LUDecompositionResult lud) {
+        Matrix p = lud.permutationMatrix();
+        int[] pi = new int[p.size().rows()];
+        p.forEachElement((i, j, v) -> {
+            if (v == 1.0d) {
+                pi[i] = j;
+            }
+        });
+        return pi;
+    }
+}
@@ -0,0 +1,133 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Size;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.symmetric;
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the LanczosEigenSolver class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class LanczosEigenSolverTest {
+
+    private static final double EPSILON = 0.00000001;
+
+    @Test
+    public void shouldFindLargestEigenvaluesOfDenseMatrix() {
+        Matrix a = symmetric(200);
+        double[] all = a.calcEigenDecomposition(false, Parallelism.sequential()).eigenvalues().components().toArray();
+
+        EigenDecompositionResult eigen = assertEigenpairs(a, 5, Spectrum.LARGEST_REAL);
+
+        assertThat(eigen.eigenvalues(), closeToVector(Vector.of(all[195], all[196], all[197], all[198], all[199]), EPSILON));
+    }
+
+    @Test
+    public void shouldFindSmallestEigenvaluesOfDenseMatrix() {
+        Matrix a = symmetric(200);
+        double[] all = a.calcEigenDecomposition(false, Parallelism.sequential()).eigenvalues().components().toArray();
+
+        EigenDecompositionResult eigen = assertEigenpairs(a, 4, Spectrum.SMALLEST_REAL);
+
+        assertThat(eigen.eigenvalues(), closeToVector(Vector.of(all[0], all[1], all[2], all[3]), EPSILON));
+    }
+
+    @Test
+    public void shouldFindEigenvaluesOfLargestMagnitude() {
+        // The diagonal matrix having both large positive and negative entries
+        int n = 100;
+        Matrix a = Matrix.zero(n, n);
+        for (int i = 1; i <= n; i++) {
+            a.setAt(i, i, i % 2 == 0 ? i : -i);
+        }
+
+        EigenDecompositionResult eigen = assertEigenpairs(a, 3, Spectrum.LARGEST_MAGNITUDE);
+
+        assertThat(eigen.eigenvalues(), closeToVector(Vector.of(-99.0d, 98.0d, 100.0d), EPSILON));
+    }
+
+    @Test
+    public void shouldFindEigenvaluesOfSparseMatrix() {
+        // The second difference matrix has eigenvalues 2 - 2cos(k * pi / (n + 1))
+        int n = 120;
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(n, n);
+        for (int i = 0; i < n; i++) {
+            builder.add(i, i, 2.0d);
+            if (i > 0) {
+                builder.add(i, i - 1, -1.0d);
+                builder.add(i - 1, i, -1.0d);
+            }
+        }
+        CompressedRowMatrixBuffer a = builder.build();
+
+        EigenDecompositionResult eigen = assertEigenpairs(LinearOperator.of(a), 3, Spectrum.LARGEST_REAL);
+
+        double[] expected = new double[3];
+        for (int i = 0; i < 3; i++) {
+            expected[i] = 2.0d - 2.0d * Math.cos((n - 2 + i) * Math.PI / (n + 1));
+        }
+        assertThat(eigen.eigenvalues(), closeToVector(Vector.of(expected), EPSILON));
+    }
+
+    @Test
+    public void shouldFindEigenvaluesOfCallbackOperator() {
+        // The operator scaling component i by i, never formed as a matrix
+        int n = 500;
+        LinearOperator operator = LinearOperator.symmetric(n, (x, y) -> {
+            for (int i = 1; i <= n; i++) {
+                y.setAt(i, i * x.at(i));
+            }
+        });
+
+        EigenDecompositionResult eigen = assertEigenpairs(operator, 2, Spectrum.LARGEST_MAGNITUDE);
+
+        assertThat(eigen.eigenvalues(), closeToVector(Vector.of(499.0d, 500.0d), EPSILON));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptTooManyEigenvalues() {
+        LanczosEigenSolver.solve(symmetric(10), 9, Spectrum.LARGEST_REAL);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWhenNotConverging() {
+        LanczosEigenSolver.solve(symmetric(200), 5, Spectrum.SMALLEST_REAL, 6, 1.0e-14d, 0, new Random(1));
+    }
+
+    private EigenDecompositionResult assertEigenpairs(LinearOperator operator, int k, Spectrum spectrum) {
+        EigenDecompositionResult eigen = LanczosEigenSolver.solve(operator, k, spectrum);
+        Matrix x = eigen.eigenvectors();
+        int n = operator.size().rows();
+
+        assertThat(x.size(), is(Size.of(n, k)));
+        assertThat(x.copy().transpose().multiply(x), closeToMatrix(Matrix.identity(k), EPSILON));
+        Matrix ax = Matrix.zero(n, k);
+        Vector column = Vector.zero(n);
+        Vector product = Vector.zero(n);
+        for (int j = 1; j <= k; j++) {
+            for (int i = 1; i <= n; i++) {
+                column.setAt(i, x.at(i, j));
+            }
+            operator.apply(column, product);
+            for (int i = 1; i <= n; i++) {
+                ax.setAt(i, j, product.at(i));
+            }
+        }
+        assertThat(ax, closeToMatrix(x.multiply(eigen.getD()), 0.000001d));
+        return eigen;
+    }
+}
@@ -0,0 +1,254 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Size;
+import no.kantega.bigdata.linearalgebra.buffer.FixedColumnMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the MatrixMultiplication class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class MatrixMultiplicationTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void shouldMultiplyRowMajorMatrices() {
+        assertProduct(FixedRowMajorMatrixBuffer.allocate(7, 5), FixedRowMajorMatrixBuffer.allocate(5, 9), FixedRowMajorMatrixBuffer.allocate(7, 9));
+    }
+
+    @Test
+    public void shouldMultiplyColumnMajorMatrices() {
+        assertProduct(FixedColumnMajorMatrixBuffer.allocate(6, 11), FixedColumnMajorMatrixBuffer.allocate(11, 3), FixedColumnMajorMatrixBuffer.allocate(6, 3));
+    }
+
+    @Test
+    public void shouldMultiplyMixedLayouts() {
+        assertProduct(FixedColumnMajorMatrixBuffer.allocate(13, 4), FixedRowMajorMatrixBuffer.allocate(4, 17), FixedRowMajorMatrixBuffer.allocate(13, 17));
+    }
+
+    @Test
+    public void shouldMultiplyTransposedViews() {
+        MatrixBuffer a = FixedRowMajorMatrixBuffer.allocate(9, 14).transpose();
+        MatrixBuffer b = FixedColumnMajorMatrixBuffer.allocate(5, 9).transpose();
+        assertProduct(a, b, FixedRowMajorMatrixBuffer.allocate(14, 5));
+    }
+
+    @Test
+    public void shouldMultiplyAcrossBlockBoundaries() {
+        int m = MatrixMultiplication.MC + 3;
+        int k = MatrixMultiplication.KC + 5;
+        int n = 2 * MatrixMultiplication.NR + 1;
+        assertProduct(FixedRowMajorMatrixBuffer.allocate(m, k), FixedRowMajorMatrixBuffer.allocate(k, n), FixedRowMajorMatrixBuffer.allocate(m, n));
+    }
+
+    @Test
+    public void shouldMultiplyBuffersNotBackedByArrays() {
+        MatrixBuffer a = new DelegatingMatrixBuffer(FixedRowMajorMatrixBuffer.allocate(10, 6));
+        MatrixBuffer b = new DelegatingMatrixBuffer(FixedColumnMajorMatrixBuffer.allocate(6, 7));
+        MatrixBuffer c = new DelegatingMatrixBuffer(FixedRowMajorMatrixBuffer.allocate(10, 7));
+        assertProduct(a, b, c);
+    }
+
+    @Test
+    public void shouldScaleAndAccumulate() {
+        MatrixBuffer a = randomize(FixedRowMajorMatrixBuffer.allocate(8, 8));
+        MatrixBuffer b = randomize(FixedRowMajorMatrixBuffer.allocate(8, 8));
+        MatrixBuffer c = randomize(FixedRowMajorMatrixBuffer.allocate(8, 8));
+
+        MatrixBuffer expected = c.copy();
+        naiveMultiply(-2.0d, a, b, 0.5d, expected);
+
+        MatrixMultiplication.multiply(-2.0d, a, b, 0.5d, c);
+
+        assertEqual(c, expected);
+    }
+
+    @Test
+    public void shouldIgnoreExistingValuesWhenBetaIsZero() {
+        MatrixBuffer a = randomize(FixedRowMajorMatrixBuffer.allocate(5, 5));
+        MatrixBuffer b = randomize(FixedRowMajorMatrixBuffer.allocate(5, 5));
+        MatrixBuffer c = FixedRowMajorMatrixBuffer.allocate(5, 5);
+        c.set(2, 3, Double.NaN);
+
+        MatrixBuffer expected = FixedRowMajorMatrixBuffer.allocate(5, 5);
+        naiveMultiply(1.0d, a, b, 0.0d, expected);
+
+        MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c);
+
+        assertEqual(c, expected);
+    }
+
+    @Test
+    public void shouldMultiplyInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MatrixBuffer a = randomize(FixedRowMajorMatrixBuffer.allocate(267, 45));
+            MatrixBuffer b = randomize(FixedColumnMajorMatrixBuffer.allocate(45, 153));
+            MatrixBuffer c = FixedRowMajorMatrixBuffer.allocate(267, 153);
+
+            MatrixBuffer expected = FixedRowMajorMatrixBuffer.allocate(267, 153);
+            naiveMultiply(1.0d, a, b, 0.0d, expected);
+
+            MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c, Parallelism.of(pool, 1000));
+
+            assertEqual(c, expected);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRunOnSuppliedPoolOnly() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        AtomicBoolean foreignThread = new AtomicBoolean(false);
+        try {
+            MatrixBuffer a = new DelegatingMatrixBuffer(randomize(FixedRowMajorMatrixBuffer.allocate(140, 140))) {
+                @Override
+                public double get(int row, int col) {
+                    ForkJoinPool current = ForkJoinTask.getPool();
+                    if (current != null && current != pool) {
+                        foreignThread.set(true);
+                    }
+                    return super.get(row, col);
+                }
+            };
+
+            MatrixMultiplication.multiply(1.0d, a, a, 0.0d, FixedRowMajorMatrixBuffer.allocate(140, 140), Parallelism.of(pool, 100));
+
+            assertThat(foreignThread.get(), is(false));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenInnerDimensionsDiffer() {
+        MatrixMultiplication.multiply(1.0d, FixedRowMajorMatrixBuffer.allocate(3, 4), FixedRowMajorMatrixBuffer.allocate(3, 4), 0.0d, FixedRowMajorMatrixBuffer.allocate(3, 4));
+    }
+
+    @Test
+    public void shouldMultiplyDisjointViewsOfSameArray() {
+        MatrixBuffer m = randomize(FixedRowMajorMatrixBuffer.allocate(8, 8));
+        MatrixBuffer a = m.view(2, 8, 0, 2);
+        MatrixBuffer b = m.view(0, 2, 2, 8);
+        MatrixBuffer c = m.view(2, 8, 2, 8);
+
+        MatrixBuffer expected = FixedRowMajorMatrixBuffer.allocate(6, 6);
+        naiveMultiply(1.0d, a, b, 0.0d, expected);
+
+        MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c);
+
+        assertEqual(c, expected);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenResultOverlapsOperand() {
+        MatrixBuffer m = FixedColumnMajorMatrixBuffer.allocate(8, 8);
+
+        MatrixMultiplication.multiply(1.0d, m.view(0, 4, 0, 4), m.view(0, 4, 0, 4), 0.0d, m.view(3, 7, 3, 7));
+    }
+
+    private void assertProduct(MatrixBuffer a, MatrixBuffer b, MatrixBuffer c) {
+        randomize(a);
+        randomize(b);
+
+        MatrixBuffer expected = FixedRowMajorMatrixBuffer.allocate(c.size().rows(), c.size().cols());
+        naiveMultiply(1.0d, a, b, 0.0d, expected);
+
+        MatrixMultiplication.multiply(1.0d, a, b, 0.0d, c);
+
+        assertEqual(c, expected);
+    }
+
+    private void assertEqual(MatrixBuffer actual, MatrixBuffer expected) {
+        for (int i = 0; i < expected.size().rows(); i++) {
+            for (int j = 0; j < expected.size().cols(); j++) {
+                assertThat("(" + i + ", " + j + ")", actual.get(i, j), closeTo(expected.get(i, j), EPSILON));
+            }
+        }
+    }
+
+    private MatrixBuffer randomize(MatrixBuffer buffer) {
+        for (int i = 0; i < buffer.size().rows(); i++) {
+            for (int j = 0; j < buffer.size().cols(); j++) {
+                buffer.set(i, j, random.nextDouble() * 20.0d - 10.0d);
+            }
+        }
+        return buffer;
+    }
+
+    private void naiveMultiply(double alpha, MatrixBuffer a, MatrixBuffer b, double beta, MatrixBuffer c) {
+        for (int i = 0; i < c.size().rows(); i++) {
+            for (int j = 0; j < c.size().cols(); j++) {
+                double sum = 0.0d;
+                for (int p = 0; p < a.size().cols(); p++) {
+                    sum += a.get(i, p) * b.get(p, j);
+                }
+                c.set(i, j, alpha * sum + (beta == 0.0d ? 0.0d : beta * c.get(i, j)));
+            }
+        }
+    }
+
+    /**
+     * A buffer hiding the array backing of its delegate
+     */
+    private static class DelegatingMatrixBuffer implements MatrixBuffer {
+        private final MatrixBuffer delegate;
+
+        DelegatingMatrixBuffer(MatrixBuffer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public double get(int row, int col) {
+            return delegate.get(row, col);
+        }
+
+        @Override
+        public void set(int row, int col, double value) {
+            delegate.set(row, col, value);
+        }
+
+        @Override
+        public VectorBuffer row(int row) {
+            return delegate.row(row);
+        }
+
+        @Override
+        public VectorBuffer column(int col) {
+            return delegate.column(col);
+        }
+
+        @Override
+        public Size size() {
+            return delegate.size();
+        }
+
+        @Override
+        public MatrixBuffer copy() {
+            return new DelegatingMatrixBuffer(delegate.copy());
+        }
+
+        @Override
+        public MatrixBuffer transpose() {
+            return new DelegatingMatrixBuffer(delegate.transpose());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MappedMatrixBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the OutOfCoreLUDecomposition class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class OutOfCoreLUDecompositionTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldChoosePanelWidthWithinBudget() {
+        assertThat(OutOfCoreLUDecomposition.panelWidth(3 * 100 * 8 * 7, 100), is(7));
+        assertThat(OutOfCoreLUDecomposition.panelWidth(1L << 40, 100), is(100));
+    }
+
+    @Test
+    public void shouldDecomposeUsingNarrowPanels() {
+        Matrix a = Matrix.random(47, 47, -9.9d, +9.9d);
+
+        // Panels of 5 columns, leaving a partial panel at the end
+        LUDecompositionResult lud = a.calcLuDecompositionOutOfCore(FixedRowMajorMatrixBuffer.allocate(47, 47), 3 * 47 * 8 * 5);
+
+        assertDecomposition(lud, a);
+        assertThat(lud.determinant(), closeTo(a.calcLuDecomposition().determinant(), Math.abs(a.determinant()) * 1e-9));
+    }
+
+    @Test
+    public void shouldDecomposeMappedMatrixInPlace() throws IOException {
+        Path file = Files.createTempFile("a", ".bin");
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 30, 30, MappedMatrixBuffer.Layout.ROW_MAJOR)) {
+            Matrix a = Matrix.from(buffer).populate(() -> Math.random() - 0.5d);
+            Matrix original = a.copy();
+            Vector b = Vector.zero(30).populate(() -> Math.random() - 0.5d);
+
+            LUDecompositionResult lud = a.calcLuDecompositionOutOfCore(buffer, 3 * 30 * 8 * 4);
+
+            assertDecomposition(lud, original);
+            Vector x = lud.solve(b);
+            for (int i = 1; i <= 30; i++) {
+                double sum = 0.0d;
+                for (int j = 1; j <= 30; j++) {
+                    sum += original.at(i, j) * x.at(j);
+                }
+                assertThat(sum, closeTo(b.at(i), EPSILON));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void shouldThrowWhenSingular() {
+        Matrix a = Matrix.fromRowMajorSequence(3, 3, 1, 2, 3, 2, 4, 6, 1, 1, 1);
+        a.calcLuDecompositionOutOfCore(FixedRowMajorMatrixBuffer.allocate(3, 3), 3 * 3 * 8);
+    }
+
+    private void assertDecomposition(LUDecompositionResult lud, Matrix a) {
+        Matrix lu = lud.lowerMatrix().multiply(lud.getU());
+        Matrix pa = lud.permutationMatrix().multiply(a);
+        assertThat(pa, closeToMatrix(lu, EPSILON));
+    }
+}
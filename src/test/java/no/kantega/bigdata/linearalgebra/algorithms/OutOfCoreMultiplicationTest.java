@@ -0,0 +1,65 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MappedMatrixBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the OutOfCoreMultiplication class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class OutOfCoreMultiplicationTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldChooseTileSizeWithinBudget() {
+        assertThat(OutOfCoreMultiplication.tileSize(5 * 100 * 100 * 8, 1000), is(100));
+        assertThat(OutOfCoreMultiplication.tileSize(5 * 103 * 103 * 8, 1000), is(100));
+        assertThat(OutOfCoreMultiplication.tileSize(1L << 40, 30), is(32));
+    }
+
+    @Test
+    public void shouldMultiplyWithSmallTiles() {
+        Matrix a = Matrix.random(53, 37, -9.9d, +9.9d);
+        Matrix b = Matrix.random(37, 29, -9.9d, +9.9d);
+
+        // Tiles of 8 x 8 elements, leaving partial tiles at all edges
+        Matrix product = a.multiplyOutOfCore(b, FixedRowMajorMatrixBuffer.allocate(53, 29), 5 * 8 * 8 * 8);
+
+        assertThat(product, closeToMatrix(a.multiply(b), EPSILON));
+    }
+
+    @Test
+    public void shouldMultiplyMappedMatrices() throws IOException {
+        Path fileA = Files.createTempFile("a", ".bin");
+        Path fileC = Files.createTempFile("c", ".bin");
+        try (MappedMatrixBuffer bufferA = MappedMatrixBuffer.create(fileA, 41, 41, MappedMatrixBuffer.Layout.COLUMN_MAJOR);
+             MappedMatrixBuffer bufferC = MappedMatrixBuffer.create(fileC, 41, 41, MappedMatrixBuffer.Layout.ROW_MAJOR)) {
+            Matrix a = Matrix.from(bufferA).populate(() -> Math.random() - 0.5d);
+
+            Matrix product = a.multiplyOutOfCore(a, bufferC, 5 * 12 * 12 * 8);
+
+            assertThat(product, closeToMatrix(a.copy().multiply(a), EPSILON));
+        } finally {
+            Files.deleteIfExists(fileA);
+            Files.deleteIfExists(fileC);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooSmallBudget() {
+        OutOfCoreMultiplication.multiply(FixedRowMajorMatrixBuffer.allocate(4, 4), FixedRowMajorMatrixBuffer.allocate(4, 4),
+                FixedRowMajorMatrixBuffer.allocate(4, 4), 100);
+    }
+}
@@ -0,0 +1,114 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.LinearOperator;
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the Preconditioner interface and its implementations
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class PreconditionerTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldApplyInverseDiagonal() {
+        MatrixBuffer a = FixedRowMajorMatrixBuffer.allocate(3, 3);
+        a.set(0, 0, 2.0d);
+        a.set(1, 1, 4.0d);
+        a.set(2, 2, 0.5d);
+        a.set(0, 2, 9.0d);
+        Vector z = Vector.zero(3);
+
+        Preconditioner.jacobi(a).apply(Vector.of(1.0d, 1.0d, 1.0d), z);
+
+        assertThat(z, closeToVector(Vector.of(0.5d, 0.25d, 2.0d), EPSILON));
+    }
+
+    @Test
+    public void shouldApplySymmetricSuccessiveOverRelaxation() {
+        CompressedRowMatrixBuffer a = ConjugateGradientTest.poisson(4);
+        double omega = 1.3d;
+        Vector r = Vector.zero(16).populate(() -> Math.random());
+        Vector z = Vector.zero(16);
+
+        Preconditioner.ssor(a, omega).apply(r, z);
+
+        // M = (D/w + L) (D/w)^-1 (D/w + L)' * w/(2 - w)
+        Matrix lower = Matrix.zero(16, 16);
+        Matrix inverseDiagonal = Matrix.zero(16, 16);
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < i; j++) {
+                lower.setAt(i + 1, j + 1, a.get(i, j));
+            }
+            lower.setAt(i + 1, i + 1, a.get(i, i) / omega);
+            inverseDiagonal.setAt(i + 1, i + 1, omega / a.get(i, i));
+        }
+        Matrix m = lower.multiply(inverseDiagonal).multiply(lower.copy().transpose()).multiplyScalar(omega / (2.0d - omega));
+        assertThat(m.multiply(z), closeToVector(r, EPSILON));
+    }
+
+    @Test
+    public void shouldBeExactCholeskyWithoutFillIn() {
+        // A tridiagonal matrix has no fill-in, so IC(0) is the complete Cholesky factorization
+        int n = 30;
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(n, n);
+        for (int i = 0; i < n; i++) {
+            builder.add(i, i, 7.0d + i % 4);
+            if (i > 0) {
+                builder.add(i, i - 1, -1.0d - i % 3);
+                builder.add(i - 1, i, -1.0d - i % 3);
+            }
+        }
+        CompressedRowMatrixBuffer a = builder.build();
+        Vector r = Vector.zero(n).populate(() -> Math.random());
+        Vector z = Vector.zero(n);
+
+        Preconditioner.incompleteCholesky(a).apply(r, z);
+
+        assertThat(Matrix.from(a).multiply(z), closeToVector(r, EPSILON));
+    }
+
+    @Test
+    public void shouldShiftDiagonalWhenIncompleteCholeskyBreaksDown() {
+        // Kershaw's matrix is positive definite, but the dropped fill-in makes the last pivot of IC(0) negative
+        double[][] kershaw = {{3, -2, 0, 2}, {-2, 3, -2, 0}, {0, -2, 3, -2}, {2, 0, -2, 3}};
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(4, 4);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                if (kershaw[i][j] != 0.0d) {
+                    builder.add(i, j, kershaw[i][j]);
+                }
+            }
+        }
+        CompressedRowMatrixBuffer a = builder.build();
+        Vector r = Vector.of(1.0d, 2.0d, 3.0d, 4.0d);
+
+        ConjugateGradientResult result = ConjugateGradient.solve(LinearOperator.of(a), r, Preconditioner.incompleteCholesky(a));
+
+        assertThat(result.solution(), closeToVector(Matrix.from(a.copy()).calcLuDecomposition().solve(r), 0.0000001d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNonPositiveDiagonal() {
+        CompressedMatrixBuffer.Builder<CompressedRowMatrixBuffer> builder = CompressedRowMatrixBuffer.builder(2, 2);
+        builder.add(0, 0, 1.0d).add(1, 0, 0.5d).add(0, 1, 0.5d);
+
+        Preconditioner.incompleteCholesky(builder.build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptRelaxationFactorOutsideRange() {
+        Preconditioner.ssor(ConjugateGradientTest.poisson(3), 2.0d);
+    }
+}
@@ -0,0 +1,76 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the RandomizedSVD class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class RandomizedSVDTest {
+
+    private static final double EPSILON = 0.0000001;
+
+    @Test
+    public void shouldRecoverMatrixOfLowRank() {
+        Matrix a = Matrix.random(300, 5, -1.0d, +1.0d).multiply(Matrix.random(5, 80, -1.0d, +1.0d));
+
+        SVDResult svd = a.calcTruncatedSvd(5);
+
+        assertThat(svd.getU().size().cols(), is(5));
+        assertThat(svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose()), closeToMatrix(a, EPSILON));
+    }
+
+    @Test
+    public void shouldFindLeadingSingularValues() {
+        // Seeded, with decaying columns, so the leading singular values are separated from the rest
+        Random random = new Random(5);
+        Matrix a = Matrix.newInstance(200, 60);
+        for (int i = 1; i <= 200; i++) {
+            for (int j = 1; j <= 60; j++) {
+                a.setAt(i, j, (random.nextDouble() * 2.0d - 1.0d) * Math.pow(0.9d, j));
+            }
+        }
+        Vector expected = a.calcSvd().singularValues();
+
+        SVDResult svd = RandomizedSVD.decompose(toBuffer(a), 4, 10, 4, new Random(17), Parallelism.sequential());
+
+        Vector values = svd.singularValues();
+        for (int i = 1; i <= 4; i++) {
+            assertThat(Math.abs(values.at(i) - expected.at(i)) <= 0.01d * expected.at(i), is(true));
+        }
+    }
+
+    @Test
+    public void shouldDecomposeInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix a = Matrix.random(90, 3, -1.0d, +1.0d).multiply(Matrix.random(3, 400, -1.0d, +1.0d));
+
+            SVDResult svd = a.calcTruncatedSvd(3, Parallelism.of(pool, 1));
+
+            assertThat(svd.singularValues(), closeToVector(Vector.of(a.calcSvd().singularValues().components().limit(3).toArray()), EPSILON));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static MatrixBuffer toBuffer(Matrix matrix) {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
+    }
+}
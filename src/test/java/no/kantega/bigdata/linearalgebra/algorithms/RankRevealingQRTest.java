@@ -0,0 +1,71 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the RankRevealingQR class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class RankRevealingQRTest {
+
+    @Test
+    public void shouldFindFullRank() {
+        assertThat(Matrix.random(30, 20, -9.9d, +9.9d).rank(), is(20));
+        assertThat(Matrix.random(25, 25, -9.9d, +9.9d).rank(), is(25));
+    }
+
+    @Test
+    public void shouldFindRankOfProductOfThinFactors() {
+        assertThat(lowRank(40, 30, 7).rank(), is(7));
+    }
+
+    @Test
+    public void shouldFindRankOfWideMatrix() {
+        assertThat(lowRank(12, 50, 5).rank(), is(5));
+    }
+
+    @Test
+    public void shouldFindRankOfTallMatrixWhenReducedFirst() {
+        Matrix a = lowRank(500, 40, 13);
+        for (int i = 1; i <= 500; i++) {
+            a.setAt(i, 40, a.at(i, 3) - 2.0d * a.at(i, 17));
+        }
+
+        assertThat(a.rank(), is(13));
+        assertThat(a.rank(Parallelism.sequential()), is(13));
+    }
+
+    @Test
+    public void shouldFindRankOfDuplicatedAndZeroColumns() {
+        Matrix a = Matrix.fromRowMajorSequence(4, 4,
+                1, 1, 0, 2,
+                2, 2, 0, 1,
+                3, 3, 0, 0,
+                4, 4, 0, 5);
+
+        assertThat(a.rank(), is(2));
+        assertThat(Matrix.zero(3, 5).rank(), is(0));
+    }
+
+    @Test
+    public void shouldApplySpecifiedTolerance() {
+        Matrix a = Matrix.fromRowMajorSequence(3, 3,
+                1, 0, 0,
+                0, 0.001d, 0,
+                0, 0, 0.000001d);
+
+        assertThat(a.rank(), is(3));
+        assertThat(a.rank(0.0001d), is(2));
+        assertThat(a.rank(0.01d), is(1));
+    }
+
+    private static Matrix lowRank(int rows, int cols, int rank) {
+        return Matrix.random(rows, rank, -9.9d, +9.9d).multiply(Matrix.random(rank, cols, -9.9d, +9.9d));
+    }
+}
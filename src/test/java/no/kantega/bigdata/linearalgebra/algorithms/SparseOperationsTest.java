@@ -0,0 +1,86 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedColumnMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.CompressedRowMatrixBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.toDense;
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the sparse kernels of the SparseOperations class, as dispatched to by Matrix
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SparseOperationsTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void shouldMultiplySparseMatrixWithVector() {
+        for (boolean rowCompressed : new boolean[] {true, false}) {
+            Matrix sparse = Matrix.from(randomSparse(23, 17, 0.1d, rowCompressed));
+            Matrix dense = toDense(sparse);
+            Vector x = Vector.zero(17).populate(() -> random.nextDouble() - 0.5d);
+
+            assertThat(sparse.multiply(x), closeToVector(dense.multiply(x), EPSILON));
+        }
+    }
+
+    @Test
+    public void shouldMultiplySparseMatrixWithDenseMatrix() {
+        for (boolean rowCompressed : new boolean[] {true, false}) {
+            Matrix sparse = Matrix.from(randomSparse(23, 17, 0.1d, rowCompressed));
+            Matrix dense = Matrix.random(17, 11, -9.9d, +9.9d);
+
+            assertThat(sparse.multiply(dense), closeToMatrix(toDense(sparse).multiply(dense), EPSILON));
+        }
+    }
+
+    @Test
+    public void shouldMultiplyDenseMatrixWithSparseMatrix() {
+        Matrix dense = Matrix.random(9, 23, -9.9d, +9.9d);
+        Matrix sparse = Matrix.from(randomSparse(23, 17, 0.1d, true));
+
+        assertThat(dense.multiply(sparse), closeToMatrix(dense.multiply(toDense(sparse)), EPSILON));
+    }
+
+    @Test
+    public void shouldMultiplySparseMatrices() {
+        Matrix a = Matrix.from(randomSparse(23, 31, 0.1d, true));
+        Matrix b = Matrix.from(randomSparse(31, 13, 0.1d, false));
+
+        assertThat(a.multiply(b), closeToMatrix(toDense(a).multiply(toDense(b)), EPSILON));
+    }
+
+    @Test
+    public void shouldAddSparseAndDenseMatrices() {
+        Matrix sparse = Matrix.from(randomSparse(13, 7, 0.2d, true));
+        Matrix dense = Matrix.random(13, 7, -9.9d, +9.9d);
+
+        Matrix expected = toDense(sparse).add(dense);
+
+        assertThat(dense.copy().add(sparse), closeToMatrix(expected, EPSILON));
+        assertThat(sparse.copy().add(dense), closeToMatrix(expected, EPSILON));
+        assertThat(sparse.copy().subtract(dense), closeToMatrix(toDense(sparse).subtract(dense), EPSILON));
+    }
+
+    private CompressedMatrixBuffer randomSparse(int rows, int cols, double density, boolean rowCompressed) {
+        CompressedMatrixBuffer.Builder<? extends CompressedMatrixBuffer> builder = rowCompressed
+                ? CompressedRowMatrixBuffer.builder(rows, cols)
+                : CompressedColumnMatrixBuffer.builder(rows, cols);
+        for (int t = 0; t < rows * cols * density; t++) {
+            builder.add(random.nextInt(rows), random.nextInt(cols), random.nextDouble() * 20.0d - 10.0d);
+        }
+        return builder.build();
+    }
+}
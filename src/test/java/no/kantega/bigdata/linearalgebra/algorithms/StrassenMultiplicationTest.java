@@ -0,0 +1,76 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the StrassenMultiplication class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class StrassenMultiplicationTest {
+
+    private static final double EPSILON = 0.0000001;
+
+    @Test
+    public void shouldMultiplyPowerOfTwoMatrices() {
+        assertStrassenProduct(64, 64, 64, 8, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldMultiplyOddSizedMatrices() {
+        assertStrassenProduct(67, 45, 53, 8, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldMultiplyRectangularMatrices() {
+        assertStrassenProduct(30, 81, 17, 4, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldFallBackBelowCutoff() {
+        assertStrassenProduct(20, 20, 20, 64, Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldMultiplyInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertStrassenProduct(99, 101, 97, 8, Parallelism.of(pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldMultiplyTransposedMatrix() {
+        Matrix a = Matrix.random(40, 33, -9.9d, +9.9d);
+        Matrix b = a.copy().transpose();
+
+        assertThat(a.multiplyStrassen(b, 4, Parallelism.sequential()), closeToMatrix(a.multiply(b), EPSILON));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldThrowWhenResultOverlapsOperand() {
+        MatrixBuffer m = FixedRowMajorMatrixBuffer.allocate(16, 16);
+
+        StrassenMultiplication.multiply(m.view(0, 8, 0, 8), m.view(8, 16, 8, 16), m.view(4, 12, 4, 12), 2, Parallelism.sequential());
+    }
+
+    private void assertStrassenProduct(int m, int k, int n, int cutoff, Parallelism parallelism) {
+        Matrix a = Matrix.random(m, k, -9.9d, +9.9d);
+        Matrix b = Matrix.random(k, n, -9.9d, +9.9d);
+
+        Matrix product = a.multiplyStrassen(b, cutoff, parallelism);
+
+        assertThat(product, closeToMatrix(a.multiply(b), EPSILON));
+    }
+}
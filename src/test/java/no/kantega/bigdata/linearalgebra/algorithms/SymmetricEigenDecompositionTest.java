@@ -0,0 +1,106 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Parallelism;
+import no.kantega.bigdata.linearalgebra.Vector;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.symmetric;
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the SymmetricEigenDecomposition and TridiagonalEigenSolver classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SymmetricEigenDecompositionTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    @Test
+    public void shouldDecomposeSmallMatrixByQL() {
+        assertDecomposition(symmetric(12), Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldDecomposeByDivideAndConquer() {
+        assertDecomposition(symmetric(150), Parallelism.sequential());
+    }
+
+    @Test
+    public void shouldDecomposeInParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertDecomposition(symmetric(201), Parallelism.of(pool, 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldDeflateRepeatedEigenvalues() {
+        // The identity plus a rank-two matrix has the eigenvalue 1 repeated n - 2 times
+        Matrix b = Matrix.random(100, 2, -1.0d, +1.0d);
+        Matrix a = b.multiply(b.copy().transpose()).add(Matrix.identity(100));
+
+        EigenDecompositionResult eigen = assertDecomposition(a, Parallelism.sequential());
+
+        Vector values = eigen.eigenvalues();
+        for (int i = 1; i <= 98; i++) {
+            assertThat(Math.abs(values.at(i) - 1.0d) < EPSILON, is(true));
+        }
+    }
+
+    @Test
+    public void shouldFindKnownEigenvaluesOfTridiagonalMatrix() {
+        // The second difference matrix has eigenvalues 2 - 2cos(k * pi / (n + 1))
+        int n = 70;
+        Matrix a = Matrix.zero(n, n);
+        double[] expected = new double[n];
+        for (int i = 1; i <= n; i++) {
+            a.setAt(i, i, 2.0d);
+            if (i > 1) {
+                a.setAt(i, i - 1, -1.0d);
+                a.setAt(i - 1, i, -1.0d);
+            }
+            expected[i - 1] = 2.0d - 2.0d * Math.cos(i * Math.PI / (n + 1));
+        }
+
+        assertThat(a.calcEigenDecomposition().eigenvalues(), closeToVector(Vector.of(expected), EPSILON));
+        assertThat(a.calcEigenDecomposition(false, Parallelism.sequential()).eigenvalues(), closeToVector(Vector.of(expected), EPSILON));
+    }
+
+    @Test
+    public void shouldComputeEigenvaluesOnly() {
+        Matrix a = symmetric(90);
+
+        EigenDecompositionResult values = a.calcEigenDecomposition(false, Parallelism.sequential());
+
+        assertThat(values.hasEigenvectors(), is(false));
+        assertThat(values.eigenvalues(), closeToVector(a.calcEigenDecomposition().eigenvalues(), EPSILON));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotGetEigenvectorsWhenNotComputed() {
+        symmetric(5).calcEigenDecomposition(false, Parallelism.sequential()).eigenvectors();
+    }
+
+    private EigenDecompositionResult assertDecomposition(Matrix a, Parallelism parallelism) {
+        EigenDecompositionResult eigen = a.calcEigenDecomposition(true, parallelism);
+        Matrix x = eigen.eigenvectors();
+        int n = a.size().rows();
+
+        assertThat(x.copy().transpose().multiply(x), closeToMatrix(Matrix.identity(n), EPSILON));
+        assertThat(a.multiply(x), closeToMatrix(x.multiply(eigen.getD()), 0.0000001d));
+        Vector values = eigen.eigenvalues();
+        for (int i = 2; i <= n; i++) {
+            assertThat(values.at(i) >= values.at(i - 1), is(true));
+        }
+        return eigen;
+    }
+}
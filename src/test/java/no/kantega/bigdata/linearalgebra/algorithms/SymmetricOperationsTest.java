@@ -0,0 +1,119 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Vector;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.SymmetricPackedMatrixBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.toDense;
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static no.kantega.bigdata.linearalgebra.matcher.VectorIsCloseTo.closeToVector;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the symmetric kernels of the SymmetricOperations class, as dispatched to by Matrix
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SymmetricOperationsTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void shouldMultiplySymmetricMatrixWithVector() {
+        Matrix symmetric = randomSymmetric(19);
+        Vector x = Vector.zero(19).populate(() -> random.nextDouble() - 0.5d);
+
+        assertThat(symmetric.multiply(x), closeToVector(toDense(symmetric).multiply(x), EPSILON));
+    }
+
+    @Test
+    public void shouldMultiplySymmetricMatrixWithDenseMatrix() {
+        Matrix symmetric = randomSymmetric(19);
+        Matrix dense = Matrix.random(19, 7, -9.9d, +9.9d);
+
+        assertThat(symmetric.multiply(dense), closeToMatrix(toDense(symmetric).multiply(dense), EPSILON));
+    }
+
+    @Test
+    public void shouldMultiplyDenseMatrixWithSymmetricMatrix() {
+        Matrix dense = Matrix.random(7, 19, -9.9d, +9.9d);
+        Matrix symmetric = randomSymmetric(19);
+
+        assertThat(dense.multiply(symmetric), closeToMatrix(dense.multiply(toDense(symmetric)), EPSILON));
+    }
+
+    @Test
+    public void shouldCalculateGramMatrix() {
+        Matrix a = Matrix.random(23, 11, -9.9d, +9.9d);
+
+        Matrix gram = a.gramMatrix();
+
+        assertThat(gram.isSymmetrical(), is(true));
+        assertThat(gram, closeToMatrix(a.copy().transpose().multiply(a), EPSILON));
+    }
+
+    @Test
+    public void shouldCalculateGramMatrixOfTransposedMatrix() {
+        Matrix a = Matrix.random(11, 23, -9.9d, +9.9d).transpose();
+
+        assertThat(a.gramMatrix(), closeToMatrix(a.copy().transpose().multiply(a), EPSILON));
+    }
+
+    @Test
+    public void shouldAccumulateRankKUpdate() {
+        Matrix a = Matrix.random(8, 5, -9.9d, +9.9d);
+        Matrix c = randomSymmetric(8);
+        Matrix expected = toDense(c).multiplyScalar(0.5d).add(a.multiply(a.copy().transpose()).multiplyScalar(2.0d));
+
+        SymmetricPackedMatrixBuffer buffer = SymmetricPackedMatrixBuffer.allocate(8);
+        c.forEachElement((i, j, v) -> buffer.set(i, j, v));
+        SymmetricOperations.rankKUpdate(2.0d, toBuffer(a), false, 0.5d, buffer);
+
+        assertThat(Matrix.from(buffer), closeToMatrix(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldKeepStructureWhenScaledAndAdded() {
+        Matrix a = randomSymmetric(6);
+        Matrix b = randomSymmetric(6);
+        Matrix expected = toDense(a).multiplyScalar(3.0d).add(toDense(b));
+
+        Matrix sum = a.multiplyScalar(3.0d).add(b);
+
+        assertThat(sum, closeToMatrix(expected, EPSILON));
+    }
+
+    @Test
+    public void shouldMoveToGeneralStructureWhenTransformed() {
+        Matrix symmetric = randomSymmetric(6);
+        Matrix expected = toDense(symmetric).transformElements((i, j, v) -> i < j ? 0.0d : v);
+
+        symmetric.transformElements((i, j, v) -> i < j ? 0.0d : v);
+
+        assertThat(symmetric, closeToMatrix(expected, EPSILON));
+        assertThat(symmetric.isSymmetrical(), is(false));
+    }
+
+    private Matrix randomSymmetric(int n) {
+        SymmetricPackedMatrixBuffer buffer = SymmetricPackedMatrixBuffer.allocate(n);
+        double[] values = buffer.array();
+        for (int k = 0; k < values.length; k++) {
+            values[k] = random.nextDouble() * 19.8d - 9.9d;
+        }
+        return Matrix.from(buffer);
+    }
+
+    private static MatrixBuffer toBuffer(Matrix matrix) {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(matrix.size().rows(), matrix.size().cols());
+        matrix.forEachElement(buffer::set);
+        return buffer;
+    }
+}
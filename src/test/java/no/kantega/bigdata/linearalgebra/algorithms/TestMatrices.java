@@ -0,0 +1,30 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+
+/**
+ * Fixture factories shared by the unit tests of the algorithms package
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+final class TestMatrices {
+
+    private TestMatrices() {
+    }
+
+    /**
+     * Returns a random symmetric n x n matrix in dense storage.
+     */
+    static Matrix symmetric(int n) {
+        Matrix a = Matrix.random(n, n, -9.9d, +9.9d);
+        return a.add(a.copy().transpose());
+    }
+
+    /**
+     * Returns a dense general copy of the given matrix, whatever its storage.
+     */
+    static Matrix toDense(Matrix matrix) {
+        return Matrix.newInstance(matrix.size().rows(), matrix.size().cols())
+                .transformElements((i, j, v) -> matrix.at(i + 1, j + 1));
+    }
+}
@@ -0,0 +1,133 @@
+package no.kantega.bigdata.linearalgebra.algorithms;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.SingularMatrixException;
+import no.kantega.bigdata.linearalgebra.buffer.FixedRowMajorMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.FixedVectorBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.LowerTriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.MatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.TriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.UpperTriangularPackedMatrixBuffer;
+import no.kantega.bigdata.linearalgebra.buffer.VectorBuffer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static no.kantega.bigdata.linearalgebra.algorithms.TestMatrices.toDense;
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.number.IsCloseTo.closeTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the triangular kernels of the TriangularOperations class, as dispatched to by Matrix
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class TriangularOperationsTest {
+
+    private static final double EPSILON = 0.000000001;
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void shouldMultiplyTriangularMatrixWithDenseMatrix() {
+        for (TriangularPackedMatrixBuffer buffer : new TriangularPackedMatrixBuffer[] {randomLower(13), randomUpper(13)}) {
+            Matrix triangular = Matrix.from(buffer);
+            Matrix dense = Matrix.random(13, 6, -9.9d, +9.9d);
+
+            assertThat(triangular.multiply(dense), closeToMatrix(toDense(triangular).multiply(dense), EPSILON));
+        }
+    }
+
+    @Test
+    public void shouldMultiplyDenseMatrixWithTriangularMatrix() {
+        for (TriangularPackedMatrixBuffer buffer : new TriangularPackedMatrixBuffer[] {randomLower(13), randomUpper(13)}) {
+            Matrix triangular = Matrix.from(buffer);
+            Matrix dense = Matrix.random(6, 13, -9.9d, +9.9d);
+
+            assertThat(dense.multiply(triangular), closeToMatrix(dense.multiply(toDense(triangular)), EPSILON));
+        }
+    }
+
+    @Test
+    public void shouldSolveTriangularSystems() {
+        for (TriangularPackedMatrixBuffer a : new TriangularPackedMatrixBuffer[] {randomLower(11), randomUpper(11)}) {
+            Matrix x = Matrix.random(11, 4, -9.9d, +9.9d);
+            Matrix b = Matrix.from(a).multiply(x).multiplyScalar(2.0d);
+
+            MatrixBuffer solution = FixedRowMajorMatrixBuffer.allocate(11, 4);
+            b.forEachElement(solution::set);
+            TriangularOperations.solve(0.5d, a, solution);
+
+            assertThat(Matrix.from(solution), closeToMatrix(x, EPSILON));
+        }
+    }
+
+    @Test
+    public void shouldSolveTriangularSystemForVector() {
+        UpperTriangularPackedMatrixBuffer a = randomUpper(9);
+        VectorBuffer b = FixedVectorBuffer.allocate(9);
+        for (int i = 0; i < 9; i++) {
+            double sum = 0.0d;
+            for (int j = i; j < 9; j++) {
+                sum += a.get(i, j) * (j + 1);
+            }
+            b.set(i, sum);
+        }
+
+        TriangularOperations.solve(a, b);
+
+        for (int i = 0; i < 9; i++) {
+            assertThat(b.get(i), closeTo(i + 1, EPSILON));
+        }
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void shouldFailOnZeroDiagonal() {
+        LowerTriangularPackedMatrixBuffer a = randomLower(4);
+        a.set(2, 2, 0.0d);
+
+        TriangularOperations.solve(a, FixedVectorBuffer.allocate(4));
+    }
+
+    @Test
+    public void shouldExtractPackedFactorsOfLUDecomposition() {
+        Matrix a = Matrix.random(8, 8, -9.9d, +9.9d);
+        LUDecompositionResult lud = a.calcLuDecomposition();
+
+        Matrix lower = lud.lowerMatrix();
+        Matrix upper = lud.getU();
+
+        assertThat(lower.isLowerTriangular(), is(true));
+        assertThat(upper.isUpperTriangular(), is(true));
+        assertThat(lower.multiply(upper), closeToMatrix(lud.permutationMatrix().multiply(a), EPSILON));
+        assertThat(Math.abs(upper.determinant()), closeTo(Math.abs(lud.determinant()), EPSILON * Math.abs(lud.determinant())));
+    }
+
+    private LowerTriangularPackedMatrixBuffer randomLower(int n) {
+        LowerTriangularPackedMatrixBuffer buffer = LowerTriangularPackedMatrixBuffer.allocate(n);
+        fill(buffer);
+        return buffer;
+    }
+
+    private UpperTriangularPackedMatrixBuffer randomUpper(int n) {
+        UpperTriangularPackedMatrixBuffer buffer = UpperTriangularPackedMatrixBuffer.allocate(n);
+        fill(buffer);
+        return buffer;
+    }
+
+    /**
+     * Fills the triangle with random values, keeping the diagonal away from zero
+     */
+    private void fill(TriangularPackedMatrixBuffer buffer) {
+        int n = buffer.size().rows();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (buffer.isStored(i, j)) {
+                    buffer.set(i, j, i == j ? 1.0d + random.nextDouble() : random.nextDouble() - 0.5d);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the BandMatrixBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BandMatrixBufferTest {
+
+    @Test
+    public void shouldStoreBandOnly() {
+        BandMatrixBuffer buffer = BandMatrixBuffer.allocate(5, 5, 1, 2);
+
+        assertThat(buffer.array().length, is(20));
+        assertThat(buffer.isStored(3, 2), is(true));
+        assertThat(buffer.isStored(3, 1), is(false));
+        assertThat(buffer.isStored(1, 3), is(true));
+        assertThat(buffer.isStored(1, 4), is(false));
+        assertThat(buffer.structure(), is(MatrixStructure.BANDED));
+    }
+
+    @Test
+    public void shouldCreateTridiagonal() {
+        BandMatrixBuffer buffer = BandMatrixBuffer.tridiagonal(new double[] {1, 2}, new double[] {3, 4, 5}, new double[] {6, 7});
+
+        assertThat(buffer.get(1, 0), is(1.0d));
+        assertThat(buffer.get(2, 1), is(2.0d));
+        assertThat(buffer.get(2, 2), is(5.0d));
+        assertThat(buffer.get(0, 1), is(6.0d));
+        assertThat(buffer.get(0, 2), is(0.0d));
+        assertThat(buffer.row(1).get(2), is(7.0d));
+        assertThat(buffer.column(0).get(1), is(1.0d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSetNonZeroOutsideBand() {
+        BandMatrixBuffer.allocate(4, 4, 1, 1).set(0, 2, 1.0d);
+    }
+
+    @Test
+    public void shouldTransposeSharingStorage() {
+        BandMatrixBuffer buffer = BandMatrixBuffer.allocate(4, 6, 1, 2);
+        buffer.set(1, 3, 8.0d);
+        buffer.set(2, 1, 9.0d);
+
+        BandMatrixBuffer transposed = buffer.transpose();
+        transposed.set(5, 3, 4.0d);
+
+        assertThat(transposed.array(), sameInstance(buffer.array()));
+        assertThat(transposed.size().rows(), is(6));
+        assertThat(transposed.lowerBandwidth(), is(2));
+        assertThat(transposed.upperBandwidth(), is(1));
+        assertThat(transposed.get(3, 1), is(8.0d));
+        assertThat(transposed.get(1, 2), is(9.0d));
+        assertThat(buffer.get(3, 5), is(4.0d));
+        assertThat(transposed.transpose().get(1, 3), is(8.0d));
+    }
+}
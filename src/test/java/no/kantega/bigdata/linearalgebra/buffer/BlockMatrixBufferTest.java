@@ -0,0 +1,62 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the BlockMatrixBuffer class, being the view of buffers not backed by arrays
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class BlockMatrixBufferTest {
+
+    @Test
+    public void shouldPassReadsAndWritesToParent() {
+        MatrixBuffer parent = BandMatrixBuffer.allocate(6, 6, 1, 1);
+        MatrixBuffer view = parent.view(2, 5, 1, 4);
+
+        view.set(1, 2, 3.14d);
+        parent.set(2, 2, 2.72d);
+
+        assertThat(view.size(), equalTo(Size.of(3, 3)));
+        assertThat(parent.get(3, 3), is(3.14d));
+        assertThat(view.get(0, 1), is(2.72d));
+        assertThat(view.row(1).get(2), is(3.14d));
+        assertThat(view.column(1).get(0), is(2.72d));
+        assertThat(view.transpose().get(2, 1), is(3.14d));
+        assertThat(view.view(1, 3, 1, 3).get(0, 1), is(3.14d));
+        assertThat(view.structure(), is(MatrixStructure.GENERAL));
+    }
+
+    @Test
+    public void shouldKeepStructureOfParentForDiagonalBlocks() {
+        MatrixBuffer symmetric = SymmetricPackedMatrixBuffer.allocate(6);
+        MatrixBuffer lower = LowerTriangularPackedMatrixBuffer.allocate(6);
+        MatrixBuffer band = BandMatrixBuffer.allocate(6, 6, 1, 1);
+
+        assertThat(symmetric.view(1, 4, 1, 4).structure(), is(MatrixStructure.SYMMETRIC));
+        assertThat(symmetric.view(1, 4, 1, 5).structure(), is(MatrixStructure.GENERAL));
+        assertThat(symmetric.view(3, 6, 0, 3).structure(), is(MatrixStructure.GENERAL));
+        assertThat(lower.view(2, 4, 2, 4).structure(), is(MatrixStructure.LOWER_TRIANGULAR));
+        assertThat(lower.view(2, 6, 2, 4).structure(), is(MatrixStructure.GENERAL));
+        assertThat(lower.view(2, 6, 0, 2).structure(), is(MatrixStructure.GENERAL));
+        assertThat(lower.view(2, 6, 2, 6).transpose().structure(), is(MatrixStructure.UPPER_TRIANGULAR));
+        assertThat(band.view(0, 3, 0, 3).view(1, 3, 1, 3).structure(), is(MatrixStructure.BANDED));
+    }
+
+    @Test
+    public void shouldCopyIntoDenseBuffer() {
+        MatrixBuffer parent = BandMatrixBuffer.allocate(6, 6, 1, 1);
+        parent.set(3, 3, 1.0d);
+
+        MatrixBuffer copy = parent.view(2, 5, 1, 4).copy();
+        copy.set(0, 2, 5.0d);
+
+        assertThat(copy.get(1, 2), is(1.0d));
+        assertThat(copy.get(0, 2), is(5.0d));
+    }
+}
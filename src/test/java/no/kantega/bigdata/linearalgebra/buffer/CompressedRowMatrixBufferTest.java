@@ -0,0 +1,146 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Size;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the CompressedRowMatrixBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CompressedRowMatrixBufferTest {
+
+    @Test
+    public void shouldAssembleFromUnsortedTriplets() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(3, 4)
+                .add(2, 3, 5.0d)
+                .add(0, 2, 2.0d)
+                .add(2, 0, 4.0d)
+                .add(0, 1, 1.0d)
+                .add(1, 1, 3.0d)
+                .build();
+
+        assertThat(buffer.size(), equalTo(Size.of(3, 4)));
+        assertThat(buffer.nonZeros(), is(5));
+        assertArrayEquals(new int[] {0, 2, 3, 5}, buffer.pointers());
+        assertArrayEquals(new int[] {1, 2, 1, 0, 3}, buffer.indices());
+        assertThat(buffer.get(2, 3), is(5.0d));
+        assertThat(buffer.get(1, 2), is(0.0d));
+    }
+
+    @Test
+    public void shouldSumDuplicateTriplets() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(2, 2)
+                .add(1, 1, 1.5d)
+                .add(0, 0, 1.0d)
+                .add(1, 1, 2.0d)
+                .build();
+
+        assertThat(buffer.nonZeros(), is(2));
+        assertThat(buffer.get(1, 1), is(3.5d));
+    }
+
+    @Test
+    public void shouldMergeWhenAddingScaledMatrix() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(3, 4).add(0, 1, 1.0d).add(2, 3, 5.0d).build();
+        CompressedMatrixBuffer transposed = buffer.transpose();
+        CompressedColumnMatrixBuffer other = CompressedColumnMatrixBuffer.builder(3, 4).add(0, 1, 2.0d).add(0, 3, 1.0d).add(1, 0, 4.0d).build();
+
+        buffer.addScaled(-0.5d, other);
+
+        assertThat(buffer.nonZeros(), is(4));
+        assertArrayEquals(new int[] {0, 2, 3, 4}, buffer.pointers());
+        assertThat(buffer.get(0, 1), is(0.0d));
+        assertThat(buffer.get(0, 3), is(-0.5d));
+        assertThat(buffer.get(1, 0), is(-2.0d));
+        assertThat(buffer.get(2, 3), is(5.0d));
+        assertThat(transposed.get(0, 1), is(-2.0d));
+    }
+
+    @Test
+    public void shouldInsertWhenSettingNonZeroElement() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.allocate(3, 3);
+        buffer.set(2, 1, 1.0d);
+        buffer.set(0, 2, 2.0d);
+        buffer.set(0, 0, 3.0d);
+        buffer.set(1, 1, 0.0d);
+
+        assertThat(buffer.nonZeros(), is(3));
+        assertThat(buffer.get(0, 0), is(3.0d));
+        assertThat(buffer.get(0, 2), is(2.0d));
+        assertThat(buffer.get(2, 1), is(1.0d));
+    }
+
+    @Test
+    public void shouldReturnSparseRowVector() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(2, 5).add(1, 3, 3.14d).add(1, 0, 2.72d).build();
+
+        VectorBuffer row = buffer.row(1);
+
+        assertThat(row, instanceOf(SparseVectorBuffer.class));
+        SparseVectorBuffer sparseRow = (SparseVectorBuffer) row;
+        assertThat(sparseRow.nonZeros(), is(2));
+        assertThat(sparseRow.indexAt(1), is(3));
+        assertThat(sparseRow.valueAt(1), is(3.14d));
+        assertThat(row.get(0), is(2.72d));
+        assertThat(row.size(), is(5));
+    }
+
+    @Test
+    public void shouldReturnColumnVector() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(3, 2).add(2, 1, 3.14d).build();
+
+        VectorBuffer column = buffer.column(1);
+        column.set(0, 1.0d);
+
+        assertThat(column.get(2), is(3.14d));
+        assertThat(buffer.get(0, 1), is(1.0d));
+    }
+
+    @Test
+    public void shouldShareStorageWhenTransposing() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(2, 3).add(0, 2, 3.14d).build();
+
+        CompressedColumnMatrixBuffer transposed = buffer.transpose();
+        transposed.set(1, 1, 2.72d);
+
+        assertThat(transposed.size(), equalTo(Size.of(3, 2)));
+        assertThat(transposed.get(2, 0), is(3.14d));
+        assertThat(buffer.get(1, 1), is(2.72d));
+    }
+
+    @Test
+    public void shouldConvertToColumnCompressed() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(3, 3)
+                .add(0, 0, 1.0d).add(0, 2, 2.0d).add(1, 0, 3.0d).add(2, 1, 4.0d).build();
+
+        CompressedColumnMatrixBuffer converted = buffer.toColumnCompressed();
+
+        assertArrayEquals(new int[] {0, 2, 3, 4}, converted.pointers());
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertThat(converted.get(i, j), is(buffer.get(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void shouldCreateIndependentCopy() {
+        CompressedRowMatrixBuffer buffer = CompressedRowMatrixBuffer.builder(2, 2).add(0, 1, 3.14d).build();
+
+        CompressedRowMatrixBuffer copy = buffer.copy();
+        buffer.set(0, 1, 0.0d);
+
+        assertThat(copy.get(0, 1), is(3.14d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTripletOutsideMatrix() {
+        CompressedRowMatrixBuffer.builder(2, 2).add(2, 0, 1.0d);
+    }
+}
@@ -0,0 +1,55 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the CompressedVectorBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class CompressedVectorBufferTest {
+
+    @Test
+    public void shouldSortAndMergeEntries() {
+        CompressedVectorBuffer buffer = CompressedVectorBuffer.from(10, new int[] {7, 2, 7, 0}, new double[] {1, 2, 3, 4});
+
+        assertThat(buffer.size(), is(10));
+        assertThat(buffer.nonZeros(), is(3));
+        assertThat(buffer.indexAt(0), is(0));
+        assertThat(buffer.indexAt(1), is(2));
+        assertThat(buffer.indexAt(2), is(7));
+        assertThat(buffer.valueAt(2), is(4.0d));
+    }
+
+    @Test
+    public void shouldGetSameValueAsSet() {
+        CompressedVectorBuffer buffer = CompressedVectorBuffer.allocate(20);
+        for (int i = 19; i >= 0; i -= 3) {
+            buffer.set(i, i / 10.0d);
+        }
+        buffer.set(5, 0.0d);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(buffer.get(i), is((19 - i) % 3 == 0 ? i / 10.0d : 0.0d));
+        }
+        assertThat(buffer.nonZeros(), is(7));
+    }
+
+    @Test
+    public void shouldCreateIndependentCopy() {
+        CompressedVectorBuffer buffer = CompressedVectorBuffer.from(3, new int[] {1}, new double[] {3.14d});
+
+        VectorBuffer copy = buffer.copy();
+        buffer.set(1, 0.0d);
+
+        assertThat(copy.get(1), is(3.14d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectIndexOutsideVector() {
+        CompressedVectorBuffer.from(3, new int[] {3}, new double[] {1});
+    }
+}
@@ -116,4 +116,38 @@ public class FixedRowMajorMatrixBufferTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldShareArrayWithBlockView() {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(4, 6);
+        MatrixBuffer view = buffer.view(1, 3, 2, 5);
+
+        view.set(1, 2, 3.14d);
+        buffer.set(1, 3, 2.72d);
+
+        assertThat(view.size(), equalTo(Size.of(2, 3)));
+        assertThat(buffer.get(2, 4), is(3.14d));
+        assertThat(view.get(0, 1), is(2.72d));
+        assertThat(view.row(0).get(1), is(2.72d));
+        assertThat(view.column(2).get(1), is(3.14d));
+        assertThat(view.view(1, 2, 1, 3).get(0, 1), is(3.14d));
+    }
+
+    @Test
+    public void shouldCopyBlockViewOnly() {
+        MatrixBuffer buffer = FixedRowMajorMatrixBuffer.allocate(4, 6);
+        buffer.set(2, 4, 3.14d);
+
+        MatrixBuffer copy = buffer.view(1, 3, 2, 5).copy();
+        copy.set(0, 0, 1.0d);
+
+        assertThat(((ArrayBackedMatrixBuffer) copy).array().length, is(6));
+        assertThat(copy.get(1, 2), is(3.14d));
+        assertThat(buffer.get(1, 2), is(0.0d));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotGetViewOutsideBuffer() {
+        FixedRowMajorMatrixBuffer.allocate(4, 6).view(1, 5, 0, 2);
+    }
+}
@@ -0,0 +1,130 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Size;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the MappedMatrixBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class MappedMatrixBufferTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("matrix", ".bin");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void shouldCreateZeroInitializedFile() throws IOException {
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 3, 5, MappedMatrixBuffer.Layout.ROW_MAJOR)) {
+            assertThat(buffer.size(), equalTo(Size.of(3, 5)));
+            assertThat(buffer.get(2, 4), is(0.0d));
+        }
+        assertThat(Files.size(file), is(MappedMatrixBuffer.HEADER_SIZE + 15L * Double.BYTES));
+    }
+
+    @Test
+    public void shouldReopenWithSameElements() throws IOException {
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 4, 3, MappedMatrixBuffer.Layout.COLUMN_MAJOR)) {
+            fill(buffer);
+            buffer.force();
+        }
+
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.open(file)) {
+            assertThat(buffer.size(), equalTo(Size.of(4, 3)));
+            assertThat(buffer.layout(), is(MappedMatrixBuffer.Layout.COLUMN_MAJOR));
+            assertFilled(buffer);
+        }
+    }
+
+    @Test
+    public void shouldStoreColumnMajorLayoutColumnWise() throws IOException {
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 2, 2, MappedMatrixBuffer.Layout.COLUMN_MAJOR)) {
+            buffer.set(1, 0, 3.14d);
+            buffer.force();
+        }
+
+        // The second element in the file is row 1, column 0
+        byte[] bytes = Files.readAllBytes(file);
+        long bits = 0;
+        for (int i = 7; i >= 0; i--) {
+            bits = (bits << 8) | (bytes[MappedMatrixBuffer.HEADER_SIZE + Double.BYTES + i] & 0xff);
+        }
+        assertThat(Double.longBitsToDouble(bits), is(3.14d));
+    }
+
+    @Test
+    public void shouldMapLargeFilesAsSeveralRegions() throws IOException {
+        // Regions of 8 doubles, so a 7 x 5 matrix spans 5 regions
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 7, 5, MappedMatrixBuffer.Layout.ROW_MAJOR, 3)) {
+            fill(buffer);
+        }
+
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.open(file, FileChannel.MapMode.READ_ONLY, 3)) {
+            assertFilled(buffer);
+            assertThat(buffer.column(3).get(6), is(6.3d));
+        }
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void shouldRejectChangesWhenReadOnly() throws IOException {
+        MappedMatrixBuffer.create(file, 2, 2, MappedMatrixBuffer.Layout.ROW_MAJOR).close();
+
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.openReadOnly(file)) {
+            buffer.set(0, 0, 1.0d);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectFileWithoutHeader() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3});
+        MappedMatrixBuffer.open(file);
+    }
+
+    @Test
+    public void shouldBeWrappedByMatrix() throws IOException {
+        try (MappedMatrixBuffer buffer = MappedMatrixBuffer.create(file, 3, 3, MappedMatrixBuffer.Layout.ROW_MAJOR)) {
+            Matrix m = Matrix.from(buffer).transformElements((i, j, v) -> i == j ? 2.0d : 0.0d);
+
+            assertThat(m.determinant(), is(8.0d));
+            assertThat(buffer.get(1, 1), is(2.0d));
+        }
+    }
+
+    private void fill(MatrixBuffer buffer) {
+        for (int i = 0; i < buffer.size().rows(); i++) {
+            for (int j = 0; j < buffer.size().cols(); j++) {
+                buffer.set(i, j, i + j/10.0d);
+            }
+        }
+    }
+
+    private void assertFilled(MatrixBuffer buffer) {
+        for (int i = 0; i < buffer.size().rows(); i++) {
+            for (int j = 0; j < buffer.size().cols(); j++) {
+                assertThat(buffer.get(i, j), is(i + j/10.0d));
+            }
+        }
+    }
+}
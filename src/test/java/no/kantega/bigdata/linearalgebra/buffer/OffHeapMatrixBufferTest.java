@@ -0,0 +1,137 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import no.kantega.bigdata.linearalgebra.Size;
+import org.junit.Test;
+
+import static no.kantega.bigdata.linearalgebra.matcher.MatrixIsCloseTo.closeToMatrix;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the OffHeapMatrixBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class OffHeapMatrixBufferTest {
+
+    @Test
+    public void shouldReturnSize() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(3, 5)) {
+            assertThat(buffer.size(), equalTo(Size.of(3, 5)));
+        }
+    }
+
+    @Test
+    public void shouldGetSameValueAsSet() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(3, 5)) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 5; j++) {
+                    buffer.set(i, j, i + j/10.0d);
+                }
+            }
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 5; j++) {
+                    assertThat(buffer.get(i, j), is(i + j/10.0d));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldShareMemoryWithRowAndColumnViews() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(3, 5)) {
+            buffer.row(1).set(2, 3.14d);
+            buffer.column(4).set(2, 2.72d);
+
+            assertThat(buffer.get(1, 2), is(3.14d));
+            assertThat(buffer.get(2, 4), is(2.72d));
+            assertThat(buffer.column(2).get(1), is(3.14d));
+        }
+    }
+
+    @Test
+    public void shouldShareMemoryWithBlockView() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(4, 6)) {
+            MatrixBuffer view = buffer.view(1, 3, 2, 5);
+            view.set(1, 2, 3.14d);
+            buffer.set(1, 2, 2.72d);
+
+            assertThat(view.size(), equalTo(Size.of(2, 3)));
+            assertThat(buffer.get(2, 4), is(3.14d));
+            assertThat(view.get(0, 0), is(2.72d));
+            assertThat(view.transpose().get(2, 1), is(3.14d));
+        }
+    }
+
+    @Test
+    public void shouldSwapIndicesWhenTransposing() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(3, 5)) {
+            buffer.set(1, 4, 3.14d);
+            MatrixBuffer transposed = buffer.transpose();
+
+            assertThat(transposed.size(), equalTo(Size.of(5, 3)));
+            assertThat(transposed.get(4, 1), is(3.14d));
+            assertThat(transposed.row(4).get(1), is(3.14d));
+        }
+    }
+
+    @Test
+    public void shouldCreateIndependentCopy() {
+        try (OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(2, 2)) {
+            buffer.set(0, 1, 3.14d);
+            MatrixBuffer copy = buffer.copy();
+            buffer.close();
+
+            assertThat(copy.get(0, 1), is(3.14d));
+            ((OffHeapMatrixBuffer) copy).close();
+        }
+    }
+
+    @Test
+    public void shouldAddressAcrossChunks() {
+        // Chunks of 8 doubles, so a 7 x 5 buffer spans 5 chunks
+        OffHeapMatrixBuffer buffer = new OffHeapMatrixBuffer(Size.of(7, 5), DoubleStorage.allocate(35, 3), 0, 5, 1);
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 5; j++) {
+                buffer.set(i, j, i * 5 + j);
+            }
+        }
+        for (int i = 0; i < 7; i++) {
+            assertThat(buffer.column(3).get(i), is(i * 5 + 3.0d));
+        }
+        buffer.close();
+    }
+
+    @Test
+    public void shouldFailWhenAccessedAfterClose() {
+        OffHeapMatrixBuffer buffer = OffHeapMatrixBuffer.allocate(2, 2);
+        VectorBuffer row = buffer.row(0);
+        buffer.close();
+        buffer.close();
+
+        assertThat(buffer.isClosed(), is(true));
+        try {
+            row.get(0);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void shouldSupportMatrixOperations() {
+        Matrix a = Matrix.random(37, 23, -9.9d, +9.9d);
+        Matrix b = Matrix.random(23, 19, -9.9d, +9.9d);
+
+        try (OffHeapMatrixBuffer offHeapA = OffHeapMatrixBuffer.allocate(37, 23);
+             OffHeapMatrixBuffer offHeapB = OffHeapMatrixBuffer.allocate(23, 19)) {
+            Matrix ma = Matrix.from(offHeapA).transformElements((i, j, v) -> a.at(i + 1, j + 1));
+            Matrix mb = Matrix.from(offHeapB).transformElements((i, j, v) -> b.at(i + 1, j + 1));
+
+            assertThat(ma.multiply(mb), closeToMatrix(a.multiply(b), 0.000000001));
+            assertThat(ma.add(a), closeToMatrix(a.copy().multiplyScalar(2.0d), 0.000000001));
+        }
+    }
+}
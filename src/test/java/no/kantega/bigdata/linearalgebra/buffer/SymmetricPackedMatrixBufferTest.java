@@ -0,0 +1,70 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the SymmetricPackedMatrixBuffer class
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class SymmetricPackedMatrixBufferTest {
+
+    @Test
+    public void shouldStoreLowerTrianglePacked() {
+        SymmetricPackedMatrixBuffer buffer = SymmetricPackedMatrixBuffer.allocate(4);
+
+        assertThat(buffer.array().length, is(10));
+        assertThat(SymmetricPackedMatrixBuffer.indexOf(3, 2), is(8));
+    }
+
+    @Test
+    public void shouldMirrorAcrossDiagonal() {
+        SymmetricPackedMatrixBuffer buffer = SymmetricPackedMatrixBuffer.allocate(3);
+
+        buffer.set(0, 2, 5.0d);
+        buffer.set(1, 1, 2.0d);
+
+        assertThat(buffer.get(2, 0), is(5.0d));
+        assertThat(buffer.get(0, 2), is(5.0d));
+        assertThat(buffer.row(1).get(1), is(2.0d));
+        assertThat(buffer.column(0).get(2), is(5.0d));
+        assertThat(buffer.transpose(), sameInstance(buffer));
+        assertThat(buffer.structure(), is(MatrixStructure.SYMMETRIC));
+    }
+
+    @Test
+    public void shouldCopyFromLowerTriangle() {
+        double[] values = {
+                1.0d, 9.0d, 9.0d,
+                2.0d, 3.0d, 9.0d,
+                4.0d, 5.0d, 6.0d};
+        MatrixBuffer dense = FixedRowMajorMatrixBuffer.allocate(3, 3);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                dense.set(i, j, values[i * 3 + j]);
+            }
+        }
+
+        Matrix symmetric = Matrix.from(SymmetricPackedMatrixBuffer.fromLowerTriangle(dense));
+
+        assertThat(symmetric.at(1, 3), is(4.0d));
+        assertThat(symmetric.at(2, 3), is(5.0d));
+        assertThat(symmetric.at(3, 3), is(6.0d));
+        assertThat(symmetric.isSymmetrical(), is(true));
+    }
+
+    @Test
+    public void shouldCopyIndependently() {
+        SymmetricPackedMatrixBuffer buffer = SymmetricPackedMatrixBuffer.allocate(2);
+        SymmetricPackedMatrixBuffer copy = buffer.copy();
+
+        copy.set(1, 0, 1.0d);
+
+        assertThat(buffer.get(0, 1), is(0.0d));
+    }
+}
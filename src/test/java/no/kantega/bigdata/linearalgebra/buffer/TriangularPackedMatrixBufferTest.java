@@ -0,0 +1,67 @@
+package no.kantega.bigdata.linearalgebra.buffer;
+
+import no.kantega.bigdata.linearalgebra.Matrix;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test for the LowerTriangularPackedMatrixBuffer and UpperTriangularPackedMatrixBuffer classes
+ *
+ * @author Tore Eide Andersen (Kantega AS)
+ */
+public class TriangularPackedMatrixBufferTest {
+
+    @Test
+    public void shouldReadZerosOutsideTriangle() {
+        LowerTriangularPackedMatrixBuffer lower = LowerTriangularPackedMatrixBuffer.allocate(3);
+        lower.set(2, 1, 4.0d);
+        lower.set(0, 2, 0.0d);
+
+        assertThat(lower.get(2, 1), is(4.0d));
+        assertThat(lower.get(1, 2), is(0.0d));
+        assertThat(lower.row(2).get(1), is(4.0d));
+        assertThat(lower.column(1).get(2), is(4.0d));
+        assertThat(lower.structure(), is(MatrixStructure.LOWER_TRIANGULAR));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotSetNonZeroOutsideTriangle() {
+        UpperTriangularPackedMatrixBuffer.allocate(3).set(2, 1, 1.0d);
+    }
+
+    @Test
+    public void shouldTransposeToOppositeTriangleSharingArray() {
+        LowerTriangularPackedMatrixBuffer lower = LowerTriangularPackedMatrixBuffer.allocate(4);
+        lower.set(3, 1, 7.0d);
+
+        UpperTriangularPackedMatrixBuffer upper = lower.transpose();
+
+        assertThat(upper.array(), sameInstance(lower.array()));
+        assertThat(upper.get(1, 3), is(7.0d));
+        assertThat(upper.structure(), is(MatrixStructure.UPPER_TRIANGULAR));
+    }
+
+    @Test
+    public void shouldCopyTriangle() {
+        MatrixBuffer dense = FixedRowMajorMatrixBuffer.allocate(3, 3);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                dense.set(i, j, i * 3 + j + 1);
+            }
+        }
+
+        Matrix upper = Matrix.from(UpperTriangularPackedMatrixBuffer.fromUpperTriangle(dense));
+        Matrix lower = Matrix.from(LowerTriangularPackedMatrixBuffer.fromLowerTriangle(dense));
+
+        assertThat(upper.at(1, 3), is(3.0d));
+        assertThat(upper.at(3, 1), is(0.0d));
+        assertThat(lower.at(3, 2), is(8.0d));
+        assertThat(lower.at(2, 3), is(0.0d));
+        assertThat(upper.isUpperTriangular(), is(true));
+        assertThat(lower.isLowerTriangular(), is(true));
+        assertThat(lower.isTriangular(), is(true));
+    }
+}